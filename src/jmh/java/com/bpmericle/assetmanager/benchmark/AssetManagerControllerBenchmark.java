@@ -0,0 +1,77 @@
+package com.bpmericle.assetmanager.benchmark;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Measures full JSON round trips through the single asset endpoints, from
+ * the dispatcher servlet down to an {@link InMemoryAmazonS3}.
+ *
+ * @author Brian Mericle
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AssetManagerControllerBenchmark {
+
+    private static final String URI_ASSET = "/asset";
+    private static final String URI_ASSET_ID = "/asset/{id}";
+    private static final String STATUS_UPLOADED = "{\"Status\":\"uploaded\"}";
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start(WebApplicationType.SERVLET);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String requestAssetUpload() throws Exception {
+        return mockMvc.perform(post(URI_ASSET))
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    @Benchmark
+    public String requestAssetDownload() throws Exception {
+        return mockMvc.perform(get(URI_ASSET_ID, BenchmarkApplication.ASSET_UPLOADED).param("timeout", "60"))
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    @Benchmark
+    public int submitAssetUpdateStatus() throws Exception {
+        return mockMvc.perform(put(URI_ASSET_ID, BenchmarkApplication.ASSET_UPLOADED)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(STATUS_UPLOADED))
+                .andReturn().getResponse().getStatus();
+    }
+}
@@ -0,0 +1,106 @@
+package com.bpmericle.assetmanager.benchmark;
+
+import com.bpmericle.assetmanager.model.AssetDownloadMetadata;
+import com.bpmericle.assetmanager.model.AssetStatus;
+import com.bpmericle.assetmanager.model.AssetUploadMetadata;
+import com.bpmericle.assetmanager.service.AssetManagerService;
+import com.bpmericle.assetmanager.service.AssetManagerServiceException;
+import com.bpmericle.assetmanager.service.AssetStatusCache;
+import com.bpmericle.assetmanager.service.PresignedUrlCache;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Measures the single asset operations of the {@link AssetManagerService}
+ * against an {@link InMemoryAmazonS3}.
+ * <p>
+ * With <code>cached</code> false, the status and pre-signed URL caches are
+ * emptied before each download request, so that it reads the tags of the
+ * asset and signs a URL.
+ *
+ * @author Brian Mericle
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AssetManagerServiceBenchmark {
+
+    private static final int TIMEOUT = 60;
+    private static final AssetStatus STATUS_UPLOADED = new AssetStatus("uploaded");
+
+    @Param({"true", "false"})
+    private boolean cached;
+
+    private ConfigurableApplicationContext context;
+    private AssetManagerService service;
+    private AssetStatusCache statusCache;
+    private PresignedUrlCache presignedUrlCache;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start(WebApplicationType.NONE);
+        service = context.getBean(AssetManagerService.class);
+        statusCache = context.getBean(AssetStatusCache.class);
+        presignedUrlCache = context.getBean(PresignedUrlCache.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public AssetUploadMetadata requestAssetUpload() {
+        return service.requestAssetUpload();
+    }
+
+    @Benchmark
+    public AssetDownloadMetadata requestAssetDownload_tagPresent() {
+        invalidateCaches();
+        return service.requestAssetDownload(BenchmarkApplication.ASSET_UPLOADED, TIMEOUT);
+    }
+
+    @Benchmark
+    public Object requestAssetDownload_tagMissing() {
+        invalidateCaches();
+        try {
+            return service.requestAssetDownload(BenchmarkApplication.ASSET_UNTAGGED, TIMEOUT);
+        } catch (AssetManagerServiceException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public AssetDownloadMetadata requestAssetDownload_manyTags() {
+        invalidateCaches();
+        return service.requestAssetDownload(BenchmarkApplication.ASSET_MANY_TAGS, TIMEOUT);
+    }
+
+    @Benchmark
+    public void submitAssetUpdateStatus() {
+        service.submitAssetUpdateStatus(BenchmarkApplication.ASSET_UPLOADED, STATUS_UPLOADED);
+    }
+
+    private void invalidateCaches() {
+        if (!cached) {
+            statusCache.invalidateAll();
+            presignedUrlCache.invalidateAll();
+        }
+    }
+}
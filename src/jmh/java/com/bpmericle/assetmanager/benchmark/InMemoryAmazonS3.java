@@ -0,0 +1,91 @@
+package com.bpmericle.assetmanager.benchmark;
+
+import com.amazonaws.HttpMethod;
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.services.s3.AbstractAmazonS3;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.GeneratePresignedUrlRequest;
+import com.amazonaws.services.s3.model.GetObjectTaggingRequest;
+import com.amazonaws.services.s3.model.GetObjectTaggingResult;
+import com.amazonaws.services.s3.model.SetObjectTaggingRequest;
+import com.amazonaws.services.s3.model.SetObjectTaggingResult;
+import com.amazonaws.services.s3.model.Tag;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stand-in for the S3 client keeping the tags of the objects in memory, so
+ * that the benchmarks measure the asset manager rather than the network.
+ * <p>
+ * Pre-signed URLs are generated by a real S3 client, which signs them
+ * offline, so the URLs are the same as with S3.
+ *
+ * @author Brian Mericle
+ */
+public class InMemoryAmazonS3 extends AbstractAmazonS3 {
+
+    private static final int HTTP_STATUS_NOT_FOUND = 404;
+
+    private final AmazonS3 presigner;
+    private final Map<String, List<Tag>> tags = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an empty stand-in.
+     *
+     * @param region the region the URLs are pre-signed for
+     * @param credentials the credentials the URLs are pre-signed with
+     */
+    public InMemoryAmazonS3(final String region, final AWSCredentials credentials) {
+        this.presigner = AmazonS3ClientBuilder.standard()
+                .withCredentials(new AWSStaticCredentialsProvider(credentials))
+                .withRegion(region)
+                .build();
+    }
+
+    /**
+     * Creates or replaces an object with the given tags.
+     *
+     * @param bucketName the name of the bucket
+     * @param key the key of the object
+     * @param tagSet the tags of the object
+     */
+    public void putObject(final String bucketName, final String key, final List<Tag> tagSet) {
+        tags.put(bucketName + '/' + key, new ArrayList<>(tagSet));
+    }
+
+    @Override
+    public GetObjectTaggingResult getObjectTagging(final GetObjectTaggingRequest request) {
+        List<Tag> tagSet = tags.get(request.getBucketName() + '/' + request.getKey());
+        if (tagSet == null) {
+            AmazonS3Exception ex = new AmazonS3Exception("The specified key does not exist.");
+            ex.setStatusCode(HTTP_STATUS_NOT_FOUND);
+            ex.setErrorCode("NoSuchKey");
+            throw ex;
+        }
+        return new GetObjectTaggingResult(new ArrayList<>(tagSet));
+    }
+
+    @Override
+    public SetObjectTaggingResult setObjectTagging(final SetObjectTaggingRequest request) {
+        tags.put(request.getBucketName() + '/' + request.getKey(), new ArrayList<>(request.getTagging().getTagSet()));
+        return new SetObjectTaggingResult();
+    }
+
+    @Override
+    public URL generatePresignedUrl(final String bucketName, final String key, final Date expiration,
+            final HttpMethod method) {
+        return presigner.generatePresignedUrl(bucketName, key, expiration, method);
+    }
+
+    @Override
+    public URL generatePresignedUrl(final GeneratePresignedUrlRequest request) {
+        return presigner.generatePresignedUrl(request);
+    }
+}
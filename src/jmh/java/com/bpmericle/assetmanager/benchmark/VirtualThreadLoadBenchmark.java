@@ -0,0 +1,231 @@
+package com.bpmericle.assetmanager.benchmark;
+
+import com.bpmericle.assetmanager.VirtualThreadSupport;
+import com.bpmericle.assetmanager.service.LocalAssetStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Load tests <code>GET /asset/{id}</code> over HTTP, with and without the
+ * virtual thread execution mode, against the <code>local</code> asset store
+ * delaying each call as S3 would.
+ * <p>
+ * Each invocation sends a burst of requests for distinct assets at once,
+ * from non-blocking sockets, and waits for all the answers. The fork has a
+ * fixed heap, the same in both modes, and each iteration reports the most
+ * calls to the asset store in flight at once, the most heap used and the
+ * most platform threads alive during the burst. The client runs in the same
+ * JVM, from a single thread, so it weighs the same in both modes.
+ * <p>
+ * The virtual thread mode needs Java 21 or later.
+ *
+ * @author Brian Mericle
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms512m", "-Xmx512m"})
+public class VirtualThreadLoadBenchmark {
+
+    private static final String LATENCY = "500ms";
+    private static final long SAMPLE_INTERVAL_MILLIS = 5;
+    private static final int SETUP_THREADS = 200;
+    private static final String STATUS_UPLOADED = "uploaded";
+    private static final String RESPONSE_OK = "HTTP/1.1 200";
+
+    @Param({"false", "true"})
+    private boolean virtualThreads;
+
+    @Param({"2000"})
+    private int requests;
+
+    private ConfigurableApplicationContext context;
+    private MeterRegistry meterRegistry;
+    private int port;
+    private List<String> ids;
+    private Sampler sampler;
+
+    @Setup
+    public void setUp() throws Exception {
+        if (virtualThreads && !VirtualThreadSupport.isAvailable()) {
+            throw new IllegalStateException("The virtual thread execution mode needs Java 21 or later.");
+        }
+        context = BenchmarkApplication.start(WebApplicationType.SERVLET,
+                "asset-manager.asset-store.type=local",
+                "asset-manager.asset-store.directory=" + Files.createTempDirectory("asset-manager-load"),
+                "asset-manager.asset-store.latency-p50=" + LATENCY,
+                "asset-manager.asset-store.latency-p99=" + LATENCY,
+                "asset-manager.virtual-threads.enabled=" + virtualThreads,
+                // Each request looks its status up in the asset store.
+                "asset-manager.status-cache.ttl=0s",
+                "asset-manager.status-cache.negative-ttl=0s",
+                "asset-manager.resilience.hedge-enabled=false",
+                "asset-manager.rate-limit.max-in-flight=" + requests);
+        meterRegistry = context.getBean(MeterRegistry.class);
+        port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+
+        // Setting a status takes the simulated latency, so the assets are set up in parallel.
+        LocalAssetStore assetStore = context.getBean(LocalAssetStore.class);
+        ids = new ArrayList<>(requests);
+        ExecutorService executor = Executors.newFixedThreadPool(SETUP_THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>(requests);
+            for (int i = 0; i < requests; i++) {
+                String id = String.format("%032x", i);
+                ids.add(id);
+                futures.add(executor.submit(() -> {
+                    assetStore.write(id, new ByteArrayInputStream(new byte[1]));
+                    assetStore.setStatus(id, STATUS_UPLOADED);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void startSampling() {
+        System.gc();
+        sampler = new Sampler(meterRegistry);
+        sampler.start();
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() throws InterruptedException {
+        sampler.finish();
+        System.out.println(String.format(Locale.ROOT,
+                "%nvirtualThreads=%s: %d of %d requests in flight at once, %d MB of heap used, %d platform threads",
+                virtualThreads, sampler.peakInFlight, requests, sampler.peakHeap >> 20, sampler.peakThreads));
+    }
+
+    /**
+     * Sends the burst of requests and waits for all the answers.
+     *
+     * @return the number of requests answered with a 200
+     * @throws IOException if a request cannot be sent
+     */
+    @Benchmark
+    public int burst() throws IOException {
+        int ok = 0;
+        try (Selector selector = Selector.open()) {
+            InetSocketAddress address = new InetSocketAddress("localhost", port);
+            for (String id : ids) {
+                SocketChannel channel = SocketChannel.open(address);
+                channel.write(ByteBuffer.wrap(("GET /asset/" + id + " HTTP/1.1\r\nHost: localhost\r\n"
+                        + "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII)));
+                channel.configureBlocking(false);
+                channel.register(selector, SelectionKey.OP_READ, new StringBuilder());
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(8192);
+            while (!selector.keys().isEmpty()) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    SocketChannel channel = (SocketChannel) key.channel();
+                    StringBuilder response = (StringBuilder) key.attachment();
+                    buffer.clear();
+                    if (channel.read(buffer) < 0) {
+                        if (response.indexOf(RESPONSE_OK) == 0) {
+                            ok++;
+                        }
+                        key.cancel();
+                        channel.close();
+                    } else if (response.length() < RESPONSE_OK.length()) {
+                        buffer.flip();
+                        response.append(StandardCharsets.US_ASCII.decode(buffer));
+                    }
+                }
+            }
+        }
+        return ok;
+    }
+
+    /**
+     * Records the most calls to the asset store in flight, heap used and
+     * platform threads alive while a burst runs.
+     */
+    private static final class Sampler extends Thread {
+
+        private final MeterRegistry meterRegistry;
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        private final AtomicBoolean running = new AtomicBoolean(true);
+        private volatile long peakInFlight;
+        private volatile long peakHeap;
+        private volatile long peakThreads;
+
+        Sampler(final MeterRegistry meterRegistry) {
+            super("load-sampler");
+            setDaemon(true);
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        public void run() {
+            while (running.get()) {
+                peakInFlight = Math.max(peakInFlight, (long) meterRegistry.get("asset.store.in.flight").gauge().value());
+                peakHeap = Math.max(peakHeap, memory.getHeapMemoryUsage().getUsed());
+                peakThreads = Math.max(peakThreads, threads.getThreadCount());
+                try {
+                    Thread.sleep(SAMPLE_INTERVAL_MILLIS);
+                } catch (InterruptedException ex) {
+                    return;
+                }
+            }
+        }
+
+        void finish() throws InterruptedException {
+            running.set(false);
+            join();
+        }
+    }
+}
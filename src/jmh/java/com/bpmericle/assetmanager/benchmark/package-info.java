@@ -0,0 +1,4 @@
+/*
+ * This package contains the JMH benchmarks of the asset manager service.
+ */
+package com.bpmericle.assetmanager.benchmark;
@@ -1,20 +1,69 @@
 package com.bpmericle.assetmanager;
 
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.auth.AWSCredentialsProvider;
 import com.amazonaws.auth.AWSStaticCredentialsProvider;
 import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.metrics.AwsSdkMetrics;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.bpmericle.assetmanager.service.AssetKeyScheme;
+import com.bpmericle.assetmanager.service.AssetStore;
+import com.bpmericle.assetmanager.service.ConcurrencyLimitedAssetStore;
+import com.bpmericle.assetmanager.service.LocalAssetStore;
+import com.bpmericle.assetmanager.service.MeteredAssetStore;
+import com.bpmericle.assetmanager.service.ResilientAssetStore;
+import com.bpmericle.assetmanager.service.S3AssetStore;
+import com.bpmericle.assetmanager.service.ShardedAssetStore;
+import com.bpmericle.assetmanager.service.TracedAssetStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.exporter.otlp.http.trace.OtlpHttpSpanExporter;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.apache.coyote.AbstractProtocol;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
 /**
  *
  * @author Brian Mericle
  */
 @Configuration
+@EnableConfigurationProperties(AssetManagerProperties.class)
 public class AssetManagerConfiguration {
 
+
     /**
      * The AWS region to connect to.
      */
@@ -35,16 +84,333 @@ public class AssetManagerConfiguration {
 
     /**
      * Creates and returns an S3 client object used to interact with the S3
-     * service in AWS.
+     * service in AWS, unless the assets are kept in a local asset store.
      *
+     * @param properties the settings of the asset manager
+     * @param credentialsProvider the credentials used to authenticate
+     * @param metricCollector the collector of the metrics of the client
      * @return an S3 client
      */
     @Bean("s3client")
-    public AmazonS3 getS3Client() {
-        BasicAWSCredentials credentials = new BasicAWSCredentials(accessKeyId, secretAccessKey);
+    @ConditionalOnProperty(prefix = "asset-manager.asset-store", name = "type", havingValue = "s3", matchIfMissing = true)
+    public AmazonS3 getS3Client(final AssetManagerProperties properties,
+            @Qualifier("s3credentials") final AWSCredentialsProvider credentialsProvider,
+            final S3ClientMetricCollector metricCollector) {
         return AmazonS3ClientBuilder.standard()
-                .withCredentials(new AWSStaticCredentialsProvider(credentials))
+                .withCredentials(credentialsProvider)
                 .withRegion(region)
+                .withClientConfiguration(newClientConfiguration(properties.getS3Client()))
+                .withMetricsCollector(metricCollector.getRequestMetricCollector())
                 .build();
     }
+
+    /**
+     * Creates and returns the credentials used to authenticate with AWS. The
+     * bean is lazy so that it is only created when actually used.
+     *
+     * @return a provider of the credentials
+     */
+    @Bean("s3credentials")
+    @Lazy
+    public AWSCredentialsProvider getS3CredentialsProvider() {
+        return new AWSStaticCredentialsProvider(new BasicAWSCredentials(accessKeyId, secretAccessKey));
+    }
+
+    /**
+     * Creates and returns the collector publishing the state of the pool of
+     * connections of the S3 client. It is also registered globally with the
+     * AWS SDK, which only reports the time taken to lease a connection there.
+     *
+     * @param meterRegistry the registry to publish the metrics to
+     * @return a collector of the metrics of the S3 client
+     */
+    @Bean(name = "s3MetricCollector", destroyMethod = "stop")
+    public S3ClientMetricCollector getS3MetricCollector(final MeterRegistry meterRegistry) {
+        S3ClientMetricCollector metricCollector = new S3ClientMetricCollector(meterRegistry);
+        metricCollector.start();
+        AwsSdkMetrics.setMetricCollector(metricCollector);
+        return metricCollector;
+    }
+
+    /**
+     * Creates and returns the asset store used by the service, which keeps
+     * the assets under their sharded keys when configured, times and traces
+     * each call to the configured S3 or local asset store, bounds
+     * the calls in flight, and protects the service from it with circuit
+     * breakers, retries and hedged status lookups. Each attempt is limited,
+     * timed and traced on its own.
+     *
+     * @param s3AssetStore the asset store backed by S3, when configured
+     * @param localAssetStore the local asset store, when configured
+     * @param keyScheme the mapping of the identifiers of the assets to keys
+     * @param properties the settings of the asset manager
+     * @param hedgeExecutor the executor making the status lookups that may be
+     * hedged
+     * @param meterRegistry the registry to publish the metrics to
+     * @param tracer the tracer to start the spans with
+     * @return the resilient asset store
+     */
+    @Bean("resilientAssetStore")
+    @Primary
+    public ResilientAssetStore getResilientAssetStore(final ObjectProvider<S3AssetStore> s3AssetStore,
+            final ObjectProvider<LocalAssetStore> localAssetStore, final AssetKeyScheme keyScheme,
+            final AssetManagerProperties properties, @Qualifier("hedgeExecutor") final ExecutorService hedgeExecutor,
+            final MeterRegistry meterRegistry, final Tracer tracer) {
+        AssetStore assetStore = localAssetStore.getIfAvailable();
+        if (assetStore == null) {
+            assetStore = s3AssetStore.getObject();
+        }
+        if (properties.getAssetId().getShardPrefixLength() > 0) {
+            assetStore = new ShardedAssetStore(assetStore, keyScheme);
+        }
+        assetStore = new MeteredAssetStore(assetStore, meterRegistry);
+        assetStore = new TracedAssetStore(assetStore, tracer);
+        assetStore = new ConcurrencyLimitedAssetStore(assetStore, properties, meterRegistry);
+        return new ResilientAssetStore(assetStore, properties, hedgeExecutor, meterRegistry);
+    }
+
+    /**
+     * Creates and returns the pool of threads making the status lookups that
+     * may be hedged, so that the request thread can send a second lookup
+     * while the first one is slow. When all threads are busy, the request
+     * thread makes the lookup itself. Lookups run in the trace of the
+     * request that made them.
+     *
+     * @param properties the settings of the asset manager
+     * @return an executor for status lookups
+     */
+    @Bean(name = "hedgeExecutor", destroyMethod = "shutdown")
+    public ExecutorService getHedgeExecutor(final AssetManagerProperties properties) {
+        int threads = properties.getResilience().getHedgeThreads();
+        return Context.taskWrapping(new ThreadPoolExecutor(threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new SynchronousQueue<>(),
+                newThreadFactory(properties, "asset-hedge-"),
+                new ThreadPoolExecutor.CallerRunsPolicy()));
+    }
+
+    /**
+     * Creates and returns the actuator endpoint reporting the state of the
+     * circuit breakers of the asset store.
+     *
+     * @param assetStore the asset store holding the circuit breakers
+     * @return the circuit breaker endpoint
+     */
+    @Bean("circuitBreakerEndpoint")
+    public CircuitBreakerEndpoint getCircuitBreakerEndpoint(final ResilientAssetStore assetStore) {
+        return new CircuitBreakerEndpoint(assetStore);
+    }
+
+    /**
+     * Creates and returns the OpenTelemetry SDK exporting the spans of the
+     * service to the configured collector over OTLP/HTTP. Only a share of the
+     * traces started by the service are sampled, while the traces of
+     * incoming requests are sampled as decided by their caller. Spans are
+     * exported in batches off the request threads, and dropped once the queue
+     * is full. When tracing is disabled, spans are not recorded at all.
+     *
+     * @param properties the settings of the asset manager
+     * @return the tracer provider and propagators of the service
+     */
+    @Bean("openTelemetry")
+    public OpenTelemetry getOpenTelemetry(final AssetManagerProperties properties) {
+        AssetManagerProperties.Tracing tracing = properties.getTracing();
+        if (!tracing.isEnabled()) {
+            return OpenTelemetry.propagating(ContextPropagators.create(W3CTraceContextPropagator.getInstance()));
+        }
+
+        OtlpHttpSpanExporter exporter = OtlpHttpSpanExporter.builder()
+                .setEndpoint(tracing.getEndpoint())
+                .build();
+        SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+                .setResource(Resource.getDefault().merge(Resource.create(
+                        Attributes.of(AttributeKey.stringKey("service.name"), "asset-manager"))))
+                .setSampler(Sampler.parentBased(Sampler.traceIdRatioBased(tracing.getSamplingRatio())))
+                .addSpanProcessor(BatchSpanProcessor.builder(exporter)
+                        .setMaxQueueSize(tracing.getMaxQueueSize())
+                        .build())
+                .build();
+        return OpenTelemetrySdk.builder()
+                .setTracerProvider(tracerProvider)
+                .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+                .build();
+    }
+
+    /**
+     * Creates and returns the tracer the spans of the service are started
+     * with.
+     *
+     * @param openTelemetry the tracer provider of the service
+     * @return a tracer
+     */
+    @Bean("tracer")
+    public Tracer getTracer(final OpenTelemetry openTelemetry) {
+        return openTelemetry.getTracer(TracingSupport.INSTRUMENTATION_NAME);
+    }
+
+    /**
+     * Creates and returns the registration of the filter running each
+     * request in a span. It runs before any other filter, so that the span
+     * covers the whole handling of the request.
+     *
+     * @param openTelemetry the tracer provider and propagators of the service
+     * @return the registration of the tracing filter
+     */
+    @Bean("tracingFilter")
+    public FilterRegistrationBean<TracingFilter> getTracingFilter(final OpenTelemetry openTelemetry) {
+        FilterRegistrationBean<TracingFilter> registration = new FilterRegistrationBean<>(new TracingFilter(openTelemetry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /**
+     * Creates and returns the registration of the filter limiting the rate of
+     * the requests of each client. It runs right after the tracing filter,
+     * so that the requests turned away are still traced.
+     *
+     * @param properties the settings of the asset manager
+     * @param meterRegistry the registry to publish the metrics to
+     * @return the registration of the rate limit filter
+     */
+    @Bean("rateLimitFilter")
+    @ConditionalOnProperty(prefix = "asset-manager.rate-limit", name = "enabled", havingValue = "true")
+    public FilterRegistrationBean<RateLimitFilter> getRateLimitFilter(final AssetManagerProperties properties,
+            final MeterRegistry meterRegistry) {
+        FilterRegistrationBean<RateLimitFilter> registration
+                = new FilterRegistrationBean<>(new RateLimitFilter(properties, meterRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+
+    /**
+     * Creates and returns the bounded pool of threads used to work through
+     * the assets of batch requests. When all threads are busy and the queue
+     * is full, the submitting thread runs the task itself, which throttles
+     * the producer instead of rejecting work. Tasks run in the trace of the
+     * request that submitted them.
+     *
+     * @param properties the settings of the asset manager
+     * @return an executor for batch work
+     */
+    @Bean(name = "batchExecutor", destroyMethod = "shutdown")
+    public ExecutorService getBatchExecutor(final AssetManagerProperties properties) {
+        AssetManagerProperties.Batch batch = properties.getBatch();
+        return Context.taskWrapping(new ThreadPoolExecutor(batch.getThreads(), batch.getThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(batch.getQueueCapacity()),
+                newThreadFactory(properties, "asset-batch-"),
+                new ThreadPoolExecutor.CallerRunsPolicy()));
+    }
+
+    /**
+     * Creates and returns the pool of threads mirroring the status index to
+     * the asset store and reconciling the asset store with it.
+     *
+     * @param properties the settings of the asset manager
+     * @return an executor for status index work
+     */
+    @Bean(name = "statusIndexExecutor", destroyMethod = "shutdown")
+    @ConditionalOnProperty(prefix = "asset-manager.status-index", name = "enabled", havingValue = "true")
+    public ScheduledExecutorService getStatusIndexExecutor(final AssetManagerProperties properties) {
+        return new ScheduledThreadPoolExecutor(properties.getStatusIndex().getMirrorThreads(),
+                new CustomizableThreadFactory("status-index-"));
+    }
+
+    /**
+     * Creates and returns the thread sweeping the abandoned multipart
+     * uploads.
+     *
+     * @return an executor for multipart upload sweeps
+     */
+    @Bean(name = "multipartSweepExecutor", destroyMethod = "shutdown")
+    public ScheduledExecutorService getMultipartSweepExecutor() {
+        return new ScheduledThreadPoolExecutor(1, new CustomizableThreadFactory("multipart-sweeper-"));
+    }
+
+    /**
+     * Creates and returns the pool of threads setting the status of the
+     * assets of upload notifications. The queue is not bounded, as the
+     * notifications are received one batch at a time.
+     *
+     * @param properties the settings of the asset manager
+     * @return an executor for upload notification work
+     */
+    @Bean(name = "uploadEventExecutor", destroyMethod = "shutdown")
+    @ConditionalOnProperty(prefix = "asset-manager.upload-events", name = "enabled", havingValue = "true")
+    public ExecutorService getUploadEventExecutor(final AssetManagerProperties properties) {
+        int threads = properties.getUploadEvents().getThreads();
+        return new ThreadPoolExecutor(threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                newThreadFactory(properties, "upload-events-"));
+    }
+
+    /**
+     * Creates and returns the executor Tomcat hands requests to when the
+     * virtual thread execution mode is enabled, which starts a new virtual
+     * thread for each request.
+     *
+     * @return an executor for requests
+     */
+    @Bean(name = "requestExecutor", destroyMethod = "shutdown")
+    @ConditionalOnProperty(prefix = "asset-manager.virtual-threads", name = "enabled", havingValue = "true")
+    public ExecutorService getRequestExecutor() {
+        return VirtualThreadSupport.newThreadPerTaskExecutor(VirtualThreadSupport.newThreadFactory("http-virtual-"));
+    }
+
+    /**
+     * Creates and returns a customizer making Tomcat handle requests on
+     * virtual threads when the virtual thread execution mode is enabled.
+     *
+     * @param requestExecutor the executor for requests
+     * @return a customizer of the embedded Tomcat
+     */
+    @Bean("virtualThreadsTomcatCustomizer")
+    @ConditionalOnProperty(prefix = "asset-manager.virtual-threads", name = "enabled", havingValue = "true")
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> getVirtualThreadsTomcatCustomizer(
+            @Qualifier("requestExecutor") final ExecutorService requestExecutor) {
+        return factory -> factory.addConnectorCustomizers(connector -> {
+            ProtocolHandler handler = connector.getProtocolHandler();
+            if (handler instanceof AbstractProtocol) {
+                ((AbstractProtocol<?>) handler).setExecutor(requestExecutor);
+            }
+        });
+    }
+
+    /**
+     * Creates the configuration of the S3 client from the configured settings.
+     *
+     * @param s3Client the settings of the S3 client
+     * @return the configuration of the S3 client
+     */
+    static ClientConfiguration newClientConfiguration(final AssetManagerProperties.S3Client s3Client) {
+        return new ClientConfiguration()
+                .withMaxConnections(s3Client.getMaxConnections())
+                .withConnectionTTL(s3Client.getConnectionTtl().toMillis())
+                .withConnectionMaxIdleMillis(s3Client.getConnectionMaxIdle().toMillis())
+                .withReaper(s3Client.isReaper())
+                .withValidateAfterInactivityMillis((int) s3Client.getValidateAfterInactivity().toMillis())
+                .withConnectionTimeout((int) s3Client.getConnectionTimeout().toMillis())
+                .withSocketTimeout((int) s3Client.getSocketTimeout().toMillis())
+                .withRequestTimeout((int) s3Client.getRequestTimeout().toMillis())
+                .withClientExecutionTimeout((int) s3Client.getClientExecutionTimeout().toMillis())
+                .withMaxErrorRetry(s3Client.getMaxErrorRetry())
+                .withThrottledRetries(s3Client.isThrottleRetries())
+                .withTcpKeepAlive(s3Client.isTcpKeepAlive());
+    }
+
+    /**
+     * Creates the factory of the threads of a pool, creating virtual threads
+     * when the virtual thread execution mode is enabled.
+     *
+     * @param properties the settings of the asset manager
+     * @param prefix the prefix of the names of the threads
+     * @return a factory of threads
+     */
+    private static ThreadFactory newThreadFactory(final AssetManagerProperties properties, final String prefix) {
+        if (properties.getVirtualThreads().isEnabled()) {
+            return VirtualThreadSupport.newThreadFactory(prefix);
+        }
+        return new CustomizableThreadFactory(prefix);
+    }
 }
@@ -0,0 +1,2380 @@
+package com.bpmericle.assetmanager;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Tunable settings of the asset manager service, bound from the
+ * <code>asset-manager.*</code> configuration properties.
+ *
+ * @author Brian Mericle
+ */
+@ConfigurationProperties(prefix = "asset-manager")
+public class AssetManagerProperties {
+
+    /**
+     * Settings of the cache holding the status of assets.
+     */
+    private final StatusCache statusCache = new StatusCache();
+
+    /**
+     * Settings of the cache holding pre-signed download URLs.
+     */
+    private final PresignedUrlCache presignedUrlCache = new PresignedUrlCache();
+
+    /**
+     * Settings of the batch endpoints.
+     */
+    private final Batch batch = new Batch();
+
+    /**
+     * Settings of the virtual thread execution mode.
+     */
+    private final VirtualThreads virtualThreads = new VirtualThreads();
+
+    /**
+     * Settings of the client calling the S3 service.
+     */
+    private final S3Client s3Client = new S3Client();
+
+    /**
+     * Settings of the generation of pre-signed URLs.
+     */
+    private final Presigner presigner = new Presigner();
+
+    /**
+     * Settings of the asset store.
+     */
+    private final AssetStore assetStore = new AssetStore();
+
+    /**
+     * Settings of the status index.
+     */
+    private final StatusIndex statusIndex = new StatusIndex();
+
+    /**
+     * Settings of the listing of assets.
+     */
+    private final Listing listing = new Listing();
+
+    /**
+     * Settings of the ingestion of upload notifications.
+     */
+    private final UploadEvents uploadEvents = new UploadEvents();
+
+    /**
+     * Settings of the multipart uploads.
+     */
+    private final Multipart multipart = new Multipart();
+
+    /**
+     * Settings of the cache holding the size and entity tag of assets.
+     */
+    private final MetadataCache metadataCache = new MetadataCache();
+
+    /**
+     * Settings of the ranged downloads.
+     */
+    private final Download download = new Download();
+
+    /**
+     * Settings of the tracing of requests.
+     */
+    private final Tracing tracing = new Tracing();
+
+    /**
+     * Settings of the circuit breakers, retries and hedged requests of the
+     * calls to the asset store.
+     */
+    private final Resilience resilience = new Resilience();
+
+    /**
+     * Settings of the rate limits of clients and of the calls in flight to
+     * the asset store.
+     */
+    private final RateLimit rateLimit = new RateLimit();
+
+    /**
+     * Settings of the identifiers of new assets and of the keys they are
+     * stored under.
+     */
+    private final AssetId assetId = new AssetId();
+
+    /**
+     * Get the value of statusCache
+     *
+     * @return the value of statusCache
+     */
+    public StatusCache getStatusCache() {
+        return statusCache;
+    }
+
+    /**
+     * Get the value of presignedUrlCache
+     *
+     * @return the value of presignedUrlCache
+     */
+    public PresignedUrlCache getPresignedUrlCache() {
+        return presignedUrlCache;
+    }
+
+    /**
+     * Get the value of batch
+     *
+     * @return the value of batch
+     */
+    public Batch getBatch() {
+        return batch;
+    }
+
+    /**
+     * Get the value of virtualThreads
+     *
+     * @return the value of virtualThreads
+     */
+    public VirtualThreads getVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Get the value of s3Client
+     *
+     * @return the value of s3Client
+     */
+    public S3Client getS3Client() {
+        return s3Client;
+    }
+
+    /**
+     * Get the value of presigner
+     *
+     * @return the value of presigner
+     */
+    public Presigner getPresigner() {
+        return presigner;
+    }
+
+    /**
+     * Get the value of assetStore
+     *
+     * @return the value of assetStore
+     */
+    public AssetStore getAssetStore() {
+        return assetStore;
+    }
+
+    /**
+     * Get the value of statusIndex
+     *
+     * @return the value of statusIndex
+     */
+    public StatusIndex getStatusIndex() {
+        return statusIndex;
+    }
+
+    /**
+     * Get the value of listing
+     *
+     * @return the value of listing
+     */
+    public Listing getListing() {
+        return listing;
+    }
+
+    /**
+     * Get the value of uploadEvents
+     *
+     * @return the value of uploadEvents
+     */
+    public UploadEvents getUploadEvents() {
+        return uploadEvents;
+    }
+
+    /**
+     * Get the value of multipart
+     *
+     * @return the value of multipart
+     */
+    public Multipart getMultipart() {
+        return multipart;
+    }
+
+    /**
+     * Get the value of metadataCache
+     *
+     * @return the value of metadataCache
+     */
+    public MetadataCache getMetadataCache() {
+        return metadataCache;
+    }
+
+    /**
+     * Get the value of download
+     *
+     * @return the value of download
+     */
+    public Download getDownload() {
+        return download;
+    }
+
+    /**
+     * Get the value of tracing
+     *
+     * @return the value of tracing
+     */
+    public Tracing getTracing() {
+        return tracing;
+    }
+
+    /**
+     * Get the value of resilience
+     *
+     * @return the value of resilience
+     */
+    public Resilience getResilience() {
+        return resilience;
+    }
+
+    /**
+     * Get the value of rateLimit
+     *
+     * @return the value of rateLimit
+     */
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    /**
+     * Get the value of assetId
+     *
+     * @return the value of assetId
+     */
+    public AssetId getAssetId() {
+        return assetId;
+    }
+
+    /**
+     * Settings of the cache holding the status of assets, which saves a round
+     * trip to the asset store when validating a download request.
+     */
+    public static class StatusCache {
+
+        /**
+         * The maximum number of assets to hold the status for.
+         */
+        private long maximumSize = 10_000;
+
+        /**
+         * How long an 'uploaded' status is kept before being read again from
+         * the asset store.
+         */
+        private Duration ttl = Duration.ofMinutes(1);
+
+        /**
+         * How long any other status, or the absence of the asset, is kept
+         * before being read again from the asset store.
+         */
+        private Duration negativeTtl = Duration.ofSeconds(5);
+
+        /**
+         * How long the last 'uploaded' status of an asset is kept to be served
+         * while the circuit breaker of the asset store is open.
+         */
+        private Duration staleTtl = Duration.ofHours(1);
+
+        /**
+         * Get the value of maximumSize
+         *
+         * @return the value of maximumSize
+         */
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        /**
+         * Set the value of maximumSize
+         *
+         * @param maximumSize new value of maximumSize
+         */
+        public void setMaximumSize(final long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        /**
+         * Get the value of ttl
+         *
+         * @return the value of ttl
+         */
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        /**
+         * Set the value of ttl
+         *
+         * @param ttl new value of ttl
+         */
+        public void setTtl(final Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        /**
+         * Get the value of negativeTtl
+         *
+         * @return the value of negativeTtl
+         */
+        public Duration getNegativeTtl() {
+            return negativeTtl;
+        }
+
+        /**
+         * Set the value of negativeTtl
+         *
+         * @param negativeTtl new value of negativeTtl
+         */
+        public void setNegativeTtl(final Duration negativeTtl) {
+            this.negativeTtl = negativeTtl;
+        }
+
+        /**
+         * Get the value of staleTtl
+         *
+         * @return the value of staleTtl
+         */
+        public Duration getStaleTtl() {
+            return staleTtl;
+        }
+
+        /**
+         * Set the value of staleTtl
+         *
+         * @param staleTtl new value of staleTtl
+         */
+        public void setStaleTtl(final Duration staleTtl) {
+            this.staleTtl = staleTtl;
+        }
+    }
+
+    /**
+     * Settings of the cache holding pre-signed download URLs, which saves
+     * signing a new URL for every download request of the same asset.
+     */
+    public static class PresignedUrlCache {
+
+        /**
+         * The maximum number of pre-signed URLs to hold.
+         */
+        private long maximumSize = 10_000;
+
+        /**
+         * The width of the buckets requested timeouts are grouped into; only
+         * requests falling in the same bucket share a URL.
+         */
+        private Duration timeoutGranularity = Duration.ofSeconds(30);
+
+        /**
+         * The fraction of the requested timeout a cached URL must still be
+         * valid for to be handed back.
+         */
+        private double minRemainingRatio = 0.5;
+
+        /**
+         * Get the value of maximumSize
+         *
+         * @return the value of maximumSize
+         */
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        /**
+         * Set the value of maximumSize
+         *
+         * @param maximumSize new value of maximumSize
+         */
+        public void setMaximumSize(final long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        /**
+         * Get the value of timeoutGranularity
+         *
+         * @return the value of timeoutGranularity
+         */
+        public Duration getTimeoutGranularity() {
+            return timeoutGranularity;
+        }
+
+        /**
+         * Set the value of timeoutGranularity
+         *
+         * @param timeoutGranularity new value of timeoutGranularity
+         */
+        public void setTimeoutGranularity(final Duration timeoutGranularity) {
+            this.timeoutGranularity = timeoutGranularity;
+        }
+
+        /**
+         * Get the value of minRemainingRatio
+         *
+         * @return the value of minRemainingRatio
+         */
+        public double getMinRemainingRatio() {
+            return minRemainingRatio;
+        }
+
+        /**
+         * Set the value of minRemainingRatio
+         *
+         * @param minRemainingRatio new value of minRemainingRatio
+         */
+        public void setMinRemainingRatio(final double minRemainingRatio) {
+            this.minRemainingRatio = minRemainingRatio;
+        }
+    }
+
+    /**
+     * Settings of the batch endpoints, which work through the assets of a
+     * batch in parallel on a bounded pool of threads.
+     */
+    public static class Batch {
+
+        /**
+         * The maximum number of assets a single batch request may cover.
+         */
+        private int maxSize = 1000;
+
+        /**
+         * The number of threads working through batches.
+         */
+        private int threads = 16;
+
+        /**
+         * The number of tasks that may wait for a thread before the submitting
+         * thread runs them itself.
+         */
+        private int queueCapacity = 1000;
+
+        /**
+         * The number of times the asset store is called for a single asset of
+         * a batch before giving up on a retryable error.
+         */
+        private int maxAttempts = 3;
+
+        /**
+         * How long to wait before the first retry; the wait doubles with each
+         * further retry.
+         */
+        private Duration retryBackoff = Duration.ofMillis(100);
+
+        /**
+         * Get the value of maxSize
+         *
+         * @return the value of maxSize
+         */
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        /**
+         * Set the value of maxSize
+         *
+         * @param maxSize new value of maxSize
+         */
+        public void setMaxSize(final int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        /**
+         * Get the value of threads
+         *
+         * @return the value of threads
+         */
+        public int getThreads() {
+            return threads;
+        }
+
+        /**
+         * Set the value of threads
+         *
+         * @param threads new value of threads
+         */
+        public void setThreads(final int threads) {
+            this.threads = threads;
+        }
+
+        /**
+         * Get the value of queueCapacity
+         *
+         * @return the value of queueCapacity
+         */
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        /**
+         * Set the value of queueCapacity
+         *
+         * @param queueCapacity new value of queueCapacity
+         */
+        public void setQueueCapacity(final int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        /**
+         * Get the value of maxAttempts
+         *
+         * @return the value of maxAttempts
+         */
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        /**
+         * Set the value of maxAttempts
+         *
+         * @param maxAttempts new value of maxAttempts
+         */
+        public void setMaxAttempts(final int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        /**
+         * Get the value of retryBackoff
+         *
+         * @return the value of retryBackoff
+         */
+        public Duration getRetryBackoff() {
+            return retryBackoff;
+        }
+
+        /**
+         * Set the value of retryBackoff
+         *
+         * @param retryBackoff new value of retryBackoff
+         */
+        public void setRetryBackoff(final Duration retryBackoff) {
+            this.retryBackoff = retryBackoff;
+        }
+    }
+
+    /**
+     * Settings of the virtual thread execution mode, where requests are
+     * handled and the asset store is called on virtual threads. This mode
+     * requires Java 21 or later.
+     */
+    public static class VirtualThreads {
+
+        /**
+         * Whether requests are handled and the asset store is called on
+         * virtual threads.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Get the value of enabled
+         *
+         * @return the value of enabled
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * Set the value of enabled
+         *
+         * @param enabled new value of enabled
+         */
+        public void setEnabled(final boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    /**
+     * Settings of the client calling the S3 service, mostly of its pool of
+     * HTTP connections.
+     */
+    public static class S3Client {
+
+        /**
+         * The maximum number of open connections to the S3 service, which caps the
+         * number of concurrent calls.
+         */
+        private int maxConnections = 200;
+
+        /**
+         * How long a pooled connection may be reused before it is closed, so that
+         * changes to the addresses of the S3 service are picked up; zero or
+         * negative keeps connections indefinitely.
+         */
+        private Duration connectionTtl = Duration.ofMinutes(1);
+
+        /**
+         * How long a connection may stay idle in the pool before it is closed.
+         */
+        private Duration connectionMaxIdle = Duration.ofMinutes(1);
+
+        /**
+         * Whether a background thread closes expired and idle connections.
+         */
+        private boolean reaper = true;
+
+        /**
+         * How long a connection may stay idle before it is checked before reuse.
+         */
+        private Duration validateAfterInactivity = Duration.ofSeconds(5);
+
+        /**
+         * How long to wait to establish a connection.
+         */
+        private Duration connectionTimeout = Duration.ofSeconds(2);
+
+        /**
+         * How long to wait for data on an established connection.
+         */
+        private Duration socketTimeout = Duration.ofSeconds(10);
+
+        /**
+         * How long a single HTTP request may take; zero disables the timeout.
+         */
+        private Duration requestTimeout = Duration.ZERO;
+
+        /**
+         * How long a call may take, retries included; zero disables the timeout.
+         */
+        private Duration clientExecutionTimeout = Duration.ZERO;
+
+        /**
+         * The number of times a call failing with a retryable error is retried
+         * by the S3 client. None by default, as the resilient asset store
+         * already retries lookups within its retry budget, and the callers of
+         * writes retry them.
+         */
+        private int maxErrorRetry = 0;
+
+        /**
+         * Whether retries are throttled when the S3 service keeps failing.
+         */
+        private boolean throttleRetries = true;
+
+        /**
+         * Whether TCP keep-alive probes are sent on idle connections.
+         */
+        private boolean tcpKeepAlive = true;
+
+        /**
+         * Get the value of maxConnections
+         *
+         * @return the value of maxConnections
+         */
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        /**
+         * Set the value of maxConnections
+         *
+         * @param maxConnections new value of maxConnections
+         */
+        public void setMaxConnections(final int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        /**
+         * Get the value of connectionTtl
+         *
+         * @return the value of connectionTtl
+         */
+        public Duration getConnectionTtl() {
+            return connectionTtl;
+        }
+
+        /**
+         * Set the value of connectionTtl
+         *
+         * @param connectionTtl new value of connectionTtl
+         */
+        public void setConnectionTtl(final Duration connectionTtl) {
+            this.connectionTtl = connectionTtl;
+        }
+
+        /**
+         * Get the value of connectionMaxIdle
+         *
+         * @return the value of connectionMaxIdle
+         */
+        public Duration getConnectionMaxIdle() {
+            return connectionMaxIdle;
+        }
+
+        /**
+         * Set the value of connectionMaxIdle
+         *
+         * @param connectionMaxIdle new value of connectionMaxIdle
+         */
+        public void setConnectionMaxIdle(final Duration connectionMaxIdle) {
+            this.connectionMaxIdle = connectionMaxIdle;
+        }
+
+        /**
+         * Get the value of reaper
+         *
+         * @return the value of reaper
+         */
+        public boolean isReaper() {
+            return reaper;
+        }
+
+        /**
+         * Set the value of reaper
+         *
+         * @param reaper new value of reaper
+         */
+        public void setReaper(final boolean reaper) {
+            this.reaper = reaper;
+        }
+
+        /**
+         * Get the value of validateAfterInactivity
+         *
+         * @return the value of validateAfterInactivity
+         */
+        public Duration getValidateAfterInactivity() {
+            return validateAfterInactivity;
+        }
+
+        /**
+         * Set the value of validateAfterInactivity
+         *
+         * @param validateAfterInactivity new value of validateAfterInactivity
+         */
+        public void setValidateAfterInactivity(final Duration validateAfterInactivity) {
+            this.validateAfterInactivity = validateAfterInactivity;
+        }
+
+        /**
+         * Get the value of connectionTimeout
+         *
+         * @return the value of connectionTimeout
+         */
+        public Duration getConnectionTimeout() {
+            return connectionTimeout;
+        }
+
+        /**
+         * Set the value of connectionTimeout
+         *
+         * @param connectionTimeout new value of connectionTimeout
+         */
+        public void setConnectionTimeout(final Duration connectionTimeout) {
+            this.connectionTimeout = connectionTimeout;
+        }
+
+        /**
+         * Get the value of socketTimeout
+         *
+         * @return the value of socketTimeout
+         */
+        public Duration getSocketTimeout() {
+            return socketTimeout;
+        }
+
+        /**
+         * Set the value of socketTimeout
+         *
+         * @param socketTimeout new value of socketTimeout
+         */
+        public void setSocketTimeout(final Duration socketTimeout) {
+            this.socketTimeout = socketTimeout;
+        }
+
+        /**
+         * Get the value of requestTimeout
+         *
+         * @return the value of requestTimeout
+         */
+        public Duration getRequestTimeout() {
+            return requestTimeout;
+        }
+
+        /**
+         * Set the value of requestTimeout
+         *
+         * @param requestTimeout new value of requestTimeout
+         */
+        public void setRequestTimeout(final Duration requestTimeout) {
+            this.requestTimeout = requestTimeout;
+        }
+
+        /**
+         * Get the value of clientExecutionTimeout
+         *
+         * @return the value of clientExecutionTimeout
+         */
+        public Duration getClientExecutionTimeout() {
+            return clientExecutionTimeout;
+        }
+
+        /**
+         * Set the value of clientExecutionTimeout
+         *
+         * @param clientExecutionTimeout new value of clientExecutionTimeout
+         */
+        public void setClientExecutionTimeout(final Duration clientExecutionTimeout) {
+            this.clientExecutionTimeout = clientExecutionTimeout;
+        }
+
+        /**
+         * Get the value of maxErrorRetry
+         *
+         * @return the value of maxErrorRetry
+         */
+        public int getMaxErrorRetry() {
+            return maxErrorRetry;
+        }
+
+        /**
+         * Set the value of maxErrorRetry
+         *
+         * @param maxErrorRetry new value of maxErrorRetry
+         */
+        public void setMaxErrorRetry(final int maxErrorRetry) {
+            this.maxErrorRetry = maxErrorRetry;
+        }
+
+        /**
+         * Get the value of throttleRetries
+         *
+         * @return the value of throttleRetries
+         */
+        public boolean isThrottleRetries() {
+            return throttleRetries;
+        }
+
+        /**
+         * Set the value of throttleRetries
+         *
+         * @param throttleRetries new value of throttleRetries
+         */
+        public void setThrottleRetries(final boolean throttleRetries) {
+            this.throttleRetries = throttleRetries;
+        }
+
+        /**
+         * Get the value of tcpKeepAlive
+         *
+         * @return the value of tcpKeepAlive
+         */
+        public boolean isTcpKeepAlive() {
+            return tcpKeepAlive;
+        }
+
+        /**
+         * Set the value of tcpKeepAlive
+         *
+         * @param tcpKeepAlive new value of tcpKeepAlive
+         */
+        public void setTcpKeepAlive(final boolean tcpKeepAlive) {
+            this.tcpKeepAlive = tcpKeepAlive;
+        }
+    }
+
+    /**
+     * Settings of the generation of pre-signed URLs.
+     */
+    public static class Presigner {
+
+        /**
+         * Whether URLs are signed locally rather than through the S3 client,
+         * once local signing is verified to produce the same URLs.
+         */
+        private boolean localSigning = true;
+
+        /**
+         * Get the value of localSigning
+         *
+         * @return the value of localSigning
+         */
+        public boolean isLocalSigning() {
+            return localSigning;
+        }
+
+        /**
+         * Set the value of localSigning
+         *
+         * @param localSigning new value of localSigning
+         */
+        public void setLocalSigning(final boolean localSigning) {
+            this.localSigning = localSigning;
+        }
+    }
+
+    /**
+     * Settings of the asset store, which is either S3 or, for load tests, a
+     * local directory served by the asset manager itself.
+     */
+    public static class AssetStore {
+
+        /**
+         * The asset store to use, <code>s3</code> or <code>local</code>.
+         */
+        private String type = "s3";
+
+        /**
+         * The directory the local asset store keeps the assets in.
+         */
+        private String directory = Paths.get(System.getProperty("java.io.tmpdir"), "asset-manager").toString();
+
+        /**
+         * The URL the pre-signed URLs of the local asset store start with,
+         * which is where the asset manager serves the local asset store.
+         */
+        private String baseUrl = "http://localhost:8080/local-store";
+
+        /**
+         * The median latency added to each call to the local asset store.
+         */
+        private Duration latencyP50 = Duration.ZERO;
+
+        /**
+         * The 99th percentile of the latency added to each call to the local
+         * asset store.
+         */
+        private Duration latencyP99 = Duration.ZERO;
+
+        /**
+         * Get the value of type
+         *
+         * @return the value of type
+         */
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * Set the value of type
+         *
+         * @param type new value of type
+         */
+        public void setType(final String type) {
+            this.type = type;
+        }
+
+        /**
+         * Get the value of directory
+         *
+         * @return the value of directory
+         */
+        public String getDirectory() {
+            return directory;
+        }
+
+        /**
+         * Set the value of directory
+         *
+         * @param directory new value of directory
+         */
+        public void setDirectory(final String directory) {
+            this.directory = directory;
+        }
+
+        /**
+         * Get the value of baseUrl
+         *
+         * @return the value of baseUrl
+         */
+        public String getBaseUrl() {
+            return baseUrl;
+        }
+
+        /**
+         * Set the value of baseUrl
+         *
+         * @param baseUrl new value of baseUrl
+         */
+        public void setBaseUrl(final String baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+
+        /**
+         * Get the value of latencyP50
+         *
+         * @return the value of latencyP50
+         */
+        public Duration getLatencyP50() {
+            return latencyP50;
+        }
+
+        /**
+         * Set the value of latencyP50
+         *
+         * @param latencyP50 new value of latencyP50
+         */
+        public void setLatencyP50(final Duration latencyP50) {
+            this.latencyP50 = latencyP50;
+        }
+
+        /**
+         * Get the value of latencyP99
+         *
+         * @return the value of latencyP99
+         */
+        public Duration getLatencyP99() {
+            return latencyP99;
+        }
+
+        /**
+         * Set the value of latencyP99
+         *
+         * @param latencyP99 new value of latencyP99
+         */
+        public void setLatencyP99(final Duration latencyP99) {
+            this.latencyP99 = latencyP99;
+        }
+    }
+
+    /**
+     * Settings of the status index, a local store of the status of assets
+     * which the status in the asset store mirrors.
+     */
+    public static class StatusIndex {
+
+        /**
+         * Whether the status of assets is recorded in and read from the status
+         * index. The index is kept on the local disk, so it is only supported
+         * when the service runs as a single instance.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The directory the status index keeps its segments in.
+         */
+        private String directory = Paths.get(System.getProperty("java.io.tmpdir"), "asset-manager-status-index").toString();
+
+        /**
+         * The size of a segment of the status index in bytes.
+         */
+        private int segmentSize = 16 * 1024 * 1024;
+
+        /**
+         * The number of threads mirroring the status index to the asset
+         * store.
+         */
+        private int mirrorThreads = 4;
+
+        /**
+         * The time between two reconciliations of the asset store with the
+         * status index.
+         */
+        private Duration reconcileInterval = Duration.ofHours(1);
+
+        /**
+         * Get the value of enabled
+         *
+         * @return the value of enabled
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * Set the value of enabled
+         *
+         * @param enabled new value of enabled
+         */
+        public void setEnabled(final boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * Get the value of directory
+         *
+         * @return the value of directory
+         */
+        public String getDirectory() {
+            return directory;
+        }
+
+        /**
+         * Set the value of directory
+         *
+         * @param directory new value of directory
+         */
+        public void setDirectory(final String directory) {
+            this.directory = directory;
+        }
+
+        /**
+         * Get the value of segmentSize
+         *
+         * @return the value of segmentSize
+         */
+        public int getSegmentSize() {
+            return segmentSize;
+        }
+
+        /**
+         * Set the value of segmentSize
+         *
+         * @param segmentSize new value of segmentSize
+         */
+        public void setSegmentSize(final int segmentSize) {
+            this.segmentSize = segmentSize;
+        }
+
+        /**
+         * Get the value of mirrorThreads
+         *
+         * @return the value of mirrorThreads
+         */
+        public int getMirrorThreads() {
+            return mirrorThreads;
+        }
+
+        /**
+         * Set the value of mirrorThreads
+         *
+         * @param mirrorThreads new value of mirrorThreads
+         */
+        public void setMirrorThreads(final int mirrorThreads) {
+            this.mirrorThreads = mirrorThreads;
+        }
+
+        /**
+         * Get the value of reconcileInterval
+         *
+         * @return the value of reconcileInterval
+         */
+        public Duration getReconcileInterval() {
+            return reconcileInterval;
+        }
+
+        /**
+         * Set the value of reconcileInterval
+         *
+         * @param reconcileInterval new value of reconcileInterval
+         */
+        public void setReconcileInterval(final Duration reconcileInterval) {
+            this.reconcileInterval = reconcileInterval;
+        }
+    }
+
+    /**
+     * Settings of the listing of assets, which is paginated.
+     */
+    public static class Listing {
+
+        /**
+         * The maximum number of assets examined for a page of the listing,
+         * which is also the most S3 lists at once.
+         */
+        private int maxPageSize = 1000;
+
+        /**
+         * Get the value of maxPageSize
+         *
+         * @return the value of maxPageSize
+         */
+        public int getMaxPageSize() {
+            return maxPageSize;
+        }
+
+        /**
+         * Set the value of maxPageSize
+         *
+         * @param maxPageSize new value of maxPageSize
+         */
+        public void setMaxPageSize(final int maxPageSize) {
+            this.maxPageSize = maxPageSize;
+        }
+    }
+
+    /**
+     * Settings of the ingestion of the S3 notifications of uploaded assets,
+     * which sets the status of the assets without waiting for the clients to.
+     */
+    public static class UploadEvents {
+
+        /**
+         * Whether the status of assets is set from the notifications of their
+         * upload.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The spool directory the notifications are delivered to.
+         */
+        private String directory = Paths.get(System.getProperty("java.io.tmpdir"), "asset-manager-upload-events").toString();
+
+        /**
+         * The maximum number of notifications processed at once.
+         */
+        private int batchSize = 10;
+
+        /**
+         * The number of threads setting the status of the assets of the
+         * notifications.
+         */
+        private int threads = 8;
+
+        /**
+         * The wait before polling again when no notification is pending.
+         */
+        private Duration pollInterval = Duration.ofSeconds(1);
+
+        /**
+         * The maximum number of attempts at setting the status of an asset,
+         * before its notification is released to be processed again.
+         */
+        private int maxAttempts = 3;
+
+        /**
+         * The wait before the first retry of an asset; it doubles with each
+         * further retry.
+         */
+        private Duration retryBackoff = Duration.ofMillis(100);
+
+        /**
+         * The time a released notification is held back before it is received
+         * again, which is also the longest wait before the next batch when all
+         * the notifications of a batch were released.
+         */
+        private Duration releaseDelay = Duration.ofSeconds(30);
+
+        /**
+         * Get the value of enabled
+         *
+         * @return the value of enabled
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * Set the value of enabled
+         *
+         * @param enabled new value of enabled
+         */
+        public void setEnabled(final boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * Get the value of directory
+         *
+         * @return the value of directory
+         */
+        public String getDirectory() {
+            return directory;
+        }
+
+        /**
+         * Set the value of directory
+         *
+         * @param directory new value of directory
+         */
+        public void setDirectory(final String directory) {
+            this.directory = directory;
+        }
+
+        /**
+         * Get the value of batchSize
+         *
+         * @return the value of batchSize
+         */
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        /**
+         * Set the value of batchSize
+         *
+         * @param batchSize new value of batchSize
+         */
+        public void setBatchSize(final int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        /**
+         * Get the value of threads
+         *
+         * @return the value of threads
+         */
+        public int getThreads() {
+            return threads;
+        }
+
+        /**
+         * Set the value of threads
+         *
+         * @param threads new value of threads
+         */
+        public void setThreads(final int threads) {
+            this.threads = threads;
+        }
+
+        /**
+         * Get the value of pollInterval
+         *
+         * @return the value of pollInterval
+         */
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        /**
+         * Set the value of pollInterval
+         *
+         * @param pollInterval new value of pollInterval
+         */
+        public void setPollInterval(final Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        /**
+         * Get the value of maxAttempts
+         *
+         * @return the value of maxAttempts
+         */
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        /**
+         * Set the value of maxAttempts
+         *
+         * @param maxAttempts new value of maxAttempts
+         */
+        public void setMaxAttempts(final int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        /**
+         * Get the value of retryBackoff
+         *
+         * @return the value of retryBackoff
+         */
+        public Duration getRetryBackoff() {
+            return retryBackoff;
+        }
+
+        /**
+         * Set the value of retryBackoff
+         *
+         * @param retryBackoff new value of retryBackoff
+         */
+        public void setRetryBackoff(final Duration retryBackoff) {
+            this.retryBackoff = retryBackoff;
+        }
+
+        /**
+         * Get the value of releaseDelay
+         *
+         * @return the value of releaseDelay
+         */
+        public Duration getReleaseDelay() {
+            return releaseDelay;
+        }
+
+        /**
+         * Set the value of releaseDelay
+         *
+         * @param releaseDelay new value of releaseDelay
+         */
+        public void setReleaseDelay(final Duration releaseDelay) {
+            this.releaseDelay = releaseDelay;
+        }
+    }
+
+    /**
+     * Settings of the multipart uploads, which upload large assets in parts
+     * sent in parallel.
+     */
+    public static class Multipart {
+
+        /**
+         * The minimum size of a part in bytes; parts are made larger when the
+         * asset would otherwise need more parts than S3 allows.
+         */
+        private long partSize = 16 * 1024 * 1024;
+
+        /**
+         * The time the pre-signed URLs of the parts are valid for.
+         */
+        private Duration urlTimeout = Duration.ofHours(6);
+
+        /**
+         * The age after which a multipart upload that is neither completed
+         * nor aborted is aborted by the sweeper.
+         */
+        private Duration abandonAfter = Duration.ofHours(24);
+
+        /**
+         * The time between two sweeps of the abandoned multipart uploads.
+         */
+        private Duration sweepInterval = Duration.ofHours(1);
+
+        /**
+         * Get the value of partSize
+         *
+         * @return the value of partSize
+         */
+        public long getPartSize() {
+            return partSize;
+        }
+
+        /**
+         * Set the value of partSize
+         *
+         * @param partSize new value of partSize
+         */
+        public void setPartSize(final long partSize) {
+            this.partSize = partSize;
+        }
+
+        /**
+         * Get the value of urlTimeout
+         *
+         * @return the value of urlTimeout
+         */
+        public Duration getUrlTimeout() {
+            return urlTimeout;
+        }
+
+        /**
+         * Set the value of urlTimeout
+         *
+         * @param urlTimeout new value of urlTimeout
+         */
+        public void setUrlTimeout(final Duration urlTimeout) {
+            this.urlTimeout = urlTimeout;
+        }
+
+        /**
+         * Get the value of abandonAfter
+         *
+         * @return the value of abandonAfter
+         */
+        public Duration getAbandonAfter() {
+            return abandonAfter;
+        }
+
+        /**
+         * Set the value of abandonAfter
+         *
+         * @param abandonAfter new value of abandonAfter
+         */
+        public void setAbandonAfter(final Duration abandonAfter) {
+            this.abandonAfter = abandonAfter;
+        }
+
+        /**
+         * Get the value of sweepInterval
+         *
+         * @return the value of sweepInterval
+         */
+        public Duration getSweepInterval() {
+            return sweepInterval;
+        }
+
+        /**
+         * Set the value of sweepInterval
+         *
+         * @param sweepInterval new value of sweepInterval
+         */
+        public void setSweepInterval(final Duration sweepInterval) {
+            this.sweepInterval = sweepInterval;
+        }
+    }
+
+    /**
+     * Settings of the cache holding the size and entity tag of assets, which
+     * saves a HEAD request to the asset store for each download manifest.
+     */
+    public static class MetadataCache {
+
+        /**
+         * The maximum number of assets to hold the metadata for.
+         */
+        private long maximumSize = 10_000;
+
+        /**
+         * How long the metadata of an asset is kept before being read again
+         * from the asset store.
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+
+        /**
+         * Get the value of maximumSize
+         *
+         * @return the value of maximumSize
+         */
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        /**
+         * Set the value of maximumSize
+         *
+         * @param maximumSize new value of maximumSize
+         */
+        public void setMaximumSize(final long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        /**
+         * Get the value of ttl
+         *
+         * @return the value of ttl
+         */
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        /**
+         * Set the value of ttl
+         *
+         * @param ttl new value of ttl
+         */
+        public void setTtl(final Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+
+    /**
+     * Settings of the ranged downloads, where an asset is split into byte
+     * ranges fetched in parallel.
+     */
+    public static class Download {
+
+        /**
+         * The maximum number of byte ranges an asset can be split into.
+         */
+        private int maxParts = 100;
+
+        /**
+         * The key the entity tags of the download URLs are signed with, which
+         * the instances of the service share so that they accept each other's
+         * entity tags, or null to generate one at startup.
+         */
+        private String entityTagKey;
+
+        /**
+         * Get the value of maxParts
+         *
+         * @return the value of maxParts
+         */
+        public int getMaxParts() {
+            return maxParts;
+        }
+
+        /**
+         * Set the value of maxParts
+         *
+         * @param maxParts new value of maxParts
+         */
+        public void setMaxParts(final int maxParts) {
+            this.maxParts = maxParts;
+        }
+
+        /**
+         * Get the value of entityTagKey
+         *
+         * @return the value of entityTagKey
+         */
+        public String getEntityTagKey() {
+            return entityTagKey;
+        }
+
+        /**
+         * Set the value of entityTagKey
+         *
+         * @param entityTagKey new value of entityTagKey
+         */
+        public void setEntityTagKey(final String entityTagKey) {
+            this.entityTagKey = entityTagKey;
+        }
+    }
+
+    /**
+     * Settings of the tracing of requests, whose spans are exported to an
+     * OpenTelemetry collector.
+     */
+    public static class Tracing {
+
+        /**
+         * Whether spans are recorded and exported.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The URL of the OTLP/HTTP endpoint of the collector the spans are
+         * exported to.
+         */
+        private String endpoint = "http://localhost:4318/v1/traces";
+
+        /**
+         * The ratio of the traces started by the service that are sampled.
+         */
+        private double samplingRatio = 0.1;
+
+        /**
+         * The maximum number of spans waiting to be exported; spans are dropped
+         * when the collector falls behind.
+         */
+        private int maxQueueSize = 2048;
+
+        /**
+         * Get the value of enabled
+         *
+         * @return the value of enabled
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * Set the value of enabled
+         *
+         * @param enabled new value of enabled
+         */
+        public void setEnabled(final boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * Get the value of endpoint
+         *
+         * @return the value of endpoint
+         */
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        /**
+         * Set the value of endpoint
+         *
+         * @param endpoint new value of endpoint
+         */
+        public void setEndpoint(final String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        /**
+         * Get the value of samplingRatio
+         *
+         * @return the value of samplingRatio
+         */
+        public double getSamplingRatio() {
+            return samplingRatio;
+        }
+
+        /**
+         * Set the value of samplingRatio
+         *
+         * @param samplingRatio new value of samplingRatio
+         */
+        public void setSamplingRatio(final double samplingRatio) {
+            this.samplingRatio = samplingRatio;
+        }
+
+        /**
+         * Get the value of maxQueueSize
+         *
+         * @return the value of maxQueueSize
+         */
+        public int getMaxQueueSize() {
+            return maxQueueSize;
+        }
+
+        /**
+         * Set the value of maxQueueSize
+         *
+         * @param maxQueueSize new value of maxQueueSize
+         */
+        public void setMaxQueueSize(final int maxQueueSize) {
+            this.maxQueueSize = maxQueueSize;
+        }
+    }
+
+    /**
+     * Settings of the circuit breakers, retries and hedged requests of the
+     * calls to the asset store.
+     */
+    public static class Resilience {
+
+        /**
+         * The number of latest calls of an operation its circuit breaker computes
+         * the failure rate over.
+         */
+        private int circuitWindowSize = 50;
+
+        /**
+         * The number of calls of an operation recorded before its circuit breaker
+         * may open.
+         */
+        private int circuitMinimumCalls = 20;
+
+        /**
+         * The failure rate in percent of the calls of an operation at which its
+         * circuit breaker opens.
+         */
+        private int circuitFailureRateThreshold = 50;
+
+        /**
+         * How long a circuit breaker stays open before letting trial calls
+         * through.
+         */
+        private Duration circuitOpenDuration = Duration.ofSeconds(30);
+
+        /**
+         * The number of trial calls that must succeed for a half open circuit
+         * breaker to close.
+         */
+        private int circuitHalfOpenCalls = 5;
+
+        /**
+         * The maximum number of attempts of an idempotent call failing with a
+         * retryable error.
+         */
+        private int retryMaxAttempts = 3;
+
+        /**
+         * The base of the exponential backoff between two attempts, which is
+         * fully jittered.
+         */
+        private Duration retryBackoff = Duration.ofMillis(50);
+
+        /**
+         * The maximum backoff between two attempts.
+         */
+        private Duration retryMaxBackoff = Duration.ofSeconds(1);
+
+        /**
+         * The number of retries and hedged requests allowed per call.
+         */
+        private double retryBudgetRatio = 0.1;
+
+        /**
+         * The maximum number of retries and hedged requests saved up.
+         */
+        private int retryBudgetCapacity = 20;
+
+        /**
+         * Whether a second status lookup is sent once the first one is slower
+         * than most.
+         */
+        private boolean hedgeEnabled = true;
+
+        /**
+         * The minimum time to wait for a status lookup before hedging it.
+         */
+        private Duration hedgeMinDelay = Duration.ofMillis(5);
+
+        /**
+         * The number of latest status lookups their 95th percentile latency is
+         * computed over.
+         */
+        private int hedgeWindowSize = 1000;
+
+        /**
+         * The number of status lookups recorded before any is hedged.
+         */
+        private int hedgeMinimumSamples = 100;
+
+        /**
+         * The number of threads making the status lookups that may be hedged.
+         */
+        private int hedgeThreads = 64;
+
+        /**
+         * Get the value of circuitWindowSize
+         *
+         * @return the value of circuitWindowSize
+         */
+        public int getCircuitWindowSize() {
+            return circuitWindowSize;
+        }
+
+        /**
+         * Set the value of circuitWindowSize
+         *
+         * @param circuitWindowSize new value of circuitWindowSize
+         */
+        public void setCircuitWindowSize(final int circuitWindowSize) {
+            this.circuitWindowSize = circuitWindowSize;
+        }
+
+        /**
+         * Get the value of circuitMinimumCalls
+         *
+         * @return the value of circuitMinimumCalls
+         */
+        public int getCircuitMinimumCalls() {
+            return circuitMinimumCalls;
+        }
+
+        /**
+         * Set the value of circuitMinimumCalls
+         *
+         * @param circuitMinimumCalls new value of circuitMinimumCalls
+         */
+        public void setCircuitMinimumCalls(final int circuitMinimumCalls) {
+            this.circuitMinimumCalls = circuitMinimumCalls;
+        }
+
+        /**
+         * Get the value of circuitFailureRateThreshold
+         *
+         * @return the value of circuitFailureRateThreshold
+         */
+        public int getCircuitFailureRateThreshold() {
+            return circuitFailureRateThreshold;
+        }
+
+        /**
+         * Set the value of circuitFailureRateThreshold
+         *
+         * @param circuitFailureRateThreshold new value of circuitFailureRateThreshold
+         */
+        public void setCircuitFailureRateThreshold(final int circuitFailureRateThreshold) {
+            this.circuitFailureRateThreshold = circuitFailureRateThreshold;
+        }
+
+        /**
+         * Get the value of circuitOpenDuration
+         *
+         * @return the value of circuitOpenDuration
+         */
+        public Duration getCircuitOpenDuration() {
+            return circuitOpenDuration;
+        }
+
+        /**
+         * Set the value of circuitOpenDuration
+         *
+         * @param circuitOpenDuration new value of circuitOpenDuration
+         */
+        public void setCircuitOpenDuration(final Duration circuitOpenDuration) {
+            this.circuitOpenDuration = circuitOpenDuration;
+        }
+
+        /**
+         * Get the value of circuitHalfOpenCalls
+         *
+         * @return the value of circuitHalfOpenCalls
+         */
+        public int getCircuitHalfOpenCalls() {
+            return circuitHalfOpenCalls;
+        }
+
+        /**
+         * Set the value of circuitHalfOpenCalls
+         *
+         * @param circuitHalfOpenCalls new value of circuitHalfOpenCalls
+         */
+        public void setCircuitHalfOpenCalls(final int circuitHalfOpenCalls) {
+            this.circuitHalfOpenCalls = circuitHalfOpenCalls;
+        }
+
+        /**
+         * Get the value of retryMaxAttempts
+         *
+         * @return the value of retryMaxAttempts
+         */
+        public int getRetryMaxAttempts() {
+            return retryMaxAttempts;
+        }
+
+        /**
+         * Set the value of retryMaxAttempts
+         *
+         * @param retryMaxAttempts new value of retryMaxAttempts
+         */
+        public void setRetryMaxAttempts(final int retryMaxAttempts) {
+            this.retryMaxAttempts = retryMaxAttempts;
+        }
+
+        /**
+         * Get the value of retryBackoff
+         *
+         * @return the value of retryBackoff
+         */
+        public Duration getRetryBackoff() {
+            return retryBackoff;
+        }
+
+        /**
+         * Set the value of retryBackoff
+         *
+         * @param retryBackoff new value of retryBackoff
+         */
+        public void setRetryBackoff(final Duration retryBackoff) {
+            this.retryBackoff = retryBackoff;
+        }
+
+        /**
+         * Get the value of retryMaxBackoff
+         *
+         * @return the value of retryMaxBackoff
+         */
+        public Duration getRetryMaxBackoff() {
+            return retryMaxBackoff;
+        }
+
+        /**
+         * Set the value of retryMaxBackoff
+         *
+         * @param retryMaxBackoff new value of retryMaxBackoff
+         */
+        public void setRetryMaxBackoff(final Duration retryMaxBackoff) {
+            this.retryMaxBackoff = retryMaxBackoff;
+        }
+
+        /**
+         * Get the value of retryBudgetRatio
+         *
+         * @return the value of retryBudgetRatio
+         */
+        public double getRetryBudgetRatio() {
+            return retryBudgetRatio;
+        }
+
+        /**
+         * Set the value of retryBudgetRatio
+         *
+         * @param retryBudgetRatio new value of retryBudgetRatio
+         */
+        public void setRetryBudgetRatio(final double retryBudgetRatio) {
+            this.retryBudgetRatio = retryBudgetRatio;
+        }
+
+        /**
+         * Get the value of retryBudgetCapacity
+         *
+         * @return the value of retryBudgetCapacity
+         */
+        public int getRetryBudgetCapacity() {
+            return retryBudgetCapacity;
+        }
+
+        /**
+         * Set the value of retryBudgetCapacity
+         *
+         * @param retryBudgetCapacity new value of retryBudgetCapacity
+         */
+        public void setRetryBudgetCapacity(final int retryBudgetCapacity) {
+            this.retryBudgetCapacity = retryBudgetCapacity;
+        }
+
+        /**
+         * Get the value of hedgeEnabled
+         *
+         * @return the value of hedgeEnabled
+         */
+        public boolean isHedgeEnabled() {
+            return hedgeEnabled;
+        }
+
+        /**
+         * Set the value of hedgeEnabled
+         *
+         * @param hedgeEnabled new value of hedgeEnabled
+         */
+        public void setHedgeEnabled(final boolean hedgeEnabled) {
+            this.hedgeEnabled = hedgeEnabled;
+        }
+
+        /**
+         * Get the value of hedgeMinDelay
+         *
+         * @return the value of hedgeMinDelay
+         */
+        public Duration getHedgeMinDelay() {
+            return hedgeMinDelay;
+        }
+
+        /**
+         * Set the value of hedgeMinDelay
+         *
+         * @param hedgeMinDelay new value of hedgeMinDelay
+         */
+        public void setHedgeMinDelay(final Duration hedgeMinDelay) {
+            this.hedgeMinDelay = hedgeMinDelay;
+        }
+
+        /**
+         * Get the value of hedgeWindowSize
+         *
+         * @return the value of hedgeWindowSize
+         */
+        public int getHedgeWindowSize() {
+            return hedgeWindowSize;
+        }
+
+        /**
+         * Set the value of hedgeWindowSize
+         *
+         * @param hedgeWindowSize new value of hedgeWindowSize
+         */
+        public void setHedgeWindowSize(final int hedgeWindowSize) {
+            this.hedgeWindowSize = hedgeWindowSize;
+        }
+
+        /**
+         * Get the value of hedgeMinimumSamples
+         *
+         * @return the value of hedgeMinimumSamples
+         */
+        public int getHedgeMinimumSamples() {
+            return hedgeMinimumSamples;
+        }
+
+        /**
+         * Set the value of hedgeMinimumSamples
+         *
+         * @param hedgeMinimumSamples new value of hedgeMinimumSamples
+         */
+        public void setHedgeMinimumSamples(final int hedgeMinimumSamples) {
+            this.hedgeMinimumSamples = hedgeMinimumSamples;
+        }
+
+        /**
+         * Get the value of hedgeThreads
+         *
+         * @return the value of hedgeThreads
+         */
+        public int getHedgeThreads() {
+            return hedgeThreads;
+        }
+
+        /**
+         * Set the value of hedgeThreads
+         *
+         * @param hedgeThreads new value of hedgeThreads
+         */
+        public void setHedgeThreads(final int hedgeThreads) {
+            this.hedgeThreads = hedgeThreads;
+        }
+    }
+
+    /**
+     * Settings of the rate limits of clients and of the calls in flight to
+     * the asset store.
+     */
+    public static class RateLimit {
+
+        /**
+         * Whether the requests of each client are rate limited.
+         */
+        private boolean enabled;
+
+        /**
+         * The header naming the client of a request, such as its API key,
+         * which must be set or checked by a gateway in front of the service;
+         * requests are limited by client IP address when it is not set, or
+         * the request does not have it.
+         */
+        private String clientHeader;
+
+        /**
+         * The maximum number of clients tracked by each limit.
+         */
+        private int maxClients = 100_000;
+
+        /**
+         * The number of upload requests per second allowed to a client.
+         */
+        private double uploadRate = 10;
+
+        /**
+         * The number of upload requests a client may send at once.
+         */
+        private int uploadBurst = 20;
+
+        /**
+         * The number of status updates per second allowed to a client.
+         */
+        private double statusRate = 20;
+
+        /**
+         * The number of status updates a client may send at once.
+         */
+        private int statusBurst = 40;
+
+        /**
+         * The number of download requests per second allowed to a client.
+         */
+        private double downloadRate = 100;
+
+        /**
+         * The number of download requests a client may send at once.
+         */
+        private int downloadBurst = 200;
+
+        /**
+         * The maximum number of calls to the asset store in flight.
+         */
+        private int maxInFlight = 200;
+
+        /**
+         * How long a call waits for another one to complete once the maximum
+         * number of calls are in flight.
+         */
+        private Duration maxInFlightWait = Duration.ofMillis(50);
+
+        /**
+         * Get the value of enabled
+         *
+         * @return the value of enabled
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * Set the value of enabled
+         *
+         * @param enabled new value of enabled
+         */
+        public void setEnabled(final boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * Get the value of clientHeader
+         *
+         * @return the value of clientHeader
+         */
+        public String getClientHeader() {
+            return clientHeader;
+        }
+
+        /**
+         * Set the value of clientHeader
+         *
+         * @param clientHeader new value of clientHeader
+         */
+        public void setClientHeader(final String clientHeader) {
+            this.clientHeader = clientHeader;
+        }
+
+        /**
+         * Get the value of maxClients
+         *
+         * @return the value of maxClients
+         */
+        public int getMaxClients() {
+            return maxClients;
+        }
+
+        /**
+         * Set the value of maxClients
+         *
+         * @param maxClients new value of maxClients
+         */
+        public void setMaxClients(final int maxClients) {
+            this.maxClients = maxClients;
+        }
+
+        /**
+         * Get the value of uploadRate
+         *
+         * @return the value of uploadRate
+         */
+        public double getUploadRate() {
+            return uploadRate;
+        }
+
+        /**
+         * Set the value of uploadRate
+         *
+         * @param uploadRate new value of uploadRate
+         */
+        public void setUploadRate(final double uploadRate) {
+            this.uploadRate = uploadRate;
+        }
+
+        /**
+         * Get the value of uploadBurst
+         *
+         * @return the value of uploadBurst
+         */
+        public int getUploadBurst() {
+            return uploadBurst;
+        }
+
+        /**
+         * Set the value of uploadBurst
+         *
+         * @param uploadBurst new value of uploadBurst
+         */
+        public void setUploadBurst(final int uploadBurst) {
+            this.uploadBurst = uploadBurst;
+        }
+
+        /**
+         * Get the value of statusRate
+         *
+         * @return the value of statusRate
+         */
+        public double getStatusRate() {
+            return statusRate;
+        }
+
+        /**
+         * Set the value of statusRate
+         *
+         * @param statusRate new value of statusRate
+         */
+        public void setStatusRate(final double statusRate) {
+            this.statusRate = statusRate;
+        }
+
+        /**
+         * Get the value of statusBurst
+         *
+         * @return the value of statusBurst
+         */
+        public int getStatusBurst() {
+            return statusBurst;
+        }
+
+        /**
+         * Set the value of statusBurst
+         *
+         * @param statusBurst new value of statusBurst
+         */
+        public void setStatusBurst(final int statusBurst) {
+            this.statusBurst = statusBurst;
+        }
+
+        /**
+         * Get the value of downloadRate
+         *
+         * @return the value of downloadRate
+         */
+        public double getDownloadRate() {
+            return downloadRate;
+        }
+
+        /**
+         * Set the value of downloadRate
+         *
+         * @param downloadRate new value of downloadRate
+         */
+        public void setDownloadRate(final double downloadRate) {
+            this.downloadRate = downloadRate;
+        }
+
+        /**
+         * Get the value of downloadBurst
+         *
+         * @return the value of downloadBurst
+         */
+        public int getDownloadBurst() {
+            return downloadBurst;
+        }
+
+        /**
+         * Set the value of downloadBurst
+         *
+         * @param downloadBurst new value of downloadBurst
+         */
+        public void setDownloadBurst(final int downloadBurst) {
+            this.downloadBurst = downloadBurst;
+        }
+
+        /**
+         * Get the value of maxInFlight
+         *
+         * @return the value of maxInFlight
+         */
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        /**
+         * Set the value of maxInFlight
+         *
+         * @param maxInFlight new value of maxInFlight
+         */
+        public void setMaxInFlight(final int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+
+        /**
+         * Get the value of maxInFlightWait
+         *
+         * @return the value of maxInFlightWait
+         */
+        public Duration getMaxInFlightWait() {
+            return maxInFlightWait;
+        }
+
+        /**
+         * Set the value of maxInFlightWait
+         *
+         * @param maxInFlightWait new value of maxInFlightWait
+         */
+        public void setMaxInFlightWait(final Duration maxInFlightWait) {
+            this.maxInFlightWait = maxInFlightWait;
+        }
+    }
+
+    /**
+     * Settings of the identifiers of new assets and of the keys they are
+     * stored under.
+     */
+    public static class AssetId {
+
+        /**
+         * The generator of the identifiers of new assets,
+         * <code>random</code> or <code>time-ordered</code>.
+         */
+        private String generator = "random";
+
+        /**
+         * The number of hexadecimal digits of the hashed prefix of the key of
+         * each asset, from 0 (no prefix) to 8.
+         */
+        private int shardPrefixLength;
+
+        /**
+         * Get the value of generator
+         *
+         * @return the value of generator
+         */
+        public String getGenerator() {
+            return generator;
+        }
+
+        /**
+         * Set the value of generator
+         *
+         * @param generator new value of generator
+         */
+        public void setGenerator(final String generator) {
+            this.generator = generator;
+        }
+
+        /**
+         * Get the value of shardPrefixLength
+         *
+         * @return the value of shardPrefixLength
+         */
+        public int getShardPrefixLength() {
+            return shardPrefixLength;
+        }
+
+        /**
+         * Set the value of shardPrefixLength
+         *
+         * @param shardPrefixLength new value of shardPrefixLength
+         */
+        public void setShardPrefixLength(final int shardPrefixLength) {
+            this.shardPrefixLength = shardPrefixLength;
+        }
+    }
+}
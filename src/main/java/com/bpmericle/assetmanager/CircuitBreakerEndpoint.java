@@ -0,0 +1,48 @@
+package com.bpmericle.assetmanager;
+
+import com.bpmericle.assetmanager.service.CircuitBreaker;
+import com.bpmericle.assetmanager.service.ResilientAssetStore;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/**
+ * Actuator endpoint reporting the state of the circuit breakers of the calls
+ * to the asset store, at <code>/actuator/circuitbreakers</code>.
+ *
+ * @author Brian Mericle
+ */
+@Endpoint(id = "circuitbreakers")
+public class CircuitBreakerEndpoint {
+
+    private final ResilientAssetStore assetStore;
+
+    /**
+     * Creates the endpoint.
+     *
+     * @param assetStore the asset store holding the circuit breakers
+     */
+    public CircuitBreakerEndpoint(final ResilientAssetStore assetStore) {
+        this.assetStore = assetStore;
+    }
+
+    /**
+     * Returns the state and the failure rate in percent of the circuit
+     * breaker of each operation, keyed by operation. The failure rate is -1
+     * until enough calls are recorded.
+     *
+     * @return the circuit breakers
+     */
+    @ReadOperation
+    public Map<String, Map<String, Object>> circuitBreakers() {
+        Map<String, Map<String, Object>> circuitBreakers = new LinkedHashMap<>();
+        for (Map.Entry<String, CircuitBreaker> entry : assetStore.getCircuitBreakers().entrySet()) {
+            Map<String, Object> circuitBreaker = new LinkedHashMap<>();
+            circuitBreaker.put("state", entry.getValue().getState());
+            circuitBreaker.put("failureRate", entry.getValue().getFailureRate());
+            circuitBreakers.put(entry.getKey(), circuitBreaker);
+        }
+        return circuitBreakers;
+    }
+}
@@ -0,0 +1,312 @@
+package com.bpmericle.assetmanager;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Limits the rate of the upload, status and download requests of each
+ * client, so that a misbehaving client cannot take the threads of the
+ * service and the connections to S3 away from the others.
+ * <p>
+ * A client is named by its IP address, or by the configured header of its
+ * requests, such as its API key, when one is configured. The header is
+ * trusted as is, so it must be set or checked by a gateway in front of the
+ * service; a client free to set it could escape its limit by changing it.
+ * <p>
+ * The upload, status and download endpoints each have their own
+ * {@link RateLimiter}, which also limits their batch, multipart and listing
+ * variants. A request takes one token per asset it works on: the
+ * <code>count</code> of a batch of uploads, the items of a batch of status
+ * updates or downloads, and the <code>limit</code> of a page of the
+ * listing. A request over the limit of its client is answered right away
+ * with a 429 and a <code>Retry-After</code> header, before it reaches a
+ * controller.
+ *
+ * @author Brian Mericle
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    /**
+     * The name the counters of the requests turned away are published under.
+     */
+    static final String METRIC_THROTTLED = "asset.requests.throttled";
+
+    private static final String EXCEPTION_MESSAGE_THROTTLED = "Too many requests, retry later.";
+
+    private static final String PATH_ASSETS = "/asset";
+    private static final String PATH_UPLOAD_BATCH = "/asset/batch";
+    private static final String PATH_STATUS_BATCH = "/asset/status/batch";
+    private static final String PATH_DOWNLOAD_BATCH = "/asset/download/batch";
+    private static final String PATH_MULTIPART = "/asset/multipart";
+    private static final Pattern PATH_ASSET = Pattern.compile("/asset/[^/]+");
+    private static final Pattern PATH_ASSET_MULTIPART = Pattern.compile("/asset/[^/]+/multipart");
+
+    private static final String PARAM_COUNT = "count";
+    private static final String PARAM_LIMIT = "limit";
+    private static final String FIELD_IDS = "ids";
+
+    /**
+     * The page size of the listing when the request does not give one, which
+     * matches the default of the controller.
+     */
+    private static final int DEFAULT_LIMIT = 100;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final String clientHeader;
+    private final Endpoint upload;
+    private final Endpoint status;
+    private final Endpoint download;
+
+    /**
+     * Creates the filter and registers its metrics.
+     *
+     * @param properties the settings of the asset manager
+     * @param meterRegistry the registry to publish the metrics to
+     */
+    public RateLimitFilter(final AssetManagerProperties properties, final MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    /**
+     * Creates the filter with the given clock for its limiters.
+     */
+    RateLimitFilter(final AssetManagerProperties properties, final MeterRegistry meterRegistry, final LongSupplier clock) {
+        AssetManagerProperties.RateLimit rateLimit = properties.getRateLimit();
+        this.clientHeader = rateLimit.getClientHeader();
+        this.upload = new Endpoint("upload", new RateLimiter(rateLimit.getUploadRate(), rateLimit.getUploadBurst(),
+                rateLimit.getMaxClients(), clock), meterRegistry);
+        this.status = new Endpoint("status", new RateLimiter(rateLimit.getStatusRate(), rateLimit.getStatusBurst(),
+                rateLimit.getMaxClients(), clock), meterRegistry);
+        this.download = new Endpoint("download", new RateLimiter(rateLimit.getDownloadRate(), rateLimit.getDownloadBurst(),
+                rateLimit.getMaxClients(), clock), meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+            final FilterChain filterChain) throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        HttpMethod method = HttpMethod.resolve(request.getMethod());
+        Endpoint endpoint = endpointOf(method, path);
+        HttpServletRequest limited = request;
+        if (endpoint != null) {
+            int permits;
+            if (PATH_STATUS_BATCH.equals(path) || PATH_DOWNLOAD_BATCH.equals(path)) {
+                // The items are counted from the body, which is kept for the controller to read again.
+                CachedBodyRequest cached = new CachedBodyRequest(request);
+                permits = countItems(cached.body, PATH_DOWNLOAD_BATCH.equals(path) ? FIELD_IDS : null);
+                limited = cached;
+            } else if (PATH_UPLOAD_BATCH.equals(path)) {
+                permits = intParameter(request, PARAM_COUNT, 1);
+            } else if (PATH_ASSETS.equals(path) && method == HttpMethod.GET) {
+                permits = intParameter(request, PARAM_LIMIT, DEFAULT_LIMIT);
+            } else {
+                permits = 1;
+            }
+
+            long wait = endpoint.limiter.tryAcquire(clientOf(request), permits);
+            if (wait > 0) {
+                endpoint.throttled.increment();
+                // The wait is rounded up to whole seconds.
+                response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(TimeUnit.NANOSECONDS.toSeconds(wait - 1) + 1));
+                response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), EXCEPTION_MESSAGE_THROTTLED);
+                return;
+            }
+        }
+        filterChain.doFilter(limited, response);
+    }
+
+    /**
+     * Returns the limited endpoint a request is sent to.
+     *
+     * @param method the method of the request
+     * @param path the path of the request within the application
+     * @return the endpoint, or null if the request is not limited
+     */
+    private Endpoint endpointOf(final HttpMethod method, final String path) {
+        switch (path) {
+            case PATH_ASSETS:
+                if (method == HttpMethod.POST) {
+                    return upload;
+                }
+                return method == HttpMethod.GET ? download : null;
+            case PATH_UPLOAD_BATCH:
+            case PATH_MULTIPART:
+                return method == HttpMethod.POST ? upload : null;
+            case PATH_STATUS_BATCH:
+                return method == HttpMethod.PUT ? status : null;
+            case PATH_DOWNLOAD_BATCH:
+                return method == HttpMethod.POST ? download : null;
+            default:
+                break;
+        }
+        if (PATH_ASSET_MULTIPART.matcher(path).matches()) {
+            return method == HttpMethod.PUT || method == HttpMethod.DELETE ? upload : null;
+        }
+        if (PATH_ASSET.matcher(path).matches()) {
+            if (method == HttpMethod.GET) {
+                return download;
+            }
+            return method == HttpMethod.PUT ? status : null;
+        }
+        return null;
+    }
+
+    private String clientOf(final HttpServletRequest request) {
+        if (StringUtils.hasText(clientHeader)) {
+            String client = request.getHeader(clientHeader);
+            if (client != null) {
+                return client;
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    /**
+     * Returns the positive integer value of a parameter of the request.
+     *
+     * @param request the request
+     * @param name the name of the parameter
+     * @param defaultValue the value when the parameter is missing
+     * @return the value, or 1 when it is not a positive integer, which the
+     * controller turns away anyway
+     */
+    private static int intParameter(final HttpServletRequest request, final String name, final int defaultValue) {
+        String value = request.getParameter(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Math.max(1, Integer.parseInt(value));
+        } catch (NumberFormatException ex) {
+            return 1;
+        }
+    }
+
+    /**
+     * Counts the items of a JSON array, either the body itself or the given
+     * field of the object the body holds.
+     *
+     * @param body the body of the request
+     * @param field the field holding the array, or null if the body is the
+     * array
+     * @return the number of items, at least 1 so that a malformed body, which
+     * the controller turns away anyway, still takes a token
+     */
+    static int countItems(final byte[] body, final String field) {
+        int items = 0;
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            JsonToken token = parser.nextToken();
+            if (field != null && token == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME && !field.equals(parser.getCurrentName())) {
+                    parser.nextToken();
+                    parser.skipChildren();
+                }
+                token = parser.nextToken();
+            }
+            if (token == JsonToken.START_ARRAY) {
+                // An array cut short fails with an exception rather than ending.
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    parser.skipChildren();
+                    items++;
+                }
+            }
+        } catch (IOException ex) {
+            // counted so far
+        }
+        return Math.max(1, items);
+    }
+
+    /**
+     * The limiter and metrics of a limited endpoint.
+     */
+    private static final class Endpoint {
+
+        private final RateLimiter limiter;
+        private final Counter throttled;
+
+        Endpoint(final String name, final RateLimiter limiter, final MeterRegistry meterRegistry) {
+            this.limiter = limiter;
+            this.throttled = Counter.builder(METRIC_THROTTLED)
+                    .description("Requests turned away because their client went over its rate limit")
+                    .tag("endpoint", name)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * A request whose body was read ahead, and is read again from memory.
+     */
+    static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(final HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = StreamUtils.copyToByteArray(request.getInputStream());
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(final byte[] b, final int off, final int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(final ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws UnsupportedEncodingException {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? encoding : StandardCharsets.UTF_8.name()));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.bpmericle.assetmanager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket limiting the rate of the requests of each client, which lets
+ * a client send a burst of requests at once, and then a steady number of
+ * requests per second.
+ * <p>
+ * The bucket of a client is kept as the single time at which it is full
+ * again (the generic cell rate algorithm), so that it is updated without a
+ * lock, and the buckets live in a bounded concurrent cache, whose striped
+ * map keeps the clients from contending with each other. A bucket is
+ * forgotten once it is full again, which changes nothing for its client.
+ * A request may take several tokens at once, such as one per item of a
+ * batch, but never more than the burst, so that it can always pass once the
+ * bucket is full.
+ *
+ * @author Brian Mericle
+ */
+public class RateLimiter {
+
+    private final long interval;
+    private final int burst;
+    private final long capacity;
+    private final LongSupplier clock;
+    private final Cache<String, AtomicLong> buckets;
+
+    /**
+     * Creates the limiter.
+     *
+     * @param rate the number of requests per second allowed to a client
+     * @param burst the number of requests a client may send at once
+     * @param maxClients the maximum number of clients to track
+     * @param clock the source of the current time in nanoseconds
+     */
+    public RateLimiter(final double rate, final int burst, final int maxClients, final LongSupplier clock) {
+        this.interval = Math.round(TimeUnit.SECONDS.toNanos(1) / rate);
+        this.burst = burst;
+        this.capacity = interval * burst;
+        this.clock = clock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(capacity, TimeUnit.NANOSECONDS)
+                .build();
+    }
+
+    /**
+     * Takes a token from the bucket of the client, when there is one.
+     *
+     * @param client the key of the client, such as its API key or address
+     * @return zero if the request is allowed, or else the time in nanoseconds
+     * until the next token
+     */
+    public long tryAcquire(final String client) {
+        return tryAcquire(client, 1);
+    }
+
+    /**
+     * Takes tokens from the bucket of the client, when there are enough.
+     *
+     * @param client the key of the client, such as its API key or address
+     * @param permits the number of tokens to take, capped at the burst
+     * @return zero if the request is allowed, or else the time in nanoseconds
+     * until there are enough tokens
+     */
+    public long tryAcquire(final String client, final int permits) {
+        long now = clock.getAsLong();
+        long cost = interval * Math.min(permits, burst);
+        AtomicLong full = buckets.get(client, key -> new AtomicLong(now));
+        long previous = full.getAndUpdate(at -> {
+            long start = Math.max(at, now);
+            return start + cost - now <= capacity ? start + cost : at;
+        });
+        return Math.max(0, Math.max(previous, now) + cost - now - capacity);
+    }
+}
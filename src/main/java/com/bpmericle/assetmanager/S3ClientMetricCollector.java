@@ -0,0 +1,132 @@
+package com.bpmericle.assetmanager;
+
+import com.amazonaws.Request;
+import com.amazonaws.Response;
+import com.amazonaws.metrics.ByteThroughputProvider;
+import com.amazonaws.metrics.MetricCollector;
+import com.amazonaws.metrics.RequestMetricCollector;
+import com.amazonaws.metrics.ServiceLatencyProvider;
+import com.amazonaws.metrics.ServiceMetricCollector;
+import com.amazonaws.util.AWSRequestMetrics;
+import com.amazonaws.util.AWSServiceMetrics;
+import com.amazonaws.util.TimingInfo;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the state of the pool of HTTP connections of the S3 client to
+ * Micrometer.
+ * <p>
+ * The time taken to lease a connection from the pool is only reported by the
+ * AWS SDK to the service metric collector registered globally, while the
+ * number of available, leased and pending connections are reported with each
+ * request to the request metric collector of the client. The pool counts are
+ * published as gauges holding the values observed by the latest request.
+ *
+ * @author Brian Mericle
+ */
+public class S3ClientMetricCollector extends MetricCollector {
+
+    /**
+     * The prefix of the names the metrics are published under.
+     */
+    private static final String METRIC_PREFIX = "s3.client.connection.";
+
+    private final Timer leaseTimer;
+    private final AtomicLong available = new AtomicLong();
+    private final AtomicLong leased = new AtomicLong();
+    private final AtomicLong pending = new AtomicLong();
+
+    private volatile boolean enabled;
+
+    private final RequestMetricCollector requestMetricCollector = new RequestMetricCollector() {
+        @Override
+        public void collectMetrics(final Request<?> request, final Response<?> response) {
+            TimingInfo timingInfo = request.getAWSRequestMetrics().getTimingInfo();
+            record(timingInfo, AWSRequestMetrics.Field.HttpClientPoolAvailableCount, available);
+            record(timingInfo, AWSRequestMetrics.Field.HttpClientPoolLeasedCount, leased);
+            record(timingInfo, AWSRequestMetrics.Field.HttpClientPoolPendingCount, pending);
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return enabled;
+        }
+    };
+
+    private final ServiceMetricCollector serviceMetricCollector = new ServiceMetricCollector() {
+        @Override
+        public void collectByteThroughput(final ByteThroughputProvider provider) {
+            // only the pool is of interest
+        }
+
+        @Override
+        public void collectLatency(final ServiceLatencyProvider provider) {
+            if (provider.getServiceMetricType() == AWSServiceMetrics.HttpClientGetConnectionTime) {
+                leaseTimer.record((long) (provider.getDurationMilli() * 1_000_000), TimeUnit.NANOSECONDS);
+            }
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return enabled;
+        }
+    };
+
+    /**
+     * Creates the collector and registers its metrics.
+     *
+     * @param meterRegistry the registry to publish the metrics to
+     */
+    public S3ClientMetricCollector(final MeterRegistry meterRegistry) {
+        this.leaseTimer = Timer.builder(METRIC_PREFIX + "lease")
+                .description("Time taken to lease a connection from the pool of the S3 client")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + "available", available, AtomicLong::get)
+                .description("Idle connections in the pool of the S3 client")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + "leased", leased, AtomicLong::get)
+                .description("Connections of the pool of the S3 client in use")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + "pending", pending, AtomicLong::get)
+                .description("Requests of the S3 client waiting for a connection")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean start() {
+        enabled = true;
+        return true;
+    }
+
+    @Override
+    public boolean stop() {
+        enabled = false;
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public RequestMetricCollector getRequestMetricCollector() {
+        return requestMetricCollector;
+    }
+
+    @Override
+    public ServiceMetricCollector getServiceMetricCollector() {
+        return serviceMetricCollector;
+    }
+
+    private static void record(final TimingInfo timingInfo, final AWSRequestMetrics.Field field, final AtomicLong value) {
+        Number count = timingInfo.getCounter(field.name());
+        if (count != null) {
+            value.set(count.longValue());
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.bpmericle.assetmanager;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import java.io.IOException;
+import java.util.Collections;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Runs each request in a server span, continuing the trace named by the
+ * <code>traceparent</code> header of the request when there is one.
+ * <p>
+ * The span covers the whole handling of the request, including the writing
+ * of the response, so the time spent outside the spans of the controllers is
+ * the time spent dispatching the request and serializing the response. Once
+ * the request is handled, the span is named after the route of the handler
+ * and records the status of the response; the span of an asynchronous
+ * request ends when its response is written.
+ *
+ * @author Brian Mericle
+ */
+public class TracingFilter extends OncePerRequestFilter {
+
+    /**
+     * The attribute holding the method of the request.
+     */
+    static final String ATTRIBUTE_METHOD = "http.method";
+
+    /**
+     * The attribute holding the path of the request.
+     */
+    static final String ATTRIBUTE_TARGET = "http.target";
+
+    /**
+     * The attribute holding the route of the handler of the request.
+     */
+    static final String ATTRIBUTE_ROUTE = "http.route";
+
+    /**
+     * The attribute holding the status of the response.
+     */
+    static final String ATTRIBUTE_STATUS_CODE = "http.status_code";
+
+    private static final int HTTP_STATUS_SERVER_ERROR = 500;
+
+    /**
+     * Reads the trace context of a request from its headers.
+     */
+    static final TextMapGetter<HttpServletRequest> HEADERS = new TextMapGetter<HttpServletRequest>() {
+        @Override
+        public Iterable<String> keys(final HttpServletRequest request) {
+            return Collections.list(request.getHeaderNames());
+        }
+
+        @Override
+        public String get(final HttpServletRequest request, final String name) {
+            return request.getHeader(name);
+        }
+    };
+
+    private final Tracer tracer;
+    private final TextMapPropagator propagator;
+
+    /**
+     * Creates the filter.
+     *
+     * @param openTelemetry the tracer provider and propagators of the service
+     */
+    public TracingFilter(final OpenTelemetry openTelemetry) {
+        this.tracer = openTelemetry.getTracer(TracingSupport.INSTRUMENTATION_NAME);
+        this.propagator = openTelemetry.getPropagators().getTextMapPropagator();
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+            final FilterChain filterChain) throws ServletException, IOException {
+        Context parent = propagator.extract(Context.root(), request, HEADERS);
+        Span span = tracer.spanBuilder("HTTP " + request.getMethod())
+                .setParent(parent)
+                .setSpanKind(SpanKind.SERVER)
+                .setAttribute(ATTRIBUTE_METHOD, request.getMethod())
+                .setAttribute(ATTRIBUTE_TARGET, request.getRequestURI())
+                .startSpan();
+
+        try (Scope scope = span.makeCurrent()) {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException ex) {
+            TracingSupport.failed(span, ex);
+            throw ex;
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(final AsyncEvent event) {
+                        end(span, request, response);
+                    }
+
+                    @Override
+                    public void onTimeout(final AsyncEvent event) {
+                        // the response is written once the timeout is handled
+                    }
+
+                    @Override
+                    public void onError(final AsyncEvent event) {
+                        TracingSupport.failed(span, event.getThrowable());
+                    }
+
+                    @Override
+                    public void onStartAsync(final AsyncEvent event) {
+                        // the span ends with the response
+                    }
+                });
+            } else {
+                end(span, request, response);
+            }
+        }
+    }
+
+    private static void end(final Span span, final HttpServletRequest request, final HttpServletResponse response) {
+        Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (route != null) {
+            span.updateName(request.getMethod() + " " + route);
+            span.setAttribute(ATTRIBUTE_ROUTE, route.toString());
+        }
+        span.setAttribute(ATTRIBUTE_STATUS_CODE, response.getStatus());
+        if (response.getStatus() >= HTTP_STATUS_SERVER_ERROR) {
+            span.setStatus(StatusCode.ERROR);
+        }
+        span.end();
+    }
+}
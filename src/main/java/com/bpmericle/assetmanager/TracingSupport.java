@@ -0,0 +1,69 @@
+package com.bpmericle.assetmanager;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Scope;
+import java.util.function.Supplier;
+
+/**
+ * Runs calls in the spans of a trace. The span is made current for the
+ * duration of the call, so the spans started by the call nest under it, and
+ * ended once the call returns or fails.
+ *
+ * @author Brian Mericle
+ */
+public final class TracingSupport {
+
+    /**
+     * The name of the instrumentation the spans of the service are recorded
+     * under.
+     */
+    public static final String INSTRUMENTATION_NAME = "com.bpmericle.assetmanager";
+
+    private TracingSupport() {
+    }
+
+    /**
+     * Runs a call in a span, recording the failure of the call in the span.
+     *
+     * @param <T> the type of the result of the call
+     * @param span the span to run the call in, which is ended
+     * @param call the call
+     * @return the result of the call
+     */
+    public static <T> T inSpan(final Span span, final Supplier<T> call) {
+        try (Scope scope = span.makeCurrent()) {
+            return call.get();
+        } catch (RuntimeException | Error ex) {
+            failed(span, ex);
+            throw ex;
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * Runs a call without result in a span, recording the failure of the call
+     * in the span.
+     *
+     * @param span the span to run the call in, which is ended
+     * @param call the call
+     */
+    public static void inSpan(final Span span, final Runnable call) {
+        inSpan(span, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    /**
+     * Records the failure of the work of a span.
+     *
+     * @param span the span
+     * @param ex the cause of the failure
+     */
+    public static void failed(final Span span, final Throwable ex) {
+        span.recordException(ex);
+        span.setStatus(StatusCode.ERROR, ex.getClass().getSimpleName());
+    }
+}
@@ -0,0 +1,90 @@
+package com.bpmericle.assetmanager;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Gives access to the virtual threads of Java 21 and later, while the service
+ * itself is still built for Java 8. The JDK methods are looked up by
+ * reflection once, when the thread factories and executors are created, so
+ * threads are then created and started without any reflective call. The
+ * classes the methods are looked up on are swapped in tests, so that both
+ * outcomes are tested on any JVM.
+ *
+ * @author Brian Mericle
+ */
+public final class VirtualThreadSupport {
+
+    private static final String EXCEPTION_MESSAGE_UNAVAILABLE = "Virtual threads require Java 21 or later, the service is running on Java %s.";
+
+    /**
+     * The class creating threads, whose <code>ofVirtual()</code> method
+     * tells whether virtual threads are available.
+     */
+    static Class<?> threadClass = Thread.class;
+
+    /**
+     * The class creating executors, whose
+     * <code>newThreadPerTaskExecutor(ThreadFactory)</code> method starts a
+     * thread for each task.
+     */
+    static Class<?> executorsClass = Executors.class;
+
+    private VirtualThreadSupport() {
+    }
+
+    /**
+     * Determines whether the running JVM supports virtual threads.
+     *
+     * @return true if virtual threads are available
+     */
+    public static boolean isAvailable() {
+        try {
+            threadClass.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates a factory of virtual threads named with the given prefix
+     * followed by a sequence number. The builder is called through the type
+     * <code>ofVirtual()</code> returns, as its implementation is not public.
+     *
+     * @param prefix the prefix of the names of the threads
+     * @return a factory of virtual threads
+     * @throws IllegalStateException if the running JVM does not support
+     * virtual threads
+     */
+    public static ThreadFactory newThreadFactory(final String prefix) {
+        try {
+            Method ofVirtual = threadClass.getMethod("ofVirtual");
+            Class<?> builderClass = ofVirtual.getReturnType();
+            Object builder = builderClass.getMethod("name", String.class, long.class).invoke(ofVirtual.invoke(null), prefix, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException(String.format(EXCEPTION_MESSAGE_UNAVAILABLE, System.getProperty("java.version")), ex);
+        }
+    }
+
+    /**
+     * Creates an executor starting a new thread from the given factory for
+     * each task.
+     *
+     * @param threadFactory the factory of the threads running the tasks
+     * @return an executor running each task on its own thread
+     * @throws IllegalStateException if the running JVM does not support
+     * virtual threads
+     */
+    public static ExecutorService newThreadPerTaskExecutor(final ThreadFactory threadFactory) {
+        try {
+            Method method = executorsClass.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) method.invoke(null, threadFactory);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException(String.format(EXCEPTION_MESSAGE_UNAVAILABLE, System.getProperty("java.version")), ex);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.bpmericle.assetmanager.controller;
+
+import com.bpmericle.assetmanager.model.AssetUploadMetadata;
+import com.bpmericle.assetmanager.model.AssetDownloadBatchRequest;
+import com.bpmericle.assetmanager.model.AssetDownloadResult;
+import com.bpmericle.assetmanager.model.AssetStatusUpdate;
+import com.bpmericle.assetmanager.model.AssetStatusUpdateResult;
+import com.bpmericle.assetmanager.model.AssetSummary;
+import com.bpmericle.assetmanager.service.AssetListing;
+import com.bpmericle.assetmanager.service.AssetManagerService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * This is the controller responsible for interacting with a number of assets
+ * within an asset store at once.
+ *
+ * @author Brian Mericle
+ */
+@RestController
+@RequestMapping("/asset")
+public class AssetBatchController {
+
+    /**
+     * The default number of assets examined for a page of the listing.
+     */
+    private static final String DEFAULT_LIMIT = "100";
+
+    /**
+     * The service containing the business logic.
+     */
+    @Autowired
+    private AssetManagerService service;
+
+    /**
+     * The mapper used to write streamed responses.
+     */
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * A request to upload a number of assets to an asset store.
+     *
+     * @param count the number of assets to upload
+     * @return metadata required to upload each asset to the asset store.
+     */
+    @PostMapping("/batch")
+    @ResponseBody
+    public List<AssetUploadMetadata> requestAssetUploads(@RequestParam(name = "count") final String count) {
+        return service.requestAssetUploads(Integer.valueOf(count));
+    }
+
+    /**
+     * A request to update the status of a number of assets.
+     *
+     * @param updates the status to set on each asset
+     * @return the outcome of the status update of each asset.
+     */
+    @PutMapping("/status/batch")
+    @ResponseBody
+    public List<AssetStatusUpdateResult> submitAssetUpdateStatuses(
+            @RequestBody(required = true) final List<AssetStatusUpdate> updates) {
+        return service.submitAssetUpdateStatuses(updates);
+    }
+
+    /**
+     * A request to download a number of assets from an asset store. The
+     * response is a JSON object mapping the identifier of each asset to either
+     * its download url or the reason it cannot be downloaded, streamed as the
+     * outcome of each asset becomes available.
+     *
+     * @param request the identifiers of the assets and the timeout
+     * @return the streamed outcome of the download request of each asset.
+     */
+    @PostMapping("/download/batch")
+    public ResponseEntity<StreamingResponseBody> requestAssetDownloads(
+            @RequestBody(required = true) final AssetDownloadBatchRequest request) {
+        Iterator<Map.Entry<String, AssetDownloadResult>> results
+                = service.requestAssetDownloads(request.getIds(), request.getTimeout());
+
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartObject();
+                while (results.hasNext()) {
+                    Map.Entry<String, AssetDownloadResult> result = results.next();
+                    generator.writeObjectField(result.getKey(), result.getValue());
+                    generator.flush();
+                }
+                generator.writeEndObject();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .body(body);
+    }
+
+    /**
+     * A request to list the assets of an asset store, page by page. The
+     * response is a JSON object holding the assets of the page, whose status
+     * is looked up before the response is written, followed by the cursor the
+     * next page starts at, which is null on the last page.
+     *
+     * @param status the status of the assets to list, empty for the assets
+     * without status, or absent to list all assets
+     * @param cursor the cursor returned with the previous page, absent for the
+     * first page
+     * @param limit the number of assets to examine for the page
+     * @return the streamed page of the listing.
+     */
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> listAssets(
+            @RequestParam(name = "status", required = false) final String status,
+            @RequestParam(name = "cursor", required = false) final String cursor,
+            @RequestParam(name = "limit", defaultValue = DEFAULT_LIMIT, required = false) final String limit) {
+        AssetListing listing = service.listAssets(status, cursor, Integer.valueOf(limit));
+
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartObject();
+                generator.writeArrayFieldStart("assets");
+                Iterator<AssetSummary> assets = listing.getAssets();
+                while (assets.hasNext()) {
+                    generator.writeObject(assets.next());
+                    generator.flush();
+                }
+                generator.writeEndArray();
+                generator.writeStringField("next_cursor", listing.getNextCursor());
+                generator.writeEndObject();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .body(body);
+    }
+}
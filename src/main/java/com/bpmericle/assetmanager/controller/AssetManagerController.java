@@ -1,15 +1,28 @@
 package com.bpmericle.assetmanager.controller;
 
+import static com.bpmericle.assetmanager.TracingSupport.inSpan;
+
 import com.bpmericle.assetmanager.model.AssetUploadMetadata;
 import com.bpmericle.assetmanager.model.AssetStatus;
+import com.bpmericle.assetmanager.model.AssetDownloadManifest;
 import com.bpmericle.assetmanager.model.AssetDownloadMetadata;
+import com.bpmericle.assetmanager.service.AssetDownload;
 import com.bpmericle.assetmanager.service.AssetManagerService;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
@@ -36,6 +49,12 @@ public class AssetManagerController {
     @Autowired
     private AssetManagerService service;
 
+    /**
+     * The tracer starting the span of each request handled.
+     */
+    @Autowired
+    private Tracer tracer;
+
     /**
      * A request to upload to an asset store.
      *
@@ -44,19 +63,101 @@ public class AssetManagerController {
     @PostMapping
     @ResponseBody
     public AssetUploadMetadata requestAssetUpload() {
-        return service.requestAssetUpload();
+        return inSpan(span("requestAssetUpload"), service::requestAssetUpload);
     }
 
     @PutMapping("/{id}")
     public void submitAssetUpdateStatus(@PathVariable final String id, 
             @RequestBody(required = true) final AssetStatus status) {
-        service.submitAssetUpdateStatus(id, status);
+        inSpan(span("submitAssetUpdateStatus"), () -> service.submitAssetUpdateStatus(id, status));
     }
 
+    /**
+     * A request to download an asset. The answer carries the entity tag of the
+     * download URL and may be cached for as long as the URL is handed back,
+     * and a client still holding a good download URL is answered with a 304.
+     *
+     * @param id the identifier of the asset
+     * @param timeout the amount of time in seconds the download url will be
+     * good for
+     * @param ifNoneMatch the entity tags of the download URLs the client holds
+     * @return the download url of the asset, or no content if the client
+     * holds a good one.
+     */
     @GetMapping("/{id}")
-    @ResponseBody
-    public AssetDownloadMetadata requestAssetDownload(@PathVariable final String id,
+    public ResponseEntity<AssetDownloadMetadata> requestAssetDownload(@PathVariable final String id,
+            @RequestParam(name = "timeout", defaultValue = DEFAULT_TIMEOUT, required = false) final String timeout,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) final String ifNoneMatch) {
+        return inSpan(span("requestAssetDownload"),
+                () -> downloadResponse(service.requestAssetDownload(id, Integer.valueOf(timeout), ifNoneMatch)));
+    }
+
+    /**
+     * A request to download an asset, answered with a redirect straight to
+     * its download URL so that the client needs no second round trip.
+     *
+     * @param id the identifier of the asset
+     * @param timeout the amount of time in seconds the download url will be
+     * good for
+     * @return a redirect to the download url of the asset.
+     */
+    @GetMapping(path = "/{id}", params = {"redirect=true", "!parts"})
+    public ResponseEntity<Void> redirectAssetDownload(@PathVariable final String id,
             @RequestParam(name = "timeout", defaultValue = DEFAULT_TIMEOUT, required = false) final String timeout) {
-        return service.requestAssetDownload(id, Integer.valueOf(timeout));
+        return inSpan(span("redirectAssetDownload"),
+                () -> redirectResponse(service.requestAssetDownload(id, Integer.valueOf(timeout), null)));
+    }
+
+    /**
+     * A request to download an asset in byte ranges fetched in parallel.
+     *
+     * @param id the identifier of the asset
+     * @param timeout the amount of time in seconds the download url will be
+     * good for
+     * @param parts the number of byte ranges to split the asset into
+     * @return the download url, size, entity tag and byte ranges of the asset.
+     */
+    @GetMapping(path = "/{id}", params = "parts")
+    @ResponseBody
+    public AssetDownloadManifest requestAssetDownloadManifest(@PathVariable final String id,
+            @RequestParam(name = "timeout", defaultValue = DEFAULT_TIMEOUT, required = false) final String timeout,
+            @RequestParam(name = "parts") final String parts) {
+        return inSpan(span("requestAssetDownloadManifest"),
+                () -> service.requestAssetDownloadManifest(id, Integer.valueOf(timeout), Integer.valueOf(parts)));
+    }
+
+    /**
+     * Returns the response to a request to download an asset, with its
+     * caching headers.
+     *
+     * @param download the download of the asset
+     * @return the response
+     */
+    static ResponseEntity<AssetDownloadMetadata> downloadResponse(final AssetDownload download) {
+        return ResponseEntity.status(download.isNotModified() ? HttpStatus.NOT_MODIFIED : HttpStatus.OK)
+                .eTag(download.getEntityTag())
+                .cacheControl(CacheControl.maxAge(download.getMaxAge(), TimeUnit.SECONDS))
+                .body(download.getMetadata());
+    }
+
+    /**
+     * Returns the redirect to the download URL of an asset, which may be
+     * cached for as long as the URL is handed back.
+     *
+     * @param download the download of the asset
+     * @return the response
+     */
+    static ResponseEntity<Void> redirectResponse(final AssetDownload download) {
+        return ResponseEntity.status(HttpStatus.TEMPORARY_REDIRECT)
+                .location(URI.create(download.getMetadata().getDownloadUrl()))
+                .cacheControl(CacheControl.maxAge(download.getMaxAge(), TimeUnit.SECONDS))
+                .build();
+    }
+
+    /**
+     * Starts the span of a request handled by this controller.
+     */
+    private Span span(final String method) {
+        return tracer.spanBuilder("AssetManagerController." + method).startSpan();
     }
 }
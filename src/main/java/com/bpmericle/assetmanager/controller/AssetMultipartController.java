@@ -0,0 +1,72 @@
+package com.bpmericle.assetmanager.controller;
+
+import com.bpmericle.assetmanager.model.AssetMultipartUploadMetadata;
+import com.bpmericle.assetmanager.model.AssetUploadPart;
+import com.bpmericle.assetmanager.service.AssetManagerService;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * This is the controller responsible for uploading large assets to an asset
+ * store in parts, which clients can upload in parallel.
+ *
+ * @author Brian Mericle
+ */
+@RestController
+@RequestMapping("/asset")
+public class AssetMultipartController {
+
+    /**
+     * The service containing the business logic.
+     */
+    @Autowired
+    private AssetManagerService service;
+
+    /**
+     * A request to upload an asset to an asset store in parts.
+     *
+     * @param size the size of the asset in bytes
+     * @return metadata required to upload each part to the asset store.
+     */
+    @PostMapping("/multipart")
+    @ResponseBody
+    public AssetMultipartUploadMetadata requestAssetMultipartUpload(@RequestParam(name = "size") final String size) {
+        return service.requestAssetMultipartUpload(Long.valueOf(size));
+    }
+
+    /**
+     * A request to assemble an asset from the parts uploaded to the asset
+     * store.
+     *
+     * @param id the identifier of the asset
+     * @param uploadId the identifier of the multipart upload
+     * @param parts the number and entity tag of each uploaded part
+     */
+    @PutMapping("/{id}/multipart")
+    public void completeAssetMultipartUpload(@PathVariable final String id,
+            @RequestParam(name = "upload_id") final String uploadId,
+            @RequestBody(required = true) final List<AssetUploadPart> parts) {
+        service.completeAssetMultipartUpload(id, uploadId, parts);
+    }
+
+    /**
+     * A request to discard the parts uploaded to the asset store.
+     *
+     * @param id the identifier of the asset
+     * @param uploadId the identifier of the multipart upload
+     */
+    @DeleteMapping("/{id}/multipart")
+    public void abortAssetMultipartUpload(@PathVariable final String id,
+            @RequestParam(name = "upload_id") final String uploadId) {
+        service.abortAssetMultipartUpload(id, uploadId);
+    }
+}
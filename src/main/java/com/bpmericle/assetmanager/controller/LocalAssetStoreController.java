@@ -0,0 +1,123 @@
+package com.bpmericle.assetmanager.controller;
+
+import com.amazonaws.HttpMethod;
+import com.bpmericle.assetmanager.service.LocalAssetStore;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+import javax.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.PathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * This is the controller serving the pre-signed URLs of the
+ * {@link LocalAssetStore}, which stands in for S3 in load tests. It is only
+ * available when <code>asset-manager.asset-store.type</code> is
+ * <code>local</code>.
+ *
+ * @author Brian Mericle
+ */
+@RestController
+@RequestMapping("/local-store")
+@ConditionalOnProperty(prefix = "asset-manager.asset-store", name = "type", havingValue = "local")
+public class LocalAssetStoreController {
+
+    /**
+     * The store holding the assets.
+     */
+    @Autowired
+    private LocalAssetStore store;
+
+    /**
+     * Uploads an asset through a pre-signed URL.
+     *
+     * @param id the identifier of the asset
+     * @param expires the date the URL expires at, in seconds since the epoch
+     * @param signature the signature of the URL
+     * @param request the request, whose body is the content of the asset
+     * @return an empty response, with a 403 status if the URL is not valid
+     * @throws IOException if the content of the asset cannot be stored
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<Void> upload(@PathVariable final String id,
+            @RequestParam(name = "expires") final long expires,
+            @RequestParam(name = "signature") final String signature,
+            final HttpServletRequest request) throws IOException {
+        if (!store.isValid(HttpMethod.PUT, id, expires, signature)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        store.write(id, request.getInputStream());
+        return ResponseEntity.ok().build();
+    }
+
+    /**
+     * Uploads a part of a multipart upload through a pre-signed URL.
+     *
+     * @param id the identifier of the asset
+     * @param uploadId the identifier of the multipart upload
+     * @param partNumber the number of the part
+     * @param expires the date the URL expires at, in seconds since the epoch
+     * @param signature the signature of the URL
+     * @param request the request, whose body is the content of the part
+     * @return an empty response with the entity tag of the part, with a 403
+     * status if the URL is not valid or a 404 status if the multipart upload
+     * does not exist
+     * @throws IOException if the content of the part cannot be stored
+     */
+    @PutMapping(path = "/{id}", params = {"uploadId", "partNumber"})
+    public ResponseEntity<Void> uploadPart(@PathVariable final String id,
+            @RequestParam(name = "uploadId") final String uploadId,
+            @RequestParam(name = "partNumber") final int partNumber,
+            @RequestParam(name = "expires") final long expires,
+            @RequestParam(name = "signature") final String signature,
+            final HttpServletRequest request) throws IOException {
+        if (!store.isValidPart(id, uploadId, partNumber, expires, signature)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        Optional<String> entityTag = store.writePart(id, uploadId, partNumber, request.getInputStream());
+        if (!entityTag.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok().eTag(entityTag.get()).build();
+    }
+
+    /**
+     * Downloads an asset through a pre-signed URL.
+     *
+     * @param id the identifier of the asset
+     * @param expires the date the URL expires at, in seconds since the epoch
+     * @param signature the signature of the URL
+     * @return the content of the asset, or an empty response with a 403
+     * status if the URL is not valid or a 404 status if the asset does not
+     * exist
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<Resource> download(@PathVariable final String id,
+            @RequestParam(name = "expires") final long expires,
+            @RequestParam(name = "signature") final String signature) {
+        if (!store.isValid(HttpMethod.GET, id, expires, signature)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        Optional<Path> object = store.read(id);
+        if (!object.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(new PathResource(object.get()));
+    }
+}
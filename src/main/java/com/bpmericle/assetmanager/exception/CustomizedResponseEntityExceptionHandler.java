@@ -1,5 +1,8 @@
 package com.bpmericle.assetmanager.exception;
 
+import com.bpmericle.assetmanager.service.AssetNotFoundException;
+import com.bpmericle.assetmanager.service.AssetNotUploadedException;
+import com.bpmericle.assetmanager.service.AssetStoreUnavailableException;
 import java.util.Date;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -17,8 +20,19 @@ import org.springframework.web.context.request.WebRequest;
 @RestController
 public class CustomizedResponseEntityExceptionHandler {
 
+    private static final ResponseEntity<ExceptionResponse> RESPONSE_NOT_FOUND
+            = expectedResponse(new AssetNotFoundException().getMessage(), HttpStatus.NOT_FOUND);
+    private static final ResponseEntity<ExceptionResponse> RESPONSE_NOT_UPLOADED
+            = expectedResponse(new AssetNotUploadedException().getMessage(), HttpStatus.CONFLICT);
+    private static final ResponseEntity<ExceptionResponse> RESPONSE_UNAVAILABLE
+            = expectedResponse("The asset store is unavailable, retry later.", HttpStatus.SERVICE_UNAVAILABLE);
+
     @ExceptionHandler(Exception.class)
     public final ResponseEntity<ExceptionResponse> handleAllExceptions(final Exception ex, final WebRequest request) {
+        ResponseEntity<ExceptionResponse> expected = expectedResponse(ex);
+        if (expected != null) {
+            return expected;
+        }
         ExceptionResponse exceptionResponse
                 = new ExceptionResponse(new Date(), ex.getMessage(), request.getDescription(false));
         return new ResponseEntity<>(exceptionResponse, HttpStatus.INTERNAL_SERVER_ERROR);
@@ -30,4 +44,40 @@ public class CustomizedResponseEntityExceptionHandler {
                 = new ExceptionResponse(new Date(), ex.getMessage(), request.getDescription(false));
         return new ResponseEntity<>(exceptionResponse, HttpStatus.BAD_REQUEST);
     }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public final ResponseEntity<ExceptionResponse> handleAllExceptions(final IllegalArgumentException ex, final WebRequest request) {
+        ExceptionResponse exceptionResponse
+                = new ExceptionResponse(new Date(), ex.getMessage(), request.getDescription(false));
+        return new ResponseEntity<>(exceptionResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Returns the response to an expected outcome, such as an asset not
+     * uploaded yet or an asset store turning calls away, which is built once
+     * and only holds the message, so that answering it costs almost nothing.
+     * The outcome may be the cause of the exception, as when it happened on
+     * another thread.
+     *
+     * @param ex the exception the request failed with
+     * @return the response, or null if the exception is not expected
+     */
+    private static ResponseEntity<ExceptionResponse> expectedResponse(final Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof AssetNotFoundException) {
+                return RESPONSE_NOT_FOUND;
+            }
+            if (cause instanceof AssetNotUploadedException) {
+                return RESPONSE_NOT_UPLOADED;
+            }
+            if (cause instanceof AssetStoreUnavailableException) {
+                return RESPONSE_UNAVAILABLE;
+            }
+        }
+        return null;
+    }
+
+    private static ResponseEntity<ExceptionResponse> expectedResponse(final String message, final HttpStatus status) {
+        return new ResponseEntity<>(new ExceptionResponse(null, message, null), status);
+    }
 }
@@ -1,12 +1,15 @@
 package com.bpmericle.assetmanager.exception;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.util.Date;
 
 /**
- * Simple wrapper response to return when an exception occurs.
+ * Simple wrapper response to return when an exception occurs. The responses
+ * to expected outcomes are built once, so they have no timestamp or details.
  *
  * @author Brian Mericle
  */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class ExceptionResponse {
 
     private final Date timestamp;
@@ -0,0 +1,100 @@
+package com.bpmericle.assetmanager.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Represents a request to download a number of assets from the asset store.
+ *
+ * @author Brian Mericle
+ */
+public class AssetDownloadBatchRequest implements Serializable {
+
+    /**
+     * The default timeout (in seconds) the download links will be good for.
+     */
+    private static final int DEFAULT_TIMEOUT = 60;
+
+    @JsonProperty("ids")
+    private List<String> ids;
+
+    @JsonProperty("timeout")
+    private int timeout;
+
+    /**
+     * Default empty constructor.
+     */
+    public AssetDownloadBatchRequest() {
+        this(new ArrayList<>(), DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Constructs a request to download specific assets.
+     *
+     * @param ids the identifiers of the assets
+     * @param timeout the amount of time in seconds the asset downloads will
+     * be available for
+     */
+    public AssetDownloadBatchRequest(final List<String> ids, final int timeout) {
+        this.ids = ids;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Get the value of ids
+     *
+     * @return the value of ids
+     */
+    public List<String> getIds() {
+        return ids;
+    }
+
+    /**
+     * Get the value of timeout
+     *
+     * @return the value of timeout
+     */
+    public int getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (!(obj instanceof AssetDownloadBatchRequest)) {
+            return false;
+        }
+
+        AssetDownloadBatchRequest other = (AssetDownloadBatchRequest) obj;
+        return Objects.equals(ids, other.ids) &&
+                timeout == other.timeout;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(ids, timeout);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return String.format("Class: [%s] {ids: %s, timeout: %s}", getClass().getSimpleName(), ids, timeout);
+    }
+
+}
@@ -0,0 +1,128 @@
+package com.bpmericle.assetmanager.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Metadata representing how to download an asset from the asset store in
+ * byte ranges fetched in parallel, all from the same download url.
+ *
+ * @author Brian Mericle
+ */
+public class AssetDownloadManifest implements Serializable {
+
+    @JsonProperty("Download_url")
+    private String downloadUrl;
+
+    @JsonProperty("size")
+    private long size;
+
+    @JsonProperty("etag")
+    private String etag;
+
+    @JsonProperty("ranges")
+    private List<AssetDownloadRange> ranges;
+
+    /**
+     * Default empty constructor.
+     */
+    public AssetDownloadManifest() {
+        this("", 0, null, new ArrayList<>());
+    }
+
+    /**
+     * Creates a download manifest with the download url, the size and entity
+     * tag of the asset, and its byte ranges.
+     *
+     * @param downloadUrl the url used to download the asset
+     * @param size the size of the asset in bytes
+     * @param etag the entity tag of the asset, which the ranges can be
+     * requested with in an <code>If-Match</code> header
+     * @param ranges the byte ranges of the asset, in ascending order
+     */
+    public AssetDownloadManifest(final String downloadUrl, final long size, final String etag,
+            final List<AssetDownloadRange> ranges) {
+        this.downloadUrl = downloadUrl;
+        this.size = size;
+        this.etag = etag;
+        this.ranges = ranges;
+    }
+
+    /**
+     * Get the value of downloadUrl
+     *
+     * @return the value of downloadUrl
+     */
+    public String getDownloadUrl() {
+        return downloadUrl;
+    }
+
+    /**
+     * Get the value of size
+     *
+     * @return the value of size
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Get the value of etag
+     *
+     * @return the value of etag
+     */
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * Get the value of ranges
+     *
+     * @return the value of ranges
+     */
+    public List<AssetDownloadRange> getRanges() {
+        return ranges;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (!(obj instanceof AssetDownloadManifest)) {
+            return false;
+        }
+
+        AssetDownloadManifest other = (AssetDownloadManifest) obj;
+        return size == other.size &&
+                Objects.equals(downloadUrl, other.downloadUrl) &&
+                Objects.equals(etag, other.etag) &&
+                Objects.equals(ranges, other.ranges);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(downloadUrl, size, etag, ranges);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return String.format("Class: [%s] {downloadUrl: %s, size: %s, etag: %s, ranges: %s}", getClass().getSimpleName(),
+                downloadUrl, size, etag, ranges);
+    }
+}
@@ -0,0 +1,91 @@
+package com.bpmericle.assetmanager.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A byte range of an asset, fetched from the download URL of the asset with a
+ * <code>Range: bytes={start}-{end}</code> header.
+ *
+ * @author Brian Mericle
+ */
+public class AssetDownloadRange implements Serializable {
+
+    @JsonProperty("start")
+    private long start;
+
+    @JsonProperty("end")
+    private long end;
+
+    /**
+     * Default empty constructor.
+     */
+    public AssetDownloadRange() {
+        this(0, 0);
+    }
+
+    /**
+     * Creates a byte range from its first and last byte.
+     *
+     * @param start the offset of the first byte of the range
+     * @param end the offset of the last byte of the range, inclusive
+     */
+    public AssetDownloadRange(final long start, final long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Get the value of start
+     *
+     * @return the value of start
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * Get the value of end
+     *
+     * @return the value of end
+     */
+    public long getEnd() {
+        return end;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (!(obj instanceof AssetDownloadRange)) {
+            return false;
+        }
+
+        AssetDownloadRange other = (AssetDownloadRange) obj;
+        return start == other.start && end == other.end;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(start, end);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return String.format("Class: [%s] {start: %s, end: %s}", getClass().getSimpleName(), start, end);
+    }
+}
@@ -0,0 +1,116 @@
+package com.bpmericle.assetmanager.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Outcome of the download request of a specific asset, as part of a batch
+ * request: either the url used to download the asset, or the reason it
+ * cannot be downloaded.
+ *
+ * @author Brian Mericle
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AssetDownloadResult implements Serializable {
+
+    @JsonProperty("Download_url")
+    private String downloadUrl;
+
+    @JsonProperty("error")
+    private String error;
+
+    /**
+     * Default empty constructor.
+     */
+    public AssetDownloadResult() {
+        this(null, null);
+    }
+
+    /**
+     * Constructs the outcome of the download request of a specific asset.
+     *
+     * @param downloadUrl the url used to download the asset, if any
+     * @param error the reason the asset cannot be downloaded, if any
+     */
+    public AssetDownloadResult(final String downloadUrl, final String error) {
+        this.downloadUrl = downloadUrl;
+        this.error = error;
+    }
+
+    /**
+     * Creates the outcome of a successful download request.
+     *
+     * @param metadata metadata about how to download the asset
+     * @return the outcome of the download request
+     */
+    public static AssetDownloadResult success(final AssetDownloadMetadata metadata) {
+        return new AssetDownloadResult(metadata.getDownloadUrl(), null);
+    }
+
+    /**
+     * Creates the outcome of a failed download request.
+     *
+     * @param error the reason the asset cannot be downloaded
+     * @return the outcome of the download request
+     */
+    public static AssetDownloadResult failure(final String error) {
+        return new AssetDownloadResult(null, error);
+    }
+
+    /**
+     * Get the value of downloadUrl
+     *
+     * @return the value of downloadUrl
+     */
+    public String getDownloadUrl() {
+        return downloadUrl;
+    }
+
+    /**
+     * Get the value of error
+     *
+     * @return the value of error
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (!(obj instanceof AssetDownloadResult)) {
+            return false;
+        }
+
+        AssetDownloadResult other = (AssetDownloadResult) obj;
+        return Objects.equals(downloadUrl, other.downloadUrl) &&
+                Objects.equals(error, other.error);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(downloadUrl, error);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return String.format("Class: [%s] {downloadUrl: %s, error: %s}", getClass().getSimpleName(), downloadUrl, error);
+    }
+
+}
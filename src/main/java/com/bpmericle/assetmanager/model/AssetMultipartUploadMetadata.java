@@ -0,0 +1,128 @@
+package com.bpmericle.assetmanager.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Metadata representing how to upload an asset to the asset store in parts,
+ * which can be uploaded in parallel.
+ *
+ * @author Brian Mericle
+ */
+public class AssetMultipartUploadMetadata implements Serializable {
+
+    @JsonProperty("id")
+    private String id;
+
+    @JsonProperty("upload_id")
+    private String uploadId;
+
+    @JsonProperty("part_size")
+    private long partSize;
+
+    @JsonProperty("parts")
+    private List<AssetUploadPartMetadata> parts;
+
+    /**
+     * Default empty constructor.
+     */
+    public AssetMultipartUploadMetadata() {
+        this("", "", 0, new ArrayList<>());
+    }
+
+    /**
+     * Creates the metadata of a multipart upload.
+     *
+     * @param id the identifier for the asset
+     * @param uploadId the identifier of the multipart upload
+     * @param partSize the size in bytes of each part but the last, which
+     * holds the remainder of the asset
+     * @param parts the metadata of each part, in ascending order of part
+     * number
+     */
+    public AssetMultipartUploadMetadata(final String id, final String uploadId, final long partSize,
+            final List<AssetUploadPartMetadata> parts) {
+        this.id = id;
+        this.uploadId = uploadId;
+        this.partSize = partSize;
+        this.parts = parts;
+    }
+
+    /**
+     * Get the value of id
+     *
+     * @return the value of id
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Get the value of uploadId
+     *
+     * @return the value of uploadId
+     */
+    public String getUploadId() {
+        return uploadId;
+    }
+
+    /**
+     * Get the value of partSize
+     *
+     * @return the value of partSize
+     */
+    public long getPartSize() {
+        return partSize;
+    }
+
+    /**
+     * Get the value of parts
+     *
+     * @return the value of parts
+     */
+    public List<AssetUploadPartMetadata> getParts() {
+        return parts;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (!(obj instanceof AssetMultipartUploadMetadata)) {
+            return false;
+        }
+
+        AssetMultipartUploadMetadata other = (AssetMultipartUploadMetadata) obj;
+        return Objects.equals(id, other.id) &&
+                Objects.equals(uploadId, other.uploadId) &&
+                partSize == other.partSize &&
+                Objects.equals(parts, other.parts);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, uploadId, partSize, parts);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return String.format("Class: [%s] {id: %s, uploadId: %s, partSize: %s, parts: %s}", getClass().getSimpleName(),
+                id, uploadId, partSize, parts);
+    }
+}
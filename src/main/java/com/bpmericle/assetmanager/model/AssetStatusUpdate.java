@@ -0,0 +1,92 @@
+package com.bpmericle.assetmanager.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Represents the status to set on a specific asset, as part of a batch update.
+ *
+ * @author Brian Mericle
+ */
+public class AssetStatusUpdate implements Serializable {
+
+    @JsonProperty("id")
+    private String id;
+
+    @JsonProperty("Status")
+    private String status;
+
+    /**
+     * Default empty constructor.
+     */
+    public AssetStatusUpdate() {
+        this("", "");
+    }
+
+    /**
+     * Constructs a status update of a specific asset.
+     *
+     * @param id the identifier of the asset
+     * @param status the status of the asset
+     */
+    public AssetStatusUpdate(final String id, final String status) {
+        this.id = id;
+        this.status = status;
+    }
+
+    /**
+     * Get the value of id
+     *
+     * @return the value of id
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Get the value of status
+     *
+     * @return the value of status
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (!(obj instanceof AssetStatusUpdate)) {
+            return false;
+        }
+
+        AssetStatusUpdate other = (AssetStatusUpdate) obj;
+        return Objects.equals(id, other.id) &&
+                Objects.equals(status, other.status);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, status);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return String.format("Class: [%s] {id: %s, status: %s}", getClass().getSimpleName(), id, status);
+    }
+
+}
@@ -0,0 +1,130 @@
+package com.bpmericle.assetmanager.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Outcome of the status update of a specific asset, as part of a batch update.
+ *
+ * @author Brian Mericle
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AssetStatusUpdateResult implements Serializable {
+
+    @JsonProperty("id")
+    private String id;
+
+    @JsonProperty("success")
+    private boolean success;
+
+    @JsonProperty("error")
+    private String error;
+
+    /**
+     * Default empty constructor.
+     */
+    public AssetStatusUpdateResult() {
+        this("", true, null);
+    }
+
+    /**
+     * Constructs the outcome of the status update of a specific asset.
+     *
+     * @param id the identifier of the asset
+     * @param success whether the status was updated
+     * @param error the reason the status was not updated, if any
+     */
+    public AssetStatusUpdateResult(final String id, final boolean success, final String error) {
+        this.id = id;
+        this.success = success;
+        this.error = error;
+    }
+
+    /**
+     * Creates the outcome of a successful status update.
+     *
+     * @param id the identifier of the asset
+     * @return the outcome of the status update
+     */
+    public static AssetStatusUpdateResult success(final String id) {
+        return new AssetStatusUpdateResult(id, true, null);
+    }
+
+    /**
+     * Creates the outcome of a failed status update.
+     *
+     * @param id the identifier of the asset
+     * @param error the reason the status was not updated
+     * @return the outcome of the status update
+     */
+    public static AssetStatusUpdateResult failure(final String id, final String error) {
+        return new AssetStatusUpdateResult(id, false, error);
+    }
+
+    /**
+     * Get the value of id
+     *
+     * @return the value of id
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Get the value of success
+     *
+     * @return the value of success
+     */
+    public boolean isSuccess() {
+        return success;
+    }
+
+    /**
+     * Get the value of error
+     *
+     * @return the value of error
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (!(obj instanceof AssetStatusUpdateResult)) {
+            return false;
+        }
+
+        AssetStatusUpdateResult other = (AssetStatusUpdateResult) obj;
+        return Objects.equals(id, other.id) &&
+                success == other.success &&
+                Objects.equals(error, other.error);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, success, error);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return String.format("Class: [%s] {id: %s, success: %s, error: %s}", getClass().getSimpleName(), id, success, error);
+    }
+
+}
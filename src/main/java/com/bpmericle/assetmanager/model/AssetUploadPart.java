@@ -0,0 +1,93 @@
+package com.bpmericle.assetmanager.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Represents a part uploaded as part of a multipart upload, identified by the
+ * entity tag the asset store returned for it.
+ *
+ * @author Brian Mericle
+ */
+public class AssetUploadPart implements Serializable {
+
+    @JsonProperty("part_number")
+    private int partNumber;
+
+    @JsonProperty("etag")
+    private String etag;
+
+    /**
+     * Default empty constructor.
+     */
+    public AssetUploadPart() {
+        this(0, null);
+    }
+
+    /**
+     * Constructs an uploaded part.
+     *
+     * @param partNumber the number of the part, from 1
+     * @param etag the entity tag of the part, from the <code>ETag</code>
+     * header of the response to its upload
+     */
+    public AssetUploadPart(final int partNumber, final String etag) {
+        this.partNumber = partNumber;
+        this.etag = etag;
+    }
+
+    /**
+     * Get the value of partNumber
+     *
+     * @return the value of partNumber
+     */
+    public int getPartNumber() {
+        return partNumber;
+    }
+
+    /**
+     * Get the value of etag
+     *
+     * @return the value of etag
+     */
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (!(obj instanceof AssetUploadPart)) {
+            return false;
+        }
+
+        AssetUploadPart other = (AssetUploadPart) obj;
+        return partNumber == other.partNumber &&
+                Objects.equals(etag, other.etag);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(partNumber, etag);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return String.format("Class: [%s] {partNumber: %s, etag: %s}", getClass().getSimpleName(), partNumber, etag);
+    }
+}
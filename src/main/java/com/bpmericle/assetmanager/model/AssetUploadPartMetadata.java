@@ -0,0 +1,92 @@
+package com.bpmericle.assetmanager.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Metadata representing how to upload a part of an asset to the asset store,
+ * as part of a multipart upload.
+ *
+ * @author Brian Mericle
+ */
+public class AssetUploadPartMetadata implements Serializable {
+
+    @JsonProperty("part_number")
+    private int partNumber;
+
+    @JsonProperty("upload_url")
+    private String uploadUrl;
+
+    /**
+     * Default empty constructor.
+     */
+    public AssetUploadPartMetadata() {
+        this(0, "");
+    }
+
+    /**
+     * Creates the metadata of a part with its number and upload url.
+     *
+     * @param partNumber the number of the part, from 1
+     * @param uploadUrl the url used to upload the part
+     */
+    public AssetUploadPartMetadata(final int partNumber, final String uploadUrl) {
+        this.partNumber = partNumber;
+        this.uploadUrl = uploadUrl;
+    }
+
+    /**
+     * Get the value of partNumber
+     *
+     * @return the value of partNumber
+     */
+    public int getPartNumber() {
+        return partNumber;
+    }
+
+    /**
+     * Get the value of uploadUrl
+     *
+     * @return the value of uploadUrl
+     */
+    public String getUploadUrl() {
+        return uploadUrl;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (!(obj instanceof AssetUploadPartMetadata)) {
+            return false;
+        }
+
+        AssetUploadPartMetadata other = (AssetUploadPartMetadata) obj;
+        return partNumber == other.partNumber &&
+                Objects.equals(uploadUrl, other.uploadUrl);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(partNumber, uploadUrl);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return String.format("Class: [%s] {partNumber: %s, uploadUrl: %s}", getClass().getSimpleName(), partNumber, uploadUrl);
+    }
+}
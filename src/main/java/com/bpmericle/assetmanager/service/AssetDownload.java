@@ -0,0 +1,68 @@
+package com.bpmericle.assetmanager.service;
+
+import com.bpmericle.assetmanager.model.AssetDownloadMetadata;
+
+/**
+ * The answer to a request to download an asset, along with how long it may
+ * be cached: either metadata about how to download the asset, or the news
+ * that the download URL the client already holds is still good.
+ *
+ * @author Brian Mericle
+ */
+public class AssetDownload {
+
+    private final AssetDownloadMetadata metadata;
+    private final String entityTag;
+    private final long maxAge;
+
+    /**
+     * Constructs the answer to a request to download an asset.
+     *
+     * @param metadata metadata about how to download the asset, or null if
+     * the client holds a download URL still good
+     * @param entityTag the entity tag of the download URL, quoted
+     * @param maxAge the amount of time in seconds the answer may be cached
+     */
+    public AssetDownload(final AssetDownloadMetadata metadata, final String entityTag, final long maxAge) {
+        this.metadata = metadata;
+        this.entityTag = entityTag;
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Get the value of metadata
+     *
+     * @return the value of metadata
+     */
+    public AssetDownloadMetadata getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * Get the value of entityTag
+     *
+     * @return the value of entityTag
+     */
+    public String getEntityTag() {
+        return entityTag;
+    }
+
+    /**
+     * Get the value of maxAge
+     *
+     * @return the value of maxAge
+     */
+    public long getMaxAge() {
+        return maxAge;
+    }
+
+    /**
+     * Determines whether the download URL the client holds is still good, in
+     * which case there is no metadata.
+     *
+     * @return true if the download URL of the client is still good
+     */
+    public boolean isNotModified() {
+        return metadata == null;
+    }
+}
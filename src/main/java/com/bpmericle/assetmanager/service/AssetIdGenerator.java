@@ -0,0 +1,18 @@
+package com.bpmericle.assetmanager.service;
+
+/**
+ * A generator of the identifiers of new assets. An identifier is made of 32
+ * lowercase hexadecimal digits, so that it can be put in a URL and used as
+ * the name of a file as is.
+ *
+ * @author Brian Mericle
+ */
+public interface AssetIdGenerator {
+
+    /**
+     * Generates the identifier of a new asset, which no other asset has.
+     *
+     * @return the identifier of the asset
+     */
+    String newId();
+}
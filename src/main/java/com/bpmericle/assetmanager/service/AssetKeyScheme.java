@@ -0,0 +1,99 @@
+package com.bpmericle.assetmanager.service;
+
+import com.bpmericle.assetmanager.AssetManagerProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maps the identifier of an asset to the key of its object in the asset
+ * store, and back.
+ * <p>
+ * S3 scales the request rate of a bucket by partitioning it on the prefixes
+ * of its keys, so keys sharing their first characters, as time-ordered
+ * identifiers do, share the rate of one partition. When a prefix length is
+ * configured, the key of an asset is its identifier preceded by that many
+ * hexadecimal digits of a hash of the identifier and a dash, which spreads
+ * the assets evenly over as many prefixes. The key is computed from the
+ * identifier alone, so it is found without any lookup, and only holds
+ * characters that need no encoding in a URL.
+ *
+ * @author Brian Mericle
+ */
+@Component
+public class AssetKeyScheme {
+
+    /**
+     * The maximum number of hexadecimal digits of the prefix, which are the
+     * 32 bits of the hash.
+     */
+    static final int MAX_PREFIX_LENGTH = 8;
+
+    private static final char SEPARATOR = '-';
+    private static final String EXCEPTION_MESSAGE_INVALID_PREFIX_LENGTH = "Shard prefix length must be between 0 and %d.";
+
+    private final int prefixLength;
+
+    /**
+     * Creates the scheme from the configured prefix length.
+     *
+     * @param properties the settings of the asset manager
+     * @throws IllegalArgumentException if the prefix length is negative or
+     * longer than the hash
+     */
+    @Autowired
+    public AssetKeyScheme(final AssetManagerProperties properties) {
+        this.prefixLength = properties.getAssetId().getShardPrefixLength();
+        if (prefixLength < 0 || prefixLength > MAX_PREFIX_LENGTH) {
+            throw new IllegalArgumentException(String.format(EXCEPTION_MESSAGE_INVALID_PREFIX_LENGTH, MAX_PREFIX_LENGTH));
+        }
+    }
+
+    /**
+     * Returns the key of the object of an asset.
+     *
+     * @param id the identifier of the asset
+     * @return the key of the object
+     */
+    public String keyOf(final String id) {
+        if (prefixLength == 0) {
+            return id;
+        }
+        int hash = mix(id.hashCode());
+        char[] key = new char[prefixLength + 1 + id.length()];
+        for (int i = 0; i < prefixLength; i++) {
+            key[i] = Character.forDigit((hash >>> (28 - 4 * i)) & 0xF, 16);
+        }
+        key[prefixLength] = SEPARATOR;
+        id.getChars(0, id.length(), key, prefixLength + 1);
+        return new String(key);
+    }
+
+    /**
+     * Returns the identifier of the asset stored under a key. A key without
+     * a prefix, such as the key of an object stored before the prefix was
+     * configured, is returned as is.
+     *
+     * @param key the key of the object
+     * @return the identifier of the asset
+     */
+    public String idOf(final String key) {
+        if (prefixLength > 0 && key.length() > prefixLength && key.charAt(prefixLength) == SEPARATOR) {
+            return key.substring(prefixLength + 1);
+        }
+        return key;
+    }
+
+    /**
+     * Spreads the bits of the hash code of the identifier over all the bits
+     * of the hash, as the final mix of MurmurHash3 does.
+     */
+    private static int mix(final int hashCode) {
+        int hash = hashCode;
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
@@ -0,0 +1,46 @@
+package com.bpmericle.assetmanager.service;
+
+import com.bpmericle.assetmanager.model.AssetSummary;
+import java.util.Iterator;
+
+/**
+ * A page of a listing of assets: the assets of the page, handed back as soon
+ * as the status of each is known, and the cursor the next page starts at.
+ *
+ * @author Brian Mericle
+ */
+public class AssetListing {
+
+    private final Iterator<AssetSummary> assets;
+    private final String nextCursor;
+
+    /**
+     * Constructs a page of a listing of assets.
+     *
+     * @param assets the assets of the page
+     * @param nextCursor the cursor the next page starts at, or null if this is
+     * the last page
+     */
+    public AssetListing(final Iterator<AssetSummary> assets, final String nextCursor) {
+        this.assets = assets;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Get the value of assets
+     *
+     * @return the value of assets
+     */
+    public Iterator<AssetSummary> getAssets() {
+        return assets;
+    }
+
+    /**
+     * Get the value of nextCursor
+     *
+     * @return the value of nextCursor
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -2,25 +2,58 @@ package com.bpmericle.assetmanager.service;
 
 import com.amazonaws.AmazonServiceException;
 import com.amazonaws.HttpMethod;
+import com.amazonaws.SdkBaseException;
 import com.amazonaws.SdkClientException;
-import com.amazonaws.services.s3.AmazonS3;
-import com.amazonaws.services.s3.model.GeneratePresignedUrlRequest;
-import com.amazonaws.services.s3.model.GetObjectTaggingRequest;
-import com.amazonaws.services.s3.model.GetObjectTaggingResult;
-import com.amazonaws.services.s3.model.ObjectTagging;
-import com.amazonaws.services.s3.model.SetObjectTaggingRequest;
-import com.amazonaws.services.s3.model.Tag;
+import com.amazonaws.retry.RetryUtils;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.bpmericle.assetmanager.AssetManagerProperties;
+import com.bpmericle.assetmanager.model.AssetDownloadManifest;
 import com.bpmericle.assetmanager.model.AssetDownloadMetadata;
+import com.bpmericle.assetmanager.model.AssetDownloadRange;
+import com.bpmericle.assetmanager.model.AssetDownloadResult;
+import com.bpmericle.assetmanager.model.AssetMultipartUploadMetadata;
 import com.bpmericle.assetmanager.model.AssetStatus;
+import com.bpmericle.assetmanager.model.AssetStatusUpdate;
+import com.bpmericle.assetmanager.model.AssetStatusUpdateResult;
+import com.bpmericle.assetmanager.model.AssetSummary;
 import com.bpmericle.assetmanager.model.AssetUploadMetadata;
-import java.net.URL;
+import com.bpmericle.assetmanager.model.AssetUploadPart;
+import com.bpmericle.assetmanager.model.AssetUploadPartMetadata;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.AbstractMap;
 import java.util.ArrayList;
-import java.util.Calendar;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
 /**
  * Service interface for the asset manager.
@@ -31,22 +64,103 @@ import org.springframework.stereotype.Service;
 public class AssetManagerService {
 
     /**
-     * The name of the S3 bucket to use.
+     * The name of the S3 bucket to use, which the cached pre-signed URLs are
+     * keyed by.
      */
     @Value("#{systemProperties['AWS_S3_BUCKET_NAME']}")
     private String bucketName;
 
     /**
-     * The client to use to communicatie with the AWS S3 service.
+     * The store holding the assets.
      */
-    private AmazonS3 s3Client;
+    @Autowired
+    private AssetStore assetStore;
+
+    /**
+     * The generator of the identifiers of new assets.
+     */
+    @Autowired
+    private AssetIdGenerator idGenerator;
+
+    /**
+     * The index of the status of assets, when enabled.
+     */
+    @Autowired(required = false)
+    private AssetStatusIndex statusIndex;
+
+    /**
+     * The cache holding the status of assets.
+     */
+    @Autowired
+    private AssetStatusCache statusCache;
+
+    /**
+     * The cache holding pre-signed download URLs.
+     */
+    @Autowired
+    private PresignedUrlCache presignedUrlCache;
+
+    /**
+     * The cache holding the size and entity tag of assets.
+     */
+    @Autowired
+    private AssetMetadataCache metadataCache;
 
-    private static final String TAG_STATUS_KEY = "Status";
-    private static final String TAG_STATUS_VALUE_UPLOADED = "uploaded";
-    private static final String EXCEPTION_MESSAGE_INVALID_STATUS = "Status of asset is not \'uploaded\'.";
+    /**
+     * The settings of the asset manager.
+     */
+    @Autowired
+    private AssetManagerProperties properties;
+
+    /**
+     * The bounded pool of threads working through batch requests.
+     */
+    @Autowired
+    @Qualifier("batchExecutor")
+    private ExecutorService batchExecutor;
+
+    /**
+     * The key the entity tags of the download URLs are signed with.
+     */
+    private SecretKeySpec entityTagKey;
+
+    static final String TAG_STATUS_VALUE_UPLOADED = "uploaded";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int ENTITY_TAG_KEY_LENGTH = 32;
+    private static final int ENTITY_TAG_SIGNATURE_LENGTH = 16;
+    private static final long UPLOAD_URL_TIMEOUT = TimeUnit.HOURS.toMillis(1);
+    private static final int MAX_PARTS = 10_000;
+    private static final long MAX_ASSET_SIZE = 5L * 1024 * 1024 * 1024 * 1024;
+    private static final AssetNotFoundException ASSET_NOT_FOUND = new AssetNotFoundException();
+    private static final AssetNotUploadedException ASSET_NOT_UPLOADED = new AssetNotUploadedException();
+    private static final String EXCEPTION_MESSAGE_INVALID_BATCH_SIZE = "Batch size must be between 1 and %d.";
+    private static final String EXCEPTION_MESSAGE_INVALID_PAGE_SIZE = "Page size must be between 1 and %d.";
+    private static final String EXCEPTION_MESSAGE_INVALID_RANGE_COUNT = "Number of parts must be between 1 and %d.";
+    private static final String EXCEPTION_MESSAGE_INVALID_ASSET_SIZE = "Asset size must be between 1 and %d bytes.";
+    private static final String EXCEPTION_MESSAGE_MISSING_PARTS = "At least one part must be specified.";
+    private static final String EXCEPTION_MESSAGE_MISSING_ETAG = "The entity tag of each part must be specified.";
+    private static final String EXCEPTION_MESSAGE_INTERRUPTED = "Interrupted while waiting for the batch to complete.";
     private static final String EXCEPTION_MESSAGE_AWS_SERVICE = "The call was transmitted successfully, but Amazon S3 couldn't process it, so it returned an error response.";
     private static final String EXCEPTION_MESSAGE_AWS_SDK_CLIENT = "Amazon S3 couldn't be contacted for a response, or the client couldn't parse the response from Amazon S3.";
 
+    /**
+     * Sets up the key the entity tags of the download URLs are signed with,
+     * the configured one, or one generated anew so that the entity tags do
+     * not outlive the asset manager.
+     */
+    @PostConstruct
+    void initEntityTagKey() {
+        String configured = properties.getDownload().getEntityTagKey();
+        byte[] secret;
+        if (StringUtils.hasText(configured)) {
+            secret = configured.getBytes(StandardCharsets.UTF_8);
+        } else {
+            secret = new byte[ENTITY_TAG_KEY_LENGTH];
+            new SecureRandom().nextBytes(secret);
+        }
+        entityTagKey = new SecretKeySpec(secret, HMAC_ALGORITHM);
+    }
+
     /**
      * Returns metadata about how to upload an asset to the asset store.
      *
@@ -59,38 +173,169 @@ public class AssetManagerService {
 
         try {
             // Set the pre-signed URL to expire after one hour.
-            Calendar expiration = Calendar.getInstance();
-            expiration.add(Calendar.HOUR, 1);
+            Date expiration = new Date(System.currentTimeMillis() + UPLOAD_URL_TIMEOUT);
 
             // Generate the pre-signed URL.
-            String assetId = UUID.randomUUID().toString().replaceAll("-", "");
-            GeneratePresignedUrlRequest generatePresignedUrlRequest
-                    = new GeneratePresignedUrlRequest(bucketName, assetId)
-                            .withMethod(HttpMethod.PUT)
-                            .withExpiration(expiration.getTime());
-            URL url = s3Client.generatePresignedUrl(generatePresignedUrlRequest);
-
-            response = new AssetUploadMetadata(assetId, url.toString());
+            String assetId = idGenerator.newId();
+            String url = assetStore.presignPut(assetId, expiration);
+
+            response = new AssetUploadMetadata(assetId, url);
+        } catch (AmazonServiceException ex) {
+            throw new AssetManagerServiceException(EXCEPTION_MESSAGE_AWS_SERVICE, ex);
+        } catch (SdkClientException ex) {
+            throw new AssetManagerServiceException(EXCEPTION_MESSAGE_AWS_SDK_CLIENT, ex);
+        }
+
+        return response;
+    }
+
+    /**
+     * Starts a multipart upload of an asset to the asset store, and returns
+     * metadata about how to upload each of its parts. The parts are sized
+     * from the size of the asset, so that they are no smaller than the
+     * configured part size and no more numerous than S3 allows.
+     *
+     * @param size the size of the asset in bytes
+     * @return metadata about how to upload the parts of the asset to the
+     * asset store.
+     * @throws IllegalArgumentException if the size is outside what S3 can
+     * store
+     * @throws AssetManagerServiceException if an issue occurs starting the
+     * multipart upload
+     */
+    public AssetMultipartUploadMetadata requestAssetMultipartUpload(final long size) {
+        if (size < 1 || size > MAX_ASSET_SIZE) {
+            throw new IllegalArgumentException(String.format(EXCEPTION_MESSAGE_INVALID_ASSET_SIZE, MAX_ASSET_SIZE));
+        }
+        AssetManagerProperties.Multipart multipart = properties.getMultipart();
+        long partSize = Math.max(multipart.getPartSize(), (size + MAX_PARTS - 1) / MAX_PARTS);
+        int partCount = (int) ((size + partSize - 1) / partSize);
+
+        try {
+            Date expiration = new Date(System.currentTimeMillis() + multipart.getUrlTimeout().toMillis());
+            String assetId = idGenerator.newId();
+            String uploadId = assetStore.initiateMultipartUpload(assetId);
+
+            List<AssetUploadPartMetadata> parts = new ArrayList<>(partCount);
+            for (int partNumber = 1; partNumber <= partCount; partNumber++) {
+                parts.add(new AssetUploadPartMetadata(partNumber,
+                        assetStore.presignUploadPart(assetId, uploadId, partNumber, expiration)));
+            }
+
+            return new AssetMultipartUploadMetadata(assetId, uploadId, partSize, parts);
+        } catch (AmazonServiceException ex) {
+            throw new AssetManagerServiceException(EXCEPTION_MESSAGE_AWS_SERVICE, ex);
+        } catch (SdkClientException ex) {
+            throw new AssetManagerServiceException(EXCEPTION_MESSAGE_AWS_SDK_CLIENT, ex);
+        }
+    }
+
+    /**
+     * Completes a multipart upload, assembling the asset from its parts in
+     * the order of their numbers. The asset then has no status, as after an
+     * upload in one piece.
+     *
+     * @param id the identifier of the asset
+     * @param uploadId the identifier of the multipart upload
+     * @param parts the number and entity tag of each uploaded part
+     * @throws IllegalArgumentException if no part is given or a part has no
+     * entity tag
+     * @throws AssetManagerServiceException if the asset cannot be assembled
+     */
+    public void completeAssetMultipartUpload(final String id, final String uploadId, final List<AssetUploadPart> parts) {
+        if (parts.isEmpty()) {
+            throw new IllegalArgumentException(EXCEPTION_MESSAGE_MISSING_PARTS);
+        }
+        List<PartETag> partETags = new ArrayList<>(parts.size());
+        for (AssetUploadPart part : parts) {
+            if (part.getEtag() == null) {
+                throw new IllegalArgumentException(EXCEPTION_MESSAGE_MISSING_ETAG);
+            }
+            partETags.add(new PartETag(part.getPartNumber(), part.getEtag()));
+        }
+        partETags.sort(Comparator.comparingInt(PartETag::getPartNumber));
+
+        try {
+            assetStore.completeMultipartUpload(id, uploadId, partETags);
+            statusCache.put(id, "");
+            metadataCache.invalidate(id);
         } catch (AmazonServiceException ex) {
             throw new AssetManagerServiceException(EXCEPTION_MESSAGE_AWS_SERVICE, ex);
         } catch (SdkClientException ex) {
             throw new AssetManagerServiceException(EXCEPTION_MESSAGE_AWS_SDK_CLIENT, ex);
         }
+    }
+
+    /**
+     * Aborts a multipart upload, discarding the parts uploaded so far.
+     *
+     * @param id the identifier of the asset
+     * @param uploadId the identifier of the multipart upload
+     * @throws AssetManagerServiceException if the multipart upload cannot be
+     * aborted
+     */
+    public void abortAssetMultipartUpload(final String id, final String uploadId) {
+        try {
+            assetStore.abortMultipartUpload(id, uploadId);
+        } catch (AmazonServiceException ex) {
+            throw new AssetManagerServiceException(EXCEPTION_MESSAGE_AWS_SERVICE, ex);
+        } catch (SdkClientException ex) {
+            throw new AssetManagerServiceException(EXCEPTION_MESSAGE_AWS_SDK_CLIENT, ex);
+        }
+    }
+
+    /**
+     * Returns metadata about how to upload a number of assets to the asset
+     * store. The pre-signed URLs are generated in parallel.
+     *
+     * @param count the number of assets to upload
+     * @return metadata about how to upload each asset to the asset store.
+     * @throws IllegalArgumentException if the count is outside the allowed
+     * batch size
+     * @throws AssetManagerServiceException if an issue occurs building the
+     * asset metadata
+     */
+    public List<AssetUploadMetadata> requestAssetUploads(final int count) throws AssetManagerServiceException {
+        validateBatchSize(count);
+
+        List<CompletableFuture<AssetUploadMetadata>> futures = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            futures.add(CompletableFuture.supplyAsync(this::requestAssetUpload, batchExecutor));
+        }
+
+        List<AssetUploadMetadata> response = new ArrayList<>(count);
+        for (CompletableFuture<AssetUploadMetadata> future : futures) {
+            response.add(join(future));
+        }
 
         return response;
     }
 
     /**
-     * Sets the status of the asset in the asset store.
+     * Sets the status of the asset in the asset store. When the status index
+     * is enabled, the status of an asset known to exist is recorded in the
+     * index and mirrored to the asset store asynchronously.
      *
      * @param id the identifier of the asset
      * @param status the status of the asset to be set.
+     * @throws AssetNotFoundException if the status index is enabled and the
+     * asset does not exist
      */
     public void submitAssetUpdateStatus(final String id, final AssetStatus status) {
         try {
-            List<Tag> tags = new ArrayList<>();
-            tags.add(new Tag(TAG_STATUS_KEY, status.getStatus()));
-            s3Client.setObjectTagging(new SetObjectTaggingRequest(bucketName, id, new ObjectTagging(tags)));
+            if (statusIndex != null) {
+                // Downloads trust the index, so it must not record the status of an asset never uploaded;
+                // the store is asked directly, as a cached miss may predate the upload.
+                if (!statusIndex.get(id).isPresent() && !assetStore.getStatus(id).isPresent()) {
+                    throw ASSET_NOT_FOUND;
+                }
+                statusIndex.put(id, status.getStatus());
+            } else {
+                assetStore.setStatus(id, status.getStatus());
+            }
+            statusCache.put(id, status.getStatus());
+            // The asset may have been uploaded again before its status was set.
+            metadataCache.invalidate(id);
         } catch (AmazonServiceException ex) {
             throw new AssetManagerServiceException(EXCEPTION_MESSAGE_AWS_SERVICE, ex);
         } catch (SdkClientException ex) {
@@ -98,6 +343,33 @@ public class AssetManagerService {
         }
     }
 
+    /**
+     * Sets the status of a number of assets in the asset store. The statuses
+     * are set in parallel, and setting the status of an asset is retried on
+     * retryable errors of the asset store.
+     *
+     * @param updates the status to set on each asset
+     * @return the outcome of the status update of each asset, in the order of
+     * the updates
+     * @throws IllegalArgumentException if the number of updates is outside
+     * the allowed batch size
+     */
+    public List<AssetStatusUpdateResult> submitAssetUpdateStatuses(final List<AssetStatusUpdate> updates) {
+        validateBatchSize(updates.size());
+
+        List<CompletableFuture<AssetStatusUpdateResult>> futures = new ArrayList<>(updates.size());
+        for (AssetStatusUpdate update : updates) {
+            futures.add(CompletableFuture.supplyAsync(() -> submitAssetUpdateStatusWithRetry(update), batchExecutor));
+        }
+
+        List<AssetStatusUpdateResult> response = new ArrayList<>(updates.size());
+        for (CompletableFuture<AssetStatusUpdateResult> future : futures) {
+            response.add(join(future));
+        }
+
+        return response;
+    }
+
     /**
      * Returns metadata about how to download an asset from the asset store.
      *
@@ -105,55 +377,465 @@ public class AssetManagerService {
      * @param timeout the amount of time in seconds the asset download will be
      * available for
      * @return metadata about how to download an asset from the asset store.
+     * @throws AssetNotFoundException if the asset does not exist
+     * @throws AssetNotUploadedException if the status of the asset is not
+     * 'uploaded'
      */
     public AssetDownloadMetadata requestAssetDownload(final String id, final int timeout) {
-        AssetDownloadMetadata response;
+        try {
+            checkUploaded(id);
+            return new AssetDownloadMetadata(presignDownload(id, timeout).getUrl());
+        } catch (AmazonServiceException ex) {
+            throw new AssetManagerServiceException(EXCEPTION_MESSAGE_AWS_SERVICE, ex);
+        } catch (SdkClientException ex) {
+            throw new AssetManagerServiceException(EXCEPTION_MESSAGE_AWS_SDK_CLIENT, ex);
+        }
+    }
 
+    /**
+     * Returns metadata about how to download an asset from the asset store,
+     * unless the client already holds a download URL still valid for long
+     * enough, along with the entity tag of the download URL and how long the
+     * answer may be cached.
+     * <p>
+     * The entity tag holds the date the URL expires at, signed along with the
+     * identifier and the entity tag of the stored object by a key of the
+     * service, so that the URL of an entity tag given by the client is known
+     * to be still good, for the same content, without signing it again. An
+     * answer may be cached as long as a cached pre-signed URL would be handed
+     * back, and no longer than the requested timeout.
+     *
+     * @param id the identifier of the asset
+     * @param timeout the amount of time in seconds the asset download will be
+     * available for
+     * @param ifNoneMatch the entity tags of the download URLs the client
+     * holds, as in the <code>If-None-Match</code> header, or null
+     * @return the download of the asset
+     * @throws AssetNotFoundException if the asset does not exist
+     * @throws AssetNotUploadedException if the status of the asset is not
+     * 'uploaded'
+     */
+    public AssetDownload requestAssetDownload(final String id, final int timeout, final String ifNoneMatch) {
         try {
-            // Validate the asset as a 'Status' tag value of 'uploaded', if not, fail
-            GetObjectTaggingResult result = s3Client.getObjectTagging(new GetObjectTaggingRequest(bucketName, id));
-            List<Tag> tags = result.getTagSet();
-            boolean statusValid = false;
-            for (Tag tag : tags) {
-                if (TAG_STATUS_KEY.equals(tag.getKey())
-                        && TAG_STATUS_VALUE_UPLOADED.equals(tag.getValue())) {
-                    statusValid = true;
-                    break;
-                }
+            checkUploaded(id);
+
+            // The entity tag of the object changes when the asset is uploaded again.
+            Optional<ObjectMetadata> metadata = metadataCache.get(id, assetStore::getMetadata);
+            if (!metadata.isPresent()) {
+                throw ASSET_NOT_FOUND;
             }
+            String version = metadata.get().getETag();
 
-            if (!statusValid) {
-                throw new AssetManagerServiceException(EXCEPTION_MESSAGE_INVALID_STATUS);
+            Date held = heldExpiration(id, version, ifNoneMatch);
+            if (held != null && presignedUrlCache.freshMillis(held, timeout) >= 0) {
+                return new AssetDownload(null, entityTag(id, version, held), maxAge(held, timeout));
             }
 
-            // Set the pre-signed URL to expire after one hour.
-            Calendar expiration = Calendar.getInstance();
-            expiration.add(Calendar.SECOND, timeout);
+            PresignedUrlCache.PresignedUrl url = presignDownload(id, timeout);
+            return new AssetDownload(new AssetDownloadMetadata(url.getUrl()),
+                    entityTag(id, version, url.getExpiration()), maxAge(url.getExpiration(), timeout));
+        } catch (AmazonServiceException ex) {
+            throw new AssetManagerServiceException(EXCEPTION_MESSAGE_AWS_SERVICE, ex);
+        } catch (SdkClientException ex) {
+            throw new AssetManagerServiceException(EXCEPTION_MESSAGE_AWS_SDK_CLIENT, ex);
+        }
+    }
 
-            // Generate the pre-signed URL.
-            GeneratePresignedUrlRequest generatePresignedUrlRequest
-                    = new GeneratePresignedUrlRequest(bucketName, id)
-                            .withMethod(HttpMethod.GET)
-                            .withExpiration(expiration.getTime());
-            URL url = s3Client.generatePresignedUrl(generatePresignedUrlRequest);
+    /**
+     * Checks that an asset has a 'Status' tag value of 'uploaded'.
+     *
+     * @param id the identifier of the asset
+     * @throws AssetNotFoundException if the asset does not exist
+     * @throws AssetNotUploadedException if the status of the asset is not
+     * 'uploaded'
+     */
+    private void checkUploaded(final String id) {
+        Optional<String> status = fetchStatus(id);
+        if (!status.isPresent()) {
+            throw ASSET_NOT_FOUND;
+        }
 
-            response = new AssetDownloadMetadata(url.toString());
+        if (!TAG_STATUS_VALUE_UPLOADED.equals(status.get())) {
+            throw ASSET_NOT_UPLOADED;
+        }
+    }
+
+    /**
+     * Reuses a pre-signed download URL still valid for long enough, or
+     * generates one.
+     */
+    private PresignedUrlCache.PresignedUrl presignDownload(final String id, final int timeout) {
+        return presignedUrlCache.get(bucketName, id, HttpMethod.GET, timeout,
+                expiration -> assetStore.presignGet(id, expiration));
+    }
+
+    /**
+     * Returns metadata about how to download an asset from the asset store in
+     * byte ranges fetched in parallel. The asset is split into the requested
+     * number of ranges of equal size, the last one holding the remainder,
+     * from the size of the asset read with a HEAD request and cached.
+     *
+     * @param id the identifier of the asset
+     * @param timeout the amount of time in seconds the asset download will be
+     * available for
+     * @param parts the number of byte ranges to split the asset into, fewer
+     * for an asset smaller than that number of bytes
+     * @return metadata about how to download the byte ranges of an asset from
+     * the asset store.
+     * @throws IllegalArgumentException if the number of ranges is outside the
+     * allowed range
+     * @throws AssetNotFoundException if the asset does not exist
+     * @throws AssetNotUploadedException if the status of the asset is not
+     * 'uploaded'
+     */
+    public AssetDownloadManifest requestAssetDownloadManifest(final String id, final int timeout, final int parts) {
+        int maxParts = properties.getDownload().getMaxParts();
+        if (parts < 1 || parts > maxParts) {
+            throw new IllegalArgumentException(String.format(EXCEPTION_MESSAGE_INVALID_RANGE_COUNT, maxParts));
+        }
+        String url = requestAssetDownload(id, timeout).getDownloadUrl();
+
+        try {
+            Optional<ObjectMetadata> metadata = metadataCache.get(id, assetStore::getMetadata);
+            if (!metadata.isPresent()) {
+                throw ASSET_NOT_FOUND;
+            }
+
+            long size = metadata.get().getContentLength();
+            long rangeSize = Math.max(1, (size + parts - 1) / parts);
+            List<AssetDownloadRange> ranges = new ArrayList<>(parts);
+            for (long start = 0; start < size; start += rangeSize) {
+                ranges.add(new AssetDownloadRange(start, Math.min(start + rangeSize, size) - 1));
+            }
+
+            return new AssetDownloadManifest(url, size, quote(metadata.get().getETag()), ranges);
         } catch (AmazonServiceException ex) {
             throw new AssetManagerServiceException(EXCEPTION_MESSAGE_AWS_SERVICE, ex);
         } catch (SdkClientException ex) {
             throw new AssetManagerServiceException(EXCEPTION_MESSAGE_AWS_SDK_CLIENT, ex);
         }
+    }
 
-        return response;
+    /**
+     * Returns a page of the listing of the assets of the asset store, in the
+     * order of their identifiers, along with the cursor the next page starts
+     * at. The page examines up to the given number of assets, whose status is
+     * looked up in parallel, from the status index first when it is enabled,
+     * and only holds the assets with the given status; a page may therefore
+     * hold no asset while more pages follow.
+     *
+     * @param status the status of the assets to list, an empty string for the
+     * assets without status, or null to list all assets
+     * @param cursor the cursor returned with the previous page, or null for
+     * the first page
+     * @param limit the number of assets to examine
+     * @return the page of the listing
+     * @throws IllegalArgumentException if the limit is outside the allowed
+     * page size or the cursor is not valid
+     * @throws AssetManagerServiceException if the assets cannot be listed
+     */
+    public AssetListing listAssets(final String status, final String cursor, final int limit) {
+        int maxPageSize = properties.getListing().getMaxPageSize();
+        if (limit < 1 || limit > maxPageSize) {
+            throw new IllegalArgumentException(String.format(EXCEPTION_MESSAGE_INVALID_PAGE_SIZE, maxPageSize));
+        }
+        String startAfter = cursor == null ? null : new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+
+        List<String> ids;
+        try {
+            ids = assetStore.list(startAfter, limit);
+        } catch (AmazonServiceException ex) {
+            throw new AssetManagerServiceException(EXCEPTION_MESSAGE_AWS_SERVICE, ex);
+        } catch (SdkClientException ex) {
+            throw new AssetManagerServiceException(EXCEPTION_MESSAGE_AWS_SDK_CLIENT, ex);
+        }
+
+        List<CompletableFuture<Optional<AssetSummary>>> lookups = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            lookups.add(CompletableFuture.supplyAsync(
+                    () -> fetchStatus(id).map(assetStatus -> new AssetSummary(id, assetStatus)), batchExecutor));
+        }
+        String nextCursor = ids.size() < limit ? null
+                : Base64.getUrlEncoder().withoutPadding().encodeToString(ids.get(ids.size() - 1).getBytes(StandardCharsets.UTF_8));
+
+        // Resolve the whole page first, so a failed lookup fails the request rather than truncating its response.
+        List<AssetSummary> assets = new ArrayList<>(ids.size());
+        for (CompletableFuture<Optional<AssetSummary>> lookup : lookups) {
+            Optional<AssetSummary> summary = joinLookup(lookup);
+            // Skip the assets deleted since they were listed.
+            if (summary.isPresent() && (status == null || status.equals(summary.get().getStatus()))) {
+                assets.add(summary.get());
+            }
+        }
+
+        return new AssetListing(assets.iterator(), nextCursor);
     }
 
     /**
-     * Sets the client to use to communicate with the AWS S3 service.
+     * Returns the entity tag of a download URL of an asset.
      *
-     * @param client the AWS S3 client
+     * @param id the identifier of the asset
+     * @param version the entity tag of the stored object
+     * @param expiration the date the download URL expires at
+     * @return the quoted entity tag
      */
-    @Autowired
-    public void setS3Client(final AmazonS3 client) {
-        this.s3Client = client;
+    private String entityTag(final String id, final String version, final Date expiration) {
+        String expires = Long.toHexString(expiration.getTime());
+        byte[] signature = S3Presigner.crypto(() -> {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(entityTagKey);
+            return mac.doFinal((id + '\n' + version + '\n' + expires).getBytes(StandardCharsets.UTF_8));
+        });
+        return "\"" + expires + '-' + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Arrays.copyOf(signature, ENTITY_TAG_SIGNATURE_LENGTH)) + '"';
+    }
+
+    /**
+     * Returns the date the download URL held by the client expires at, from
+     * the first of the entity tags given by the client that is the entity
+     * tag of a download URL of the current content of the asset.
+     *
+     * @param id the identifier of the asset
+     * @param version the entity tag of the stored object
+     * @param ifNoneMatch the entity tags given by the client, or null
+     * @return the date the download URL expires at, or null if the client
+     * holds none
+     */
+    private Date heldExpiration(final String id, final String version, final String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return null;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String entityTag = tag.trim();
+            // If-None-Match compares entity tags weakly.
+            if (entityTag.startsWith("W/")) {
+                entityTag = entityTag.substring(2);
+            }
+            int separator = entityTag.indexOf('-');
+            if (separator > 1) {
+                try {
+                    Date expiration = new Date(Long.parseLong(entityTag.substring(1, separator), 16));
+                    if (MessageDigest.isEqual(entityTag.getBytes(StandardCharsets.UTF_8),
+                            entityTag(id, version, expiration).getBytes(StandardCharsets.UTF_8))) {
+                        return expiration;
+                    }
+                } catch (NumberFormatException ex) {
+                    // not an entity tag of a download URL
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns how long the answer to a download request may be cached, which
+     * is as long as the download URL would be handed back, but no longer than
+     * the requested timeout.
+     */
+    private long maxAge(final Date expiration, final int timeout) {
+        long fresh = TimeUnit.MILLISECONDS.toSeconds(Math.max(0, presignedUrlCache.freshMillis(expiration, timeout)));
+        return Math.min(timeout, fresh);
+    }
+
+    /**
+     * Returns an entity tag in the quoted form of the <code>ETag</code> and
+     * <code>If-Match</code> headers, as the S3 client strips the quotes.
+     *
+     * @param etag the entity tag, quoted or not
+     * @return the quoted entity tag
+     */
+    private static String quote(final String etag) {
+        return etag.startsWith("\"") ? etag : "\"" + etag + "\"";
+    }
+
+    /**
+     * Returns the status of the asset, checking the status index first, then
+     * the asset store for assets not indexed.
+     *
+     * @param id the identifier of the asset
+     * @return the status of the asset, or empty if the asset does not exist
+     */
+    private Optional<String> fetchStatus(final String id) {
+        Optional<String> status = statusIndex != null ? statusIndex.get(id) : Optional.empty();
+        return status.isPresent() ? status : statusCache.get(id, assetStore::getStatus);
+    }
+
+    /**
+     * Waits for the status lookup of an asset of a listing.
+     *
+     * @param lookup the status lookup
+     * @return the summary of the asset, or empty if the asset does not exist
+     */
+    private static Optional<AssetSummary> joinLookup(final CompletableFuture<Optional<AssetSummary>> lookup) {
+        try {
+            return join(lookup);
+        } catch (AmazonServiceException ex) {
+            throw new AssetManagerServiceException(EXCEPTION_MESSAGE_AWS_SERVICE, ex);
+        } catch (SdkClientException ex) {
+            throw new AssetManagerServiceException(EXCEPTION_MESSAGE_AWS_SDK_CLIENT, ex);
+        }
+    }
+
+    /**
+     * Validates the number of assets covered by a batch request.
+     *
+     * @param size the number of assets in the batch
+     */
+    private void validateBatchSize(final int size) {
+        int maxSize = properties.getBatch().getMaxSize();
+        if (size < 1 || size > maxSize) {
+            throw new IllegalArgumentException(String.format(EXCEPTION_MESSAGE_INVALID_BATCH_SIZE, maxSize));
+        }
+    }
+
+    /**
+     * Sets the status of a single asset of a batch, retrying on retryable
+     * errors of the asset store with an exponential backoff.
+     *
+     * @param update the status to set on the asset
+     * @return the outcome of the status update
+     */
+    private AssetStatusUpdateResult submitAssetUpdateStatusWithRetry(final AssetStatusUpdate update) {
+        AssetManagerProperties.Batch batch = properties.getBatch();
+        long backoff = batch.getRetryBackoff().toMillis();
+
+        for (int attempt = 1;; attempt++) {
+            try {
+                submitAssetUpdateStatus(update.getId(), new AssetStatus(update.getStatus()));
+                return AssetStatusUpdateResult.success(update.getId());
+            } catch (AssetManagerServiceException ex) {
+                if (attempt >= batch.getMaxAttempts() || !isRetryable(ex.getCause())) {
+                    return AssetStatusUpdateResult.failure(update.getId(), ex.getMessage());
+                }
+            } catch (IllegalArgumentException ex) {
+                return AssetStatusUpdateResult.failure(update.getId(), ex.getMessage());
+            } catch (RuntimeException ex) {
+                // Any other failure, such as of the status index, only fails this update.
+                return AssetStatusUpdateResult.failure(update.getId(), ex.toString());
+            }
+
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return AssetStatusUpdateResult.failure(update.getId(), ex.toString());
+            }
+            backoff *= 2;
+        }
+    }
+
+    /**
+     * Determines whether a call to the asset store that failed with the given
+     * cause may succeed when retried.
+     *
+     * @param cause the cause of the failure, as wrapped by
+     * {@link #submitAssetUpdateStatus(String, AssetStatus)}
+     * @return true if the call may be retried
+     */
+    static boolean isRetryable(final Throwable cause) {
+        if (cause instanceof AmazonServiceException) {
+            SdkBaseException ex = (SdkBaseException) cause;
+            return RetryUtils.isRetryableServiceException(ex) || RetryUtils.isThrottlingException(ex);
+        }
+        if (cause instanceof SdkClientException) {
+            return ((SdkClientException) cause).isRetryable();
+        }
+        return false;
+    }
+
+    /**
+     * Waits for the result of a batch task, rethrowing the exception it failed
+     * with as is.
+     *
+     * @param <T> the type of the result
+     * @param future the batch task
+     * @return the result of the batch task
+     */
+    private static <T> T join(final CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Returns metadata about how to download a number of assets from the
+     * asset store. The status of the assets is validated and the pre-signed
+     * URLs generated in parallel, and the returned iterator hands back the
+     * outcome of each asset as soon as it is available, in completion order.
+     *
+     * @param ids the identifiers of the assets
+     * @param timeout the amount of time in seconds the asset downloads will be
+     * available for
+     * @return the outcome of the download request of each asset, keyed by the
+     * identifier of the asset
+     * @throws IllegalArgumentException if the number of assets is outside the
+     * allowed batch size
+     */
+    public Iterator<Map.Entry<String, AssetDownloadResult>> requestAssetDownloads(final Collection<String> ids, final int timeout) {
+        Set<String> uniqueIds = new LinkedHashSet<>(ids);
+        validateBatchSize(uniqueIds.size());
+
+        CompletionService<Map.Entry<String, AssetDownloadResult>> completionService
+                = new ExecutorCompletionService<>(batchExecutor);
+        Map<Future<Map.Entry<String, AssetDownloadResult>>, String> tasks = new HashMap<>();
+        for (String id : uniqueIds) {
+            tasks.put(completionService.submit(
+                    () -> new AbstractMap.SimpleImmutableEntry<>(id, requestAssetDownloadResult(id, timeout))), id);
+        }
+
+        return new Iterator<Map.Entry<String, AssetDownloadResult>>() {
+            private int remaining = uniqueIds.size();
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public Map.Entry<String, AssetDownloadResult> next() {
+                if (remaining == 0) {
+                    throw new NoSuchElementException();
+                }
+                remaining--;
+
+                try {
+                    Future<Map.Entry<String, AssetDownloadResult>> task = completionService.take();
+                    try {
+                        return task.get();
+                    } catch (ExecutionException ex) {
+                        // The response is already being written, so a failed task only fails its asset.
+                        return new AbstractMap.SimpleImmutableEntry<>(tasks.get(task),
+                                AssetDownloadResult.failure(ex.getCause().toString()));
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new AssetManagerServiceException(EXCEPTION_MESSAGE_INTERRUPTED, ex);
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns the outcome of the download request of a single asset of a
+     * batch.
+     *
+     * @param id the identifier of the asset
+     * @param timeout the amount of time in seconds the asset download will be
+     * available for
+     * @return the outcome of the download request
+     */
+    private AssetDownloadResult requestAssetDownloadResult(final String id, final int timeout) {
+        try {
+            return AssetDownloadResult.success(requestAssetDownload(id, timeout));
+        } catch (AssetManagerServiceException | IllegalArgumentException ex) {
+            return AssetDownloadResult.failure(ex.getMessage());
+        } catch (RuntimeException ex) {
+            return AssetDownloadResult.failure(ex.toString());
+        }
     }
 }
@@ -30,7 +30,23 @@ public class AssetManagerServiceException extends RuntimeException {
      * @param cause the cause of the exception
      */
     public AssetManagerServiceException(final String message, final Throwable cause) {
-        super(message, cause);
+        // A call turned away by the service itself is expected, and not worth a stack trace.
+        super(message, cause, true, !(cause instanceof AssetStoreUnavailableException));
+    }
+
+    /**
+     * Constructs an instance of an exception for an expected outcome, which
+     * may leave out its stack trace and suppressed exceptions, so that it
+     * costs almost nothing to throw and a single instance can be thrown by all
+     * requests.
+     *
+     * @param message the detail message
+     * @param enableSuppression whether suppressed exceptions are recorded
+     * @param writableStackTrace whether the stack trace is captured
+     */
+    protected AssetManagerServiceException(final String message, final boolean enableSuppression,
+            final boolean writableStackTrace) {
+        super(message, null, enableSuppression, writableStackTrace);
     }
 
 }
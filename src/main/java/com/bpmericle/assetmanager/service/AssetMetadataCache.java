@@ -0,0 +1,92 @@
+package com.bpmericle.assetmanager.service;
+
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.bpmericle.assetmanager.AssetManagerProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Optional;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded cache of the metadata of assets, keyed by the identifier of the
+ * asset, so that the size and entity tag of hot assets are not read from the
+ * asset store for each download manifest.
+ * <p>
+ * A cached value is the metadata of the asset, or {@link Optional#empty()}
+ * when the asset does not exist, kept for the configured TTL. The cached
+ * metadata is shared, and must not be modified. Concurrent lookups of an
+ * asset not cached share a single call to the asset store.
+ *
+ * @author Brian Mericle
+ */
+@Component
+public class AssetMetadataCache {
+
+    /**
+     * The name the cache metrics are published under.
+     */
+    private static final String CACHE_NAME = "asset.metadata";
+
+    private final Cache<String, Optional<ObjectMetadata>> cache;
+    private final SingleFlight<String, Optional<ObjectMetadata>> lookups;
+
+    /**
+     * Creates the cache from the configured settings and registers its
+     * metrics.
+     *
+     * @param properties the settings of the asset manager
+     * @param meterRegistry the registry to publish the cache metrics to
+     */
+    @Autowired
+    public AssetMetadataCache(final AssetManagerProperties properties, final MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMetadataCache().getMaximumSize())
+                .expireAfterWrite(properties.getMetadataCache().getTtl())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        this.lookups = new SingleFlight<>(Counter.builder(SingleFlight.METRIC_NAME)
+                .description(SingleFlight.METRIC_DESCRIPTION)
+                .tag("lookup", "metadata")
+                .register(meterRegistry));
+    }
+
+    /**
+     * Returns the metadata of the asset, loading it when it is not cached, or
+     * waiting for the lookup of the asset already in flight.
+     *
+     * @param id the identifier of the asset
+     * @param loader the function used to load the metadata of the asset
+     * @return the metadata of the asset, or empty if the asset does not exist
+     */
+    public Optional<ObjectMetadata> get(final String id, final Function<String, Optional<ObjectMetadata>> loader) {
+        Optional<ObjectMetadata> metadata = cache.getIfPresent(id);
+        return metadata != null ? metadata : lookups.load(id, key -> {
+            Optional<ObjectMetadata> loaded = loader.apply(key);
+            cache.put(key, loaded);
+            return loaded;
+        });
+    }
+
+    /**
+     * Discards the metadata of the asset, whose content may have changed.
+     *
+     * @param id the identifier of the asset
+     */
+    public void invalidate(final String id) {
+        cache.invalidate(id);
+    }
+
+    /**
+     * Discards all the cached metadata.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
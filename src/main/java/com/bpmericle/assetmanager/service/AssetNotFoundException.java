@@ -0,0 +1,23 @@
+package com.bpmericle.assetmanager.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the asset requested does not exist, which is answered with a
+ * 404. The exception has no stack trace, so a single instance is thrown.
+ *
+ * @author Brian Mericle
+ */
+@ResponseStatus(value = HttpStatus.NOT_FOUND)
+public class AssetNotFoundException extends AssetManagerServiceException {
+
+    private static final String EXCEPTION_MESSAGE = "Asset does not exist.";
+
+    /**
+     * Constructs the exception.
+     */
+    public AssetNotFoundException() {
+        super(EXCEPTION_MESSAGE, false, false);
+    }
+}
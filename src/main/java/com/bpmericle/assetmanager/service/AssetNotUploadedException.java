@@ -0,0 +1,25 @@
+package com.bpmericle.assetmanager.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the asset requested exists but its status is not 'uploaded'
+ * yet, which is answered with a 409. Clients polling for an asset get this
+ * answer most, so the exception has no stack trace, and a single instance is
+ * thrown.
+ *
+ * @author Brian Mericle
+ */
+@ResponseStatus(value = HttpStatus.CONFLICT)
+public class AssetNotUploadedException extends AssetManagerServiceException {
+
+    private static final String EXCEPTION_MESSAGE = "Status of asset is not \'uploaded\'.";
+
+    /**
+     * Constructs the exception.
+     */
+    public AssetNotUploadedException() {
+        super(EXCEPTION_MESSAGE, false, false);
+    }
+}
@@ -0,0 +1,161 @@
+package com.bpmericle.assetmanager.service;
+
+import com.bpmericle.assetmanager.AssetManagerProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded cache of the status of assets, keyed by the identifier of the asset.
+ * <p>
+ * A cached value is the status of the asset, an empty string when the asset
+ * has no status, or {@link Optional#empty()} when the asset does not exist.
+ * The 'uploaded' status is kept for the configured TTL, while any other value
+ * is kept for the (shorter) negative TTL.
+ * <p>
+ * Concurrent lookups of an asset not cached, such as the requests for an
+ * asset that just went viral, share a single call to the asset store through
+ * a {@link SingleFlight}.
+ * <p>
+ * The assets last known to be uploaded are remembered for the (longer) stale
+ * TTL, so that their status is still served while the circuit breaker of the
+ * status lookups is open and the asset store cannot be asked.
+ *
+ * @author Brian Mericle
+ */
+@Component
+public class AssetStatusCache {
+
+    /**
+     * The name the cache metrics are published under.
+     */
+    private static final String CACHE_NAME = "asset.status";
+
+    private final Cache<String, Optional<String>> cache;
+    private final Cache<String, Boolean> lastKnownUploaded;
+    private final SingleFlight<String, Optional<String>> lookups;
+    private final Counter fallbacks;
+
+    /**
+     * Creates the cache from the configured settings and registers its
+     * metrics.
+     *
+     * @param properties the settings of the asset manager
+     * @param meterRegistry the registry to publish the cache metrics to
+     */
+    @Autowired
+    public AssetStatusCache(final AssetManagerProperties properties, final MeterRegistry meterRegistry) {
+        final long ttl = properties.getStatusCache().getTtl().toNanos();
+        final long negativeTtl = properties.getStatusCache().getNegativeTtl().toNanos();
+
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getStatusCache().getMaximumSize())
+                .expireAfter(new Expiry<String, Optional<String>>() {
+                    @Override
+                    public long expireAfterCreate(final String id, final Optional<String> status, final long currentTime) {
+                        return isUploaded(status) ? ttl : negativeTtl;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(final String id, final Optional<String> status, final long currentTime, final long currentDuration) {
+                        return isUploaded(status) ? ttl : negativeTtl;
+                    }
+
+                    @Override
+                    public long expireAfterRead(final String id, final Optional<String> status, final long currentTime, final long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+
+        this.lastKnownUploaded = Caffeine.newBuilder()
+                .maximumSize(properties.getStatusCache().getMaximumSize())
+                .expireAfterWrite(properties.getStatusCache().getStaleTtl())
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        this.fallbacks = Counter.builder("asset.status.fallbacks")
+                .description("Statuses served from the last known status while the asset store was unavailable")
+                .register(meterRegistry);
+        this.lookups = new SingleFlight<>(Counter.builder(SingleFlight.METRIC_NAME)
+                .description(SingleFlight.METRIC_DESCRIPTION)
+                .tag("lookup", "status")
+                .register(meterRegistry));
+    }
+
+    /**
+     * Returns the status of the asset, loading it when it is not cached, or
+     * waiting for the lookup of the asset already in flight. While the
+     * circuit breaker of the lookups is open, an asset last known to be
+     * uploaded is still reported as such.
+     *
+     * @param id the identifier of the asset
+     * @param loader the function used to load the status of the asset
+     * @return the status of the asset, or empty if the asset does not exist
+     * @throws CircuitBreakerOpenException if the circuit breaker is open and
+     * the asset is not known to be uploaded
+     */
+    public Optional<String> get(final String id, final Function<String, Optional<String>> loader) {
+        Optional<String> status = cache.getIfPresent(id);
+        if (status != null) {
+            return status;
+        }
+
+        try {
+            return lookups.load(id, key -> {
+                // Keep the status recorded while the lookup was in flight, which is newer.
+                Optional<String> loaded = loader.apply(key);
+                Optional<String> cached = cache.asMap().putIfAbsent(key, loaded);
+                remember(key, cached != null ? cached : loaded);
+                return cached != null ? cached : loaded;
+            });
+        } catch (CircuitBreakerOpenException ex) {
+            if (lastKnownUploaded.getIfPresent(id) == null) {
+                throw ex;
+            }
+            fallbacks.increment();
+            return Optional.of(AssetManagerService.TAG_STATUS_VALUE_UPLOADED);
+        }
+    }
+
+    /**
+     * Records the status of the asset.
+     *
+     * @param id the identifier of the asset
+     * @param status the status of the asset
+     */
+    public void put(final String id, final String status) {
+        Optional<String> value = Optional.of(Objects.toString(status, ""));
+        cache.put(id, value);
+        remember(id, value);
+    }
+
+    /**
+     * Discards all the cached statuses.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+        lastKnownUploaded.invalidateAll();
+    }
+
+    private void remember(final String id, final Optional<String> status) {
+        if (isUploaded(status)) {
+            lastKnownUploaded.put(id, Boolean.TRUE);
+        } else {
+            lastKnownUploaded.invalidate(id);
+        }
+    }
+
+    private static boolean isUploaded(final Optional<String> status) {
+        return status.filter(AssetManagerService.TAG_STATUS_VALUE_UPLOADED::equals).isPresent();
+    }
+}
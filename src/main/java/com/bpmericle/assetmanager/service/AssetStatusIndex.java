@@ -0,0 +1,187 @@
+package com.bpmericle.assetmanager.service;
+
+import com.amazonaws.AmazonServiceException;
+import com.bpmericle.assetmanager.AssetManagerProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Index of the status of assets, kept in a {@link MappedKeyValueStore} on the
+ * local disk so that the status of an asset is checked without calling the
+ * asset store.
+ * <p>
+ * The status index is the record of the status of an asset, which the asset
+ * store mirrors asynchronously. A reconciliation job periodically sets the
+ * status again in the asset store where it drifted from the index, and drops
+ * from the index the assets no longer in the asset store. Being local to one
+ * instance, it is only supported when the service runs as a single instance,
+ * and it is only available when <code>asset-manager.status-index.enabled</code>
+ * is <code>true</code>.
+ *
+ * @author Brian Mericle
+ */
+@Component
+@ConditionalOnProperty(prefix = "asset-manager.status-index", name = "enabled", havingValue = "true")
+public class AssetStatusIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AssetStatusIndex.class);
+
+    /**
+     * The prefix of the names the metrics are published under.
+     */
+    private static final String METRIC_PREFIX = "asset.status.index.";
+
+    private static final int HTTP_STATUS_NOT_FOUND = 404;
+
+    private final MappedKeyValueStore store;
+    private final AssetStore assetStore;
+    private final ScheduledExecutorService executor;
+    private final Counter mirrorFailures;
+    private final Counter repairs;
+
+    /**
+     * Opens the status index in the configured directory, registers its
+     * metrics and schedules its reconciliation with the asset store.
+     *
+     * @param properties the settings of the asset manager
+     * @param assetStore the store holding the assets
+     * @param executor the executor mirroring the status index to the asset
+     * store
+     * @param meterRegistry the registry to publish the metrics to
+     */
+    @Autowired
+    public AssetStatusIndex(final AssetManagerProperties properties, final AssetStore assetStore,
+            @Qualifier("statusIndexExecutor") final ScheduledExecutorService executor,
+            final MeterRegistry meterRegistry) {
+        AssetManagerProperties.StatusIndex settings = properties.getStatusIndex();
+        this.store = new MappedKeyValueStore(Paths.get(settings.getDirectory()), settings.getSegmentSize());
+        this.assetStore = assetStore;
+        this.executor = executor;
+
+        this.mirrorFailures = Counter.builder(METRIC_PREFIX + "mirror.failures")
+                .description("Status updates not mirrored to the asset store")
+                .register(meterRegistry);
+        this.repairs = Counter.builder(METRIC_PREFIX + "repairs")
+                .description("Assets whose status in the asset store was repaired by the reconciliation")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + "size", store, MappedKeyValueStore::size)
+                .description("Assets recorded in the status index")
+                .register(meterRegistry);
+
+        long interval = settings.getReconcileInterval().toMillis();
+        executor.scheduleWithFixedDelay(this::reconcile, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the status of the asset recorded in the status index.
+     *
+     * @param id the identifier of the asset
+     * @return the status of the asset, or empty if it is not recorded
+     */
+    public Optional<String> get(final String id) {
+        return Optional.ofNullable(store.get(id));
+    }
+
+    /**
+     * Records the status of the asset, and mirrors it to the asset store
+     * asynchronously.
+     *
+     * @param id the identifier of the asset
+     * @param status the status of the asset
+     */
+    public void put(final String id, final String status) {
+        store.put(id, status);
+        executor.execute(() -> mirror(id));
+    }
+
+    /**
+     * Sets the status recorded for the asset in the asset store. The asset is
+     * dropped from the status index when it is not in the asset store, while
+     * other failures are left for the reconciliation to repair.
+     *
+     * @param id the identifier of the asset
+     */
+    void mirror(final String id) {
+        String status = store.get(id);
+        if (status == null) {
+            return;
+        }
+
+        try {
+            assetStore.setStatus(id, status);
+        } catch (AmazonServiceException ex) {
+            if (ex.getStatusCode() == HTTP_STATUS_NOT_FOUND) {
+                store.remove(id, status);
+                return;
+            }
+            mirrorFailed(id, ex);
+        } catch (RuntimeException ex) {
+            mirrorFailed(id, ex);
+        }
+    }
+
+    /**
+     * Compares the status of each asset of the status index with the asset
+     * store, setting the status again where it drifted and dropping the
+     * assets no longer in the asset store.
+     *
+     * @return the number of assets repaired
+     */
+    int reconcile() {
+        int repaired = 0;
+        for (Map.Entry<String, String> entry : store.entries().entrySet()) {
+            String id = entry.getKey();
+            String status = entry.getValue();
+            try {
+                Optional<String> mirrored = assetStore.getStatus(id);
+                if (!mirrored.isPresent()) {
+                    store.remove(id, status);
+                } else if (!status.equals(mirrored.get())) {
+                    // The status may have been set again since the entries were read.
+                    String current = store.get(id);
+                    if (current == null || current.equals(mirrored.get())) {
+                        continue;
+                    }
+                    assetStore.setStatus(id, current);
+                    if (!current.equals(store.get(id))) {
+                        mirror(id);
+                    }
+                } else {
+                    continue;
+                }
+                repaired++;
+            } catch (RuntimeException ex) {
+                LOGGER.warn("Status of asset {} could not be reconciled with the asset store.", id, ex);
+            }
+        }
+
+        repairs.increment(repaired);
+        return repaired;
+    }
+
+    /**
+     * Flushes the status index to disk.
+     */
+    @PreDestroy
+    public void close() {
+        store.close();
+    }
+
+    private void mirrorFailed(final String id, final RuntimeException ex) {
+        mirrorFailures.increment();
+        LOGGER.warn("Status of asset {} could not be mirrored to the asset store.", id, ex);
+    }
+}
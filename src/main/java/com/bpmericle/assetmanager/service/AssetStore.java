@@ -0,0 +1,137 @@
+package com.bpmericle.assetmanager.service;
+
+import com.amazonaws.services.s3.model.MultipartUpload;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The store the assets are uploaded to and downloaded from through
+ * pre-signed URLs, and which records the status of each asset.
+ * <p>
+ * The store is modelled on S3, and reports failures the same way: an
+ * <code>AmazonServiceException</code> when the store rejected the call, and
+ * an <code>SdkClientException</code> when the store could not be called,
+ * whose <code>isRetryable()</code> tells whether the call may succeed when
+ * retried. An <code>IllegalArgumentException</code> is thrown for an
+ * identifier the store cannot hold.
+ *
+ * @author Brian Mericle
+ */
+public interface AssetStore {
+
+    /**
+     * Returns a URL the asset can be uploaded to with a PUT request.
+     *
+     * @param id the identifier of the asset
+     * @param expiration the date the URL expires at
+     * @return the pre-signed URL
+     */
+    String presignPut(String id, Date expiration);
+
+    /**
+     * Returns a URL the asset can be downloaded from with a GET request.
+     *
+     * @param id the identifier of the asset
+     * @param expiration the date the URL expires at
+     * @return the pre-signed URL
+     */
+    String presignGet(String id, Date expiration);
+
+    /**
+     * Starts a multipart upload of the asset, whose parts are uploaded
+     * through the URLs returned by
+     * {@link #presignUploadPart(String, String, int, Date)}.
+     *
+     * @param id the identifier of the asset
+     * @return the identifier of the multipart upload
+     */
+    String initiateMultipartUpload(String id);
+
+    /**
+     * Returns a URL a part of a multipart upload of the asset can be uploaded
+     * to with a PUT request. The response to the PUT request carries the
+     * entity tag of the part in its <code>ETag</code> header.
+     *
+     * @param id the identifier of the asset
+     * @param uploadId the identifier of the multipart upload
+     * @param partNumber the number of the part, from 1
+     * @param expiration the date the URL expires at
+     * @return the pre-signed URL
+     */
+    String presignUploadPart(String id, String uploadId, int partNumber, Date expiration);
+
+    /**
+     * Completes a multipart upload, assembling the asset from its parts.
+     *
+     * @param id the identifier of the asset
+     * @param uploadId the identifier of the multipart upload
+     * @param parts the number and entity tag of each part, in ascending order
+     * of part number
+     */
+    void completeMultipartUpload(String id, String uploadId, List<PartETag> parts);
+
+    /**
+     * Aborts a multipart upload, discarding the parts uploaded so far.
+     *
+     * @param id the identifier of the asset
+     * @param uploadId the identifier of the multipart upload
+     */
+    void abortMultipartUpload(String id, String uploadId);
+
+    /**
+     * Lists the multipart uploads neither completed nor aborted.
+     *
+     * @return the key, identifier and initiation date of each multipart
+     * upload
+     */
+    List<MultipartUpload> listMultipartUploads();
+
+    /**
+     * Returns the status of the asset.
+     *
+     * @param id the identifier of the asset
+     * @return the status of the asset, an empty string if it has none, or
+     * empty if the asset does not exist
+     */
+    Optional<String> getStatus(String id);
+
+    /**
+     * Returns the metadata of the asset, of which the size and the entity tag
+     * are set, without its content.
+     *
+     * @param id the identifier of the asset
+     * @return the metadata of the asset, or empty if the asset does not exist
+     */
+    Optional<ObjectMetadata> getMetadata(String id);
+
+    /**
+     * Sets the status of the asset.
+     *
+     * @param id the identifier of the asset
+     * @param status the status of the asset
+     */
+    void setStatus(String id, String status);
+
+    /**
+     * Lists the identifiers of the assets in ascending order, starting after
+     * the given identifier. Fewer identifiers than the limit are returned only
+     * when there are no more assets.
+     *
+     * @param startAfter the identifier to start after, or null to start with
+     * the first asset
+     * @param limit the maximum number of identifiers to return
+     * @return the identifiers of the assets
+     */
+    List<String> list(String startAfter, int limit);
+
+    /**
+     * Deletes the asset along with its status. Deleting an asset that does
+     * not exist does nothing.
+     *
+     * @param id the identifier of the asset
+     */
+    void delete(String id);
+}
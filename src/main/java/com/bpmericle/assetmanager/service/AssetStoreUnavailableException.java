@@ -0,0 +1,48 @@
+package com.bpmericle.assetmanager.service;
+
+import com.amazonaws.SdkClientException;
+
+/**
+ * Thrown when a call to the asset store is turned away by the service itself
+ * without reaching the asset store, because the asset store is unhealthy or
+ * already busy with as many calls as it is allowed. Such calls are answered
+ * with a 503, so that clients back off instead of waiting. They are expected
+ * while the asset store is unhealthy or busy, so the exception has no stack
+ * trace.
+ *
+ * @author Brian Mericle
+ */
+public class AssetStoreUnavailableException extends SdkClientException {
+
+    /**
+     * Creates the exception.
+     *
+     * @param message the reason the call is turned away
+     */
+    public AssetStoreUnavailableException(final String message) {
+        super(message);
+    }
+
+    /**
+     * Leaves the stack trace out, which is the most costly part of throwing
+     * the exception.
+     *
+     * @return this exception
+     */
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+
+    /**
+     * The call is not retried at once, as the asset store stays unavailable
+     * for a while; callers able to come back later, such as the upload
+     * notifications, try again then.
+     *
+     * @return false
+     */
+    @Override
+    public boolean isRetryable() {
+        return false;
+    }
+}
@@ -0,0 +1,167 @@
+package com.bpmericle.assetmanager.service;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker stopping the calls to an operation of the asset store while
+ * too many of its recent calls failed, so that the callers fail fast instead
+ * of waiting on an asset store that is not responding.
+ * <p>
+ * While closed, the outcome of the latest calls is recorded in a sliding
+ * window, and the breaker opens once the failure rate of the window reaches
+ * the threshold. While open, calls are rejected until the open duration has
+ * elapsed, after which the breaker is half open and lets a few trial calls
+ * through: it closes once all of them succeed, and opens again as soon as one
+ * of them fails.
+ *
+ * @author Brian Mericle
+ */
+public class CircuitBreaker {
+
+    /**
+     * The state of a circuit breaker.
+     */
+    public enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long openDuration;
+    private final int halfOpenCalls;
+    private final LongSupplier clock;
+    private final boolean[] window;
+
+    private State state = State.CLOSED;
+    private int index;
+    private int calls;
+    private int failures;
+    private long openedAt;
+    private int permits;
+    private int successes;
+
+    /**
+     * Creates a closed circuit breaker.
+     *
+     * @param windowSize the number of latest calls the failure rate is
+     * computed over
+     * @param minimumCalls the number of calls recorded before the breaker may
+     * open
+     * @param failureRateThreshold the failure rate in percent the breaker
+     * opens at
+     * @param openDuration the time in nanoseconds the breaker stays open
+     * @param halfOpenCalls the number of trial calls let through while half
+     * open
+     * @param clock the source of the current time in nanoseconds
+     */
+    public CircuitBreaker(final int windowSize, final int minimumCalls, final int failureRateThreshold,
+            final long openDuration, final int halfOpenCalls, final LongSupplier clock) {
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDuration = openDuration;
+        this.halfOpenCalls = halfOpenCalls;
+        this.clock = clock;
+        this.window = new boolean[windowSize];
+    }
+
+    /**
+     * Asks for the permission to make a call, which is given while the
+     * breaker is closed, or half open with trial calls left.
+     *
+     * @return true if the call may be made
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (clock.getAsLong() - openedAt < openDuration) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            permits = halfOpenCalls;
+            successes = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (permits == 0) {
+                return false;
+            }
+            permits--;
+        }
+        return true;
+    }
+
+    /**
+     * Records a call that succeeded, or failed without a sign that the asset
+     * store is unhealthy.
+     */
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++successes == halfOpenCalls) {
+                close();
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    /**
+     * Records a call that failed because the asset store is unhealthy.
+     */
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (calls >= minimumCalls && failures * 100L >= (long) failureRateThreshold * calls) {
+                open();
+            }
+        }
+    }
+
+    /**
+     * Returns the state of the breaker, which only turns from open to half
+     * open when a call is attempted.
+     *
+     * @return the state of the breaker
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Returns the failure rate in percent of the calls of the window.
+     *
+     * @return the failure rate, or -1 while fewer calls than the minimum are
+     * recorded
+     */
+    public synchronized float getFailureRate() {
+        return calls < minimumCalls ? -1 : failures * 100f / calls;
+    }
+
+    private void record(final boolean failure) {
+        if (calls == windowSize) {
+            if (window[index]) {
+                failures--;
+            }
+        } else {
+            calls++;
+        }
+        window[index] = failure;
+        if (failure) {
+            failures++;
+        }
+        index = (index + 1) % windowSize;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = clock.getAsLong();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        index = 0;
+        calls = 0;
+        failures = 0;
+    }
+}
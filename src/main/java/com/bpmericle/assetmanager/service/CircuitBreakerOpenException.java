@@ -0,0 +1,19 @@
+package com.bpmericle.assetmanager.service;
+
+/**
+ * Thrown when a call to the asset store is rejected by the open
+ * {@link CircuitBreaker} of its operation, without reaching the asset store.
+ *
+ * @author Brian Mericle
+ */
+public class CircuitBreakerOpenException extends AssetStoreUnavailableException {
+
+    /**
+     * Creates the exception.
+     *
+     * @param operation the operation whose breaker is open
+     */
+    public CircuitBreakerOpenException(final String operation) {
+        super(String.format("The circuit breaker of the %s operation of the asset store is open.", operation));
+    }
+}
@@ -0,0 +1,170 @@
+package com.bpmericle.assetmanager.service;
+
+import com.amazonaws.AbortedException;
+import com.amazonaws.services.s3.model.MultipartUpload;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.bpmericle.assetmanager.AssetManagerProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Asset store bounding the number of calls in flight to the asset store it
+ * decorates, so that a burst of requests cannot queue without bound on the
+ * pool of connections to S3 and hold up every thread of the service.
+ * <p>
+ * A call waits a short while for a permit once the maximum number of calls
+ * are in flight, and is then turned away with an
+ * {@link AssetStoreUnavailableException}, which is answered with a 503.
+ * Signing URLs does not call the asset store, so it is not limited.
+ *
+ * @author Brian Mericle
+ */
+public class ConcurrencyLimitedAssetStore implements AssetStore {
+
+    /**
+     * The name the gauge of the calls in flight is published under.
+     */
+    static final String METRIC_IN_FLIGHT = "asset.store.in.flight";
+
+    /**
+     * The name the counter of the calls turned away is published under.
+     */
+    static final String METRIC_REJECTED = "asset.store.concurrency.rejected";
+
+    private static final String EXCEPTION_MESSAGE_SATURATED = "Too many calls to the asset store are in flight.";
+
+    private final AssetStore delegate;
+    private final int maxInFlight;
+    private final long maxWait;
+    private final Semaphore permits;
+    private final Counter rejected;
+
+    /**
+     * Creates the decorator and registers its metrics.
+     *
+     * @param delegate the asset store to limit the calls to
+     * @param properties the settings of the asset manager
+     * @param meterRegistry the registry to publish the metrics to
+     */
+    public ConcurrencyLimitedAssetStore(final AssetStore delegate, final AssetManagerProperties properties,
+            final MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.maxInFlight = properties.getRateLimit().getMaxInFlight();
+        this.maxWait = properties.getRateLimit().getMaxInFlightWait().toNanos();
+        this.permits = new Semaphore(maxInFlight);
+
+        Gauge.builder(METRIC_IN_FLIGHT, permits, semaphore -> maxInFlight - semaphore.availablePermits())
+                .description("Calls to the asset store in flight")
+                .register(meterRegistry);
+        this.rejected = Counter.builder(METRIC_REJECTED)
+                .description("Calls to the asset store turned away because too many were in flight")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String presignPut(final String id, final Date expiration) {
+        return delegate.presignPut(id, expiration);
+    }
+
+    @Override
+    public String presignGet(final String id, final Date expiration) {
+        return delegate.presignGet(id, expiration);
+    }
+
+    @Override
+    public String initiateMultipartUpload(final String id) {
+        return limited(() -> delegate.initiateMultipartUpload(id));
+    }
+
+    @Override
+    public String presignUploadPart(final String id, final String uploadId, final int partNumber, final Date expiration) {
+        return delegate.presignUploadPart(id, uploadId, partNumber, expiration);
+    }
+
+    @Override
+    public void completeMultipartUpload(final String id, final String uploadId, final List<PartETag> parts) {
+        limited(() -> {
+            delegate.completeMultipartUpload(id, uploadId, parts);
+            return null;
+        });
+    }
+
+    @Override
+    public void abortMultipartUpload(final String id, final String uploadId) {
+        limited(() -> {
+            delegate.abortMultipartUpload(id, uploadId);
+            return null;
+        });
+    }
+
+    @Override
+    public List<MultipartUpload> listMultipartUploads() {
+        return limited(delegate::listMultipartUploads);
+    }
+
+    @Override
+    public Optional<String> getStatus(final String id) {
+        return limited(() -> delegate.getStatus(id));
+    }
+
+    @Override
+    public Optional<ObjectMetadata> getMetadata(final String id) {
+        return limited(() -> delegate.getMetadata(id));
+    }
+
+    @Override
+    public void setStatus(final String id, final String status) {
+        limited(() -> {
+            delegate.setStatus(id, status);
+            return null;
+        });
+    }
+
+    @Override
+    public List<String> list(final String startAfter, final int limit) {
+        return limited(() -> delegate.list(startAfter, limit));
+    }
+
+    @Override
+    public void delete(final String id) {
+        limited(() -> {
+            delegate.delete(id);
+            return null;
+        });
+    }
+
+    /**
+     * Makes a call once a permit is available, or turns it away when none is
+     * released in time.
+     */
+    private <T> T limited(final Supplier<T> call) {
+        // A permit is taken right away while calls are few, without waiting.
+        if (!permits.tryAcquire() && !awaitPermit()) {
+            rejected.increment();
+            throw new AssetStoreUnavailableException(EXCEPTION_MESSAGE_SATURATED);
+        }
+
+        try {
+            return call.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean awaitPermit() {
+        try {
+            return permits.tryAcquire(maxWait, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new AbortedException(ex);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.bpmericle.assetmanager.service;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sliding window of the latest latencies of an operation of the asset store,
+ * giving the latency under which a percentile of its calls complete.
+ * <p>
+ * Latencies are recorded without locking in a ring of samples. The percentile
+ * is computed again from a sorted copy of the ring after every tenth of the
+ * window is recorded, so that reading it costs a volatile read.
+ *
+ * @author Brian Mericle
+ */
+public class LatencyWindow {
+
+    private final double percentile;
+    private final int minimumSamples;
+    private final int recomputeEvery;
+    private final AtomicLongArray samples;
+    private final AtomicLong recorded = new AtomicLong();
+
+    private volatile long value = -1;
+
+    /**
+     * Creates an empty window.
+     *
+     * @param percentile the percentile computed, between 0 and 1
+     * @param size the number of latest latencies kept
+     * @param minimumSamples the number of latencies recorded before the
+     * percentile is computed
+     */
+    public LatencyWindow(final double percentile, final int size, final int minimumSamples) {
+        this.percentile = percentile;
+        this.minimumSamples = minimumSamples;
+        this.recomputeEvery = Math.max(1, size / 10);
+        this.samples = new AtomicLongArray(size);
+    }
+
+    /**
+     * Records the latency of a call.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(final long nanos) {
+        long count = recorded.incrementAndGet();
+        samples.set((int) ((count - 1) % samples.length()), nanos);
+        if (count >= minimumSamples && count % recomputeEvery == 0) {
+            recompute(count);
+        }
+    }
+
+    /**
+     * Returns the latency under which the percentile of the recorded calls
+     * completed.
+     *
+     * @return the latency in nanoseconds, or -1 while too few calls are
+     * recorded
+     */
+    public long getValue() {
+        return value;
+    }
+
+    private void recompute(final long count) {
+        long[] sorted = new long[(int) Math.min(count, samples.length())];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = samples.get(i);
+        }
+        Arrays.sort(sorted);
+        value = sorted[(int) Math.ceil(percentile * sorted.length) - 1];
+    }
+}
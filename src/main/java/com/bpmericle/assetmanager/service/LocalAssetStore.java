@@ -0,0 +1,577 @@
+package com.bpmericle.assetmanager.service;
+
+import com.amazonaws.HttpMethod;
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.s3.Headers;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.MultipartUpload;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.bpmericle.assetmanager.AssetManagerProperties;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * The asset store backed by a local directory, used to load test the asset
+ * manager without S3. The assets are uploaded and downloaded through the
+ * pre-signed URLs of the <code>/local-store</code> endpoint of the asset
+ * manager itself.
+ * <p>
+ * It behaves as S3 does where the asset manager can tell: setting the status
+ * of an asset that was not uploaded fails with a 404 error, and uploading an
+ * asset again discards its status. The parts of a multipart upload are kept
+ * in a directory of their own until the upload is completed or aborted. Each
+ * call made by the asset manager can be
+ * delayed by a latency drawn from a log-normal distribution with the
+ * configured median and 99th percentile, to simulate the latency of S3.
+ *
+ * @author Brian Mericle
+ */
+@Component
+@ConditionalOnProperty(prefix = "asset-manager.asset-store", name = "type", havingValue = "local")
+public class LocalAssetStore implements AssetStore {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final String DIGEST_ALGORITHM = "MD5";
+    private static final String KEY_FILE = "key";
+    private static final String PART_PREFIX = "part-";
+    private static final int MAX_PART_NUMBER = 10_000;
+    private static final int KEY_LENGTH = 32;
+    private static final int UPLOAD_ID_BYTES = 16;
+    private static final int HTTP_STATUS_BAD_REQUEST = 400;
+    private static final int HTTP_STATUS_NOT_FOUND = 404;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * The 99th percentile of the standard normal distribution.
+     */
+    private static final double Z_99 = 2.3263478740408408;
+
+    private static final String EXCEPTION_MESSAGE_INVALID_ID = "The identifier of the asset cannot be stored locally: %s";
+    private static final String EXCEPTION_MESSAGE_IO = "The local asset store couldn't be accessed.";
+    private static final String EXCEPTION_MESSAGE_NOT_FOUND = "The specified key does not exist.";
+    private static final String EXCEPTION_MESSAGE_NO_SUCH_UPLOAD = "The specified multipart upload does not exist.";
+    private static final String EXCEPTION_MESSAGE_INVALID_PART = "One or more of the specified parts could not be found.";
+    private static final String EXCEPTION_MESSAGE_INVALID_PART_ORDER = "The list of parts was not in ascending order.";
+    private static final String EXCEPTION_MESSAGE_INVALID_PART_NUMBER = "Part number must be an integer between 1 and %d.";
+
+    private final Path objects;
+    private final Path statuses;
+    private final Path uploads;
+    private final Path multipartUploads;
+    private final String baseUrl;
+    private final SecretKeySpec key;
+    private final double latencyMedian;
+    private final double latencySigma;
+
+    /**
+     * Creates the store from the configured settings, creating its directory
+     * if needed. The key the URLs are signed with is generated anew, so URLs
+     * do not outlive the asset manager.
+     *
+     * @param properties the settings of the asset manager
+     */
+    @Autowired
+    public LocalAssetStore(final AssetManagerProperties properties) {
+        AssetManagerProperties.AssetStore assetStore = properties.getAssetStore();
+        Path directory = Paths.get(assetStore.getDirectory());
+        this.objects = directory.resolve("objects");
+        this.statuses = directory.resolve("statuses");
+        this.uploads = directory.resolve("uploads");
+        this.multipartUploads = directory.resolve("multipart");
+        try {
+            Files.createDirectories(objects);
+            Files.createDirectories(statuses);
+            Files.createDirectories(uploads);
+            Files.createDirectories(multipartUploads);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        this.baseUrl = assetStore.getBaseUrl();
+        byte[] secret = new byte[KEY_LENGTH];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, HMAC_ALGORITHM);
+
+        long p50 = assetStore.getLatencyP50().toNanos();
+        long p99 = assetStore.getLatencyP99().toNanos();
+        this.latencyMedian = p50;
+        this.latencySigma = p50 > 0 && p99 > p50 ? Math.log((double) p99 / p50) / Z_99 : 0;
+    }
+
+    @Override
+    public String presignPut(final String id, final Date expiration) {
+        return presign(HttpMethod.PUT, id, expiration);
+    }
+
+    @Override
+    public String presignGet(final String id, final Date expiration) {
+        return presign(HttpMethod.GET, id, expiration);
+    }
+
+    /**
+     * Creates the directory of a multipart upload, which records the
+     * identifier of the asset and, through its modification time, when the
+     * upload was initiated.
+     *
+     * @param id the identifier of the asset
+     * @return the identifier of the multipart upload
+     */
+    @Override
+    public String initiateMultipartUpload(final String id) {
+        object(id);
+        simulateLatency();
+        UUID random = UUID.randomUUID();
+        String uploadId = hex(ByteBuffer.allocate(UPLOAD_ID_BYTES)
+                .putLong(random.getMostSignificantBits()).putLong(random.getLeastSignificantBits()).array());
+        try {
+            Path upload = Files.createTempDirectory(uploads, "multipart-");
+            Files.write(upload.resolve(KEY_FILE), id.getBytes(StandardCharsets.UTF_8));
+            Files.move(upload, multipartUploads.resolve(uploadId), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new SdkClientException(EXCEPTION_MESSAGE_IO, ex);
+        }
+        return uploadId;
+    }
+
+    @Override
+    public String presignUploadPart(final String id, final String uploadId, final int partNumber, final Date expiration) {
+        object(id);
+        long expires = TimeUnit.MILLISECONDS.toSeconds(expiration.getTime());
+        return baseUrl + '/' + id + "?uploadId=" + uploadId + "&partNumber=" + partNumber
+                + "&expires=" + expires + "&signature=" + sign(HttpMethod.PUT, partResource(id, uploadId, partNumber), expires);
+    }
+
+    /**
+     * Assembles the asset from the parts of a multipart upload, replacing the
+     * asset and discarding its status if it already exists, then deletes the
+     * directory of the upload.
+     *
+     * @param id the identifier of the asset
+     * @param uploadId the identifier of the multipart upload
+     * @param parts the number and entity tag of each part, in ascending order
+     * of part number
+     */
+    @Override
+    public void completeMultipartUpload(final String id, final String uploadId, final List<PartETag> parts) {
+        Path object = object(id);
+        simulateLatency();
+        Path directory = multipartUpload(id, uploadId);
+        try {
+            int previous = 0;
+            for (PartETag part : parts) {
+                if (part.getPartNumber() <= previous) {
+                    throw s3Exception(EXCEPTION_MESSAGE_INVALID_PART_ORDER, HTTP_STATUS_BAD_REQUEST, "InvalidPartOrder");
+                }
+                previous = part.getPartNumber();
+                Path file = directory.resolve(PART_PREFIX + part.getPartNumber());
+                if (!Files.exists(file) || !entityTag(file).equals(part.getETag().replace("\"", ""))) {
+                    throw s3Exception(EXCEPTION_MESSAGE_INVALID_PART, HTTP_STATUS_BAD_REQUEST, "InvalidPart");
+                }
+            }
+
+            Path upload = Files.createTempFile(uploads, "object-", null);
+            try {
+                try (OutputStream out = Files.newOutputStream(upload)) {
+                    for (PartETag part : parts) {
+                        Files.copy(directory.resolve(PART_PREFIX + part.getPartNumber()), out);
+                    }
+                }
+                Files.deleteIfExists(statuses.resolve(id));
+                Files.move(upload, object, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(upload);
+            }
+            deleteMultipartUpload(directory);
+        } catch (IOException ex) {
+            throw new SdkClientException(EXCEPTION_MESSAGE_IO, ex);
+        }
+    }
+
+    @Override
+    public void abortMultipartUpload(final String id, final String uploadId) {
+        object(id);
+        simulateLatency();
+        Path directory = multipartUpload(id, uploadId);
+        try {
+            deleteMultipartUpload(directory);
+        } catch (IOException ex) {
+            throw new SdkClientException(EXCEPTION_MESSAGE_IO, ex);
+        }
+    }
+
+    @Override
+    public List<MultipartUpload> listMultipartUploads() {
+        simulateLatency();
+        List<MultipartUpload> pending = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(multipartUploads)) {
+            for (Path directory : stream) {
+                Path key = directory.resolve(KEY_FILE);
+                MultipartUpload upload = new MultipartUpload();
+                upload.setKey(new String(Files.readAllBytes(key), StandardCharsets.UTF_8));
+                upload.setUploadId(directory.getFileName().toString());
+                upload.setInitiated(new Date(Files.getLastModifiedTime(key).toMillis()));
+                pending.add(upload);
+            }
+        } catch (IOException ex) {
+            throw new SdkClientException(EXCEPTION_MESSAGE_IO, ex);
+        }
+        return pending;
+    }
+
+    @Override
+    public Optional<String> getStatus(final String id) {
+        Path object = object(id);
+        simulateLatency();
+        try {
+            return Optional.of(new String(Files.readAllBytes(statuses.resolve(id)), StandardCharsets.UTF_8));
+        } catch (NoSuchFileException ex) {
+            return Files.exists(object) ? Optional.of("") : Optional.empty();
+        } catch (IOException ex) {
+            throw new SdkClientException(EXCEPTION_MESSAGE_IO, ex);
+        }
+    }
+
+    @Override
+    public Optional<ObjectMetadata> getMetadata(final String id) {
+        Path object = object(id);
+        simulateLatency();
+        try {
+            ObjectMetadata metadata = new ObjectMetadata();
+            metadata.setContentLength(Files.size(object));
+            metadata.setHeader(Headers.ETAG, entityTag(object));
+            return Optional.of(metadata);
+        } catch (NoSuchFileException ex) {
+            return Optional.empty();
+        } catch (IOException ex) {
+            throw new SdkClientException(EXCEPTION_MESSAGE_IO, ex);
+        }
+    }
+
+    @Override
+    public void setStatus(final String id, final String status) {
+        Path object = object(id);
+        simulateLatency();
+        if (!Files.exists(object)) {
+            throw s3Exception(EXCEPTION_MESSAGE_NOT_FOUND, HTTP_STATUS_NOT_FOUND, "NoSuchKey");
+        }
+        try {
+            Path upload = Files.write(Files.createTempFile(uploads, "status-", null), status.getBytes(StandardCharsets.UTF_8));
+            Files.move(upload, statuses.resolve(id), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new SdkClientException(EXCEPTION_MESSAGE_IO, ex);
+        }
+    }
+
+    /**
+     * Lists the assets of the directory, keeping only the first identifiers
+     * after the given one in memory.
+     *
+     * @param startAfter the identifier to start after, or null to start with
+     * the first asset
+     * @param limit the maximum number of identifiers to return
+     * @return the identifiers of the assets
+     */
+    @Override
+    public List<String> list(final String startAfter, final int limit) {
+        simulateLatency();
+        PriorityQueue<String> first = new PriorityQueue<>(limit + 1, Comparator.reverseOrder());
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(objects)) {
+            for (Path object : stream) {
+                String id = object.getFileName().toString();
+                if (startAfter == null || id.compareTo(startAfter) > 0) {
+                    first.add(id);
+                    if (first.size() > limit) {
+                        first.poll();
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            throw new SdkClientException(EXCEPTION_MESSAGE_IO, ex);
+        }
+
+        List<String> ids = new ArrayList<>(first);
+        Collections.sort(ids);
+        return ids;
+    }
+
+    @Override
+    public void delete(final String id) {
+        Path object = object(id);
+        simulateLatency();
+        try {
+            Files.deleteIfExists(statuses.resolve(id));
+            Files.deleteIfExists(object);
+        } catch (IOException ex) {
+            throw new SdkClientException(EXCEPTION_MESSAGE_IO, ex);
+        }
+    }
+
+    /**
+     * Stores the content of an asset, replacing the asset and discarding its
+     * status if it already exists. The asset only becomes visible once fully
+     * written.
+     *
+     * @param id the identifier of the asset
+     * @param content the content of the asset
+     * @throws IOException if the content cannot be read or written
+     */
+    public void write(final String id, final InputStream content) throws IOException {
+        Path object = object(id);
+        Path upload = Files.createTempFile(uploads, "object-", null);
+        try {
+            Files.copy(content, upload, StandardCopyOption.REPLACE_EXISTING);
+            Files.deleteIfExists(statuses.resolve(id));
+            Files.move(upload, object, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(upload);
+        }
+    }
+
+    /**
+     * Stores a part of a multipart upload, replacing the part if it was
+     * already uploaded.
+     *
+     * @param id the identifier of the asset
+     * @param uploadId the identifier of the multipart upload
+     * @param partNumber the number of the part
+     * @param content the content of the part
+     * @return the entity tag of the part, or empty if the multipart upload
+     * does not exist
+     * @throws IllegalArgumentException if the part number is not valid
+     * @throws IOException if the content cannot be read or written
+     */
+    public Optional<String> writePart(final String id, final String uploadId, final int partNumber,
+            final InputStream content) throws IOException {
+        object(id);
+        if (partNumber < 1 || partNumber > MAX_PART_NUMBER) {
+            throw new IllegalArgumentException(String.format(EXCEPTION_MESSAGE_INVALID_PART_NUMBER, MAX_PART_NUMBER));
+        }
+        Path directory = multipartUploads.resolve(uploadId);
+        if (!isMultipartUpload(directory, id)) {
+            return Optional.empty();
+        }
+
+        Path upload = Files.createTempFile(uploads, "part-", null);
+        try {
+            MessageDigest digest = S3Presigner.crypto(() -> MessageDigest.getInstance(DIGEST_ALGORITHM));
+            try (InputStream in = new DigestInputStream(content, digest)) {
+                Files.copy(in, upload, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.move(upload, directory.resolve(PART_PREFIX + partNumber), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            return Optional.of(hex(digest.digest()));
+        } finally {
+            Files.deleteIfExists(upload);
+        }
+    }
+
+    /**
+     * Returns the file holding the content of an asset.
+     *
+     * @param id the identifier of the asset
+     * @return the file holding the content of the asset, or empty if the
+     * asset does not exist
+     */
+    public Optional<Path> read(final String id) {
+        Path object = object(id);
+        return Files.exists(object) ? Optional.of(object) : Optional.empty();
+    }
+
+    /**
+     * Determines whether a request to the <code>/local-store</code> endpoint
+     * carries a valid, unexpired signature of one of the URLs of this store.
+     *
+     * @param method the HTTP method of the request
+     * @param id the identifier of the asset
+     * @param expires the <code>expires</code> query parameter of the request
+     * @param signature the <code>signature</code> query parameter of the
+     * request
+     * @return true if the request is allowed
+     */
+    public boolean isValid(final HttpMethod method, final String id, final long expires, final String signature) {
+        return isValidResource(method, id, id, expires, signature);
+    }
+
+    /**
+     * Determines whether a request to upload a part of a multipart upload
+     * carries a valid, unexpired signature of one of the URLs of this store.
+     *
+     * @param id the identifier of the asset
+     * @param uploadId the <code>uploadId</code> query parameter of the request
+     * @param partNumber the <code>partNumber</code> query parameter of the
+     * request
+     * @param expires the <code>expires</code> query parameter of the request
+     * @param signature the <code>signature</code> query parameter of the
+     * request
+     * @return true if the request is allowed
+     */
+    public boolean isValidPart(final String id, final String uploadId, final int partNumber, final long expires,
+            final String signature) {
+        return isValidResource(HttpMethod.PUT, id, partResource(id, uploadId, partNumber), expires, signature);
+    }
+
+    /**
+     * Returns the latency added to a call, given a draw of the standard
+     * normal distribution.
+     *
+     * @param gaussian a draw of the standard normal distribution
+     * @return the latency in nanoseconds
+     */
+    long latency(final double gaussian) {
+        return (long) (latencyMedian * Math.exp(latencySigma * gaussian));
+    }
+
+    private String presign(final HttpMethod method, final String id, final Date expiration) {
+        object(id);
+        long expires = TimeUnit.MILLISECONDS.toSeconds(expiration.getTime());
+        return baseUrl + '/' + id + "?expires=" + expires + "&signature=" + sign(method, id, expires);
+    }
+
+    private boolean isValidResource(final HttpMethod method, final String id, final String resource, final long expires,
+            final String signature) {
+        return S3Presigner.isPlainKey(id)
+                && TimeUnit.SECONDS.toMillis(expires) >= System.currentTimeMillis()
+                && MessageDigest.isEqual(sign(method, resource, expires).getBytes(StandardCharsets.US_ASCII),
+                        signature.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the signed resource of a part of a multipart upload, which is
+     * an asset identifier followed by the query of the part.
+     */
+    private static String partResource(final String id, final String uploadId, final int partNumber) {
+        return id + "?partNumber=" + partNumber + "&uploadId=" + uploadId;
+    }
+
+    private String sign(final HttpMethod method, final String resource, final long expires) {
+        byte[] signature = S3Presigner.crypto(() -> {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac.doFinal((method.name() + '\n' + resource + '\n' + expires).getBytes(StandardCharsets.UTF_8));
+        });
+        return hex(signature);
+    }
+
+    private static String hex(final byte[] bytes) {
+        StringBuilder buffer = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            buffer.append(HEX[(b >> 4) & 0xf]).append(HEX[b & 0xf]);
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * Returns the entity tag of an asset or a part, the MD5 digest of its
+     * content as S3 computes it for content uploaded in one piece.
+     */
+    private static String entityTag(final Path file) throws IOException {
+        MessageDigest digest = S3Presigner.crypto(() -> MessageDigest.getInstance(DIGEST_ALGORITHM));
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            byte[] buffer = new byte[8192];
+            while (in.read(buffer) >= 0) {
+                // digesting
+            }
+        }
+        return hex(digest.digest());
+    }
+
+    /**
+     * Returns the directory of a multipart upload of the asset.
+     *
+     * @throws AmazonS3Exception with a 404 status if the multipart upload does
+     * not exist
+     */
+    private Path multipartUpload(final String id, final String uploadId) {
+        Path directory = multipartUploads.resolve(uploadId);
+        if (!isMultipartUpload(directory, id)) {
+            throw s3Exception(EXCEPTION_MESSAGE_NO_SUCH_UPLOAD, HTTP_STATUS_NOT_FOUND, "NoSuchUpload");
+        }
+        return directory;
+    }
+
+    private boolean isMultipartUpload(final Path directory, final String id) {
+        try {
+            return S3Presigner.isPlainKey(directory.getFileName().toString()) && directory.getParent().equals(multipartUploads)
+                    && id.equals(new String(Files.readAllBytes(directory.resolve(KEY_FILE)), StandardCharsets.UTF_8));
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Deletes the directory of a multipart upload, which is first moved out
+     * of the way so that parts can no longer be uploaded to it.
+     */
+    private void deleteMultipartUpload(final Path directory) throws IOException {
+        Path deleted = uploads.resolve("deleted-" + directory.getFileName());
+        Files.move(directory, deleted, StandardCopyOption.ATOMIC_MOVE);
+        try (Stream<Path> files = Files.list(deleted)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(deleted);
+    }
+
+    private static AmazonS3Exception s3Exception(final String message, final int statusCode, final String errorCode) {
+        AmazonS3Exception ex = new AmazonS3Exception(message);
+        ex.setStatusCode(statusCode);
+        ex.setErrorCode(errorCode);
+        return ex;
+    }
+
+    /**
+     * Returns the file holding the content of an asset, which may not exist.
+     *
+     * @param id the identifier of the asset
+     * @return the file holding the content of the asset
+     * @throws IllegalArgumentException if the identifier cannot be used as
+     * the name of a file
+     */
+    private Path object(final String id) {
+        if (!S3Presigner.isPlainKey(id)) {
+            throw new IllegalArgumentException(String.format(EXCEPTION_MESSAGE_INVALID_ID, id));
+        }
+        return objects.resolve(id);
+    }
+
+    private void simulateLatency() {
+        if (latencyMedian > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(latency(ThreadLocalRandom.current().nextGaussian()));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.bpmericle.assetmanager.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Embedded key-value store persisted in a local directory, as an append-only
+ * log of memory-mapped segment files. Lookups are served from memory, while
+ * each change is appended to the current segment.
+ * <p>
+ * Each record is a header of two ints, the length of the key and of the value
+ * (-1 when the key is removed), followed by the UTF-8 bytes of the key and the
+ * value. A zero key length marks the end of the records of a segment, as the
+ * segments are zero-filled when created. The key length is written last, so
+ * a record torn by a crash of the service is not replayed.
+ * <p>
+ * When a segment is full, the next one is created. The live records are
+ * written again to new segments and the old segments deleted once the log
+ * holds more than twice the size of the live records.
+ *
+ * @author Brian Mericle
+ */
+public class MappedKeyValueStore implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+    private static final int HEADER_SIZE = 8;
+    private static final int REMOVED = -1;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final Map<String, String> entries = new ConcurrentHashMap<>();
+    private final List<Path> segments = new ArrayList<>();
+
+    private MappedByteBuffer segment;
+    private long nextSegment;
+    private long logBytes;
+    private long liveBytes;
+
+    /**
+     * Opens the store kept in the given directory, creating the directory if
+     * needed and replaying the records of its segments.
+     *
+     * @param directory the directory holding the segments
+     * @param segmentSize the size of a segment in bytes, which bounds the size
+     * of a record
+     * @throws UncheckedIOException if the segments cannot be read or created
+     */
+    public MappedKeyValueStore(final Path directory, final int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+                stream.forEach(segments::add);
+            }
+            Collections.sort(segments);
+
+            for (Path path : segments) {
+                segment = replay(path);
+            }
+            if (segment == null) {
+                roll();
+            } else {
+                nextSegment = sequence(segments.get(segments.size() - 1)) + 1;
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Returns the value of a key.
+     *
+     * @param key the key
+     * @return the value of the key, or null if absent
+     */
+    public String get(final String key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Returns a snapshot of the keys and values of the store.
+     *
+     * @return the keys and values of the store
+     */
+    public Map<String, String> entries() {
+        return Collections.unmodifiableMap(new ConcurrentHashMap<>(entries));
+    }
+
+    /**
+     * Returns the number of keys of the store.
+     *
+     * @return the number of keys
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Sets the value of a key.
+     *
+     * @param key the key
+     * @param value the value
+     * @throws IllegalArgumentException if the record does not fit in a
+     * segment
+     * @throws UncheckedIOException if a segment cannot be created
+     */
+    public synchronized void put(final String key, final String value) {
+        Objects.requireNonNull(value);
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
+        append(keyBytes, valueBytes);
+
+        String previous = entries.put(key, value);
+        liveBytes += recordSize(keyBytes, valueBytes) - recordSize(key, previous);
+    }
+
+    /**
+     * Removes a key if it holds the given value.
+     *
+     * @param key the key
+     * @param value the value the key is expected to hold
+     * @return true if the key was removed
+     * @throws UncheckedIOException if a segment cannot be created
+     */
+    public synchronized boolean remove(final String key, final String value) {
+        if (!Objects.equals(entries.get(key), value)) {
+            return false;
+        }
+
+        append(key.getBytes(StandardCharsets.UTF_8), null);
+        entries.remove(key);
+        liveBytes -= recordSize(key, value);
+        return true;
+    }
+
+    /**
+     * Flushes the current segment to disk.
+     */
+    @Override
+    public synchronized void close() {
+        segment.force();
+    }
+
+    /**
+     * Returns the number of segment files of the store.
+     *
+     * @return the number of segments
+     */
+    synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    private void append(final byte[] key, final byte[] value) {
+        int size = HEADER_SIZE + key.length + (value == null ? 0 : value.length);
+        if (size > segmentSize - HEADER_SIZE) {
+            throw new IllegalArgumentException("The record does not fit in a segment of " + segmentSize + " bytes.");
+        }
+
+        if (segment.remaining() < size + HEADER_SIZE) {
+            segment.force();
+            if (logBytes > 2 * liveBytes) {
+                compact();
+            } else {
+                roll();
+            }
+        }
+        write(key, value);
+    }
+
+    private void write(final byte[] key, final byte[] value) {
+        int position = segment.position();
+        segment.position(position + HEADER_SIZE);
+        segment.put(key);
+        if (value != null) {
+            segment.put(value);
+        }
+        int end = segment.position();
+        segment.putInt(position + 4, value == null ? REMOVED : value.length);
+        segment.putInt(position, key.length);
+        logBytes += end - position;
+    }
+
+    /**
+     * Writes the live records to new segments and deletes the old ones.
+     */
+    private void compact() {
+        List<Path> obsolete = new ArrayList<>(segments);
+        segments.clear();
+        logBytes = 0;
+        roll();
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            byte[] key = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            byte[] value = entry.getValue().getBytes(StandardCharsets.UTF_8);
+            if (segment.remaining() < HEADER_SIZE + key.length + value.length + HEADER_SIZE) {
+                segment.force();
+                roll();
+            }
+            write(key, value);
+        }
+        segment.force();
+
+        try {
+            for (Path path : obsolete) {
+                Files.delete(path);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void roll() {
+        Path path = directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, nextSegment++, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        segments.add(path);
+    }
+
+    /**
+     * Replays the records of a segment, returning the segment positioned
+     * after its last record.
+     */
+    private MappedByteBuffer replay(final Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        }
+
+        while (buffer.remaining() >= HEADER_SIZE) {
+            int position = buffer.position();
+            int keyLength = buffer.getInt(position);
+            if (keyLength <= 0) {
+                break;
+            }
+            int valueLength = buffer.getInt(position + 4);
+            String key = decode(buffer, position + HEADER_SIZE, keyLength);
+            String previous;
+            if (valueLength == REMOVED) {
+                previous = entries.remove(key);
+                buffer.position(position + HEADER_SIZE + keyLength);
+            } else {
+                String value = decode(buffer, position + HEADER_SIZE + keyLength, valueLength);
+                previous = entries.put(key, value);
+                liveBytes += HEADER_SIZE + keyLength + valueLength;
+                buffer.position(position + HEADER_SIZE + keyLength + valueLength);
+            }
+            liveBytes -= recordSize(key, previous);
+            logBytes += buffer.position() - position;
+        }
+        return buffer;
+    }
+
+    private static String decode(final MappedByteBuffer buffer, final int position, final int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(position + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long sequence(final Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static int recordSize(final byte[] key, final byte[] value) {
+        return HEADER_SIZE + key.length + value.length;
+    }
+
+    private static int recordSize(final String key, final String value) {
+        return value == null ? 0 : recordSize(key.getBytes(StandardCharsets.UTF_8), value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,209 @@
+package com.bpmericle.assetmanager.service;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.s3.model.MultipartUpload;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Asset store timing each call to the asset store it decorates, so that the
+ * latency and failures of S3, and the time spent signing URLs, are published
+ * to Micrometer.
+ * <p>
+ * Each call is recorded by the <code>asset.store.requests</code> timer,
+ * tagged with the operation and its outcome: <code>success</code>,
+ * <code>service-error</code> when the store rejected the call,
+ * <code>client-error</code> when the store could not be called, or
+ * <code>invalid</code> for an identifier the store cannot hold. Failures are
+ * also counted by the <code>asset.store.errors</code> counter, tagged with
+ * the operation and the S3 error code or the exception. The timers of
+ * successful calls are registered upfront, so the hot path only reads the
+ * clock twice.
+ *
+ * @author Brian Mericle
+ */
+public class MeteredAssetStore implements AssetStore {
+
+    /**
+     * The name the timers of the calls are published under.
+     */
+    static final String METRIC_REQUESTS = "asset.store.requests";
+
+    /**
+     * The name the counters of the failed calls are published under.
+     */
+    static final String METRIC_ERRORS = "asset.store.errors";
+
+    private final AssetStore delegate;
+    private final Operation presignPut;
+    private final Operation presignGet;
+    private final Operation initiateMultipart;
+    private final Operation presignUploadPart;
+    private final Operation completeMultipart;
+    private final Operation abortMultipart;
+    private final Operation listMultipart;
+    private final Operation getTagging;
+    private final Operation head;
+    private final Operation setTagging;
+    private final Operation list;
+    private final Operation delete;
+
+    /**
+     * Creates the decorator and registers the timers of successful calls.
+     *
+     * @param delegate the asset store to time
+     * @param meterRegistry the registry to publish the metrics to
+     */
+    public MeteredAssetStore(final AssetStore delegate, final MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.presignPut = new Operation("presign-put", meterRegistry);
+        this.presignGet = new Operation("presign-get", meterRegistry);
+        this.initiateMultipart = new Operation("initiate-multipart", meterRegistry);
+        this.presignUploadPart = new Operation("presign-upload-part", meterRegistry);
+        this.completeMultipart = new Operation("complete-multipart", meterRegistry);
+        this.abortMultipart = new Operation("abort-multipart", meterRegistry);
+        this.listMultipart = new Operation("list-multipart", meterRegistry);
+        this.getTagging = new Operation("get-tagging", meterRegistry);
+        this.head = new Operation("head", meterRegistry);
+        this.setTagging = new Operation("set-tagging", meterRegistry);
+        this.list = new Operation("list", meterRegistry);
+        this.delete = new Operation("delete", meterRegistry);
+    }
+
+    @Override
+    public String presignPut(final String id, final Date expiration) {
+        return presignPut.record(() -> delegate.presignPut(id, expiration));
+    }
+
+    @Override
+    public String presignGet(final String id, final Date expiration) {
+        return presignGet.record(() -> delegate.presignGet(id, expiration));
+    }
+
+    @Override
+    public String initiateMultipartUpload(final String id) {
+        return initiateMultipart.record(() -> delegate.initiateMultipartUpload(id));
+    }
+
+    @Override
+    public String presignUploadPart(final String id, final String uploadId, final int partNumber, final Date expiration) {
+        return presignUploadPart.record(() -> delegate.presignUploadPart(id, uploadId, partNumber, expiration));
+    }
+
+    @Override
+    public void completeMultipartUpload(final String id, final String uploadId, final List<PartETag> parts) {
+        completeMultipart.record(() -> {
+            delegate.completeMultipartUpload(id, uploadId, parts);
+            return null;
+        });
+    }
+
+    @Override
+    public void abortMultipartUpload(final String id, final String uploadId) {
+        abortMultipart.record(() -> {
+            delegate.abortMultipartUpload(id, uploadId);
+            return null;
+        });
+    }
+
+    @Override
+    public List<MultipartUpload> listMultipartUploads() {
+        return listMultipart.record(delegate::listMultipartUploads);
+    }
+
+    @Override
+    public Optional<String> getStatus(final String id) {
+        return getTagging.record(() -> delegate.getStatus(id));
+    }
+
+    @Override
+    public Optional<ObjectMetadata> getMetadata(final String id) {
+        return head.record(() -> delegate.getMetadata(id));
+    }
+
+    @Override
+    public void setStatus(final String id, final String status) {
+        setTagging.record(() -> {
+            delegate.setStatus(id, status);
+            return null;
+        });
+    }
+
+    @Override
+    public List<String> list(final String startAfter, final int limit) {
+        return list.record(() -> delegate.list(startAfter, limit));
+    }
+
+    @Override
+    public void delete(final String id) {
+        delete.record(() -> {
+            delegate.delete(id);
+            return null;
+        });
+    }
+
+    /**
+     * The metrics of an operation of the asset store.
+     */
+    private static final class Operation {
+
+        private final String name;
+        private final MeterRegistry meterRegistry;
+        private final Timer success;
+
+        Operation(final String name, final MeterRegistry meterRegistry) {
+            this.name = name;
+            this.meterRegistry = meterRegistry;
+            this.success = timer("success");
+        }
+
+        /**
+         * Times a call of the operation, recording its outcome.
+         */
+        <T> T record(final Supplier<T> call) {
+            long start = System.nanoTime();
+            try {
+                T result = call.get();
+                success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return result;
+            } catch (AmazonServiceException ex) {
+                failed(start, "service-error", ex.getErrorCode() == null ? String.valueOf(ex.getStatusCode()) : ex.getErrorCode());
+                throw ex;
+            } catch (SdkClientException ex) {
+                failed(start, "client-error", ex.getClass().getSimpleName());
+                throw ex;
+            } catch (IllegalArgumentException ex) {
+                failed(start, "invalid", ex.getClass().getSimpleName());
+                throw ex;
+            }
+        }
+
+        private void failed(final long start, final String outcome, final String error) {
+            // Failures are rare enough for their meters to be looked up each time.
+            timer(outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            Counter.builder(METRIC_ERRORS)
+                    .description("Failed calls to the asset store")
+                    .tag("operation", name)
+                    .tag("error", error)
+                    .register(meterRegistry)
+                    .increment();
+        }
+
+        private Timer timer(final String outcome) {
+            return Timer.builder(METRIC_REQUESTS)
+                    .description("Calls to the asset store")
+                    .tag("operation", name)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+    }
+}
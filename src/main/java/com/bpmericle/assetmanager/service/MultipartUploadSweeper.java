@@ -0,0 +1,100 @@
+package com.bpmericle.assetmanager.service;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.model.MultipartUpload;
+import com.bpmericle.assetmanager.AssetManagerProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically aborts the multipart uploads that were neither completed nor
+ * aborted in time, as the asset store keeps, and bills, their parts until
+ * then.
+ *
+ * @author Brian Mericle
+ */
+@Component
+public class MultipartUploadSweeper {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MultipartUploadSweeper.class);
+
+    private static final int HTTP_STATUS_NOT_FOUND = 404;
+
+    private final AssetStore assetStore;
+    private final Duration abandonAfter;
+    private final Counter aborted;
+
+    /**
+     * Creates the sweeper, registers its metrics and schedules its sweeps.
+     *
+     * @param properties the settings of the asset manager
+     * @param assetStore the store holding the assets
+     * @param executor the executor running the sweeps
+     * @param meterRegistry the registry to publish the metrics to
+     */
+    @Autowired
+    public MultipartUploadSweeper(final AssetManagerProperties properties, final AssetStore assetStore,
+            @Qualifier("multipartSweepExecutor") final ScheduledExecutorService executor,
+            final MeterRegistry meterRegistry) {
+        AssetManagerProperties.Multipart settings = properties.getMultipart();
+        this.assetStore = assetStore;
+        this.abandonAfter = settings.getAbandonAfter();
+
+        this.aborted = Counter.builder("asset.multipart.uploads.abandoned")
+                .description("Abandoned multipart uploads aborted by the sweeper")
+                .register(meterRegistry);
+
+        long interval = settings.getSweepInterval().toMillis();
+        executor.scheduleWithFixedDelay(this::sweep, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Aborts the multipart uploads initiated longer ago than the configured
+     * age. Failures are logged and left for the next sweep.
+     *
+     * @return the number of multipart uploads aborted
+     */
+    int sweep() {
+        List<MultipartUpload> uploads;
+        try {
+            uploads = assetStore.listMultipartUploads();
+        } catch (RuntimeException ex) {
+            LOGGER.warn("Multipart uploads could not be listed.", ex);
+            return 0;
+        }
+
+        long initiatedBefore = System.currentTimeMillis() - abandonAfter.toMillis();
+        int count = 0;
+        for (MultipartUpload upload : uploads) {
+            if (upload.getInitiated().getTime() >= initiatedBefore) {
+                continue;
+            }
+            try {
+                assetStore.abortMultipartUpload(upload.getKey(), upload.getUploadId());
+                count++;
+            } catch (RuntimeException ex) {
+                // A multipart upload not found was completed or aborted since it was listed.
+                if (!isNotFound(ex)) {
+                    LOGGER.warn("Multipart upload {} of asset {} could not be aborted.", upload.getUploadId(), upload.getKey(), ex);
+                }
+            }
+        }
+
+        aborted.increment(count);
+        return count;
+    }
+
+    private static boolean isNotFound(final RuntimeException ex) {
+        return ex instanceof AmazonServiceException
+                && ((AmazonServiceException) ex).getStatusCode() == HTTP_STATUS_NOT_FOUND;
+    }
+}
@@ -0,0 +1,201 @@
+package com.bpmericle.assetmanager.service;
+
+import com.amazonaws.HttpMethod;
+import com.bpmericle.assetmanager.AssetManagerProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Date;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded cache of pre-signed URLs, keyed by the bucket, the identifier of the
+ * asset, the HTTP method and the bucket the requested timeout falls in.
+ * <p>
+ * A cached URL is handed back as long as it remains valid for at least the
+ * configured fraction of the requested timeout, otherwise a new URL is signed
+ * and replaces it. Entries are dropped once their URL has expired.
+ *
+ * @author Brian Mericle
+ */
+@Component
+public class PresignedUrlCache {
+
+    /**
+     * The name the cache metrics are published under.
+     */
+    private static final String CACHE_NAME = "asset.presigned-url";
+
+    private final Cache<Key, PresignedUrl> cache;
+    private final long timeoutGranularity;
+    private final double minRemainingRatio;
+
+    /**
+     * Creates the cache from the configured settings and registers its
+     * metrics.
+     *
+     * @param properties the settings of the asset manager
+     * @param meterRegistry the registry to publish the cache metrics to
+     */
+    @Autowired
+    public PresignedUrlCache(final AssetManagerProperties properties, final MeterRegistry meterRegistry) {
+        this.timeoutGranularity = Math.max(1, properties.getPresignedUrlCache().getTimeoutGranularity().getSeconds());
+        this.minRemainingRatio = properties.getPresignedUrlCache().getMinRemainingRatio();
+
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getPresignedUrlCache().getMaximumSize())
+                .expireAfter(new Expiry<Key, PresignedUrl>() {
+                    @Override
+                    public long expireAfterCreate(final Key key, final PresignedUrl url, final long currentTime) {
+                        return url.remainingNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(final Key key, final PresignedUrl url, final long currentTime, final long currentDuration) {
+                        return url.remainingNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(final Key key, final PresignedUrl url, final long currentTime, final long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns a pre-signed URL valid for at least the configured fraction of
+     * the requested timeout, signing a new one when none is cached.
+     *
+     * @param bucketName the name of the bucket holding the asset
+     * @param id the identifier of the asset
+     * @param method the HTTP method the URL is signed for
+     * @param timeout the amount of time in seconds the URL is requested to be
+     * valid for
+     * @param signer the function signing a URL expiring at the given date
+     * @return the pre-signed URL
+     */
+    public PresignedUrl get(final String bucketName, final String id, final HttpMethod method, final int timeout,
+            final Function<Date, String> signer) {
+        final Key key = new Key(bucketName, id, method, (timeout + timeoutGranularity - 1) / timeoutGranularity);
+        final long now = System.currentTimeMillis();
+
+        PresignedUrl url = cache.getIfPresent(key);
+        if (url == null || freshMillis(url.getExpiration(), timeout, now) < 0) {
+            Date expiration = new Date(now + TimeUnit.SECONDS.toMillis(timeout));
+            url = new PresignedUrl(signer.apply(expiration), expiration);
+            cache.put(key, url);
+        }
+
+        return url;
+    }
+
+    /**
+     * Returns how long a pre-signed URL remains valid for at least the
+     * configured fraction of the requested timeout, which is how long it is
+     * handed back before a new one is signed.
+     *
+     * @param expiration the date the URL expires at
+     * @param timeout the amount of time in seconds the URL is requested to be
+     * valid for
+     * @return the time in milliseconds, negative once a new URL is signed
+     */
+    public long freshMillis(final Date expiration, final int timeout) {
+        return freshMillis(expiration, timeout, System.currentTimeMillis());
+    }
+
+    private long freshMillis(final Date expiration, final int timeout, final long now) {
+        return expiration.getTime() - now - (long) (TimeUnit.SECONDS.toMillis(timeout) * minRemainingRatio);
+    }
+
+    /**
+     * Discards all the cached URLs.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * A pre-signed URL along with the date it expires at.
+     */
+    public static final class PresignedUrl {
+
+        private final String url;
+        private final Date expiration;
+
+        PresignedUrl(final String url, final Date expiration) {
+            this.url = url;
+            this.expiration = expiration;
+        }
+
+        /**
+         * Get the value of url
+         *
+         * @return the value of url
+         */
+        public String getUrl() {
+            return url;
+        }
+
+        /**
+         * Get the value of expiration
+         *
+         * @return the value of expiration
+         */
+        public Date getExpiration() {
+            return expiration;
+        }
+
+        private long remainingNanos() {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, expiration.getTime() - System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * The key a pre-signed URL is cached under.
+     */
+    static final class Key {
+
+        private final String bucketName;
+        private final String id;
+        private final HttpMethod method;
+        private final long timeoutBucket;
+
+        Key(final String bucketName, final String id, final HttpMethod method, final long timeoutBucket) {
+            this.bucketName = bucketName;
+            this.id = id;
+            this.method = method;
+            this.timeoutBucket = timeoutBucket;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+
+            Key other = (Key) obj;
+            return timeoutBucket == other.timeoutBucket
+                    && method == other.method
+                    && Objects.equals(id, other.id)
+                    && Objects.equals(bucketName, other.bucketName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(bucketName, id, method, timeoutBucket);
+        }
+    }
+}
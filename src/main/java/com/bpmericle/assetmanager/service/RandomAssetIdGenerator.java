@@ -0,0 +1,95 @@
+package com.bpmericle.assetmanager.service;
+
+import java.security.SecureRandom;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Generates random identifiers of 128 bits, which cannot be guessed from the
+ * identifiers of other assets.
+ * <p>
+ * Drawing a few bytes at a time from a {@link SecureRandom} shared by all
+ * request threads makes them contend for it, so the random bytes are drawn
+ * in bulk into a number of stripes, each thread taking bytes from the stripe
+ * picked by its identifier. The digits are written straight into the
+ * characters of the identifier.
+ *
+ * @author Brian Mericle
+ */
+@Component
+@ConditionalOnProperty(prefix = "asset-manager.asset-id", name = "generator", havingValue = "random", matchIfMissing = true)
+public class RandomAssetIdGenerator implements AssetIdGenerator {
+
+    /**
+     * The number of hexadecimal digits of an identifier.
+     */
+    static final int ID_LENGTH = 32;
+
+    private static final int STRIPE_SIZE = 1024;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final SecureRandom random = new SecureRandom();
+    private final Stripe[] stripes;
+
+    /**
+     * Creates the generator, with twice as many stripes as processors.
+     */
+    public RandomAssetIdGenerator() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        this.stripes = new Stripe[Integer.highestOneBit(processors * 2 - 1) << 1];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    @Override
+    public String newId() {
+        char[] id = new char[ID_LENGTH];
+        fillRandom(id, 0);
+        return new String(id);
+    }
+
+    /**
+     * Fills the identifier with random digits, from the given digit to its
+     * end.
+     *
+     * @param id the digits of the identifier
+     * @param from the first digit to fill, which is even
+     */
+    final void fillRandom(final char[] id, final int from) {
+        Stripe stripe = stripes[(int) Thread.currentThread().getId() & (stripes.length - 1)];
+        synchronized (stripe) {
+            for (int i = from; i < id.length; i += 2) {
+                if (stripe.next == STRIPE_SIZE) {
+                    random.nextBytes(stripe.bytes);
+                    stripe.next = 0;
+                }
+                int b = stripe.bytes[stripe.next++];
+                id[i] = HEX_DIGITS[(b >> 4) & 0xF];
+                id[i + 1] = HEX_DIGITS[b & 0xF];
+            }
+        }
+    }
+
+    /**
+     * Writes the digits of a number into the identifier.
+     *
+     * @param id the digits of the identifier
+     * @param value the number
+     * @param length the number of digits to write, from the first one
+     */
+    static void fillHex(final char[] id, final long value, final int length) {
+        for (int i = 0; i < length; i++) {
+            id[i] = HEX_DIGITS[(int) (value >>> (4 * (length - 1 - i))) & 0xF];
+        }
+    }
+
+    /**
+     * A buffer of random bytes, taken in order until it is drawn again.
+     */
+    private static final class Stripe {
+
+        private final byte[] bytes = new byte[STRIPE_SIZE];
+        private int next = STRIPE_SIZE;
+    }
+}
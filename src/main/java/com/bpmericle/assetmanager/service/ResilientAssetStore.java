@@ -0,0 +1,404 @@
+package com.bpmericle.assetmanager.service;
+
+import com.amazonaws.AbortedException;
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.s3.model.MultipartUpload;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.bpmericle.assetmanager.AssetManagerProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Asset store protecting the service from an asset store that slows down or
+ * fails, such as S3 during a brownout.
+ * <p>
+ * Each operation calling the asset store has its own {@link CircuitBreaker},
+ * which rejects its calls with a {@link CircuitBreakerOpenException} while
+ * too many of them fail, so that requests fail fast instead of blocking
+ * until the S3 client times out. Only retryable errors (throttling, server
+ * errors and failures to reach the asset store) count as failures.
+ * <p>
+ * The lookups failing with a retryable error are retried after a fully
+ * jittered exponential backoff, within a {@link RetryBudget} shared by all
+ * operations. Writes are left to their callers to retry, such as the batch
+ * endpoints, so that retries do not multiply. Status lookups slower than
+ * the 95th percentile of the latest lookups are hedged with a second lookup,
+ * also drawn from the budget, and the first to succeed is returned. Signing
+ * URLs does not call the asset store, so it is left as is.
+ *
+ * @author Brian Mericle
+ */
+public class ResilientAssetStore implements AssetStore {
+
+    /**
+     * The name the gauges of the state of the circuit breakers are published
+     * under.
+     */
+    static final String METRIC_CIRCUIT_STATE = "asset.store.circuit.state";
+
+    /**
+     * The name the counters of the calls rejected by an open circuit breaker
+     * are published under.
+     */
+    static final String METRIC_CIRCUIT_REJECTED = "asset.store.circuit.rejected";
+
+    /**
+     * The name the counters of the retried calls are published under.
+     */
+    static final String METRIC_RETRIES = "asset.store.retries";
+
+    /**
+     * The name the counter of the hedged status lookups is published under.
+     */
+    static final String METRIC_HEDGES = "asset.store.hedges";
+
+    /**
+     * The name the gauge of the retry budget is published under.
+     */
+    static final String METRIC_RETRY_BUDGET = "asset.store.retry.budget";
+
+    private static final double HEDGE_PERCENTILE = 0.95;
+
+    private final AssetStore delegate;
+    private final AssetManagerProperties.Resilience settings;
+    private final ExecutorService hedgeExecutor;
+    private final RetryBudget budget;
+    private final LatencyWindow statusLatency;
+    private final Counter hedges;
+    private final Map<String, CircuitBreaker> circuitBreakers = new LinkedHashMap<>();
+    private final Operation initiateMultipart;
+    private final Operation completeMultipart;
+    private final Operation abortMultipart;
+    private final Operation listMultipart;
+    private final Operation getTagging;
+    private final Operation head;
+    private final Operation setTagging;
+    private final Operation list;
+    private final Operation delete;
+
+    /**
+     * Creates the decorator and registers its metrics.
+     *
+     * @param delegate the asset store to protect
+     * @param properties the settings of the asset manager
+     * @param hedgeExecutor the executor making the status lookups that may be
+     * hedged
+     * @param meterRegistry the registry to publish the metrics to
+     */
+    public ResilientAssetStore(final AssetStore delegate, final AssetManagerProperties properties,
+            final ExecutorService hedgeExecutor, final MeterRegistry meterRegistry) {
+        this(delegate, properties, hedgeExecutor, meterRegistry, System::nanoTime);
+    }
+
+    /**
+     * Creates the decorator with the given clock for its circuit breakers.
+     */
+    ResilientAssetStore(final AssetStore delegate, final AssetManagerProperties properties,
+            final ExecutorService hedgeExecutor, final MeterRegistry meterRegistry, final LongSupplier clock) {
+        this.delegate = delegate;
+        this.settings = properties.getResilience();
+        this.hedgeExecutor = hedgeExecutor;
+        this.budget = new RetryBudget(settings.getRetryBudgetRatio(), settings.getRetryBudgetCapacity());
+        this.statusLatency = new LatencyWindow(HEDGE_PERCENTILE, settings.getHedgeWindowSize(), settings.getHedgeMinimumSamples());
+
+        Gauge.builder(METRIC_RETRY_BUDGET, budget, RetryBudget::getBalance)
+                .description("Retries and hedged requests left in the retry budget")
+                .register(meterRegistry);
+        this.hedges = Counter.builder(METRIC_HEDGES)
+                .description("Status lookups hedged with a second lookup")
+                .register(meterRegistry);
+
+        this.initiateMultipart = new Operation("initiate-multipart", false, clock, meterRegistry);
+        this.completeMultipart = new Operation("complete-multipart", false, clock, meterRegistry);
+        this.abortMultipart = new Operation("abort-multipart", false, clock, meterRegistry);
+        this.listMultipart = new Operation("list-multipart", true, clock, meterRegistry);
+        this.getTagging = new Operation("get-tagging", true, clock, meterRegistry);
+        this.head = new Operation("head", true, clock, meterRegistry);
+        this.setTagging = new Operation("set-tagging", false, clock, meterRegistry);
+        this.list = new Operation("list", true, clock, meterRegistry);
+        this.delete = new Operation("delete", false, clock, meterRegistry);
+    }
+
+    /**
+     * Returns the circuit breakers of the operations, keyed by operation.
+     *
+     * @return the circuit breakers
+     */
+    public Map<String, CircuitBreaker> getCircuitBreakers() {
+        return Collections.unmodifiableMap(circuitBreakers);
+    }
+
+    @Override
+    public String presignPut(final String id, final Date expiration) {
+        return delegate.presignPut(id, expiration);
+    }
+
+    @Override
+    public String presignGet(final String id, final Date expiration) {
+        return delegate.presignGet(id, expiration);
+    }
+
+    @Override
+    public String initiateMultipartUpload(final String id) {
+        return initiateMultipart.call(() -> delegate.initiateMultipartUpload(id));
+    }
+
+    @Override
+    public String presignUploadPart(final String id, final String uploadId, final int partNumber, final Date expiration) {
+        return delegate.presignUploadPart(id, uploadId, partNumber, expiration);
+    }
+
+    @Override
+    public void completeMultipartUpload(final String id, final String uploadId, final List<PartETag> parts) {
+        completeMultipart.call(() -> {
+            delegate.completeMultipartUpload(id, uploadId, parts);
+            return null;
+        });
+    }
+
+    @Override
+    public void abortMultipartUpload(final String id, final String uploadId) {
+        abortMultipart.call(() -> {
+            delegate.abortMultipartUpload(id, uploadId);
+            return null;
+        });
+    }
+
+    @Override
+    public List<MultipartUpload> listMultipartUploads() {
+        return listMultipart.call(delegate::listMultipartUploads);
+    }
+
+    @Override
+    public Optional<String> getStatus(final String id) {
+        return getTagging.call(() -> hedged(() -> delegate.getStatus(id)));
+    }
+
+    @Override
+    public Optional<ObjectMetadata> getMetadata(final String id) {
+        return head.call(() -> delegate.getMetadata(id));
+    }
+
+    @Override
+    public void setStatus(final String id, final String status) {
+        setTagging.call(() -> {
+            delegate.setStatus(id, status);
+            return null;
+        });
+    }
+
+    @Override
+    public List<String> list(final String startAfter, final int limit) {
+        return list.call(() -> delegate.list(startAfter, limit));
+    }
+
+    @Override
+    public void delete(final String id) {
+        delete.call(() -> {
+            delegate.delete(id);
+            return null;
+        });
+    }
+
+    /**
+     * Returns the backoff before the next attempt of a call, drawn at random
+     * between zero and the exponential backoff of the attempt.
+     *
+     * @param attempt the number of the attempt that failed, from 1
+     * @return the backoff in milliseconds
+     */
+    long backoff(final int attempt) {
+        long ceiling = Math.min(settings.getRetryMaxBackoff().toMillis(),
+                settings.getRetryBackoff().toMillis() << Math.min(attempt - 1, 30));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Makes a status lookup, hedging it with a second lookup once it is
+     * slower than most, while the budget and the circuit breaker allow.
+     */
+    private <T> T hedged(final Supplier<T> call) {
+        if (!settings.isHedgeEnabled()) {
+            return call.get();
+        }
+        long delay = statusLatency.getValue();
+        if (delay < 0) {
+            return timed(call);
+        }
+
+        CompletableFuture<T> primary = CompletableFuture.supplyAsync(() -> timed(call), hedgeExecutor);
+        try {
+            return primary.get(Math.max(delay, settings.getHedgeMinDelay().toNanos()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            // slower than most, hedged below
+        } catch (ExecutionException ex) {
+            throw rethrow(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new AbortedException(ex);
+        }
+
+        if (getTagging.circuitBreaker.getState() != CircuitBreaker.State.CLOSED || !budget.tryWithdraw()) {
+            return join(primary);
+        }
+        hedges.increment();
+        CompletableFuture<T> hedge = CompletableFuture.supplyAsync(() -> timed(call), hedgeExecutor);
+        return join(firstSuccessful(primary, hedge));
+    }
+
+    private <T> T timed(final Supplier<T> call) {
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            statusLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Returns a future completed by the first of two futures to succeed, or
+     * by the failure of the last one when both fail.
+     */
+    private static <T> CompletableFuture<T> firstSuccessful(final CompletableFuture<T> first, final CompletableFuture<T> second) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (CompletableFuture<T> future : Arrays.asList(first, second)) {
+            future.whenComplete((value, ex) -> {
+                if (ex == null) {
+                    result.complete(value);
+                } else if (failures.incrementAndGet() == 2) {
+                    result.completeExceptionally(ex);
+                }
+            });
+        }
+        return result;
+    }
+
+    private static <T> T join(final CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            throw rethrow(ex.getCause());
+        }
+    }
+
+    /**
+     * Returns the exception a lookup failed with so that it is rethrown as
+     * is, or throws it right away when it is an error.
+     */
+    private static RuntimeException rethrow(final Throwable cause) {
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return (RuntimeException) cause;
+    }
+
+    /**
+     * Determines whether a call failed because the asset store is unhealthy.
+     */
+    private static boolean isFailure(final RuntimeException ex) {
+        return ex instanceof SdkClientException && AssetManagerService.isRetryable(ex);
+    }
+
+    /**
+     * The circuit breaker and metrics of an operation of the asset store.
+     */
+    private final class Operation {
+
+        private final String name;
+        private final boolean retried;
+        private final CircuitBreaker circuitBreaker;
+        private final Counter retries;
+        private final Counter rejected;
+
+        Operation(final String name, final boolean retried, final LongSupplier clock, final MeterRegistry meterRegistry) {
+            this.name = name;
+            this.retried = retried;
+            this.circuitBreaker = new CircuitBreaker(settings.getCircuitWindowSize(), settings.getCircuitMinimumCalls(),
+                    settings.getCircuitFailureRateThreshold(), settings.getCircuitOpenDuration().toNanos(),
+                    settings.getCircuitHalfOpenCalls(), clock);
+            circuitBreakers.put(name, circuitBreaker);
+
+            Gauge.builder(METRIC_CIRCUIT_STATE, circuitBreaker, breaker -> breaker.getState().ordinal())
+                    .description("State of the circuit breaker: 0 closed, 1 half open, 2 open")
+                    .tag("operation", name)
+                    .register(meterRegistry);
+            this.retries = Counter.builder(METRIC_RETRIES)
+                    .description("Calls to the asset store retried")
+                    .tag("operation", name)
+                    .register(meterRegistry);
+            this.rejected = Counter.builder(METRIC_CIRCUIT_REJECTED)
+                    .description("Calls to the asset store rejected by an open circuit breaker")
+                    .tag("operation", name)
+                    .register(meterRegistry);
+        }
+
+        /**
+         * Makes a call through the circuit breaker of the operation, retrying
+         * it on retryable errors when the operation is a lookup.
+         */
+        <T> T call(final Supplier<T> call) {
+            budget.deposit();
+            RuntimeException failure = null;
+            for (int attempt = 1;; attempt++) {
+                if (!circuitBreaker.tryAcquirePermission()) {
+                    if (failure != null) {
+                        throw failure;
+                    }
+                    rejected.increment();
+                    throw new CircuitBreakerOpenException(name);
+                }
+
+                // The outcome is recorded whatever is thrown, or a trial call would hold the breaker half open.
+                boolean failed = true;
+                try {
+                    T result = call.get();
+                    failed = false;
+                    return result;
+                } catch (RuntimeException ex) {
+                    if (!isFailure(ex)) {
+                        failed = false;
+                        throw ex;
+                    }
+                    if (!retried || attempt >= settings.getRetryMaxAttempts() || !budget.tryWithdraw()) {
+                        throw ex;
+                    }
+                    failure = ex;
+                } finally {
+                    if (failed) {
+                        circuitBreaker.onFailure();
+                    } else {
+                        circuitBreaker.onSuccess();
+                    }
+                }
+
+                retries.increment();
+                try {
+                    Thread.sleep(backoff(attempt));
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw failure;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.bpmericle.assetmanager.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Budget bounding the retries (and hedged requests) made to the asset store
+ * to a share of the calls, so that retries cannot multiply the load of an
+ * asset store that is already struggling.
+ * <p>
+ * Each call deposits a fraction of a token in the budget, up to its capacity,
+ * and each retry withdraws a whole token, so that retries are made at most at
+ * the configured ratio of the calls once the initial tokens are spent. The
+ * budget starts full, so that a service receiving few calls can retry too.
+ *
+ * @author Brian Mericle
+ */
+public class RetryBudget {
+
+    /**
+     * The number of units of a token, which lets fractions of tokens be
+     * counted with a long.
+     */
+    private static final long TOKEN = 1000;
+
+    private final long deposit;
+    private final long capacity;
+    private final AtomicLong balance;
+
+    /**
+     * Creates a full budget.
+     *
+     * @param ratio the number of retries allowed per call
+     * @param capacity the maximum number of retries saved up
+     */
+    public RetryBudget(final double ratio, final int capacity) {
+        this.deposit = Math.round(ratio * TOKEN);
+        this.capacity = capacity * TOKEN;
+        this.balance = new AtomicLong(this.capacity);
+    }
+
+    /**
+     * Records a call, depositing its share of a retry.
+     */
+    public void deposit() {
+        // A full budget, the common case, is left untouched rather than written again by every call.
+        if (balance.get() < capacity) {
+            balance.updateAndGet(current -> Math.min(capacity, current + deposit));
+        }
+    }
+
+    /**
+     * Withdraws a retry from the budget if there is one left.
+     *
+     * @return true if the retry may be made
+     */
+    public boolean tryWithdraw() {
+        return balance.getAndUpdate(current -> current >= TOKEN ? current - TOKEN : current) >= TOKEN;
+    }
+
+    /**
+     * Returns the number of retries left in the budget.
+     *
+     * @return the number of retries left
+     */
+    public double getBalance() {
+        return (double) balance.get() / TOKEN;
+    }
+}
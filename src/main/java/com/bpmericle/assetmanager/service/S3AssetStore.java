@@ -0,0 +1,203 @@
+package com.bpmericle.assetmanager.service;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.HttpMethod;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.GetObjectTaggingRequest;
+import com.amazonaws.services.s3.model.GetObjectTaggingResult;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ListMultipartUploadsRequest;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.MultipartUpload;
+import com.amazonaws.services.s3.model.MultipartUploadListing;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.ObjectTagging;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.services.s3.model.SetObjectTaggingRequest;
+import com.amazonaws.services.s3.model.Tag;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * The asset store backed by an S3 bucket, which keeps the status of an asset
+ * in the 'Status' tag of its object.
+ *
+ * @author Brian Mericle
+ */
+@Component
+@ConditionalOnProperty(prefix = "asset-manager.asset-store", name = "type", havingValue = "s3", matchIfMissing = true)
+public class S3AssetStore implements AssetStore {
+
+    /**
+     * The name of the S3 bucket to use.
+     */
+    @Value("#{systemProperties['AWS_S3_BUCKET_NAME']}")
+    private String bucketName;
+
+    /**
+     * The client to use to communicate with the AWS S3 service.
+     */
+    private AmazonS3 s3Client;
+
+    /**
+     * The generator of pre-signed URLs.
+     */
+    @Autowired
+    private S3Presigner presigner;
+
+    private static final String TAG_STATUS_KEY = "Status";
+    private static final int HTTP_STATUS_NOT_FOUND = 404;
+
+    @Override
+    public String presignPut(final String id, final Date expiration) {
+        return presigner.presign(HttpMethod.PUT, id, expiration);
+    }
+
+    @Override
+    public String presignGet(final String id, final Date expiration) {
+        return presigner.presign(HttpMethod.GET, id, expiration);
+    }
+
+    @Override
+    public String initiateMultipartUpload(final String id) {
+        return s3Client.initiateMultipartUpload(new InitiateMultipartUploadRequest(bucketName, id)).getUploadId();
+    }
+
+    @Override
+    public String presignUploadPart(final String id, final String uploadId, final int partNumber, final Date expiration) {
+        return presigner.presignUploadPart(id, uploadId, partNumber, expiration);
+    }
+
+    @Override
+    public void completeMultipartUpload(final String id, final String uploadId, final List<PartETag> parts) {
+        s3Client.completeMultipartUpload(new CompleteMultipartUploadRequest(bucketName, id, uploadId, parts));
+    }
+
+    @Override
+    public void abortMultipartUpload(final String id, final String uploadId) {
+        s3Client.abortMultipartUpload(new AbortMultipartUploadRequest(bucketName, id, uploadId));
+    }
+
+    /**
+     * Lists the multipart uploads of the bucket, following the markers until
+     * the listing is complete.
+     *
+     * @return the key, identifier and initiation date of each multipart
+     * upload
+     */
+    @Override
+    public List<MultipartUpload> listMultipartUploads() {
+        List<MultipartUpload> uploads = new ArrayList<>();
+        ListMultipartUploadsRequest request = new ListMultipartUploadsRequest(bucketName);
+        MultipartUploadListing listing;
+        do {
+            listing = s3Client.listMultipartUploads(request);
+            uploads.addAll(listing.getMultipartUploads());
+            request.setKeyMarker(listing.getNextKeyMarker());
+            request.setUploadIdMarker(listing.getNextUploadIdMarker());
+        } while (listing.isTruncated());
+        return uploads;
+    }
+
+    /**
+     * Reads the status of the asset from its 'Status' tag.
+     *
+     * @param id the identifier of the asset
+     * @return the status of the asset, an empty string if it has none, or
+     * empty if the asset does not exist
+     */
+    @Override
+    public Optional<String> getStatus(final String id) {
+        try {
+            GetObjectTaggingResult result = s3Client.getObjectTagging(new GetObjectTaggingRequest(bucketName, id));
+            for (Tag tag : result.getTagSet()) {
+                if (TAG_STATUS_KEY.equals(tag.getKey())) {
+                    return Optional.of(tag.getValue());
+                }
+            }
+            return Optional.of("");
+        } catch (AmazonServiceException ex) {
+            if (ex.getStatusCode() == HTTP_STATUS_NOT_FOUND) {
+                return Optional.empty();
+            }
+            throw ex;
+        }
+    }
+
+    @Override
+    public Optional<ObjectMetadata> getMetadata(final String id) {
+        try {
+            return Optional.of(s3Client.getObjectMetadata(bucketName, id));
+        } catch (AmazonServiceException ex) {
+            if (ex.getStatusCode() == HTTP_STATUS_NOT_FOUND) {
+                return Optional.empty();
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Sets the status of the asset as its 'Status' tag, replacing any other
+     * tag of the asset.
+     *
+     * @param id the identifier of the asset
+     * @param status the status of the asset
+     */
+    @Override
+    public void setStatus(final String id, final String status) {
+        List<Tag> tags = new ArrayList<>();
+        tags.add(new Tag(TAG_STATUS_KEY, status));
+        s3Client.setObjectTagging(new SetObjectTaggingRequest(bucketName, id, new ObjectTagging(tags)));
+    }
+
+    /**
+     * Lists the keys of the bucket, following the continuation token until
+     * the limit is reached or the listing is complete.
+     *
+     * @param startAfter the key to start after, or null to start with the
+     * first key
+     * @param limit the maximum number of keys to return
+     * @return the keys of the bucket
+     */
+    @Override
+    public List<String> list(final String startAfter, final int limit) {
+        List<String> ids = new ArrayList<>(limit);
+        ListObjectsV2Request request = new ListObjectsV2Request()
+                .withBucketName(bucketName)
+                .withStartAfter(startAfter);
+        ListObjectsV2Result result;
+        do {
+            result = s3Client.listObjectsV2(request.withMaxKeys(limit - ids.size()));
+            for (S3ObjectSummary summary : result.getObjectSummaries()) {
+                ids.add(summary.getKey());
+            }
+            request.setContinuationToken(result.getNextContinuationToken());
+        } while (result.isTruncated() && ids.size() < limit);
+        return ids;
+    }
+
+    @Override
+    public void delete(final String id) {
+        s3Client.deleteObject(bucketName, id);
+    }
+
+    /**
+     * Sets the client to use to communicate with the AWS S3 service.
+     *
+     * @param client the AWS S3 client
+     */
+    @Autowired
+    public void setS3Client(final AmazonS3 client) {
+        this.s3Client = client;
+    }
+}
@@ -0,0 +1,677 @@
+package com.bpmericle.assetmanager.service;
+
+import com.amazonaws.HttpMethod;
+import com.amazonaws.SDKGlobalTime;
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.auth.AWSSessionCredentials;
+import com.amazonaws.auth.AnonymousAWSCredentials;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GeneratePresignedUrlRequest;
+import com.bpmericle.assetmanager.AssetManagerProperties;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.annotation.PostConstruct;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Generates pre-signed URLs of the assets, signing them locally with
+ * signature version 4 rather than going through the request objects of the
+ * AWS SDK.
+ * <p>
+ * The layout of the URLs (scheme, host, bucket placement, region and
+ * service) is learnt at start up from a URL pre-signed by the S3 client, which
+ * is then signed again locally; local signing is only enabled if both URLs
+ * are identical. The signing key is derived once per day and credentials, and
+ * the {@link Mac}, {@link MessageDigest} and buffers are reused from a small
+ * pool. The pool is striped by thread rather than held in thread locals, as
+ * requests running on virtual threads start a new thread each and would
+ * build them again for every URL.
+ * <p>
+ * The S3 client is used instead whenever local signing is disabled or the
+ * identifier of the asset needs encoding.
+ *
+ * @author Brian Mericle
+ */
+@Component
+@ConditionalOnProperty(prefix = "asset-manager.asset-store", name = "type", havingValue = "s3", matchIfMissing = true)
+public class S3Presigner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(S3Presigner.class);
+
+    static final String PROBE_KEY = "presigner-probe";
+    private static final long PROBE_TIMEOUT = TimeUnit.HOURS.toMillis(1);
+    private static final int MAX_KEY_LENGTH = 1024;
+    private static final long MAX_EXPIRES = TimeUnit.DAYS.toSeconds(7);
+    private static final long SECONDS_PER_DAY = TimeUnit.DAYS.toSeconds(1);
+
+    private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final String TERMINATOR = "aws4_request";
+    private static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+    private static final String PARAM_ALGORITHM = "X-Amz-Algorithm";
+    private static final String PARAM_CREDENTIAL = "X-Amz-Credential";
+    private static final String PARAM_DATE = "X-Amz-Date";
+    private static final String PARAM_EXPIRES = "X-Amz-Expires";
+    private static final String PARAM_SECURITY_TOKEN = "X-Amz-Security-Token";
+    private static final String PARAM_SIGNED_HEADERS = "X-Amz-SignedHeaders";
+    private static final String PARAM_SIGNATURE = "X-Amz-Signature";
+    private static final String PARAM_PART_NUMBER = "partNumber";
+    private static final String PARAM_UPLOAD_ID = "uploadId";
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final char[] HEX_UPPER_CASE = "0123456789ABCDEF".toCharArray();
+
+    /**
+     * The names of the query parameters of the URLs pre-signed by the S3
+     * client, in the order they appear, without and with session
+     * credentials.
+     */
+    private static final String[][] PROBE_PARAMETERS = {
+        {PARAM_ALGORITHM, PARAM_DATE, PARAM_SIGNED_HEADERS, PARAM_EXPIRES, PARAM_CREDENTIAL, PARAM_SIGNATURE},
+        {PARAM_SECURITY_TOKEN, PARAM_ALGORITHM, PARAM_DATE, PARAM_SIGNED_HEADERS, PARAM_EXPIRES, PARAM_CREDENTIAL, PARAM_SIGNATURE}
+    };
+
+    /**
+     * The signers not in use, in twice as many stripes as processors.
+     */
+    private static final AtomicReferenceArray<Signer> SIGNERS
+            = new AtomicReferenceArray<>(Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1);
+
+    /**
+     * The name of the S3 bucket to use.
+     */
+    @Value("#{systemProperties['AWS_S3_BUCKET_NAME']}")
+    private String bucketName;
+
+    /**
+     * The client to use to communicate with the AWS S3 service.
+     */
+    private AmazonS3 s3Client;
+
+    /**
+     * The credentials the URLs are signed with, only resolved when local
+     * signing is possible.
+     */
+    @Autowired
+    @Lazy
+    @Qualifier("s3credentials")
+    private AWSCredentialsProvider credentialsProvider;
+
+    /**
+     * The settings of the asset manager.
+     */
+    @Autowired
+    private AssetManagerProperties properties;
+
+    /**
+     * The layout of the URLs, or null if local signing is disabled.
+     */
+    private volatile Endpoint endpoint;
+
+    /**
+     * The signing key of the current day and credentials.
+     */
+    private volatile SigningKey signingKey;
+
+    /**
+     * Learns the layout of the URLs from the S3 client and enables local
+     * signing if it reproduces the URL pre-signed by the S3 client.
+     */
+    @PostConstruct
+    void init() {
+        if (!properties.getPresigner().isLocalSigning()) {
+            return;
+        }
+
+        try {
+            URL probe = s3Client.generatePresignedUrl(bucketName, PROBE_KEY,
+                    new Date(System.currentTimeMillis() + PROBE_TIMEOUT), HttpMethod.GET);
+            if (probe == null) {
+                return;
+            }
+
+            Endpoint candidate = Endpoint.fromProbe(probe.toString());
+            if (candidate == null) {
+                LOGGER.warn("Pre-signed URLs of the S3 client are not supported, local signing is disabled: {}", probe);
+                return;
+            }
+
+            String expected = probe.toString();
+            String actual = presign(candidate, HttpMethod.GET, PROBE_KEY, credentialsProvider.getCredentials(),
+                    parseDateTime(queryParameter(expected, PARAM_DATE)),
+                    Long.parseLong(queryParameter(expected, PARAM_EXPIRES)));
+            if (expected.equals(actual)) {
+                endpoint = candidate;
+            } else {
+                LOGGER.warn("Local signing does not match the S3 client, local signing is disabled.");
+            }
+        } catch (RuntimeException ex) {
+            LOGGER.warn("Local signing could not be verified against the S3 client, local signing is disabled.", ex);
+        }
+    }
+
+    /**
+     * Returns whether URLs are signed locally.
+     *
+     * @return true if URLs are signed locally
+     */
+    public boolean isLocalSigning() {
+        return endpoint != null;
+    }
+
+    /**
+     * Returns a URL pre-signed for the given HTTP method on the asset.
+     *
+     * @param method the HTTP method the URL is signed for
+     * @param id the identifier of the asset
+     * @param expiration the date the URL expires at
+     * @return the pre-signed URL
+     */
+    public String presign(final HttpMethod method, final String id, final Date expiration) {
+        return presign(method, id, null, 0, expiration);
+    }
+
+    /**
+     * Returns a URL pre-signed for uploading a part of a multipart upload of
+     * the asset with a PUT request.
+     *
+     * @param id the identifier of the asset
+     * @param uploadId the identifier of the multipart upload
+     * @param partNumber the number of the part, from 1
+     * @param expiration the date the URL expires at
+     * @return the pre-signed URL
+     */
+    public String presignUploadPart(final String id, final String uploadId, final int partNumber, final Date expiration) {
+        return presign(HttpMethod.PUT, id, uploadId, partNumber, expiration);
+    }
+
+    private String presign(final HttpMethod method, final String id, final String uploadId, final int partNumber,
+            final Date expiration) {
+        final Endpoint current = endpoint;
+        if (current != null && isPlainKey(id)) {
+            final long now = System.currentTimeMillis();
+            final long expires = (expiration.getTime() - now) / 1000L;
+            final AWSCredentials credentials = credentialsProvider.getCredentials();
+            if (expires > 0 && expires <= MAX_EXPIRES && !(credentials instanceof AnonymousAWSCredentials)) {
+                final long signingTime = now - SDKGlobalTime.getGlobalTimeOffset() * 1000L;
+                return presign(current, method, id, uploadId, partNumber, credentials, signingTime, expires);
+            }
+        }
+
+        GeneratePresignedUrlRequest generatePresignedUrlRequest
+                = new GeneratePresignedUrlRequest(bucketName, id)
+                        .withMethod(method)
+                        .withExpiration(expiration);
+        if (uploadId != null) {
+            generatePresignedUrlRequest.addRequestParameter(PARAM_PART_NUMBER, Integer.toString(partNumber));
+            generatePresignedUrlRequest.addRequestParameter(PARAM_UPLOAD_ID, uploadId);
+        }
+        return s3Client.generatePresignedUrl(generatePresignedUrlRequest).toString();
+    }
+
+    /**
+     * Returns a URL pre-signed locally for the given HTTP method on the
+     * object.
+     *
+     * @param endpoint the layout of the URL
+     * @param method the HTTP method the URL is signed for
+     * @param key the key of the object, which must not need encoding
+     * @param credentials the credentials to sign the URL with
+     * @param signingTime the time the URL is signed at, in milliseconds since
+     * the epoch
+     * @param expires the number of seconds the URL is valid for
+     * @return the pre-signed URL
+     */
+    String presign(final Endpoint endpoint, final HttpMethod method, final String key,
+            final AWSCredentials credentials, final long signingTime, final long expires) {
+        return presign(endpoint, method, key, null, 0, credentials, signingTime, expires);
+    }
+
+    /**
+     * Returns a URL pre-signed locally for the given HTTP method on the
+     * object, or on a part of a multipart upload of the object.
+     *
+     * @param endpoint the layout of the URL
+     * @param method the HTTP method the URL is signed for
+     * @param key the key of the object, which must not need encoding
+     * @param uploadId the identifier of the multipart upload, or null for
+     * the object itself
+     * @param partNumber the number of the part, ignored without multipart
+     * upload
+     * @param credentials the credentials to sign the URL with
+     * @param signingTime the time the URL is signed at, in milliseconds since
+     * the epoch
+     * @param expires the number of seconds the URL is valid for
+     * @return the pre-signed URL
+     */
+    String presign(final Endpoint endpoint, final HttpMethod method, final String key, final String uploadId,
+            final int partNumber, final AWSCredentials credentials, final long signingTime, final long expires) {
+        final String accessKey = credentials.getAWSAccessKeyId().trim();
+        final String secretKey = credentials.getAWSSecretKey().trim();
+        final String token = credentials instanceof AWSSessionCredentials
+                ? ((AWSSessionCredentials) credentials).getSessionToken().trim() : null;
+
+        final long seconds = Math.floorDiv(signingTime, 1000L);
+        final SigningKey currentKey = signingKey(endpoint, accessKey, secretKey, token, Math.floorDiv(seconds, SECONDS_PER_DAY));
+        final int secondOfDay = (int) Math.floorMod(seconds, SECONDS_PER_DAY);
+
+        final Signer signer = acquireSigner();
+        try {
+            final StringBuilder buffer = signer.buffer;
+
+            // Canonical request
+            buffer.setLength(0);
+            buffer.append(method.name()).append('\n')
+                    .append(endpoint.canonicalPath).append(key).append('\n')
+                    .append(PARAM_ALGORITHM).append('=').append(ALGORITHM)
+                    .append('&').append(PARAM_CREDENTIAL).append('=').append(currentKey.credential)
+                    .append('&').append(PARAM_DATE).append('=');
+            appendDateTime(buffer, currentKey.date, secondOfDay);
+            buffer.append('&').append(PARAM_EXPIRES).append('=').append(expires);
+            if (token != null) {
+                buffer.append('&').append(PARAM_SECURITY_TOKEN).append('=').append(currentKey.encodedToken);
+            }
+            buffer.append('&').append(PARAM_SIGNED_HEADERS).append("=host");
+            // The lower case parameters of a part sort after the X-Amz ones.
+            if (uploadId != null) {
+                buffer.append('&').append(PARAM_PART_NUMBER).append('=').append(partNumber)
+                        .append('&').append(PARAM_UPLOAD_ID).append('=').append(encode(uploadId));
+            }
+            buffer.append('\n')
+                    .append("host:").append(endpoint.host).append("\n\n")
+                    .append("host\n")
+                    .append(UNSIGNED_PAYLOAD);
+            final byte[] canonicalRequestHash = signer.digest();
+
+            // String to sign
+            buffer.setLength(0);
+            buffer.append(ALGORITHM).append('\n');
+            appendDateTime(buffer, currentKey.date, secondOfDay);
+            buffer.append('\n').append(currentKey.scope).append('\n');
+            appendHex(buffer, canonicalRequestHash);
+            final byte[] signature = signer.sign(currentKey);
+
+            // URL
+            buffer.setLength(0);
+            buffer.append(endpoint.baseUrl).append(key).append('?');
+            if (uploadId != null) {
+                buffer.append(PARAM_UPLOAD_ID).append('=').append(encode(uploadId))
+                        .append('&').append(PARAM_PART_NUMBER).append('=').append(partNumber).append('&');
+            }
+            if (token != null) {
+                buffer.append(PARAM_SECURITY_TOKEN).append('=').append(currentKey.encodedToken).append('&');
+            }
+            buffer.append(PARAM_ALGORITHM).append('=').append(ALGORITHM)
+                    .append('&').append(PARAM_DATE).append('=');
+            appendDateTime(buffer, currentKey.date, secondOfDay);
+            buffer.append('&').append(PARAM_SIGNED_HEADERS).append("=host")
+                    .append('&').append(PARAM_EXPIRES).append('=').append(expires)
+                    .append('&').append(PARAM_CREDENTIAL).append('=').append(currentKey.credential)
+                    .append('&').append(PARAM_SIGNATURE).append('=');
+            appendHex(buffer, signature);
+
+            return buffer.toString();
+        } finally {
+            releaseSigner(signer);
+        }
+    }
+
+    /**
+     * Takes the signer of the stripe of the current thread, or creates one
+     * when another thread of the stripe is using it.
+     *
+     * @return a signer used by no other thread
+     */
+    static Signer acquireSigner() {
+        Signer signer = SIGNERS.getAndSet(stripe(), null);
+        return signer != null ? signer : new Signer();
+    }
+
+    /**
+     * Puts a signer back in the stripe of the current thread, unless the
+     * stripe already holds one.
+     *
+     * @param signer the signer no longer used
+     */
+    static void releaseSigner(final Signer signer) {
+        SIGNERS.compareAndSet(stripe(), null, signer);
+    }
+
+    private static int stripe() {
+        return (int) Thread.currentThread().getId() & (SIGNERS.length() - 1);
+    }
+
+    /**
+     * Returns the signing key of the given day and credentials, deriving it
+     * only when the day or the credentials change.
+     */
+    private SigningKey signingKey(final Endpoint endpoint, final String accessKey, final String secretKey,
+            final String token, final long day) {
+        SigningKey key = signingKey;
+        if (key == null || key.day != day || key.endpoint != endpoint
+                || !key.accessKey.equals(accessKey) || !key.secretKey.equals(secretKey)
+                || !Objects.equals(key.token, token)) {
+            key = new SigningKey(endpoint, accessKey, secretKey, token, day);
+            signingKey = key;
+        }
+        return key;
+    }
+
+    /**
+     * Determines whether the key of an object can be put in a URL as is,
+     * which is when it only holds unreserved characters.
+     *
+     * @param key the key of the object
+     * @return true if the key does not need encoding
+     */
+    static boolean isPlainKey(final String key) {
+        if (key == null || key.isEmpty() || key.length() > MAX_KEY_LENGTH || ".".equals(key) || "..".equals(key)) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (!isUnreserved(key.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isUnreserved(final char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '_' || c == '.' || c == '~';
+    }
+
+    /**
+     * Percent-encodes the value the way the AWS SDK encodes query parameters.
+     */
+    private static String encode(final String value) {
+        StringBuilder buffer = new StringBuilder();
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xff);
+            if (isUnreserved(c)) {
+                buffer.append(c);
+            } else {
+                buffer.append('%').append(HEX_UPPER_CASE[(b >> 4) & 0xf]).append(HEX_UPPER_CASE[b & 0xf]);
+            }
+        }
+        return buffer.toString();
+    }
+
+    private static void appendDateTime(final StringBuilder buffer, final String date, final int secondOfDay) {
+        buffer.append(date).append('T');
+        appendTwoDigits(buffer, secondOfDay / 3600);
+        appendTwoDigits(buffer, secondOfDay / 60 % 60);
+        appendTwoDigits(buffer, secondOfDay % 60);
+        buffer.append('Z');
+    }
+
+    private static void appendTwoDigits(final StringBuilder buffer, final int value) {
+        buffer.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    private static void appendHex(final StringBuilder buffer, final byte[] bytes) {
+        for (byte b : bytes) {
+            buffer.append(HEX[(b >> 4) & 0xf]).append(HEX[b & 0xf]);
+        }
+    }
+
+    /**
+     * Returns the value of a query parameter of a URL, as it appears in the
+     * URL.
+     *
+     * @param url the URL
+     * @param name the name of the query parameter
+     * @return the value of the query parameter, or null if absent
+     */
+    static String queryParameter(final String url, final String name) {
+        int query = url.indexOf('?');
+        if (query < 0) {
+            return null;
+        }
+        for (String parameter : url.substring(query + 1).split("&")) {
+            int separator = parameter.indexOf('=');
+            if (separator > 0 && parameter.substring(0, separator).equals(name)) {
+                return parameter.substring(separator + 1);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses a date and time in the format of the X-Amz-Date query
+     * parameter.
+     *
+     * @param dateTime the date and time, e.g. 20130524T000000Z
+     * @return the number of milliseconds since the epoch
+     */
+    static long parseDateTime(final String dateTime) {
+        return LocalDateTime.parse(dateTime, DATE_TIME_FORMAT).toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static byte[] hmac(final byte[] key, final String data) {
+        return crypto(() -> {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(key, HMAC_ALGORITHM));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        });
+    }
+
+    /**
+     * Runs an operation of the Java cryptography API, none of which is
+     * expected to fail with the algorithms used here.
+     *
+     * @param <T> the type of the result
+     * @param operation the operation
+     * @return the result of the operation
+     * @throws IllegalStateException if the operation fails
+     */
+    static <T> T crypto(final CryptoOperation<T> operation) {
+        try {
+            return operation.apply();
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Sets the client to use to communicate with the AWS S3 service.
+     *
+     * @param client the AWS S3 client
+     */
+    @Autowired
+    public void setS3Client(final AmazonS3 client) {
+        this.s3Client = client;
+    }
+
+    /**
+     * An operation of the Java cryptography API.
+     *
+     * @param <T> the type of the result
+     */
+    @FunctionalInterface
+    interface CryptoOperation<T> {
+
+        /**
+         * Runs the operation.
+         *
+         * @return the result of the operation
+         * @throws GeneralSecurityException if the operation fails
+         */
+        T apply() throws GeneralSecurityException;
+    }
+
+    /**
+     * The layout of the pre-signed URLs of the bucket.
+     */
+    static final class Endpoint {
+
+        private final String baseUrl;
+        private final String host;
+        private final String canonicalPath;
+        private final String region;
+        private final String service;
+
+        private Endpoint(final String baseUrl, final String host, final String canonicalPath,
+                final String region, final String service) {
+            this.baseUrl = baseUrl;
+            this.host = host;
+            this.canonicalPath = canonicalPath;
+            this.region = region;
+            this.service = service;
+        }
+
+        /**
+         * Learns the layout of the URLs from a URL pre-signed by the S3
+         * client for the {@link #PROBE_KEY} object.
+         *
+         * @param probe the URL pre-signed by the S3 client
+         * @return the layout of the URLs, or null if the URL is not signed in
+         * a supported way
+         */
+        static Endpoint fromProbe(final String probe) {
+            int query = probe.indexOf('?');
+            if (query < 0 || !probe.substring(0, query).endsWith("/" + PROBE_KEY)) {
+                return null;
+            }
+
+            String[] parameters = probe.substring(query + 1).split("&");
+            String[] names = new String[parameters.length];
+            for (int i = 0; i < parameters.length; i++) {
+                int separator = parameters[i].indexOf('=');
+                names[i] = separator < 0 ? parameters[i] : parameters[i].substring(0, separator);
+            }
+            if (!Arrays.equals(names, PROBE_PARAMETERS[0]) && !Arrays.equals(names, PROBE_PARAMETERS[1])) {
+                return null;
+            }
+            if (!ALGORITHM.equals(queryParameter(probe, PARAM_ALGORITHM))
+                    || !"host".equals(queryParameter(probe, PARAM_SIGNED_HEADERS))) {
+                return null;
+            }
+
+            // <access key>%2F<date>%2F<region>%2F<service>%2Faws4_request
+            String[] scope = queryParameter(probe, PARAM_CREDENTIAL).split("%2F");
+            if (scope.length < 5 || !TERMINATOR.equals(scope[scope.length - 1])) {
+                return null;
+            }
+
+            String baseUrl = probe.substring(0, query - PROBE_KEY.length());
+            URI uri = URI.create(baseUrl);
+            return new Endpoint(baseUrl, uri.getRawAuthority(), uri.getRawPath(),
+                    scope[scope.length - 3], scope[scope.length - 2]);
+        }
+    }
+
+    /**
+     * The key signing the URLs of a day with the given credentials, along
+     * with the parts of the URLs depending only on them.
+     */
+    private static final class SigningKey {
+
+        private final Endpoint endpoint;
+        private final String accessKey;
+        private final String secretKey;
+        private final String token;
+        private final String encodedToken;
+        private final long day;
+        private final String date;
+        private final String scope;
+        private final String credential;
+        private final SecretKeySpec key;
+
+        SigningKey(final Endpoint endpoint, final String accessKey, final String secretKey, final String token,
+                final long day) {
+            this.endpoint = endpoint;
+            this.accessKey = accessKey;
+            this.secretKey = secretKey;
+            this.token = token;
+            this.day = day;
+
+            LocalDate localDate = LocalDate.ofEpochDay(day);
+            this.date = String.format("%04d%02d%02d", localDate.getYear(), localDate.getMonthValue(), localDate.getDayOfMonth());
+            this.scope = date + "/" + endpoint.region + "/" + endpoint.service + "/" + TERMINATOR;
+
+            this.credential = encode(accessKey + "/" + scope);
+            this.encodedToken = token == null ? null : encode(token);
+
+            byte[] signing = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), date);
+            signing = hmac(signing, endpoint.region);
+            signing = hmac(signing, endpoint.service);
+            signing = hmac(signing, TERMINATOR);
+            this.key = new SecretKeySpec(signing, HMAC_ALGORITHM);
+        }
+    }
+
+    /**
+     * The objects reused to sign URLs, by one thread at a time.
+     */
+    static final class Signer {
+
+        private final StringBuilder buffer = new StringBuilder(1024);
+        private final MessageDigest digest = crypto(() -> MessageDigest.getInstance(DIGEST_ALGORITHM));
+        private final Mac mac = crypto(() -> Mac.getInstance(HMAC_ALGORITHM));
+        private byte[] bytes = new byte[1024];
+        private SigningKey macKey;
+
+        /**
+         * Returns the SHA-256 hash of the buffer, which only holds ASCII
+         * characters.
+         */
+        byte[] digest() {
+            int length = copyBuffer();
+            digest.update(bytes, 0, length);
+            return digest.digest();
+        }
+
+        /**
+         * Returns the HMAC-SHA256 of the buffer, which only holds ASCII
+         * characters, with the signing key. The {@link Mac} is only
+         * initialised again when the signing key changes.
+         */
+        byte[] sign(final SigningKey key) {
+            if (macKey != key) {
+                crypto(() -> {
+                    mac.init(key.key);
+                    return null;
+                });
+                macKey = key;
+            }
+            int length = copyBuffer();
+            mac.update(bytes, 0, length);
+            return mac.doFinal();
+        }
+
+        private int copyBuffer() {
+            int length = buffer.length();
+            if (bytes.length < length) {
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+            }
+            for (int i = 0; i < length; i++) {
+                bytes[i] = (byte) buffer.charAt(i);
+            }
+            return length;
+        }
+    }
+}
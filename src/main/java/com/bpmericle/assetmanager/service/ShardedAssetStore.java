@@ -0,0 +1,191 @@
+package com.bpmericle.assetmanager.service;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.model.MultipartUpload;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Asset store keeping each asset of the asset store it decorates under the
+ * key the {@link AssetKeyScheme} maps its identifier to, so that the rest of
+ * the service only deals with identifiers.
+ * <p>
+ * The assets are listed in the order of their keys, which is the order of
+ * their identifiers within each prefix, and the keys listed and the keys of
+ * the multipart uploads are mapped back to identifiers.
+ * <p>
+ * The assets stored before the keys were prefixed are still found under
+ * their identifiers: a lookup or status update that does not find an asset
+ * under its key tries its identifier next. The key an asset was found under
+ * is remembered for a while, so that its download is presigned for that key;
+ * the download of an asset not looked up recently first looks for its object.
+ * Uploads always go to the prefixed key.
+ *
+ * @author Brian Mericle
+ */
+public class ShardedAssetStore implements AssetStore {
+
+    private static final int HTTP_STATUS_NOT_FOUND = 404;
+
+    /**
+     * The number of assets whose key is remembered.
+     */
+    private static final int MAX_KEYS = 100_000;
+
+    private final AssetStore delegate;
+    private final AssetKeyScheme keyScheme;
+    private final Cache<String, String> locations = Caffeine.newBuilder().maximumSize(MAX_KEYS).build();
+
+    /**
+     * Creates the decorator.
+     *
+     * @param delegate the asset store holding the objects under their keys
+     * @param keyScheme the mapping of the identifiers to keys
+     */
+    public ShardedAssetStore(final AssetStore delegate, final AssetKeyScheme keyScheme) {
+        this.delegate = delegate;
+        this.keyScheme = keyScheme;
+    }
+
+    @Override
+    public String presignPut(final String id, final Date expiration) {
+        // The asset uploaded again is stored under its key.
+        locations.invalidate(id);
+        return delegate.presignPut(keyScheme.keyOf(id), expiration);
+    }
+
+    @Override
+    public String presignGet(final String id, final Date expiration) {
+        return delegate.presignGet(locations.get(id, this::locate), expiration);
+    }
+
+    @Override
+    public String initiateMultipartUpload(final String id) {
+        locations.invalidate(id);
+        return delegate.initiateMultipartUpload(keyScheme.keyOf(id));
+    }
+
+    @Override
+    public String presignUploadPart(final String id, final String uploadId, final int partNumber, final Date expiration) {
+        return delegate.presignUploadPart(keyScheme.keyOf(id), uploadId, partNumber, expiration);
+    }
+
+    @Override
+    public void completeMultipartUpload(final String id, final String uploadId, final List<PartETag> parts) {
+        delegate.completeMultipartUpload(keyScheme.keyOf(id), uploadId, parts);
+    }
+
+    @Override
+    public void abortMultipartUpload(final String id, final String uploadId) {
+        delegate.abortMultipartUpload(keyScheme.keyOf(id), uploadId);
+    }
+
+    @Override
+    public List<MultipartUpload> listMultipartUploads() {
+        List<MultipartUpload> uploads = delegate.listMultipartUploads();
+        for (MultipartUpload upload : uploads) {
+            upload.setKey(keyScheme.idOf(upload.getKey()));
+        }
+        return uploads;
+    }
+
+    @Override
+    public Optional<String> getStatus(final String id) {
+        String key = keyScheme.keyOf(id);
+        Optional<String> status = delegate.getStatus(key);
+        if (!status.isPresent()) {
+            status = delegate.getStatus(id);
+            if (!status.isPresent()) {
+                return status;
+            }
+            key = id;
+        }
+        locations.put(id, key);
+        return status;
+    }
+
+    @Override
+    public Optional<ObjectMetadata> getMetadata(final String id) {
+        String key = keyScheme.keyOf(id);
+        Optional<ObjectMetadata> metadata = delegate.getMetadata(key);
+        if (!metadata.isPresent()) {
+            metadata = delegate.getMetadata(id);
+            if (!metadata.isPresent()) {
+                return metadata;
+            }
+            key = id;
+        }
+        locations.put(id, key);
+        return metadata;
+    }
+
+    @Override
+    public void setStatus(final String id, final String status) {
+        String key = keyScheme.keyOf(id);
+        try {
+            delegate.setStatus(key, status);
+        } catch (AmazonServiceException ex) {
+            if (ex.getStatusCode() != HTTP_STATUS_NOT_FOUND) {
+                throw ex;
+            }
+            delegate.setStatus(id, status);
+            key = id;
+        }
+        locations.put(id, key);
+    }
+
+    /**
+     * Lists the identifiers of the assets, in the order of their keys.
+     *
+     * @param startAfter the identifier of the asset to start after, or null
+     * to start with the first asset
+     * @param limit the maximum number of identifiers to return
+     * @return the identifiers of the assets
+     */
+    @Override
+    public List<String> list(final String startAfter, final int limit) {
+        String startAfterKey = null;
+        if (startAfter != null) {
+            // The last asset of the previous page may be stored under its identifier.
+            startAfterKey = locations.getIfPresent(startAfter);
+            if (startAfterKey == null) {
+                startAfterKey = keyScheme.keyOf(startAfter);
+            }
+        }
+        List<String> keys = delegate.list(startAfterKey, limit);
+        List<String> ids = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            String id = keyScheme.idOf(key);
+            locations.put(id, key);
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    @Override
+    public void delete(final String id) {
+        delegate.delete(locations.get(id, this::locate));
+        locations.invalidate(id);
+    }
+
+    /**
+     * Finds the key an asset is stored under.
+     *
+     * @param id the identifier of the asset
+     * @return the identifier itself if the asset was stored before the keys
+     * were prefixed, else its key
+     */
+    private String locate(final String id) {
+        String key = keyScheme.keyOf(id);
+        if (!delegate.getMetadata(key).isPresent() && delegate.getMetadata(id).isPresent()) {
+            return id;
+        }
+        return key;
+    }
+}
@@ -0,0 +1,115 @@
+package com.bpmericle.assetmanager.service;
+
+import io.micrometer.core.instrument.Counter;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Coalesces concurrent loads of the same key, so that a key is loaded once
+ * however many threads ask for it while the load is in flight, and all of
+ * them share its result or failure.
+ * <p>
+ * The loads in flight are kept in a concurrent map of futures: the first
+ * thread to register a future for a key loads it, and the threads finding a
+ * future registered wait for it. No lock is held while loading, so loads of
+ * other keys are never held up. A key is loaded again once its load
+ * completes, so the results are meant to be cached by the caller.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the loaded values
+ * @author Brian Mericle
+ */
+public class SingleFlight<K, V> {
+
+    /**
+     * The name the counters of coalesced loads are published under.
+     */
+    static final String METRIC_NAME = "asset.lookups.coalesced";
+
+    /**
+     * The description of the counters of coalesced loads.
+     */
+    static final String METRIC_DESCRIPTION = "Lookups of an asset that waited for the same lookup in flight";
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight;
+    private final Counter coalesced;
+
+    /**
+     * Creates the coalescer of loads.
+     *
+     * @param coalesced the counter of the loads saved by waiting for a load
+     * in flight
+     */
+    public SingleFlight(final Counter coalesced) {
+        this(new ConcurrentHashMap<>(), coalesced);
+    }
+
+    /**
+     * Creates the coalescer of loads, keeping the loads in flight in the
+     * given map.
+     *
+     * @param inFlight the map of the loads in flight
+     * @param coalesced the counter of the loads saved by waiting for a load
+     * in flight
+     */
+    SingleFlight(final ConcurrentMap<K, CompletableFuture<V>> inFlight, final Counter coalesced) {
+        this.inFlight = inFlight;
+        this.coalesced = coalesced;
+    }
+
+    /**
+     * Loads the value of a key, or waits for the load in flight of the key.
+     *
+     * @param key the key
+     * @param loader the function used to load the value of the key
+     * @return the value of the key
+     * @throws RuntimeException the exception the load failed with
+     */
+    public V load(final K key, final Function<? super K, ? extends V> loader) {
+        CompletableFuture<V> flight = inFlight.get(key);
+        if (flight == null) {
+            CompletableFuture<V> own = new CompletableFuture<>();
+            // Another thread may have registered its load since the lookup.
+            flight = inFlight.putIfAbsent(key, own);
+            if (flight == null) {
+                return run(key, own, loader);
+            }
+        }
+
+        coalesced.increment();
+        try {
+            return flight.join();
+        } catch (CompletionException ex) {
+            // Rethrow the failure of the load as is, as the loading thread does.
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw (Error) ex.getCause();
+        }
+    }
+
+    /**
+     * Returns the number of keys being loaded.
+     *
+     * @return the number of loads in flight
+     */
+    int inFlight() {
+        return inFlight.size();
+    }
+
+    private V run(final K key, final CompletableFuture<V> flight, final Function<? super K, ? extends V> loader) {
+        try {
+            V value = loader.apply(key);
+            flight.complete(value);
+            return value;
+        } catch (Throwable ex) {
+            flight.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.bpmericle.assetmanager.service;
+
+import com.bpmericle.assetmanager.AssetManagerProperties;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * The source of upload notifications backed by a spool directory, which
+ * stands in for an SQS queue the S3 notifications are sent to.
+ * <p>
+ * Each file of the <code>incoming</code> directory is a message holding one
+ * notification. Writers should create the file under a name starting with a
+ * dot, which is ignored, and rename it once complete. A received message is
+ * claimed by moving it to the <code>processing</code> directory, from where
+ * it is deleted once acknowledged, moved back when released, or moved to the
+ * <code>failed</code> directory when rejected. A released message has its
+ * modification time set in the future, and is held back until then, so a
+ * message that keeps failing is not received again at once. The messages
+ * claimed when the
+ * asset manager stopped are released on start, so a spool directory is only
+ * used by one instance of the asset manager at a time.
+ *
+ * @author Brian Mericle
+ */
+@Component
+@ConditionalOnProperty(prefix = "asset-manager.upload-events", name = "enabled", havingValue = "true")
+public class SpoolUploadEventSource implements UploadEventSource {
+
+    private final Path incoming;
+    private final Path processing;
+    private final Path failed;
+    private final Duration releaseDelay;
+
+    /**
+     * Creates the directories of the spool in the configured directory, and
+     * releases the messages left claimed.
+     *
+     * @param properties the settings of the asset manager
+     * @throws UncheckedIOException if the directories cannot be created
+     */
+    @Autowired
+    public SpoolUploadEventSource(final AssetManagerProperties properties) {
+        Path directory = Paths.get(properties.getUploadEvents().getDirectory());
+        this.incoming = directory.resolve("incoming");
+        this.processing = directory.resolve("processing");
+        this.failed = directory.resolve("failed");
+        this.releaseDelay = properties.getUploadEvents().getReleaseDelay();
+
+        try {
+            Files.createDirectories(incoming);
+            Files.createDirectories(processing);
+            Files.createDirectories(failed);
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(processing)) {
+                for (Path message : stream) {
+                    Files.move(message, incoming.resolve(message.getFileName()), StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public List<UploadEventMessage> receive(final int maxMessages, final Duration wait) throws InterruptedException {
+        List<UploadEventMessage> messages = claim(maxMessages);
+        if (messages.isEmpty()) {
+            Thread.sleep(wait.toMillis());
+            messages = claim(maxMessages);
+        }
+        return messages;
+    }
+
+    @Override
+    public void acknowledge(final UploadEventMessage message) {
+        try {
+            Files.deleteIfExists(processing.resolve(message.getId()));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public void release(final UploadEventMessage message) {
+        try {
+            Files.setLastModifiedTime(processing.resolve(message.getId()),
+                    FileTime.fromMillis(System.currentTimeMillis() + releaseDelay.toMillis()));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        move(message, incoming);
+    }
+
+    @Override
+    public void reject(final UploadEventMessage message) {
+        move(message, failed);
+    }
+
+    private List<UploadEventMessage> claim(final int maxMessages) {
+        List<UploadEventMessage> messages = new ArrayList<>(maxMessages);
+        long now = System.currentTimeMillis();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(incoming, "[!.]*")) {
+            for (Path message : stream) {
+                if (messages.size() == maxMessages) {
+                    break;
+                }
+                if (Files.getLastModifiedTime(message).toMillis() > now) {
+                    // released, and held back until then
+                    continue;
+                }
+                String id = message.getFileName().toString();
+                Path claimed = processing.resolve(id);
+                Files.move(message, claimed, StandardCopyOption.ATOMIC_MOVE);
+                messages.add(new UploadEventMessage(id, new String(Files.readAllBytes(claimed), StandardCharsets.UTF_8)));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return messages;
+    }
+
+    private void move(final UploadEventMessage message, final Path directory) {
+        try {
+            Files.move(processing.resolve(message.getId()), directory.resolve(message.getId()), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.bpmericle.assetmanager.service;
+
+import java.util.function.LongSupplier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Generates identifiers starting with the time they are generated at, in
+ * milliseconds over 48 bits, followed by 80 random bits. The assets are then
+ * listed about in the order they were created, while their identifiers still
+ * cannot be guessed.
+ * <p>
+ * The identifiers of the assets created at about the same time share their
+ * first digits, so the keys of the assets should be given a hashed prefix to
+ * spread them over the partitions of the bucket.
+ *
+ * @author Brian Mericle
+ */
+@Component
+@ConditionalOnProperty(prefix = "asset-manager.asset-id", name = "generator", havingValue = "time-ordered")
+public class TimeOrderedAssetIdGenerator extends RandomAssetIdGenerator {
+
+    private static final int TIME_LENGTH = 12;
+
+    private final LongSupplier clock;
+
+    /**
+     * Creates the generator.
+     */
+    public TimeOrderedAssetIdGenerator() {
+        this(System::currentTimeMillis);
+    }
+
+    /**
+     * Creates the generator with the given clock.
+     */
+    TimeOrderedAssetIdGenerator(final LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public String newId() {
+        char[] id = new char[ID_LENGTH];
+        fillHex(id, clock.getAsLong(), TIME_LENGTH);
+        fillRandom(id, TIME_LENGTH);
+        return new String(id);
+    }
+}
@@ -0,0 +1,125 @@
+package com.bpmericle.assetmanager.service;
+
+import static com.bpmericle.assetmanager.TracingSupport.inSpan;
+
+import com.amazonaws.services.s3.model.MultipartUpload;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanBuilder;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Asset store running each call to the asset store it decorates in a span of
+ * the current trace, so that the time a request spends in S3, or signing
+ * URLs, shows up in its trace.
+ * <p>
+ * The spans are named after the operation, as the timers of the
+ * {@link MeteredAssetStore} are tagged, and carry the identifier of the
+ * asset. Signing a URL happens locally, so the <code>presign-*</code> spans
+ * are internal while the other spans are client spans.
+ *
+ * @author Brian Mericle
+ */
+public class TracedAssetStore implements AssetStore {
+
+    /**
+     * The prefix of the names of the spans.
+     */
+    static final String SPAN_PREFIX = "asset-store ";
+
+    /**
+     * The attribute holding the identifier of the asset.
+     */
+    static final String ATTRIBUTE_ASSET_ID = "asset.id";
+
+    private final AssetStore delegate;
+    private final Tracer tracer;
+
+    /**
+     * Creates the decorator.
+     *
+     * @param delegate the asset store to trace
+     * @param tracer the tracer to start the spans with
+     */
+    public TracedAssetStore(final AssetStore delegate, final Tracer tracer) {
+        this.delegate = delegate;
+        this.tracer = tracer;
+    }
+
+    @Override
+    public String presignPut(final String id, final Date expiration) {
+        return inSpan(span("presign-put", SpanKind.INTERNAL, id), () -> delegate.presignPut(id, expiration));
+    }
+
+    @Override
+    public String presignGet(final String id, final Date expiration) {
+        return inSpan(span("presign-get", SpanKind.INTERNAL, id), () -> delegate.presignGet(id, expiration));
+    }
+
+    @Override
+    public String initiateMultipartUpload(final String id) {
+        return inSpan(span("initiate-multipart", SpanKind.CLIENT, id), () -> delegate.initiateMultipartUpload(id));
+    }
+
+    @Override
+    public String presignUploadPart(final String id, final String uploadId, final int partNumber, final Date expiration) {
+        return inSpan(span("presign-upload-part", SpanKind.INTERNAL, id),
+                () -> delegate.presignUploadPart(id, uploadId, partNumber, expiration));
+    }
+
+    @Override
+    public void completeMultipartUpload(final String id, final String uploadId, final List<PartETag> parts) {
+        inSpan(span("complete-multipart", SpanKind.CLIENT, id), () -> delegate.completeMultipartUpload(id, uploadId, parts));
+    }
+
+    @Override
+    public void abortMultipartUpload(final String id, final String uploadId) {
+        inSpan(span("abort-multipart", SpanKind.CLIENT, id), () -> delegate.abortMultipartUpload(id, uploadId));
+    }
+
+    @Override
+    public List<MultipartUpload> listMultipartUploads() {
+        return inSpan(span("list-multipart", SpanKind.CLIENT, null), delegate::listMultipartUploads);
+    }
+
+    @Override
+    public Optional<String> getStatus(final String id) {
+        return inSpan(span("get-tagging", SpanKind.CLIENT, id), () -> delegate.getStatus(id));
+    }
+
+    @Override
+    public Optional<ObjectMetadata> getMetadata(final String id) {
+        return inSpan(span("head", SpanKind.CLIENT, id), () -> delegate.getMetadata(id));
+    }
+
+    @Override
+    public void setStatus(final String id, final String status) {
+        inSpan(span("set-tagging", SpanKind.CLIENT, id), () -> delegate.setStatus(id, status));
+    }
+
+    @Override
+    public List<String> list(final String startAfter, final int limit) {
+        return inSpan(span("list", SpanKind.CLIENT, null), () -> delegate.list(startAfter, limit));
+    }
+
+    @Override
+    public void delete(final String id) {
+        inSpan(span("delete", SpanKind.CLIENT, id), () -> delegate.delete(id));
+    }
+
+    /**
+     * Starts the span of a call, as a child of the current span.
+     */
+    private Span span(final String operation, final SpanKind kind, final String id) {
+        SpanBuilder builder = tracer.spanBuilder(SPAN_PREFIX + operation).setSpanKind(kind);
+        if (id != null) {
+            builder.setAttribute(ATTRIBUTE_ASSET_ID, id);
+        }
+        return builder.startSpan();
+    }
+}
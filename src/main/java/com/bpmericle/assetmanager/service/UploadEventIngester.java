@@ -0,0 +1,326 @@
+package com.bpmericle.assetmanager.service;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.event.S3EventNotification;
+import com.amazonaws.services.s3.event.S3EventNotification.S3EventNotificationRecord;
+import com.bpmericle.assetmanager.AssetManagerProperties;
+import com.bpmericle.assetmanager.model.AssetStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sets the 'uploaded' status of the assets named by the notifications S3
+ * sends when objects are created, so the clients do not have to.
+ * <p>
+ * Notifications are received in batches from the {@link UploadEventSource},
+ * and the next batch is only received once the current one is processed. The
+ * status of the assets of a batch is set in parallel on a bounded pool of
+ * threads, and retried on retryable errors of the asset store. Setting the
+ * status again is harmless, so a notification is released to be processed
+ * again when the status of one of its assets could not be set yet, or the
+ * asset store turned the call away as unavailable, and rejected when it
+ * cannot be parsed or the status of one of its assets cannot be set at all.
+ * When all the notifications of a batch are released, the next batch is
+ * received after a wait that grows while it lasts. It is only available when
+ * <code>asset-manager.upload-events.enabled</code> is <code>true</code>.
+ *
+ * @author Brian Mericle
+ */
+@Component
+@ConditionalOnProperty(prefix = "asset-manager.upload-events", name = "enabled", havingValue = "true")
+public class UploadEventIngester {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UploadEventIngester.class);
+
+    /**
+     * The prefix of the names the metrics are published under.
+     */
+    private static final String METRIC_PREFIX = "asset.upload.events.";
+
+    private static final String EVENT_OBJECT_CREATED = "ObjectCreated:";
+    private static final AssetStatus STATUS_UPLOADED = new AssetStatus(AssetManagerService.TAG_STATUS_VALUE_UPLOADED);
+    private static final int HTTP_STATUS_NOT_FOUND = 404;
+
+    /**
+     * The number of times the wait after a batch whose notifications were all
+     * released is doubled at most, before it is capped by the release delay.
+     */
+    private static final int MAX_STALL_DOUBLINGS = 20;
+
+    /**
+     * The outcome of setting the status of an asset, from the least to the
+     * most severe.
+     */
+    private enum Outcome {
+        DONE, RETRY, FAILED
+    }
+
+    /**
+     * The name of the S3 bucket the notifications are taken from; all
+     * notifications are taken when it is not set.
+     */
+    @Value("#{systemProperties['AWS_S3_BUCKET_NAME']}")
+    private String bucketName;
+
+    private final AssetManagerProperties.UploadEvents settings;
+    private final AssetManagerService service;
+    private final AssetKeyScheme keyScheme;
+    private final UploadEventSource source;
+    private final ExecutorService executor;
+    private final Counter assets;
+    private final Counter acknowledged;
+    private final Counter released;
+    private final Counter rejected;
+
+    private Thread poller;
+
+    /**
+     * The number of consecutive batches whose notifications were all released.
+     */
+    private int stalledBatches;
+
+    /**
+     * Creates the ingester and registers its metrics.
+     *
+     * @param properties the settings of the asset manager
+     * @param service the service setting the status of the assets
+     * @param keyScheme the mapping of the keys of the objects created to the
+     * identifiers of their assets
+     * @param source the source of the notifications
+     * @param executor the executor setting the status of the assets
+     * @param meterRegistry the registry to publish the metrics to
+     */
+    @Autowired
+    public UploadEventIngester(final AssetManagerProperties properties, final AssetManagerService service,
+            final AssetKeyScheme keyScheme, final UploadEventSource source, @Qualifier("uploadEventExecutor") final ExecutorService executor,
+            final MeterRegistry meterRegistry) {
+        this.settings = properties.getUploadEvents();
+        this.service = service;
+        this.keyScheme = keyScheme;
+        this.source = source;
+        this.executor = executor;
+
+        this.assets = Counter.builder(METRIC_PREFIX + "assets")
+                .description("Assets whose status was set from an upload notification")
+                .register(meterRegistry);
+        this.acknowledged = messageCounter(meterRegistry, "acknowledged");
+        this.released = messageCounter(meterRegistry, "released");
+        this.rejected = messageCounter(meterRegistry, "rejected");
+    }
+
+    /**
+     * Starts receiving notifications on a dedicated thread.
+     */
+    @PostConstruct
+    public void start() {
+        poller = new CustomizableThreadFactory("upload-events-poller-").newThread(this::run);
+        poller.start();
+    }
+
+    /**
+     * Stops receiving notifications, once the current batch is processed.
+     *
+     * @throws InterruptedException if interrupted while waiting for the batch
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        poller.interrupt();
+        poller.join();
+    }
+
+    /**
+     * Processes batches of notifications until the thread is interrupted,
+     * waiting before receiving again when receiving fails, or when all the
+     * notifications of the last batches were released.
+     */
+    void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    ingestBatch();
+                    long backoff = stallBackoff();
+                    if (backoff > 0) {
+                        Thread.sleep(backoff);
+                    }
+                } catch (RuntimeException ex) {
+                    LOGGER.warn("Upload notifications could not be received.", ex);
+                    Thread.sleep(settings.getPollInterval().toMillis());
+                }
+            }
+        } catch (InterruptedException ex) {
+            // stopped
+        }
+    }
+
+    /**
+     * Receives a batch of notifications and sets the status of their assets.
+     *
+     * @return the number of distinct assets of the batch
+     * @throws InterruptedException if interrupted while waiting for
+     * notifications
+     */
+    int ingestBatch() throws InterruptedException {
+        List<UploadEventMessage> messages = source.receive(settings.getBatchSize(), settings.getPollInterval());
+
+        // The status of an asset named by several notifications of the batch is only set once.
+        Map<String, CompletableFuture<Outcome>> updates = new HashMap<>();
+        Map<UploadEventMessage, List<CompletableFuture<Outcome>>> pending = new LinkedHashMap<>();
+        for (UploadEventMessage message : messages) {
+            List<String> ids;
+            try {
+                ids = uploadedAssets(message.getBody());
+            } catch (RuntimeException ex) {
+                LOGGER.warn("Upload notification {} could not be parsed.", message.getId(), ex);
+                source.reject(message);
+                rejected.increment();
+                continue;
+            }
+
+            List<CompletableFuture<Outcome>> futures = new ArrayList<>(ids.size());
+            for (String id : ids) {
+                futures.add(updates.computeIfAbsent(id, key -> CompletableFuture.supplyAsync(() -> markUploaded(key), executor)));
+            }
+            pending.put(message, futures);
+        }
+
+        int releasedMessages = 0;
+        for (Map.Entry<UploadEventMessage, List<CompletableFuture<Outcome>>> entry : pending.entrySet()) {
+            Outcome outcome = Outcome.DONE;
+            for (CompletableFuture<Outcome> future : entry.getValue()) {
+                Outcome assetOutcome = future.join();
+                if (assetOutcome.compareTo(outcome) > 0) {
+                    outcome = assetOutcome;
+                }
+            }
+
+            if (outcome == Outcome.DONE) {
+                source.acknowledge(entry.getKey());
+                acknowledged.increment();
+            } else if (outcome == Outcome.RETRY) {
+                source.release(entry.getKey());
+                released.increment();
+                releasedMessages++;
+            } else {
+                source.reject(entry.getKey());
+                rejected.increment();
+            }
+        }
+
+        // A batch whose notifications were all released means the asset store is failing.
+        stalledBatches = !messages.isEmpty() && releasedMessages == messages.size() ? stalledBatches + 1 : 0;
+        return updates.size();
+    }
+
+    /**
+     * Returns the time to wait before receiving the next batch, which doubles
+     * from the poll interval with each consecutive batch whose notifications
+     * were all released, up to the release delay.
+     *
+     * @return the time to wait in milliseconds, or 0 if the last batch was
+     * not stalled
+     */
+    long stallBackoff() {
+        if (stalledBatches == 0) {
+            return 0;
+        }
+        long backoff = settings.getPollInterval().toMillis() << Math.min(stalledBatches - 1, MAX_STALL_DOUBLINGS);
+        return Math.min(backoff, settings.getReleaseDelay().toMillis());
+    }
+
+    /**
+     * Returns the identifiers of the assets created in the bucket according
+     * to a notification.
+     *
+     * @param body the JSON body of the notification
+     * @return the identifiers of the assets
+     */
+    private List<String> uploadedAssets(final String body) {
+        List<String> ids = new ArrayList<>();
+        List<S3EventNotificationRecord> records = S3EventNotification.parseJson(body).getRecords();
+        // The test notification S3 sends when notifications are configured has no records.
+        if (records != null) {
+            for (S3EventNotificationRecord record : records) {
+                if (record.getEventName().startsWith(EVENT_OBJECT_CREATED)
+                        && (bucketName == null || bucketName.equals(record.getS3().getBucket().getName()))) {
+                    ids.add(keyScheme.idOf(record.getS3().getObject().getUrlDecodedKey()));
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Sets the 'uploaded' status of an asset, retrying on retryable errors of
+     * the asset store with an exponential backoff.
+     *
+     * @param id the identifier of the asset
+     * @return the outcome of setting the status
+     */
+    private Outcome markUploaded(final String id) {
+        long backoff = settings.getRetryBackoff().toMillis();
+
+        for (int attempt = 1;; attempt++) {
+            try {
+                service.submitAssetUpdateStatus(id, STATUS_UPLOADED);
+                assets.increment();
+                return Outcome.DONE;
+            } catch (AssetManagerServiceException ex) {
+                if (ex instanceof AssetNotFoundException || isNotFound(ex.getCause())) {
+                    // deleted since it was uploaded
+                    return Outcome.DONE;
+                }
+                if (ex.getCause() instanceof AssetStoreUnavailableException) {
+                    // turned away by an open circuit breaker or a saturated store, which stays so for a while
+                    return Outcome.RETRY;
+                }
+                if (!AssetManagerService.isRetryable(ex.getCause())) {
+                    LOGGER.warn("Status of asset {} could not be set from its upload notification.", id, ex);
+                    return Outcome.FAILED;
+                }
+                if (attempt >= settings.getMaxAttempts()) {
+                    return Outcome.RETRY;
+                }
+            } catch (IllegalArgumentException ex) {
+                LOGGER.warn("Status of asset {} could not be set from its upload notification.", id, ex);
+                return Outcome.FAILED;
+            }
+
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return Outcome.RETRY;
+            }
+            backoff *= 2;
+        }
+    }
+
+    private static boolean isNotFound(final Throwable cause) {
+        return cause instanceof AmazonServiceException
+                && ((AmazonServiceException) cause).getStatusCode() == HTTP_STATUS_NOT_FOUND;
+    }
+
+    private static Counter messageCounter(final MeterRegistry meterRegistry, final String outcome) {
+        return Counter.builder(METRIC_PREFIX + "messages")
+                .description("Upload notifications processed")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
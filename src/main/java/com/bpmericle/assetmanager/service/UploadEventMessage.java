@@ -0,0 +1,41 @@
+package com.bpmericle.assetmanager.service;
+
+/**
+ * A message received from an {@link UploadEventSource}.
+ *
+ * @author Brian Mericle
+ */
+public class UploadEventMessage {
+
+    private final String id;
+    private final String body;
+
+    /**
+     * Constructs a message.
+     *
+     * @param id the identifier of the message within its source
+     * @param body the JSON body of the S3 notification
+     */
+    public UploadEventMessage(final String id, final String body) {
+        this.id = id;
+        this.body = body;
+    }
+
+    /**
+     * Get the value of id
+     *
+     * @return the value of id
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Get the value of body
+     *
+     * @return the value of body
+     */
+    public String getBody() {
+        return body;
+    }
+}
@@ -0,0 +1,49 @@
+package com.bpmericle.assetmanager.service;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * A queue of the notifications S3 sends when objects are created, each
+ * message holding the JSON body of one notification.
+ * <p>
+ * Messages are delivered at least once: a received message is held by the
+ * receiver until it is acknowledged, released to be received again, or
+ * rejected as a message that cannot be processed.
+ *
+ * @author Brian Mericle
+ */
+public interface UploadEventSource {
+
+    /**
+     * Receives the pending messages, waiting for one when none is pending.
+     *
+     * @param maxMessages the maximum number of messages to receive
+     * @param wait the maximum time to wait for a message
+     * @return the messages received, which may be none
+     * @throws InterruptedException if interrupted while waiting
+     */
+    List<UploadEventMessage> receive(int maxMessages, Duration wait) throws InterruptedException;
+
+    /**
+     * Removes a message that was processed.
+     *
+     * @param message the message
+     */
+    void acknowledge(UploadEventMessage message);
+
+    /**
+     * Makes a message that could not be processed yet available to be
+     * received again, possibly after a delay.
+     *
+     * @param message the message
+     */
+    void release(UploadEventMessage message);
+
+    /**
+     * Sets aside a message that cannot be processed.
+     *
+     * @param message the message
+     */
+    void reject(UploadEventMessage message);
+}
@@ -0,0 +1,38 @@
+package com.bpmericle.assetmanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import com.bpmericle.assetmanager.service.AssetStore;
+import com.bpmericle.assetmanager.service.CircuitBreaker;
+import com.bpmericle.assetmanager.service.ResilientAssetStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import org.junit.Test;
+
+/**
+ * Tests the {@link CircuitBreakerEndpoint} class.
+ *
+ * @author Brian Mericle
+ */
+public class CircuitBreakerEndpointTest {
+
+    @Test
+    public void circuitBreakers_reportsEachOperation() {
+        AssetManagerProperties properties = new AssetManagerProperties();
+        properties.getResilience().setCircuitMinimumCalls(1);
+        ResilientAssetStore assetStore = new ResilientAssetStore(mock(AssetStore.class), properties,
+                mock(ExecutorService.class), new SimpleMeterRegistry());
+        assetStore.getCircuitBreakers().get("head").onFailure();
+        CircuitBreakerEndpoint endpoint = new CircuitBreakerEndpoint(assetStore);
+
+        Map<String, Map<String, Object>> circuitBreakers = endpoint.circuitBreakers();
+
+        assertEquals(assetStore.getCircuitBreakers().keySet(), circuitBreakers.keySet());
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreakers.get("head").get("state"));
+        assertEquals(100f, circuitBreakers.get("head").get("failureRate"));
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreakers.get("list").get("state"));
+        assertEquals(-1f, circuitBreakers.get("list").get("failureRate"));
+    }
+}
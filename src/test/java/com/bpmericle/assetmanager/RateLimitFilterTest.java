@@ -0,0 +1,261 @@
+package com.bpmericle.assetmanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.BufferedReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+/**
+ * Tests the {@link RateLimitFilter} class.
+ *
+ * @author Brian Mericle
+ */
+public class RateLimitFilterTest {
+
+    private static final String URI_ASSET = "/asset/0a1b2c3d4e5f60718293a4b5c6d7e8f9";
+    private static final String CLIENT_HEADER = "X-API-Key";
+    private static final String STATUS_BATCH = "[{\"id\":\"a\",\"Status\":\"uploaded\"},{\"id\":\"b\",\"Status\":\"uploaded\"}]";
+    private static final String DOWNLOAD_BATCH = "{\"timeout\":60,\"ids\":[\"a\",\"b\",\"c\"]}";
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger passed = new AtomicInteger();
+    private final List<String> bodies = new ArrayList<>();
+
+    private AssetManagerProperties properties;
+    private MeterRegistry meterRegistry;
+    private RateLimitFilter filter;
+
+    @Before
+    public void setUp() {
+        properties = new AssetManagerProperties();
+        properties.getRateLimit().setClientHeader(CLIENT_HEADER);
+        properties.getRateLimit().setUploadRate(1);
+        properties.getRateLimit().setUploadBurst(1);
+        properties.getRateLimit().setStatusRate(1);
+        properties.getRateLimit().setStatusBurst(1);
+        properties.getRateLimit().setDownloadRate(0.4);
+        properties.getRateLimit().setDownloadBurst(1);
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new RateLimitFilter(properties, meterRegistry, clock::get);
+    }
+
+    @Test
+    public void doFilter_limitsEachEndpoint() throws Exception {
+        assertEquals(200, send("POST", "/asset", "client-1").getStatus());
+        assertEquals(200, send("PUT", URI_ASSET, "client-1").getStatus());
+        assertEquals(200, send("GET", URI_ASSET, "client-1").getStatus());
+
+        MockHttpServletResponse upload = send("POST", "/asset", "client-1");
+        assertEquals(429, upload.getStatus());
+        assertEquals("1", upload.getHeader("Retry-After"));
+        assertEquals(429, send("PUT", URI_ASSET, "client-1").getStatus());
+        MockHttpServletResponse download = send("GET", URI_ASSET, "client-1");
+        assertEquals(429, download.getStatus());
+        assertEquals("3", download.getHeader("Retry-After"));
+
+        assertEquals(3, passed.get());
+        assertEquals(1, meterRegistry.get(RateLimitFilter.METRIC_THROTTLED).tag("endpoint", "upload").counter().count(), 0);
+        assertEquals(1, meterRegistry.get(RateLimitFilter.METRIC_THROTTLED).tag("endpoint", "download").counter().count(), 0);
+    }
+
+    @Test
+    public void doFilter_limitsEachClient() throws Exception {
+        assertEquals(200, send("POST", "/asset", "client-1").getStatus());
+        assertEquals(200, send("POST", "/asset", "client-2").getStatus());
+        assertEquals(200, send("POST", "/asset", null).getStatus());
+        assertEquals(429, send("POST", "/asset", null).getStatus());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(200, send("POST", "/asset", "client-1").getStatus());
+    }
+
+    @Test
+    public void doFilter_namesClientsByAddressWithoutClientHeader() throws Exception {
+        properties.getRateLimit().setClientHeader(null);
+        filter = new RateLimitFilter(properties, meterRegistry, clock::get);
+
+        assertEquals(200, send("POST", "/asset", "client-1").getStatus());
+        assertEquals(429, send("POST", "/asset", "client-2").getStatus());
+
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/asset");
+        request.setRemoteAddr("192.0.2.1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> passed.incrementAndGet());
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    public void doFilter_limitsBatchAndMultipartUploads() throws Exception {
+        properties.getRateLimit().setUploadBurst(5);
+        filter = new RateLimitFilter(properties, meterRegistry, clock::get);
+
+        assertEquals(200, send("POST", "/asset/batch?count=3", "client-1").getStatus());
+        MockHttpServletResponse batch = send("POST", "/asset/batch?count=3", "client-1");
+        assertEquals(429, batch.getStatus());
+        assertEquals("1", batch.getHeader("Retry-After"));
+        assertEquals(200, send("POST", "/asset/batch?count=2", "client-1").getStatus());
+        assertEquals(429, send("POST", "/asset/batch?count=bad", "client-1").getStatus());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        assertEquals(200, send("POST", "/asset/batch?count=0", "client-1").getStatus());
+        assertEquals(200, send("POST", "/asset/batch", "client-1").getStatus());
+        assertEquals(200, send("POST", "/asset/multipart?size=20971520", "client-1").getStatus());
+        assertEquals(200, send("PUT", URI_ASSET + "/multipart?upload_id=1", "client-1").getStatus());
+        assertEquals(200, send("DELETE", URI_ASSET + "/multipart?upload_id=1", "client-1").getStatus());
+        assertEquals(429, send("POST", "/asset", "client-1").getStatus());
+    }
+
+    @Test
+    public void doFilter_limitsStatusBatchPerUpdate() throws Exception {
+        properties.getRateLimit().setStatusBurst(3);
+        filter = new RateLimitFilter(properties, meterRegistry, clock::get);
+
+        assertEquals(200, send("PUT", "/asset/status/batch", "client-1", STATUS_BATCH).getStatus());
+        assertEquals(STATUS_BATCH, bodies.get(0));
+        assertEquals(429, send("PUT", "/asset/status/batch", "client-1", STATUS_BATCH).getStatus());
+        assertEquals(200, send("PUT", URI_ASSET, "client-1").getStatus());
+    }
+
+    @Test
+    public void doFilter_limitsDownloadBatchAndListingPerAsset() throws Exception {
+        properties.getRateLimit().setDownloadRate(1);
+        properties.getRateLimit().setDownloadBurst(200);
+        filter = new RateLimitFilter(properties, meterRegistry, clock::get);
+
+        assertEquals(200, send("POST", "/asset/download/batch", "client-1", DOWNLOAD_BATCH).getStatus());
+        assertEquals(DOWNLOAD_BATCH, bodies.get(0));
+        assertEquals(200, send("GET", "/asset", "client-1").getStatus());
+        assertEquals(200, send("GET", "/asset?limit=90", "client-1").getStatus());
+        MockHttpServletResponse listing = send("GET", "/asset?status=&limit=8", "client-1");
+        assertEquals(429, listing.getStatus());
+        assertEquals("1", listing.getHeader("Retry-After"));
+        assertEquals(200, send("GET", "/asset?limit=7", "client-1").getStatus());
+        assertEquals(429, send("GET", URI_ASSET, "client-1").getStatus());
+    }
+
+    @Test
+    public void doFilter_otherRequestsNotLimited() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            assertNull(send("DELETE", URI_ASSET, "client-1").getHeader("Retry-After"));
+            send("PUT", "/asset", "client-1");
+            send("GET", "/asset/batch", "client-1");
+            send("GET", "/asset/multipart", "client-1");
+            send("POST", "/asset/status/batch", "client-1");
+            send("GET", "/asset/download/batch", "client-1");
+            send("GET", URI_ASSET + "/multipart", "client-1");
+            send("FOO", URI_ASSET, "client-1");
+            send("GET", "/actuator/health", "client-1");
+        }
+        assertEquals(18, passed.get());
+        assertTrue(meterRegistry.get(RateLimitFilter.METRIC_THROTTLED).counters().stream()
+                .allMatch(counter -> counter.count() == 0));
+    }
+
+    @Test
+    public void doFilter_defaultLimitsAllowBurst() throws Exception {
+        filter = new RateLimitFilter(new AssetManagerProperties(), meterRegistry, clock::get);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(200, send("POST", "/asset", "client-1").getStatus());
+        }
+        assertEquals(429, send("POST", "/asset", "client-1").getStatus());
+    }
+
+    @Test
+    public void doFilter_systemClock() throws Exception {
+        filter = new RateLimitFilter(new AssetManagerProperties(), new SimpleMeterRegistry());
+        assertEquals(200, send("POST", "/asset", "client-1").getStatus());
+    }
+
+    @Test
+    public void countItems_countsArrayItems() {
+        assertEquals(2, RateLimitFilter.countItems(bytes(STATUS_BATCH), null));
+        assertEquals(3, RateLimitFilter.countItems(bytes(DOWNLOAD_BATCH), "ids"));
+        assertEquals(2, RateLimitFilter.countItems(bytes("{\"options\":{\"ids\":[1]},\"ids\":[[1,2],{\"a\":1}]}"), "ids"));
+        assertEquals(2, RateLimitFilter.countItems(bytes("[1,2,"), null));
+        assertEquals(1, RateLimitFilter.countItems(bytes("[]"), null));
+        assertEquals(1, RateLimitFilter.countItems(bytes("{\"timeout\":60}"), "ids"));
+        assertEquals(1, RateLimitFilter.countItems(bytes("{\"ids\":\"a\"}"), "ids"));
+        assertEquals(2, RateLimitFilter.countItems(bytes("[1,2]"), "ids"));
+        assertEquals(1, RateLimitFilter.countItems(bytes("not a batch"), null));
+    }
+
+    @Test
+    public void cachedBodyRequest_readAgain() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/asset/status/batch");
+        request.setContent(bytes("[\"é\"]"));
+        HttpServletRequest cached = new RateLimitFilter.CachedBodyRequest(request);
+
+        ServletInputStream in = cached.getInputStream();
+        assertTrue(in.isReady());
+        assertFalse(in.isFinished());
+        assertEquals('[', in.read());
+        assertEquals("\"é\"]", StreamUtils.copyToString(in, StandardCharsets.UTF_8));
+        assertTrue(in.isFinished());
+        try {
+            in.setReadListener(null);
+            fail("Non-blocking reads should not be supported.");
+        } catch (UnsupportedOperationException ex) {
+            // expected
+        }
+
+        try (BufferedReader reader = cached.getReader()) {
+            assertEquals("[\"é\"]", reader.readLine());
+        }
+        request.setCharacterEncoding("ISO-8859-1");
+        try (BufferedReader reader = cached.getReader()) {
+            assertEquals("[\"Ã©\"]", reader.readLine());
+        }
+    }
+
+    private MockHttpServletResponse send(final String method, final String uri, final String client) throws Exception {
+        return send(method, uri, client, null);
+    }
+
+    private MockHttpServletResponse send(final String method, final String uri, final String client, final String body)
+            throws Exception {
+        int query = uri.indexOf('?');
+        MockHttpServletRequest request = new MockHttpServletRequest(method, query < 0 ? uri : uri.substring(0, query));
+        if (query >= 0) {
+            for (String parameter : uri.substring(query + 1).split("&")) {
+                String[] pair = parameter.split("=", 2);
+                request.addParameter(pair[0], pair[1]);
+            }
+        }
+        if (client != null) {
+            request.addHeader(CLIENT_HEADER, client);
+        }
+        if (body != null) {
+            request.setContent(bytes(body));
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> {
+            passed.incrementAndGet();
+            if (body != null) {
+                bodies.add(StreamUtils.copyToString(req.getInputStream(), StandardCharsets.UTF_8));
+            }
+        });
+        return response;
+    }
+
+    private static byte[] bytes(final String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,59 @@
+package com.bpmericle.assetmanager;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+
+/**
+ * Tests the {@link RateLimiter} class.
+ *
+ * @author Brian Mericle
+ */
+public class RateLimiterTest {
+
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private final AtomicLong clock = new AtomicLong(-TimeUnit.HOURS.toNanos(1));
+    private final RateLimiter limiter = new RateLimiter(2, 3, 100, clock::get);
+
+    @Test
+    public void tryAcquire_allowsBurst() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("client-1"));
+        }
+        assertEquals(INTERVAL, limiter.tryAcquire("client-1"));
+        assertEquals(INTERVAL, limiter.tryAcquire("client-1"));
+        assertEquals(0, limiter.tryAcquire("client-2"));
+    }
+
+    @Test
+    public void tryAcquire_takesSeveralTokens() {
+        assertEquals(0, limiter.tryAcquire("client-1", 2));
+        assertEquals(INTERVAL, limiter.tryAcquire("client-1", 2));
+        assertEquals(0, limiter.tryAcquire("client-1", 1));
+        assertEquals(3 * INTERVAL, limiter.tryAcquire("client-1", 10));
+
+        assertEquals(0, limiter.tryAcquire("client-2", 10));
+        assertEquals(INTERVAL, limiter.tryAcquire("client-2"));
+    }
+
+    @Test
+    public void tryAcquire_refillsAtRate() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("client-1");
+        }
+
+        clock.addAndGet(INTERVAL - 1);
+        assertEquals(1, limiter.tryAcquire("client-1"));
+        clock.incrementAndGet();
+        assertEquals(0, limiter.tryAcquire("client-1"));
+        assertEquals(INTERVAL, limiter.tryAcquire("client-1"));
+
+        clock.addAndGet(TimeUnit.HOURS.toNanos(1));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("client-1"));
+        }
+    }
+}
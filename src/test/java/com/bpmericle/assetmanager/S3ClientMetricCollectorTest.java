@@ -0,0 +1,108 @@
+package com.bpmericle.assetmanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.DefaultRequest;
+import com.amazonaws.metrics.ServiceLatencyProvider;
+import com.amazonaws.services.s3.metrics.S3ServiceMetric;
+import com.amazonaws.util.AWSRequestMetrics;
+import com.amazonaws.util.AWSRequestMetricsFullSupport;
+import com.amazonaws.util.AWSServiceMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link S3ClientMetricCollector} class and the configuration of
+ * the S3 client.
+ *
+ * @author Brian Mericle
+ */
+public class S3ClientMetricCollectorTest {
+
+    private MeterRegistry meterRegistry;
+    private S3ClientMetricCollector metricCollector;
+
+    @Before
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        metricCollector = new S3ClientMetricCollector(meterRegistry);
+        metricCollector.start();
+    }
+
+    @Test
+    public void collectMetrics_publishesPoolCounts() {
+        AWSRequestMetrics requestMetrics = new AWSRequestMetricsFullSupport();
+        requestMetrics.setCounter(AWSRequestMetrics.Field.HttpClientPoolAvailableCount, 3);
+        requestMetrics.setCounter(AWSRequestMetrics.Field.HttpClientPoolLeasedCount, 50);
+        requestMetrics.setCounter(AWSRequestMetrics.Field.HttpClientPoolPendingCount, 7);
+        DefaultRequest<Void> request = new DefaultRequest<>("Amazon S3");
+        request.setAWSRequestMetrics(requestMetrics);
+
+        metricCollector.getRequestMetricCollector().collectMetrics(request, null);
+
+        assertEquals(3, meterRegistry.get("s3.client.connection.available").gauge().value(), 0);
+        assertEquals(50, meterRegistry.get("s3.client.connection.leased").gauge().value(), 0);
+        assertEquals(7, meterRegistry.get("s3.client.connection.pending").gauge().value(), 0);
+    }
+
+    @Test
+    public void collectLatency_recordsLeaseTime() {
+        ServiceLatencyProvider provider = new ServiceLatencyProvider(AWSServiceMetrics.HttpClientGetConnectionTime);
+        metricCollector.getServiceMetricCollector().collectLatency(provider.endTiming());
+
+        assertEquals(1, meterRegistry.get("s3.client.connection.lease").timer().count());
+    }
+
+    @Test
+    public void collectMetrics_keepsPoolCountsMissingFromRequest() {
+        DefaultRequest<Void> request = new DefaultRequest<>("Amazon S3");
+        request.setAWSRequestMetrics(new AWSRequestMetricsFullSupport());
+
+        metricCollector.getRequestMetricCollector().collectMetrics(request, null);
+
+        assertEquals(0, meterRegistry.get("s3.client.connection.pending").gauge().value(), 0);
+    }
+
+    @Test
+    public void collectLatency_ignoresOtherLatencies() {
+        ServiceLatencyProvider provider = new ServiceLatencyProvider(S3ServiceMetric.S3DownloadByteCount);
+        metricCollector.getServiceMetricCollector().collectLatency(provider.endTiming());
+        metricCollector.getServiceMetricCollector().collectByteThroughput(null);
+
+        assertEquals(0, meterRegistry.get("s3.client.connection.lease").timer().count());
+    }
+
+    @Test
+    public void stop_disablesCollection() {
+        assertTrue(metricCollector.isEnabled());
+        metricCollector.stop();
+
+        assertFalse(metricCollector.isEnabled());
+        assertFalse(metricCollector.getRequestMetricCollector().isEnabled());
+        assertFalse(metricCollector.getServiceMetricCollector().isEnabled());
+    }
+
+    @Test
+    public void newClientConfiguration() {
+        AssetManagerProperties.S3Client s3Client = new AssetManagerProperties.S3Client();
+        s3Client.setMaxConnections(500);
+        s3Client.setSocketTimeout(Duration.ofSeconds(3));
+        s3Client.setTcpKeepAlive(false);
+
+        ClientConfiguration configuration = AssetManagerConfiguration.newClientConfiguration(s3Client);
+
+        assertEquals(500, configuration.getMaxConnections());
+        assertEquals(3000, configuration.getSocketTimeout());
+        assertEquals(2000, configuration.getConnectionTimeout());
+        assertEquals(60_000, configuration.getConnectionTTL());
+        assertEquals(0, configuration.getMaxErrorRetry());
+        assertTrue(configuration.useReaper());
+        assertFalse(configuration.useTcpKeepAlive());
+    }
+}
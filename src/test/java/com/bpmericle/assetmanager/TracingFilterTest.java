@@ -0,0 +1,137 @@
+package com.bpmericle.assetmanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import java.io.IOException;
+import java.util.Collections;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletException;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Tests the {@link TracingFilter} class.
+ *
+ * @author Brian Mericle
+ */
+public class TracingFilterTest {
+
+    private static final String TRACE_ID = "0af7651916cd43dd8448eb211c80319c";
+    private static final String PARENT_SPAN_ID = "b7ad6b7169203331";
+    private static final String URI = "/asset/0a1b2c3d4e5f60718293a4b5c6d7e8f9";
+    private static final String ROUTE = "/asset/{id}";
+
+    private InMemorySpanExporter exporter;
+    private TracingFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Before
+    public void setUp() {
+        exporter = InMemorySpanExporter.create();
+        OpenTelemetrySdk openTelemetry = OpenTelemetrySdk.builder()
+                .setTracerProvider(SdkTracerProvider.builder()
+                        .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                        .build())
+                .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+                .build();
+        filter = new TracingFilter(openTelemetry);
+        request = new MockHttpServletRequest("GET", URI);
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    public void doFilter_continuesTraceOfRequest() throws Exception {
+        request.addHeader("traceparent", String.format("00-%s-%s-01", TRACE_ID, PARENT_SPAN_ID));
+        assertEquals(Collections.singletonList("traceparent"), TracingFilter.HEADERS.keys(request));
+
+        filter.doFilter(request, response, (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, ROUTE);
+        });
+
+        SpanData span = onlySpan();
+        assertEquals("GET " + ROUTE, span.getName());
+        assertEquals(SpanKind.SERVER, span.getKind());
+        assertEquals(TRACE_ID, span.getTraceId());
+        assertEquals(PARENT_SPAN_ID, span.getParentSpanId());
+        assertEquals(ROUTE, span.getAttributes().get(AttributeKey.stringKey(TracingFilter.ATTRIBUTE_ROUTE)));
+        assertEquals(URI, span.getAttributes().get(AttributeKey.stringKey(TracingFilter.ATTRIBUTE_TARGET)));
+        assertEquals(Long.valueOf(200), span.getAttributes().get(AttributeKey.longKey(TracingFilter.ATTRIBUTE_STATUS_CODE)));
+        assertEquals(StatusCode.UNSET, span.getStatus().getStatusCode());
+    }
+
+    @Test
+    public void doFilter_startsTraceWithoutRoute() throws Exception {
+        filter.doFilter(request, response, (req, res) -> {
+            ((MockHttpServletResponse) res).setStatus(500);
+        });
+
+        SpanData span = onlySpan();
+        assertEquals("HTTP GET", span.getName());
+        assertFalse(span.getParentSpanContext().isValid());
+        assertEquals(StatusCode.ERROR, span.getStatus().getStatusCode());
+    }
+
+    @Test
+    public void doFilter_chainFailure() throws Exception {
+        ServletException failure = new ServletException("A problem has occurred!");
+
+        try {
+            filter.doFilter(request, response, (req, res) -> {
+                throw failure;
+            });
+            fail();
+        } catch (ServletException ex) {
+            assertSame(failure, ex);
+        }
+
+        SpanData span = onlySpan();
+        assertEquals(StatusCode.ERROR, span.getStatus().getStatusCode());
+        assertEquals(1, span.getEvents().size());
+    }
+
+    @Test
+    public void doFilter_endsWithAsyncResponse() throws Exception {
+        request.setAsyncSupported(true);
+
+        filter.doFilter(request, response, (req, res) -> req.startAsync());
+        assertTrue(exporter.getFinishedSpanItems().isEmpty());
+
+        MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+        AsyncEvent event = new AsyncEvent(asyncContext, new IOException("Broken pipe"));
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onStartAsync(event);
+            listener.onTimeout(event);
+            listener.onError(event);
+        }
+        assertTrue(exporter.getFinishedSpanItems().isEmpty());
+
+        asyncContext.complete();
+        SpanData span = onlySpan();
+        assertEquals(StatusCode.ERROR, span.getStatus().getStatusCode());
+    }
+
+    private SpanData onlySpan() {
+        assertEquals(1, exporter.getFinishedSpanItems().size());
+        return exporter.getFinishedSpanItems().get(0);
+    }
+}
@@ -0,0 +1,183 @@
+package com.bpmericle.assetmanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests the {@link VirtualThreadSupport} class.
+ * <p>
+ * Both outcomes are tested on any JVM against stand-ins of the JDK classes,
+ * and against the JDK classes themselves on the JVM running the tests. On
+ * Java 21 and later, an executor test also compares how many tasks blocked
+ * like requests waiting on the asset store are in flight at once on a pool
+ * of 200 platform threads, the default Tomcat pool, and on virtual threads.
+ * It compares the executors only, not the throughput of the service.
+ *
+ * @author Brian Mericle
+ */
+public class VirtualThreadSupportTest {
+
+    private static final int PLATFORM_THREADS = 200;
+    private static final int CONCURRENT_REQUESTS = 10_000;
+    private static final long PLATFORM_WAIT_SECONDS = 1;
+    private static final long VIRTUAL_WAIT_SECONDS = 10;
+
+    @After
+    public void restoreJdkClasses() {
+        VirtualThreadSupport.threadClass = Thread.class;
+        VirtualThreadSupport.executorsClass = Executors.class;
+    }
+
+    @Test
+    public void isAvailable_detectsVirtualThreads() {
+        VirtualThreadSupport.threadClass = VirtualThread.class;
+        assertTrue(VirtualThreadSupport.isAvailable());
+
+        VirtualThreadSupport.threadClass = Object.class;
+        assertFalse(VirtualThreadSupport.isAvailable());
+    }
+
+    @Test
+    public void newThreadFactory_usesBuilderOfVirtualThreads() {
+        VirtualThreadSupport.threadClass = VirtualThread.class;
+        Thread thread = VirtualThreadSupport.newThreadFactory("test-").newThread(() -> { });
+
+        assertEquals("test-0", thread.getName());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void newThreadFactory_withoutVirtualThreads() {
+        VirtualThreadSupport.threadClass = Object.class;
+        VirtualThreadSupport.newThreadFactory("test-");
+    }
+
+    @Test
+    public void newThreadPerTaskExecutor_usesExecutorFactory() {
+        VirtualThreadSupport.executorsClass = VirtualThreadExecutors.class;
+        ExecutorService executor = VirtualThreadSupport.newThreadPerTaskExecutor(Executors.defaultThreadFactory());
+
+        assertSame(VirtualThreadExecutors.EXECUTOR, executor);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void newThreadPerTaskExecutor_withoutVirtualThreads() {
+        VirtualThreadSupport.executorsClass = Object.class;
+        VirtualThreadSupport.newThreadPerTaskExecutor(Executors.defaultThreadFactory());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void newThreadFactory_unsupportedJvm() throws Exception {
+        assumeFalse(VirtualThreadSupport.isAvailable());
+        VirtualThreadSupport.newThreadFactory("test-");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void newThreadPerTaskExecutor_unsupportedJvm() throws Exception {
+        assumeFalse(VirtualThreadSupport.isAvailable());
+        VirtualThreadSupport.newThreadPerTaskExecutor(Executors.defaultThreadFactory());
+    }
+
+    @Test
+    public void newThreadFactory_createsVirtualThreads() throws Exception {
+        assumeTrue(VirtualThreadSupport.isAvailable());
+        Thread thread = VirtualThreadSupport.newThreadFactory("test-").newThread(() -> { });
+
+        assertEquals("test-0", thread.getName());
+        assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(thread));
+    }
+
+    @Test
+    public void newThreadPerTaskExecutor_keepsMoreBlockedTasksInFlightThanPlatformPool() throws Exception {
+        assumeTrue(VirtualThreadSupport.isAvailable());
+
+        ExecutorService platform = Executors.newFixedThreadPool(PLATFORM_THREADS);
+        ExecutorService virtual = VirtualThreadSupport.newThreadPerTaskExecutor(VirtualThreadSupport.newThreadFactory("load-"));
+        try {
+            assertEquals(PLATFORM_THREADS, maxRequestsInFlight(platform, PLATFORM_WAIT_SECONDS));
+            assertEquals(CONCURRENT_REQUESTS, maxRequestsInFlight(virtual, VIRTUAL_WAIT_SECONDS));
+        } finally {
+            platform.shutdownNow();
+            virtual.shutdownNow();
+        }
+    }
+
+    /**
+     * Submits requests that block until all of them are in flight, or until a
+     * timeout, and returns how many were in flight at once.
+     */
+    private static int maxRequestsInFlight(final ExecutorService executor, final long waitSeconds) throws InterruptedException {
+        CountDownLatch allInFlight = new CountDownLatch(CONCURRENT_REQUESTS);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            executor.execute(() -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                allInFlight.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                inFlight.decrementAndGet();
+            });
+        }
+
+        allInFlight.await(waitSeconds, TimeUnit.SECONDS);
+        release.countDown();
+        return maxInFlight.get();
+    }
+
+    /**
+     * Stands in for {@link Thread} on Java 21.
+     */
+    public static final class VirtualThread {
+
+        public static Builder ofVirtual() {
+            return new Builder();
+        }
+    }
+
+    /**
+     * Stands in for <code>Thread.Builder.OfVirtual</code>.
+     */
+    public static final class Builder {
+
+        private String name;
+
+        public Builder name(final String prefix, final long start) {
+            this.name = prefix + start;
+            return this;
+        }
+
+        public ThreadFactory factory() {
+            return task -> new Thread(task, name);
+        }
+    }
+
+    /**
+     * Stands in for {@link Executors} on Java 21.
+     */
+    public static final class VirtualThreadExecutors {
+
+        static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor();
+
+        public static ExecutorService newThreadPerTaskExecutor(final ThreadFactory threadFactory) {
+            return EXECUTOR;
+        }
+    }
+}
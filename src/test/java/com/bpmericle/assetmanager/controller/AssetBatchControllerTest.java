@@ -0,0 +1,189 @@
+package com.bpmericle.assetmanager.controller;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.bpmericle.assetmanager.model.AssetDownloadBatchRequest;
+import com.bpmericle.assetmanager.model.AssetDownloadResult;
+import com.bpmericle.assetmanager.model.AssetStatusUpdate;
+import com.bpmericle.assetmanager.model.AssetStatusUpdateResult;
+import com.bpmericle.assetmanager.model.AssetSummary;
+import com.bpmericle.assetmanager.model.AssetUploadMetadata;
+import com.bpmericle.assetmanager.service.AssetListing;
+import com.bpmericle.assetmanager.service.AssetManagerService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * Tests the {@link AssetBatchController} class.
+ *
+ * @author Brian Mericle
+ */
+@RunWith(SpringRunner.class)
+@WebMvcTest(AssetBatchController.class)
+public class AssetBatchControllerTest {
+
+    private static final String ASSET_ID = UUID.randomUUID().toString().replaceAll("-", "");
+    private static final String OTHER_ASSET_ID = UUID.randomUUID().toString().replaceAll("-", "");
+    private static final int TIMEOUT = 100;
+    private static final int BATCH_COUNT = 2;
+    private static final String BAD_BATCH_COUNT = "bad_count_value";
+    private static final String DEFAULT_STATUS = "uploaded";
+    private static final String UPLOAD_ASSET_URL = "s3://xxx";
+    private static final String DOWNLOAD_ASSET_URL = "s3://xxx";
+    private static final String EXCEPTION_MESSAGE = "A problem has occured";
+
+    private static final String URI_BASE = "/asset";
+    private static final String URI_REQUEST_UPLOAD_ASSETS = String.format("%s/batch", URI_BASE);
+    private static final String URI_SUBMIT_ASSET_STATUSES = String.format("%s/status/batch", URI_BASE);
+    private static final String URI_REQUEST_DOWNLOAD_ASSETS = String.format("%s/download/batch", URI_BASE);
+    private static final String PARAM_COUNT = "count";
+    private static final String PARAM_STATUS = "status";
+    private static final String PARAM_CURSOR = "cursor";
+    private static final String PARAM_LIMIT = "limit";
+    private static final String CURSOR = "Y3Vyc29y";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @MockBean
+    private AssetManagerService serviceMock;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void requestAssetUploads_validRequest() throws Exception {
+        List<AssetUploadMetadata> response = Arrays.asList(
+                new AssetUploadMetadata(ASSET_ID, UPLOAD_ASSET_URL),
+                new AssetUploadMetadata(ASSET_ID, UPLOAD_ASSET_URL));
+        String jsonResponse = OBJECT_MAPPER.writeValueAsString(response);
+
+        when(serviceMock.requestAssetUploads(BATCH_COUNT)).thenReturn(response);
+        mockMvc.perform(post(URI_REQUEST_UPLOAD_ASSETS)
+                .param(PARAM_COUNT, String.valueOf(BATCH_COUNT)))
+                .andExpect(status().isOk())
+                .andExpect(content().json(jsonResponse));
+    }
+
+    @Test
+    public void requestAssetUploads_invalidRequestWithBadCount() throws Exception {
+        mockMvc.perform(post(URI_REQUEST_UPLOAD_ASSETS)
+                .param(PARAM_COUNT, BAD_BATCH_COUNT))
+                .andExpect(status().is4xxClientError());
+    }
+
+    @Test
+    public void requestAssetUploads_invalidRequestWithCountOutOfRange() throws Exception {
+        when(serviceMock.requestAssetUploads(BATCH_COUNT)).thenThrow(new IllegalArgumentException(EXCEPTION_MESSAGE));
+        mockMvc.perform(post(URI_REQUEST_UPLOAD_ASSETS)
+                .param(PARAM_COUNT, String.valueOf(BATCH_COUNT)))
+                .andExpect(status().is4xxClientError());
+    }
+
+    @Test
+    public void submitAssetStatuses_validRequest() throws Exception {
+        List<AssetStatusUpdate> updates = Arrays.asList(new AssetStatusUpdate(ASSET_ID, DEFAULT_STATUS));
+        List<AssetStatusUpdateResult> response = Arrays.asList(AssetStatusUpdateResult.failure(ASSET_ID, EXCEPTION_MESSAGE));
+        String jsonResponse = OBJECT_MAPPER.writeValueAsString(response);
+
+        when(serviceMock.submitAssetUpdateStatuses(updates)).thenReturn(response);
+        mockMvc.perform(put(URI_SUBMIT_ASSET_STATUSES)
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content(OBJECT_MAPPER.writeValueAsBytes(updates)))
+                .andExpect(status().isOk())
+                .andExpect(content().json(jsonResponse));
+    }
+
+    @Test
+    public void submitAssetStatuses_invalidRequestNoContent() throws Exception {
+        mockMvc.perform(put(URI_SUBMIT_ASSET_STATUSES))
+                .andExpect(status().is5xxServerError());
+    }
+
+    @Test
+    public void requestAssetDownloads_validRequest() throws Exception {
+        AssetDownloadBatchRequest request = new AssetDownloadBatchRequest(Arrays.asList(ASSET_ID, OTHER_ASSET_ID), TIMEOUT);
+        Map<String, AssetDownloadResult> response = new LinkedHashMap<>();
+        response.put(ASSET_ID, new AssetDownloadResult(DOWNLOAD_ASSET_URL, null));
+        response.put(OTHER_ASSET_ID, AssetDownloadResult.failure(EXCEPTION_MESSAGE));
+        String jsonResponse = OBJECT_MAPPER.writeValueAsString(response);
+
+        when(serviceMock.requestAssetDownloads(request.getIds(), TIMEOUT)).thenReturn(Arrays.<Map.Entry<String, AssetDownloadResult>>asList(
+                new AbstractMap.SimpleImmutableEntry<>(ASSET_ID, response.get(ASSET_ID)),
+                new AbstractMap.SimpleImmutableEntry<>(OTHER_ASSET_ID, response.get(OTHER_ASSET_ID))).iterator());
+        MvcResult result = mockMvc.perform(post(URI_REQUEST_DOWNLOAD_ASSETS)
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content(OBJECT_MAPPER.writeValueAsBytes(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().json(jsonResponse));
+    }
+
+    @Test
+    public void requestAssetDownloads_invalidRequestWithTooManyAssets() throws Exception {
+        AssetDownloadBatchRequest request = new AssetDownloadBatchRequest(Arrays.asList(ASSET_ID), TIMEOUT);
+        when(serviceMock.requestAssetDownloads(request.getIds(), TIMEOUT)).thenThrow(new IllegalArgumentException(EXCEPTION_MESSAGE));
+        mockMvc.perform(post(URI_REQUEST_DOWNLOAD_ASSETS)
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content(OBJECT_MAPPER.writeValueAsBytes(request)))
+                .andExpect(status().is4xxClientError());
+    }
+
+    @Test
+    public void listAssets_validRequest() throws Exception {
+        when(serviceMock.listAssets(DEFAULT_STATUS, CURSOR, BATCH_COUNT)).thenReturn(new AssetListing(Arrays.asList(
+                new AssetSummary(ASSET_ID, DEFAULT_STATUS),
+                new AssetSummary(OTHER_ASSET_ID, DEFAULT_STATUS)).iterator(), OTHER_ASSET_ID));
+        MvcResult result = mockMvc.perform(get(URI_BASE)
+                .param(PARAM_STATUS, DEFAULT_STATUS)
+                .param(PARAM_CURSOR, CURSOR)
+                .param(PARAM_LIMIT, String.valueOf(BATCH_COUNT)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().json(String.format(
+                        "{\"assets\":[{\"id\":\"%s\",\"Status\":\"%s\"},{\"id\":\"%s\",\"Status\":\"%s\"}],\"next_cursor\":\"%s\"}",
+                        ASSET_ID, DEFAULT_STATUS, OTHER_ASSET_ID, DEFAULT_STATUS, OTHER_ASSET_ID), true));
+    }
+
+    @Test
+    public void listAssets_validRequestForLastPageWithDefaults() throws Exception {
+        when(serviceMock.listAssets(null, null, 100)).thenReturn(new AssetListing(Collections.<AssetSummary>emptyIterator(), null));
+        MvcResult result = mockMvc.perform(get(URI_BASE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"assets\":[],\"next_cursor\":null}", true));
+    }
+
+    @Test
+    public void listAssets_invalidRequestWithBadLimit() throws Exception {
+        mockMvc.perform(get(URI_BASE).param(PARAM_LIMIT, BAD_BATCH_COUNT))
+                .andExpect(status().is4xxClientError());
+    }
+}
@@ -1,5 +1,6 @@
 package com.bpmericle.assetmanager.controller;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.when;
@@ -8,20 +9,37 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.bpmericle.assetmanager.model.AssetDownloadManifest;
 import com.bpmericle.assetmanager.model.AssetDownloadMetadata;
+import com.bpmericle.assetmanager.model.AssetDownloadRange;
 import com.bpmericle.assetmanager.model.AssetStatus;
 import com.bpmericle.assetmanager.model.AssetUploadMetadata;
+import com.bpmericle.assetmanager.service.AssetDownload;
 import com.bpmericle.assetmanager.service.AssetManagerService;
 import com.bpmericle.assetmanager.service.AssetManagerServiceException;
+import com.bpmericle.assetmanager.service.AssetNotFoundException;
+import com.bpmericle.assetmanager.service.AssetNotUploadedException;
+import com.bpmericle.assetmanager.service.CircuitBreakerOpenException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import java.util.Arrays;
 import java.util.UUID;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
@@ -43,6 +61,7 @@ public class AssetManagerControllerTest {
     private static final String UPLOAD_ASSET_URL = "s3://xxx";
     private static final String DOWNLOAD_ASSET_URL = "s3://xxx";
     private static final String EXCEPTION_MESSAGE = "A problem has occured";
+    private static final String ENTITY_TAG = "\"18f2a3b4c5d-1a2b3c4d\"";
     private static final AssetManagerServiceException ASSET_MANAGER_SERVICE_EXCEPTION_WITH_MESSAGE = new AssetManagerServiceException(EXCEPTION_MESSAGE);
     private static final AssetManagerServiceException ASSET_MANAGER_SERVICE_EXCEPTION_WITH_MESSAGE_AND_CAUSE = new AssetManagerServiceException(EXCEPTION_MESSAGE, new Exception());
     private static final AssetStatus ASSET_MANAGER_STATUS = new AssetStatus(DEFAULT_STATUS);
@@ -52,6 +71,8 @@ public class AssetManagerControllerTest {
     private static final String URI_SUBMIT_ASSET_STATUS = String.format("%s/%s", URI_BASE, ASSET_ID);
     private static final String URI_REQUEST_DOWNLOAD_ASSET = String.format("%s/%s", URI_BASE, ASSET_ID);
     private static final String PARAM_TIMEOUT = "timeout";
+    private static final String PARAM_REDIRECT = "redirect";
+    private static final String PARAM_PARTS = "parts";
 
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
@@ -61,6 +82,26 @@ public class AssetManagerControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private InMemorySpanExporter spanExporter;
+
+    @TestConfiguration
+    static class TracingConfiguration {
+
+        @Bean
+        public InMemorySpanExporter spanExporter() {
+            return InMemorySpanExporter.create();
+        }
+
+        @Bean
+        public Tracer tracer(final InMemorySpanExporter spanExporter) {
+            return SdkTracerProvider.builder()
+                    .addSpanProcessor(SimpleSpanProcessor.create(spanExporter))
+                    .build()
+                    .get("test");
+        }
+    }
+
     @Test
     public void requestAssetUpload_validRequest() throws Exception {
         AssetUploadMetadata response = new AssetUploadMetadata(ASSET_ID, UPLOAD_ASSET_URL);
@@ -108,9 +149,12 @@ public class AssetManagerControllerTest {
         AssetDownloadMetadata response = new AssetDownloadMetadata(DOWNLOAD_ASSET_URL);
         String jsonResponse = OBJECT_MAPPER.writeValueAsString(response);
 
-        when(serviceMock.requestAssetDownload(ASSET_ID, DEFAULT_TIMEOUT)).thenReturn(response);
+        when(serviceMock.requestAssetDownload(ASSET_ID, DEFAULT_TIMEOUT, null))
+                .thenReturn(new AssetDownload(response, ENTITY_TAG, 30));
         mockMvc.perform(get(URI_REQUEST_DOWNLOAD_ASSET))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ENTITY_TAG))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=30"))
                 .andExpect(content().json(jsonResponse));
     }
 
@@ -119,13 +163,57 @@ public class AssetManagerControllerTest {
         AssetDownloadMetadata response = new AssetDownloadMetadata(DOWNLOAD_ASSET_URL);
         String jsonResponse = OBJECT_MAPPER.writeValueAsString(response);
 
-        when(serviceMock.requestAssetDownload(ASSET_ID, TIMEOUT)).thenReturn(response);
+        when(serviceMock.requestAssetDownload(ASSET_ID, TIMEOUT, null)).thenReturn(new AssetDownload(response, ENTITY_TAG, 50));
         mockMvc.perform(get(URI_REQUEST_DOWNLOAD_ASSET)
                 .param(PARAM_TIMEOUT, String.valueOf(TIMEOUT)))
                 .andExpect(status().isOk())
                 .andExpect(content().json(jsonResponse));
     }
 
+    @Test
+    public void requestAssetDownload_validRequestWithDownloadUrlHeld() throws Exception {
+        when(serviceMock.requestAssetDownload(ASSET_ID, DEFAULT_TIMEOUT, ENTITY_TAG))
+                .thenReturn(new AssetDownload(null, ENTITY_TAG, 20));
+        mockMvc.perform(get(URI_REQUEST_DOWNLOAD_ASSET)
+                .header(HttpHeaders.IF_NONE_MATCH, ENTITY_TAG))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, ENTITY_TAG))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=20"))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    public void redirectAssetDownload_validRequest() throws Exception {
+        when(serviceMock.requestAssetDownload(ASSET_ID, TIMEOUT, null))
+                .thenReturn(new AssetDownload(new AssetDownloadMetadata(DOWNLOAD_ASSET_URL), ENTITY_TAG, 50));
+        mockMvc.perform(get(URI_REQUEST_DOWNLOAD_ASSET)
+                .param(PARAM_REDIRECT, "true")
+                .param(PARAM_TIMEOUT, String.valueOf(TIMEOUT)))
+                .andExpect(status().isTemporaryRedirect())
+                .andExpect(header().string(HttpHeaders.LOCATION, DOWNLOAD_ASSET_URL))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=50"))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    public void redirectAssetDownload_validRequestWithRedirectOff() throws Exception {
+        AssetDownloadMetadata response = new AssetDownloadMetadata(DOWNLOAD_ASSET_URL);
+        when(serviceMock.requestAssetDownload(ASSET_ID, DEFAULT_TIMEOUT, null)).thenReturn(new AssetDownload(response, ENTITY_TAG, 30));
+        mockMvc.perform(get(URI_REQUEST_DOWNLOAD_ASSET)
+                .param(PARAM_REDIRECT, "false"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(OBJECT_MAPPER.writeValueAsString(response)));
+    }
+
+    @Test
+    public void redirectAssetDownload_validRequestWithAssetNotUploaded() throws Exception {
+        when(serviceMock.requestAssetDownload(ASSET_ID, DEFAULT_TIMEOUT, null)).thenThrow(new AssetNotUploadedException());
+        mockMvc.perform(get(URI_REQUEST_DOWNLOAD_ASSET)
+                .param(PARAM_REDIRECT, "true"))
+                .andExpect(status().isConflict())
+                .andExpect(content().json("{\"message\":\"Status of asset is not 'uploaded'.\"}", true));
+    }
+
     @Test
     public void requestAssetDownload_invalidRequestWithBadExplicitTimeoutSet() throws Exception {
         mockMvc.perform(get(URI_REQUEST_DOWNLOAD_ASSET)
@@ -135,7 +223,7 @@ public class AssetManagerControllerTest {
 
     @Test
     public void requestAssetDownload_validRequestWithInvalidStatus() throws Exception {
-        when(serviceMock.requestAssetDownload(ASSET_ID, TIMEOUT)).thenThrow(ASSET_MANAGER_SERVICE_EXCEPTION_WITH_MESSAGE);
+        when(serviceMock.requestAssetDownload(ASSET_ID, TIMEOUT, null)).thenThrow(ASSET_MANAGER_SERVICE_EXCEPTION_WITH_MESSAGE);
         mockMvc.perform(get(URI_REQUEST_DOWNLOAD_ASSET)
                 .param(PARAM_TIMEOUT, String.valueOf(TIMEOUT)))
                 .andExpect(status().is5xxServerError());
@@ -143,9 +231,91 @@ public class AssetManagerControllerTest {
 
     @Test
     public void requestAssetDownload_validRequestWithServiceThrowingException() throws Exception {
-        when(serviceMock.requestAssetDownload(ASSET_ID, TIMEOUT)).thenThrow(ASSET_MANAGER_SERVICE_EXCEPTION_WITH_MESSAGE_AND_CAUSE);
+        when(serviceMock.requestAssetDownload(ASSET_ID, TIMEOUT, null)).thenThrow(ASSET_MANAGER_SERVICE_EXCEPTION_WITH_MESSAGE_AND_CAUSE);
         mockMvc.perform(get(URI_REQUEST_DOWNLOAD_ASSET)
                 .param(PARAM_TIMEOUT, String.valueOf(TIMEOUT)))
                 .andExpect(status().is5xxServerError());
     }
+
+    @Test
+    public void requestAssetDownload_validRequestWithAssetNotFound() throws Exception {
+        when(serviceMock.requestAssetDownload(ASSET_ID, TIMEOUT, null)).thenThrow(new AssetNotFoundException());
+        mockMvc.perform(get(URI_REQUEST_DOWNLOAD_ASSET)
+                .param(PARAM_TIMEOUT, String.valueOf(TIMEOUT)))
+                .andExpect(status().isNotFound())
+                .andExpect(content().json("{\"message\":\"Asset does not exist.\"}", true));
+    }
+
+    @Test
+    public void requestAssetDownload_validRequestWithAssetNotUploaded() throws Exception {
+        when(serviceMock.requestAssetDownload(ASSET_ID, TIMEOUT, null)).thenThrow(new AssetNotUploadedException());
+        mockMvc.perform(get(URI_REQUEST_DOWNLOAD_ASSET)
+                .param(PARAM_TIMEOUT, String.valueOf(TIMEOUT)))
+                .andExpect(status().isConflict())
+                .andExpect(content().json("{\"message\":\"Status of asset is not 'uploaded'.\"}", true));
+    }
+
+    @Test
+    public void requestAssetDownload_validRequestWithAssetStoreUnavailable() throws Exception {
+        when(serviceMock.requestAssetDownload(ASSET_ID, TIMEOUT, null)).thenThrow(new AssetManagerServiceException(EXCEPTION_MESSAGE,
+                new CircuitBreakerOpenException("get-tagging")));
+        mockMvc.perform(get(URI_REQUEST_DOWNLOAD_ASSET)
+                .param(PARAM_TIMEOUT, String.valueOf(TIMEOUT)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(content().json("{\"message\":\"The asset store is unavailable, retry later.\"}", true));
+    }
+
+    @Test
+    public void requestAssetDownloadManifest_validRequest() throws Exception {
+        AssetDownloadManifest response = new AssetDownloadManifest(DOWNLOAD_ASSET_URL, 10, "\"etag\"",
+                Arrays.asList(new AssetDownloadRange(0, 4), new AssetDownloadRange(5, 9)));
+        String jsonResponse = OBJECT_MAPPER.writeValueAsString(response);
+
+        when(serviceMock.requestAssetDownloadManifest(ASSET_ID, DEFAULT_TIMEOUT, 2)).thenReturn(response);
+        mockMvc.perform(get(URI_REQUEST_DOWNLOAD_ASSET)
+                .param(PARAM_PARTS, "2"))
+                .andExpect(status().isOk())
+                .andExpect(content().json(jsonResponse));
+    }
+
+    @Test
+    public void requestAssetDownloadManifest_invalidRequestWithBadParts() throws Exception {
+        mockMvc.perform(get(URI_REQUEST_DOWNLOAD_ASSET)
+                .param(PARAM_PARTS, "many"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void requestAssetDownloadManifest_invalidRequestWithPartsOutOfRange() throws Exception {
+        when(serviceMock.requestAssetDownloadManifest(ASSET_ID, TIMEOUT, 0)).thenThrow(new IllegalArgumentException(EXCEPTION_MESSAGE));
+        mockMvc.perform(get(URI_REQUEST_DOWNLOAD_ASSET)
+                .param(PARAM_TIMEOUT, String.valueOf(TIMEOUT))
+                .param(PARAM_PARTS, "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void requestAssetDownload_tracedInSpan() throws Exception {
+        when(serviceMock.requestAssetDownload(ASSET_ID, DEFAULT_TIMEOUT, null))
+                .thenReturn(new AssetDownload(new AssetDownloadMetadata(DOWNLOAD_ASSET_URL), ENTITY_TAG, 30));
+        spanExporter.reset();
+        mockMvc.perform(get(URI_REQUEST_DOWNLOAD_ASSET))
+                .andExpect(status().isOk());
+
+        SpanData span = spanExporter.getFinishedSpanItems().get(0);
+        assertEquals("AssetManagerController.requestAssetDownload", span.getName());
+        assertEquals(StatusCode.UNSET, span.getStatus().getStatusCode());
+    }
+
+    @Test
+    public void requestAssetDownload_failureTracedInSpan() throws Exception {
+        spanExporter.reset();
+        mockMvc.perform(get(URI_REQUEST_DOWNLOAD_ASSET)
+                .param(PARAM_TIMEOUT, BAD_TIMEOUT))
+                .andExpect(status().isBadRequest());
+
+        SpanData span = spanExporter.getFinishedSpanItems().get(0);
+        assertEquals("AssetManagerController.requestAssetDownload", span.getName());
+        assertEquals(StatusCode.ERROR, span.getStatus().getStatusCode());
+    }
 }
@@ -0,0 +1,132 @@
+package com.bpmericle.assetmanager.controller;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.bpmericle.assetmanager.model.AssetMultipartUploadMetadata;
+import com.bpmericle.assetmanager.model.AssetUploadPart;
+import com.bpmericle.assetmanager.model.AssetUploadPartMetadata;
+import com.bpmericle.assetmanager.service.AssetManagerService;
+import com.bpmericle.assetmanager.service.AssetManagerServiceException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Tests the {@link AssetMultipartController} class.
+ *
+ * @author Brian Mericle
+ */
+@RunWith(SpringRunner.class)
+@WebMvcTest(AssetMultipartController.class)
+public class AssetMultipartControllerTest {
+
+    private static final String ASSET_ID = UUID.randomUUID().toString().replaceAll("-", "");
+    private static final String UPLOAD_ID = "VXBsb2FkIElEIGZvciA2aWWpbmcncyBteS1tb3ZpZS5tMnRzIHVwbG9hZA--";
+    private static final long ASSET_SIZE = 20L * 1024 * 1024;
+    private static final long PART_SIZE = 16L * 1024 * 1024;
+    private static final String BAD_ASSET_SIZE = "bad_size_value";
+    private static final String UPLOAD_PART_URL = "s3://xxx";
+    private static final String EXCEPTION_MESSAGE = "A problem has occured";
+
+    private static final String URI_REQUEST_MULTIPART_UPLOAD = "/asset/multipart";
+    private static final String URI_MULTIPART_UPLOAD = String.format("/asset/%s/multipart", ASSET_ID);
+    private static final String PARAM_SIZE = "size";
+    private static final String PARAM_UPLOAD_ID = "upload_id";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @MockBean
+    private AssetManagerService serviceMock;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void requestAssetMultipartUpload_validRequest() throws Exception {
+        AssetMultipartUploadMetadata response = new AssetMultipartUploadMetadata(ASSET_ID, UPLOAD_ID, PART_SIZE, Arrays.asList(
+                new AssetUploadPartMetadata(1, UPLOAD_PART_URL),
+                new AssetUploadPartMetadata(2, UPLOAD_PART_URL)));
+
+        when(serviceMock.requestAssetMultipartUpload(ASSET_SIZE)).thenReturn(response);
+        mockMvc.perform(post(URI_REQUEST_MULTIPART_UPLOAD)
+                .param(PARAM_SIZE, String.valueOf(ASSET_SIZE)))
+                .andExpect(status().isOk())
+                .andExpect(content().json(OBJECT_MAPPER.writeValueAsString(response)));
+    }
+
+    @Test
+    public void requestAssetMultipartUpload_invalidRequestWithBadSize() throws Exception {
+        mockMvc.perform(post(URI_REQUEST_MULTIPART_UPLOAD)
+                .param(PARAM_SIZE, BAD_ASSET_SIZE))
+                .andExpect(status().is4xxClientError());
+    }
+
+    @Test
+    public void requestAssetMultipartUpload_invalidRequestWithSizeOutOfRange() throws Exception {
+        when(serviceMock.requestAssetMultipartUpload(ASSET_SIZE)).thenThrow(new IllegalArgumentException(EXCEPTION_MESSAGE));
+        mockMvc.perform(post(URI_REQUEST_MULTIPART_UPLOAD)
+                .param(PARAM_SIZE, String.valueOf(ASSET_SIZE)))
+                .andExpect(status().is4xxClientError());
+    }
+
+    @Test
+    public void completeAssetMultipartUpload_validRequest() throws Exception {
+        List<AssetUploadPart> parts = Arrays.asList(new AssetUploadPart(1, "\"etag1\""), new AssetUploadPart(2, "\"etag2\""));
+
+        mockMvc.perform(put(URI_MULTIPART_UPLOAD)
+                .param(PARAM_UPLOAD_ID, UPLOAD_ID)
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content(OBJECT_MAPPER.writeValueAsBytes(parts)))
+                .andExpect(status().isOk());
+        verify(serviceMock).completeAssetMultipartUpload(ASSET_ID, UPLOAD_ID, parts);
+    }
+
+    @Test
+    public void completeAssetMultipartUpload_serviceFailure() throws Exception {
+        List<AssetUploadPart> parts = Arrays.asList(new AssetUploadPart(1, "\"etag1\""));
+        doThrow(new AssetManagerServiceException(EXCEPTION_MESSAGE))
+                .when(serviceMock).completeAssetMultipartUpload(ASSET_ID, UPLOAD_ID, parts);
+
+        mockMvc.perform(put(URI_MULTIPART_UPLOAD)
+                .param(PARAM_UPLOAD_ID, UPLOAD_ID)
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content(OBJECT_MAPPER.writeValueAsBytes(parts)))
+                .andExpect(status().is5xxServerError());
+    }
+
+    @Test
+    public void completeAssetMultipartUpload_invalidRequestNoUploadId() throws Exception {
+        mockMvc.perform(put(URI_MULTIPART_UPLOAD)
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("[]"))
+                .andExpect(status().is5xxServerError());
+        verify(serviceMock, never()).completeAssetMultipartUpload(anyString(), anyString(), anyList());
+    }
+
+    @Test
+    public void abortAssetMultipartUpload_validRequest() throws Exception {
+        mockMvc.perform(delete(URI_MULTIPART_UPLOAD)
+                .param(PARAM_UPLOAD_ID, UPLOAD_ID))
+                .andExpect(status().isOk());
+        verify(serviceMock).abortAssetMultipartUpload(ASSET_ID, UPLOAD_ID);
+    }
+}
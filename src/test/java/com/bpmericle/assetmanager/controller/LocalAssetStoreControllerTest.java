@@ -0,0 +1,167 @@
+package com.bpmericle.assetmanager.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.amazonaws.HttpMethod;
+import com.bpmericle.assetmanager.service.LocalAssetStore;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Tests the {@link LocalAssetStoreController} class.
+ *
+ * @author Brian Mericle
+ */
+@RunWith(SpringRunner.class)
+@WebMvcTest(LocalAssetStoreController.class)
+@TestPropertySource(properties = "asset-manager.asset-store.type=local")
+public class LocalAssetStoreControllerTest {
+
+    private static final String ASSET_ID = UUID.randomUUID().toString().replaceAll("-", "");
+    private static final long EXPIRES = 1527163200L;
+    private static final String SIGNATURE = "0123456789abcdef";
+    private static final String CONTENT = "content of the asset";
+    private static final String UPLOAD_ID = "f9e8d7c6b5a4938271605f4e3d2c1b0a";
+    private static final String ENTITY_TAG = "9e107d9d372bb6826bd81d3542a419d6";
+
+    private static final String URI_ASSET = String.format("/local-store/%s", ASSET_ID);
+    private static final String PARAM_EXPIRES = "expires";
+    private static final String PARAM_SIGNATURE = "signature";
+    private static final String PARAM_UPLOAD_ID = "uploadId";
+    private static final String PARAM_PART_NUMBER = "partNumber";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @MockBean
+    private LocalAssetStore storeMock;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void upload_validUrl() throws Exception {
+        when(storeMock.isValid(HttpMethod.PUT, ASSET_ID, EXPIRES, SIGNATURE)).thenReturn(true);
+        mockMvc.perform(put(URI_ASSET)
+                .param(PARAM_EXPIRES, String.valueOf(EXPIRES))
+                .param(PARAM_SIGNATURE, SIGNATURE)
+                .content(CONTENT))
+                .andExpect(status().isOk());
+        verify(storeMock).write(eq(ASSET_ID), any(InputStream.class));
+    }
+
+    @Test
+    public void upload_invalidUrl() throws Exception {
+        mockMvc.perform(put(URI_ASSET)
+                .param(PARAM_EXPIRES, String.valueOf(EXPIRES))
+                .param(PARAM_SIGNATURE, SIGNATURE)
+                .content(CONTENT))
+                .andExpect(status().isForbidden());
+        verify(storeMock, never()).write(anyString(), any(InputStream.class));
+    }
+
+    @Test
+    public void upload_missingSignature() throws Exception {
+        mockMvc.perform(put(URI_ASSET).param(PARAM_EXPIRES, String.valueOf(EXPIRES)).content(CONTENT))
+                .andExpect(status().is5xxServerError());
+    }
+
+    @Test
+    public void uploadPart_validUrl() throws Exception {
+        when(storeMock.isValidPart(ASSET_ID, UPLOAD_ID, 2, EXPIRES, SIGNATURE)).thenReturn(true);
+        when(storeMock.writePart(eq(ASSET_ID), eq(UPLOAD_ID), eq(2), any(InputStream.class))).thenReturn(Optional.of(ENTITY_TAG));
+        mockMvc.perform(put(URI_ASSET)
+                .param(PARAM_UPLOAD_ID, UPLOAD_ID)
+                .param(PARAM_PART_NUMBER, "2")
+                .param(PARAM_EXPIRES, String.valueOf(EXPIRES))
+                .param(PARAM_SIGNATURE, SIGNATURE)
+                .content(CONTENT))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + ENTITY_TAG + "\""));
+        verify(storeMock, never()).write(anyString(), any(InputStream.class));
+    }
+
+    @Test
+    public void uploadPart_uploadNotFound() throws Exception {
+        when(storeMock.isValidPart(ASSET_ID, UPLOAD_ID, 2, EXPIRES, SIGNATURE)).thenReturn(true);
+        when(storeMock.writePart(eq(ASSET_ID), eq(UPLOAD_ID), eq(2), any(InputStream.class))).thenReturn(Optional.empty());
+        mockMvc.perform(put(URI_ASSET)
+                .param(PARAM_UPLOAD_ID, UPLOAD_ID)
+                .param(PARAM_PART_NUMBER, "2")
+                .param(PARAM_EXPIRES, String.valueOf(EXPIRES))
+                .param(PARAM_SIGNATURE, SIGNATURE)
+                .content(CONTENT))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void uploadPart_invalidUrl() throws Exception {
+        mockMvc.perform(put(URI_ASSET)
+                .param(PARAM_UPLOAD_ID, UPLOAD_ID)
+                .param(PARAM_PART_NUMBER, "2")
+                .param(PARAM_EXPIRES, String.valueOf(EXPIRES))
+                .param(PARAM_SIGNATURE, SIGNATURE)
+                .content(CONTENT))
+                .andExpect(status().isForbidden());
+        verify(storeMock, never()).writePart(anyString(), anyString(), anyInt(), any(InputStream.class));
+    }
+
+    @Test
+    public void download_validUrl() throws Exception {
+        Path object = folder.newFile().toPath();
+        Files.write(object, CONTENT.getBytes(StandardCharsets.UTF_8));
+        when(storeMock.isValid(HttpMethod.GET, ASSET_ID, EXPIRES, SIGNATURE)).thenReturn(true);
+        when(storeMock.read(ASSET_ID)).thenReturn(Optional.of(object));
+        mockMvc.perform(get(URI_ASSET)
+                .param(PARAM_EXPIRES, String.valueOf(EXPIRES))
+                .param(PARAM_SIGNATURE, SIGNATURE))
+                .andExpect(status().isOk())
+                .andExpect(content().string(CONTENT));
+    }
+
+    @Test
+    public void download_assetNotFound() throws Exception {
+        when(storeMock.isValid(HttpMethod.GET, ASSET_ID, EXPIRES, SIGNATURE)).thenReturn(true);
+        when(storeMock.read(ASSET_ID)).thenReturn(Optional.empty());
+        mockMvc.perform(get(URI_ASSET)
+                .param(PARAM_EXPIRES, String.valueOf(EXPIRES))
+                .param(PARAM_SIGNATURE, SIGNATURE))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void download_invalidUrl() throws Exception {
+        when(storeMock.isValid(any(HttpMethod.class), anyString(), anyLong(), anyString())).thenReturn(false);
+        mockMvc.perform(get(URI_ASSET)
+                .param(PARAM_EXPIRES, String.valueOf(EXPIRES))
+                .param(PARAM_SIGNATURE, SIGNATURE))
+                .andExpect(status().isForbidden());
+        verify(storeMock, never()).read(anyString());
+    }
+}
@@ -0,0 +1,86 @@
+package com.bpmericle.assetmanager.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.bpmericle.assetmanager.AssetManagerProperties;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+
+/**
+ * Tests the {@link AssetKeyScheme} class.
+ *
+ * @author Brian Mericle
+ */
+public class AssetKeySchemeTest {
+
+    private static final String ASSET_ID = "0a1b2c3d4e5f60718293a4b5c6d7e8f9";
+
+    @Test
+    public void keyOf_withoutPrefix() {
+        AssetKeyScheme keyScheme = keyScheme(0);
+
+        assertSame(ASSET_ID, keyScheme.keyOf(ASSET_ID));
+        assertSame(ASSET_ID, keyScheme.idOf(ASSET_ID));
+    }
+
+    @Test
+    public void keyOf_withPrefix() {
+        AssetKeyScheme keyScheme = keyScheme(2);
+        String key = keyScheme.keyOf(ASSET_ID);
+
+        assertTrue(key, key.matches("[0-9a-f]{2}-" + ASSET_ID));
+        assertEquals(key, keyScheme.keyOf(ASSET_ID));
+        assertEquals(ASSET_ID, keyScheme.idOf(key));
+    }
+
+    @Test
+    public void keyOf_spreadsSimilarIdentifiers() {
+        AssetKeyScheme keyScheme = keyScheme(1);
+        Set<String> prefixes = new HashSet<>();
+        // Time-ordered identifiers only differ in their last digits.
+        for (int i = 0; i < 256; i++) {
+            prefixes.add(keyScheme.keyOf(String.format("0123456789ab%020x", i)).substring(0, 1));
+        }
+
+        assertEquals(16, prefixes.size());
+    }
+
+    @Test
+    public void keyOf_withLongestPrefix() {
+        AssetKeyScheme keyScheme = keyScheme(AssetKeyScheme.MAX_PREFIX_LENGTH);
+        String key = keyScheme.keyOf(ASSET_ID);
+
+        assertTrue(key, key.matches("[0-9a-f]{8}-" + ASSET_ID));
+        assertEquals(ASSET_ID, keyScheme.idOf(key));
+    }
+
+    @Test
+    public void idOf_keyWithoutPrefix() {
+        AssetKeyScheme keyScheme = keyScheme(2);
+
+        assertEquals(ASSET_ID, keyScheme.idOf(ASSET_ID));
+        assertEquals("ab", keyScheme.idOf("ab"));
+    }
+
+    @Test
+    public void constructor_invalidPrefixLength() {
+        for (int prefixLength : new int[]{-1, AssetKeyScheme.MAX_PREFIX_LENGTH + 1}) {
+            try {
+                keyScheme(prefixLength);
+                fail();
+            } catch (IllegalArgumentException ex) {
+                assertEquals("Shard prefix length must be between 0 and 8.", ex.getMessage());
+            }
+        }
+    }
+
+    private static AssetKeyScheme keyScheme(final int prefixLength) {
+        AssetManagerProperties properties = new AssetManagerProperties();
+        properties.getAssetId().setShardPrefixLength(prefixLength);
+        return new AssetKeyScheme(properties);
+    }
+}
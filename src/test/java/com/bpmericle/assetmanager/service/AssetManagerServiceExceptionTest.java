@@ -0,0 +1,53 @@
+package com.bpmericle.assetmanager.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.amazonaws.SdkClientException;
+import org.junit.Test;
+
+/**
+ * Tests the {@link AssetManagerServiceException} class and the exceptions of
+ * the expected outcomes.
+ *
+ * @author Brian Mericle
+ */
+public class AssetManagerServiceExceptionTest {
+
+    @Test
+    public void constructor_capturesStackTraceOfFailure() {
+        SdkClientException cause = new SdkClientException("A problem has occurred!");
+        AssetManagerServiceException ex = new AssetManagerServiceException("A problem has occurred!", cause);
+
+        assertSame(cause, ex.getCause());
+        assertNotEquals(0, ex.getStackTrace().length);
+    }
+
+    @Test
+    public void constructor_leavesOutStackTraceOfUnavailableAssetStore() {
+        AssetStoreUnavailableException cause = new CircuitBreakerOpenException("head");
+        AssetManagerServiceException ex = new AssetManagerServiceException("A problem has occurred!", cause);
+
+        assertSame(cause, ex.getCause());
+        assertEquals(0, ex.getStackTrace().length);
+        assertEquals(0, cause.getStackTrace().length);
+    }
+
+    @Test
+    public void constructor_leavesOutStackTraceOfExpectedOutcomes() {
+        AssetManagerServiceException notFound = new AssetNotFoundException();
+        AssetManagerServiceException notUploaded = new AssetNotUploadedException();
+
+        assertEquals("Asset does not exist.", notFound.getMessage());
+        assertEquals("Status of asset is not 'uploaded'.", notUploaded.getMessage());
+        for (AssetManagerServiceException ex : new AssetManagerServiceException[]{notFound, notUploaded}) {
+            assertNull(ex.getCause());
+            assertEquals(0, ex.getStackTrace().length);
+            // Suppression is disabled, so a single instance can be shared.
+            ex.addSuppressed(new IllegalStateException());
+            assertEquals(0, ex.getSuppressed().length);
+        }
+    }
+}
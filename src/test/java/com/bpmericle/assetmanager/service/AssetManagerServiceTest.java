@@ -1,7 +1,16 @@
 package com.bpmericle.assetmanager.service;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -9,19 +18,51 @@ import static org.mockito.Mockito.when;
 import com.amazonaws.AmazonServiceException;
 import com.amazonaws.SdkClientException;
 import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.Headers;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
 import com.amazonaws.services.s3.model.GeneratePresignedUrlRequest;
 import com.amazonaws.services.s3.model.GetObjectTaggingRequest;
 import com.amazonaws.services.s3.model.GetObjectTaggingResult;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
 import com.amazonaws.services.s3.model.SetObjectTaggingRequest;
 import com.amazonaws.services.s3.model.SetObjectTaggingResult;
 import com.amazonaws.services.s3.model.Tag;
+import com.bpmericle.assetmanager.AssetManagerProperties;
+import com.bpmericle.assetmanager.model.AssetDownloadManifest;
 import com.bpmericle.assetmanager.model.AssetDownloadMetadata;
+import com.bpmericle.assetmanager.model.AssetDownloadRange;
+import com.bpmericle.assetmanager.model.AssetDownloadResult;
+import com.bpmericle.assetmanager.model.AssetMultipartUploadMetadata;
 import com.bpmericle.assetmanager.model.AssetStatus;
+import com.bpmericle.assetmanager.model.AssetStatusUpdate;
+import com.bpmericle.assetmanager.model.AssetStatusUpdateResult;
+import com.bpmericle.assetmanager.model.AssetSummary;
 import com.bpmericle.assetmanager.model.AssetUploadMetadata;
+import com.bpmericle.assetmanager.model.AssetUploadPart;
+import com.bpmericle.assetmanager.model.AssetUploadPartMetadata;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletionException;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -29,20 +70,30 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.support.ExecutorServiceAdapter;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 
 /**
- * Tests the {@link AssetManagerService} class.
+ * Tests the {@link AssetManagerService} class. The tests fail the calls to S3
+ * on purpose, so the circuit breakers of the asset store are kept closed.
  *
  * @author Brian Mericle
  */
 @RunWith(SpringRunner.class)
-@SpringBootTest
+@SpringBootTest(properties = {
+    "asset-manager.resilience.circuit-minimum-calls=1000",
+    "asset-manager.resilience.hedge-enabled=false"})
 public class AssetManagerServiceTest {
 
     private static final String ASSET_ID = UUID.randomUUID().toString().replaceAll("-", "");
     private static final int TIMEOUT = 100;
+    private static final int TIMEOUT_SAME_BUCKET = 110;
+    private static final int TIMEOUT_OTHER_BUCKET = 200;
     private static final String DEFAULT_STATUS = "uploaded";
+    private static final int BATCH_COUNT = 5;
+    private static final int BATCH_COUNT_TOO_LARGE = 1001;
     private static final String TAG_STATUS_KEY = "Status";
     private static final String TAG_STATUS_VALUE_UPLOADED = "uploaded";
     private static final String TAG_STATUS_KEY_BAD = "bad_key";
@@ -50,6 +101,12 @@ public class AssetManagerServiceTest {
     private static final String URL_VALUE = "https://s3.aws.com";
     private static final AmazonServiceException AMAZON_SERVICE_EXCEPTION = new AmazonServiceException("A problem has occurred!");
     private static final SdkClientException SDK_CLIENT_EXCEPTION = new SdkClientException("A problem has occurred!");
+    private static final AmazonS3Exception NOT_FOUND_EXCEPTION = new AmazonS3Exception("The specified key does not exist.");
+    private static final AmazonS3Exception ACCESS_DENIED_EXCEPTION = new AmazonS3Exception("Access Denied");
+    private static final AmazonS3Exception SLOW_DOWN_EXCEPTION = new AmazonS3Exception("Please reduce your request rate.");
+    private static final AmazonS3Exception THROTTLING_EXCEPTION = new AmazonS3Exception("Rate exceeded.");
+    private static final String UPLOAD_ID = "VXBsb2FkIElEIGZvciA2aWWpbmcncyBteS1tb3ZpZS5tMnRzIHVwbG9hZA--";
+    private static final String OTHER_ASSET_ID = UUID.randomUUID().toString().replaceAll("-", "");
     private static final AssetStatus ASSET_MANAGER_STATUS = new AssetStatus(DEFAULT_STATUS);
 
     private static URL uploadURL;
@@ -62,6 +119,18 @@ public class AssetManagerServiceTest {
     @Autowired
     private AssetManagerService service;
 
+    @Autowired
+    private AssetStatusCache statusCache;
+
+    @Autowired
+    private PresignedUrlCache presignedUrlCache;
+
+    @Autowired
+    private AssetMetadataCache metadataCache;
+
+    @Autowired
+    private AssetManagerProperties properties;
+
     @MockBean
     private AmazonS3 amazonS3;
     
@@ -87,11 +156,19 @@ public class AssetManagerServiceTest {
         
         badKeyAndValueTags = new ArrayList<>();
         badKeyAndValueTags.add(new Tag(TAG_STATUS_KEY_BAD, TAG_STATUS_VALUE_BAD));
+
+        NOT_FOUND_EXCEPTION.setStatusCode(404);
+        ACCESS_DENIED_EXCEPTION.setStatusCode(403);
+        SLOW_DOWN_EXCEPTION.setStatusCode(503);
+        THROTTLING_EXCEPTION.setStatusCode(400);
+        THROTTLING_EXCEPTION.setErrorCode("Throttling");
     }
     
     @Before
     public void setup() throws Exception {
-        service.setS3Client(amazonS3);
+        statusCache.invalidateAll();
+        presignedUrlCache.invalidateAll();
+        metadataCache.invalidateAll();
     }
 
     @Test
@@ -119,6 +196,155 @@ public class AssetManagerServiceTest {
         verify(amazonS3, times(1)).generatePresignedUrl(any(GeneratePresignedUrlRequest.class));
     }
 
+    @Test
+    public void requestAssetMultipartUpload_validRequest() throws Exception {
+        when(amazonS3.initiateMultipartUpload(any(InitiateMultipartUploadRequest.class))).thenReturn(initiated(UPLOAD_ID));
+        when(amazonS3.generatePresignedUrl(any(GeneratePresignedUrlRequest.class))).thenReturn(uploadURL);
+
+        AssetMultipartUploadMetadata actual = service.requestAssetMultipartUpload(20L * 1024 * 1024);
+        assertEquals(UPLOAD_ID, actual.getUploadId());
+        assertEquals(16L * 1024 * 1024, actual.getPartSize());
+        assertEquals(Arrays.asList(new AssetUploadPartMetadata(1, URL_VALUE), new AssetUploadPartMetadata(2, URL_VALUE)),
+                actual.getParts());
+        verify(amazonS3).initiateMultipartUpload(argThat(
+                (InitiateMultipartUploadRequest request) -> actual.getId().equals(request.getKey())));
+        verify(amazonS3).generatePresignedUrl(argThat((GeneratePresignedUrlRequest request)
+                -> UPLOAD_ID.equals(request.getRequestParameters().get("uploadId"))
+                && "2".equals(request.getRequestParameters().get("partNumber"))));
+    }
+
+    @Test
+    public void requestAssetMultipartUpload_validRequestForLargeAssetUsesLargerParts() throws Exception {
+        when(amazonS3.initiateMultipartUpload(any(InitiateMultipartUploadRequest.class))).thenReturn(initiated(UPLOAD_ID));
+        when(amazonS3.generatePresignedUrl(any(GeneratePresignedUrlRequest.class))).thenReturn(uploadURL);
+
+        AssetMultipartUploadMetadata actual = service.requestAssetMultipartUpload(200L * 1024 * 1024 * 1024);
+        assertEquals(21_474_837L, actual.getPartSize());
+        assertEquals(10_000, actual.getParts().size());
+    }
+
+    @Test
+    public void requestAssetMultipartUpload_invalidRequestWithSizeOutOfRange() throws Exception {
+        for (long size : new long[]{0, 5L * 1024 * 1024 * 1024 * 1024 + 1}) {
+            try {
+                service.requestAssetMultipartUpload(size);
+                fail();
+            } catch (IllegalArgumentException ex) {
+                assertEquals("Asset size must be between 1 and 5497558138880 bytes.", ex.getMessage());
+            }
+        }
+        verify(amazonS3, never()).initiateMultipartUpload(any(InitiateMultipartUploadRequest.class));
+    }
+
+    @Test(expected=AssetManagerServiceException.class)
+    public void requestAssetMultipartUpload_validRequestThrowsAmazonServiceException() throws Exception {
+        when(amazonS3.initiateMultipartUpload(any(InitiateMultipartUploadRequest.class))).thenThrow(AMAZON_SERVICE_EXCEPTION);
+        service.requestAssetMultipartUpload(1);
+    }
+
+    @Test(expected=AssetManagerServiceException.class)
+    public void requestAssetMultipartUpload_validRequestThrowsSdkClientException() throws Exception {
+        when(amazonS3.initiateMultipartUpload(any(InitiateMultipartUploadRequest.class))).thenThrow(SDK_CLIENT_EXCEPTION);
+        service.requestAssetMultipartUpload(1);
+    }
+
+    @Test
+    public void completeAssetMultipartUpload_validRequest() throws Exception {
+        service.completeAssetMultipartUpload(ASSET_ID, UPLOAD_ID,
+                Arrays.asList(new AssetUploadPart(2, "etag2"), new AssetUploadPart(1, "etag1")));
+
+        verify(amazonS3).completeMultipartUpload(argThat(request -> ASSET_ID.equals(request.getKey())
+                && UPLOAD_ID.equals(request.getUploadId())
+                && request.getPartETags().get(0).getPartNumber() == 1
+                && "etag2".equals(request.getPartETags().get(1).getETag())));
+        assertEquals(Optional.of(""), statusCache.get(ASSET_ID, id -> {
+            throw new AssertionError("The status of the asset is not cached.");
+        }));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void completeAssetMultipartUpload_invalidRequestWithNoParts() throws Exception {
+        service.completeAssetMultipartUpload(ASSET_ID, UPLOAD_ID, Collections.emptyList());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void completeAssetMultipartUpload_invalidRequestWithNoEntityTag() throws Exception {
+        service.completeAssetMultipartUpload(ASSET_ID, UPLOAD_ID, Arrays.asList(new AssetUploadPart(1, null)));
+    }
+
+    @Test(expected=AssetManagerServiceException.class)
+    public void completeAssetMultipartUpload_validRequestThrowsAmazonServiceException() throws Exception {
+        when(amazonS3.completeMultipartUpload(any(CompleteMultipartUploadRequest.class))).thenThrow(AMAZON_SERVICE_EXCEPTION);
+        service.completeAssetMultipartUpload(ASSET_ID, UPLOAD_ID, Arrays.asList(new AssetUploadPart(1, "etag1")));
+    }
+
+    @Test(expected=AssetManagerServiceException.class)
+    public void completeAssetMultipartUpload_validRequestThrowsSdkClientException() throws Exception {
+        when(amazonS3.completeMultipartUpload(any(CompleteMultipartUploadRequest.class))).thenThrow(SDK_CLIENT_EXCEPTION);
+        service.completeAssetMultipartUpload(ASSET_ID, UPLOAD_ID, Arrays.asList(new AssetUploadPart(1, "etag1")));
+    }
+
+    @Test
+    public void abortAssetMultipartUpload_validRequest() throws Exception {
+        service.abortAssetMultipartUpload(ASSET_ID, UPLOAD_ID);
+        verify(amazonS3).abortMultipartUpload(argThat(request -> ASSET_ID.equals(request.getKey())
+                && UPLOAD_ID.equals(request.getUploadId())));
+    }
+
+    @Test(expected=AssetManagerServiceException.class)
+    public void abortAssetMultipartUpload_validRequestThrowsAmazonServiceException() throws Exception {
+        doThrow(NOT_FOUND_EXCEPTION).when(amazonS3).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+        service.abortAssetMultipartUpload(ASSET_ID, UPLOAD_ID);
+    }
+
+    @Test(expected=AssetManagerServiceException.class)
+    public void abortAssetMultipartUpload_validRequestThrowsSdkClientException() throws Exception {
+        doThrow(SDK_CLIENT_EXCEPTION).when(amazonS3).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+        service.abortAssetMultipartUpload(ASSET_ID, UPLOAD_ID);
+    }
+
+    private static InitiateMultipartUploadResult initiated(final String uploadId) {
+        InitiateMultipartUploadResult result = new InitiateMultipartUploadResult();
+        result.setUploadId(uploadId);
+        return result;
+    }
+
+    @Test
+    public void requestAssetUploads_validRequest() throws Exception {
+        when(amazonS3.generatePresignedUrl(any(GeneratePresignedUrlRequest.class))).thenReturn(uploadURL);
+        List<AssetUploadMetadata> actual = service.requestAssetUploads(BATCH_COUNT);
+        verify(amazonS3, times(BATCH_COUNT)).generatePresignedUrl(any(GeneratePresignedUrlRequest.class));
+
+        Set<String> ids = new HashSet<>();
+        for (AssetUploadMetadata metadata : actual) {
+            ids.add(metadata.getId());
+            assertEquals(metadata.getUploadUrl(), uploadURL.toString());
+        }
+        assertEquals(BATCH_COUNT, ids.size());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void requestAssetUploads_invalidRequestWithNoAssets() throws Exception {
+        service.requestAssetUploads(0);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void requestAssetUploads_invalidRequestWithTooManyAssets() throws Exception {
+        service.requestAssetUploads(BATCH_COUNT_TOO_LARGE);
+    }
+
+    @Test(expected=AssetManagerServiceException.class)
+    public void requestAssetUploads_validRequestThrowsAmazonServiceException() throws Exception {
+        when(amazonS3.generatePresignedUrl(any(GeneratePresignedUrlRequest.class))).thenThrow(AMAZON_SERVICE_EXCEPTION);
+        service.requestAssetUploads(BATCH_COUNT);
+    }
+
+    @Test(expected=CompletionException.class)
+    public void requestAssetUploads_validRequestThrowsError() throws Exception {
+        when(amazonS3.generatePresignedUrl(any(GeneratePresignedUrlRequest.class))).thenThrow(new AssertionError());
+        service.requestAssetUploads(BATCH_COUNT);
+    }
+
     @Test
     public void submitAssetUpdateStatus_validRequest() throws Exception {
         when(amazonS3.setObjectTagging(any(SetObjectTaggingRequest.class))).thenReturn(setObjectTaggingResult);
@@ -142,6 +368,118 @@ public class AssetManagerServiceTest {
         verify(amazonS3, times(1)).setObjectTagging(any(SetObjectTaggingRequest.class));
     }
 
+    @Test
+    public void submitAssetUpdateStatuses_validRequest() throws Exception {
+        when(amazonS3.setObjectTagging(any(SetObjectTaggingRequest.class))).thenReturn(setObjectTaggingResult);
+        List<AssetStatusUpdateResult> actual = service.submitAssetUpdateStatuses(Arrays.asList(
+                new AssetStatusUpdate(ASSET_ID, DEFAULT_STATUS),
+                new AssetStatusUpdate(OTHER_ASSET_ID, DEFAULT_STATUS)));
+        verify(amazonS3, times(2)).setObjectTagging(any(SetObjectTaggingRequest.class));
+
+        assertEquals(Arrays.asList(AssetStatusUpdateResult.success(ASSET_ID), AssetStatusUpdateResult.success(OTHER_ASSET_ID)), actual);
+    }
+
+    @Test
+    public void submitAssetUpdateStatuses_validRequestWithOneAssetFailing() throws Exception {
+        when(amazonS3.setObjectTagging(any(SetObjectTaggingRequest.class))).thenReturn(setObjectTaggingResult);
+        when(amazonS3.setObjectTagging(argThat(request -> request != null && OTHER_ASSET_ID.equals(request.getKey()))))
+                .thenThrow(ACCESS_DENIED_EXCEPTION);
+        List<AssetStatusUpdateResult> actual = service.submitAssetUpdateStatuses(Arrays.asList(
+                new AssetStatusUpdate(ASSET_ID, DEFAULT_STATUS),
+                new AssetStatusUpdate(OTHER_ASSET_ID, DEFAULT_STATUS)));
+        verify(amazonS3, times(1)).setObjectTagging(argThat(request -> request != null && OTHER_ASSET_ID.equals(request.getKey())));
+
+        assertTrue(actual.get(0).isSuccess());
+        assertFalse(actual.get(1).isSuccess());
+        assertEquals(OTHER_ASSET_ID, actual.get(1).getId());
+    }
+
+    @Test
+    public void submitAssetUpdateStatuses_validRequestRetriesThrottledAsset() throws Exception {
+        when(amazonS3.setObjectTagging(any(SetObjectTaggingRequest.class)))
+                .thenThrow(SLOW_DOWN_EXCEPTION)
+                .thenReturn(setObjectTaggingResult);
+        List<AssetStatusUpdateResult> actual = service.submitAssetUpdateStatuses(Arrays.asList(
+                new AssetStatusUpdate(ASSET_ID, DEFAULT_STATUS)));
+        verify(amazonS3, times(2)).setObjectTagging(any(SetObjectTaggingRequest.class));
+
+        assertEquals(Arrays.asList(AssetStatusUpdateResult.success(ASSET_ID)), actual);
+    }
+
+    @Test
+    public void submitAssetUpdateStatuses_validRequestGivesUpAfterMaxAttempts() throws Exception {
+        when(amazonS3.setObjectTagging(any(SetObjectTaggingRequest.class))).thenThrow(SDK_CLIENT_EXCEPTION);
+        List<AssetStatusUpdateResult> actual = service.submitAssetUpdateStatuses(Arrays.asList(
+                new AssetStatusUpdate(ASSET_ID, DEFAULT_STATUS)));
+        verify(amazonS3, times(3)).setObjectTagging(any(SetObjectTaggingRequest.class));
+
+        assertFalse(actual.get(0).isSuccess());
+    }
+
+    @Test
+    public void submitAssetUpdateStatuses_validRequestRetriesThrottlingErrorCode() throws Exception {
+        when(amazonS3.setObjectTagging(any(SetObjectTaggingRequest.class)))
+                .thenThrow(THROTTLING_EXCEPTION)
+                .thenReturn(setObjectTaggingResult);
+        List<AssetStatusUpdateResult> actual = service.submitAssetUpdateStatuses(Arrays.asList(
+                new AssetStatusUpdate(ASSET_ID, DEFAULT_STATUS)));
+        verify(amazonS3, times(2)).setObjectTagging(any(SetObjectTaggingRequest.class));
+
+        assertEquals(Arrays.asList(AssetStatusUpdateResult.success(ASSET_ID)), actual);
+    }
+
+    @Test
+    public void submitAssetUpdateStatuses_invalidAssetIsNotRetried() throws Exception {
+        when(amazonS3.setObjectTagging(any(SetObjectTaggingRequest.class))).thenThrow(new IllegalArgumentException("The key parameter must be specified"));
+        List<AssetStatusUpdateResult> actual = service.submitAssetUpdateStatuses(Arrays.asList(
+                new AssetStatusUpdate(ASSET_ID, DEFAULT_STATUS)));
+        verify(amazonS3, times(1)).setObjectTagging(any(SetObjectTaggingRequest.class));
+
+        assertFalse(actual.get(0).isSuccess());
+    }
+
+    @Test
+    public void submitAssetUpdateStatuses_unexpectedFailureOnlyFailsItsAsset() throws Exception {
+        when(amazonS3.setObjectTagging(any(SetObjectTaggingRequest.class))).thenReturn(setObjectTaggingResult);
+        when(amazonS3.setObjectTagging(argThat(request -> request != null && OTHER_ASSET_ID.equals(request.getKey()))))
+                .thenThrow(new IllegalStateException("Connection pool shut down"));
+        List<AssetStatusUpdateResult> actual = service.submitAssetUpdateStatuses(Arrays.asList(
+                new AssetStatusUpdate(ASSET_ID, DEFAULT_STATUS),
+                new AssetStatusUpdate(OTHER_ASSET_ID, DEFAULT_STATUS)));
+        verify(amazonS3, times(1)).setObjectTagging(argThat(request -> request != null && OTHER_ASSET_ID.equals(request.getKey())));
+
+        assertTrue(actual.get(0).isSuccess());
+        assertEquals(AssetStatusUpdateResult.failure(OTHER_ASSET_ID, "java.lang.IllegalStateException: Connection pool shut down"),
+                actual.get(1));
+    }
+
+    @Test
+    public void isRetryable_onlySdkExceptions() {
+        assertTrue(AssetManagerService.isRetryable(SLOW_DOWN_EXCEPTION));
+        assertFalse(AssetManagerService.isRetryable(ACCESS_DENIED_EXCEPTION));
+        assertTrue(AssetManagerService.isRetryable(SDK_CLIENT_EXCEPTION));
+        assertFalse(AssetManagerService.isRetryable(new IllegalStateException()));
+        assertFalse(AssetManagerService.isRetryable(null));
+    }
+
+    @Test
+    public void submitAssetUpdateStatuses_interruptedWhileBackingOff() throws Exception {
+        when(amazonS3.setObjectTagging(any(SetObjectTaggingRequest.class))).thenThrow(SLOW_DOWN_EXCEPTION);
+        Object batchExecutor = ReflectionTestUtils.getField(service, "batchExecutor");
+        ReflectionTestUtils.setField(service, "batchExecutor", new ExecutorServiceAdapter(new SyncTaskExecutor()));
+        try {
+            Thread.currentThread().interrupt();
+            List<AssetStatusUpdateResult> actual = service.submitAssetUpdateStatuses(Arrays.asList(
+                    new AssetStatusUpdate(ASSET_ID, DEFAULT_STATUS)));
+            verify(amazonS3, times(1)).setObjectTagging(any(SetObjectTaggingRequest.class));
+
+            assertTrue(Thread.interrupted());
+            assertFalse(actual.get(0).isSuccess());
+        } finally {
+            ReflectionTestUtils.setField(service, "batchExecutor", batchExecutor);
+        }
+    }
+
     @Test
     public void requestAssetDownload_validRequest() throws Exception {
         when(amazonS3.getObjectTagging(any(GetObjectTaggingRequest.class))).thenReturn(getObjectTaggingResult);
@@ -155,17 +493,125 @@ public class AssetManagerServiceTest {
         assertEquals(actual.getDownloadUrl(), downloadURL.toString());
     }
 
-    @Test(expected=AssetManagerServiceException.class)
+    @Test
+    public void requestAssetDownload_validRequestWithDownloadUrlHeld() throws Exception {
+        givenUploadedAsset(10, "0cc175b9c0f1b6a831c399e269772661");
+        AssetDownload first = service.requestAssetDownload(ASSET_ID, TIMEOUT, null);
+        assertFalse(first.isNotModified());
+        assertTrue(first.getMaxAge() > 0);
+
+        AssetDownload actual = service.requestAssetDownload(ASSET_ID, TIMEOUT, first.getEntityTag());
+        assertTrue(actual.isNotModified());
+        assertEquals(first.getEntityTag(), actual.getEntityTag());
+        assertTrue(actual.getMaxAge() > 0);
+
+        actual = service.requestAssetDownload(ASSET_ID, TIMEOUT, "\"other\", W/" + first.getEntityTag());
+        assertTrue(actual.isNotModified());
+        verify(amazonS3, times(1)).generatePresignedUrl(any(GeneratePresignedUrlRequest.class));
+        verify(amazonS3, times(1)).getObjectMetadata(any(), eq(ASSET_ID));
+    }
+
+    @Test
+    public void requestAssetDownload_validRequestWithOtherDownloadUrlHeld() throws Exception {
+        givenUploadedAsset(10, "0cc175b9c0f1b6a831c399e269772661");
+        String held = service.requestAssetDownload(ASSET_ID, TIMEOUT, null).getEntityTag();
+        String forged = "\"" + Long.toHexString(Long.MAX_VALUE >> 4) + held.substring(held.indexOf('-'));
+        presignedUrlCache.invalidateAll();
+
+        for (String ifNoneMatch : Arrays.asList("*", "\"-1\"", "\"xyz-1\"", "\"1-1\"", forged)) {
+            AssetDownload actual = service.requestAssetDownload(ASSET_ID, TIMEOUT, ifNoneMatch);
+            assertFalse(ifNoneMatch, actual.isNotModified());
+            assertEquals(downloadURL.toString(), actual.getMetadata().getDownloadUrl());
+        }
+
+        // The URL held is not valid for long enough for a longer timeout.
+        AssetDownload actual = service.requestAssetDownload(ASSET_ID, TIMEOUT * 10, held);
+        assertFalse(actual.isNotModified());
+    }
+
+    @Test
+    public void requestAssetDownload_validRequestWithDownloadUrlHeldForReplacedContent() throws Exception {
+        givenUploadedAsset(10, "0cc175b9c0f1b6a831c399e269772661");
+        String held = service.requestAssetDownload(ASSET_ID, TIMEOUT, null).getEntityTag();
+
+        // The asset is uploaded again, and its status set.
+        givenUploadedAsset(10, "92eb5ffee6ae2fec3ad71c777531578f");
+        service.submitAssetUpdateStatus(ASSET_ID, ASSET_MANAGER_STATUS);
+
+        AssetDownload actual = service.requestAssetDownload(ASSET_ID, TIMEOUT, held);
+        assertFalse(actual.isNotModified());
+        assertFalse(held.equals(actual.getEntityTag()));
+    }
+
+    @Test
+    public void requestAssetDownload_validRequestWithLongerDownloadUrlHeldCachedForTimeout() throws Exception {
+        givenUploadedAsset(10, "0cc175b9c0f1b6a831c399e269772661");
+        String held = service.requestAssetDownload(ASSET_ID, TIMEOUT_OTHER_BUCKET, null).getEntityTag();
+
+        AssetDownload actual = service.requestAssetDownload(ASSET_ID, TIMEOUT / 5, held);
+        assertTrue(actual.isNotModified());
+        assertEquals(TIMEOUT / 5, actual.getMaxAge());
+    }
+
+    @Test
+    public void requestAssetDownload_validRequestWithConfiguredEntityTagKey() throws Exception {
+        givenUploadedAsset(10, "0cc175b9c0f1b6a831c399e269772661");
+        AssetManagerProperties.Download download = properties.getDownload();
+        download.setEntityTagKey("secret");
+        try {
+            service.initEntityTagKey();
+            String held = service.requestAssetDownload(ASSET_ID, TIMEOUT, null).getEntityTag();
+
+            // Another instance sharing the key accepts the entity tag.
+            service.initEntityTagKey();
+            assertTrue(service.requestAssetDownload(ASSET_ID, TIMEOUT, held).isNotModified());
+        } finally {
+            download.setEntityTagKey(null);
+            service.initEntityTagKey();
+        }
+    }
+
+    @Test
+    public void requestAssetDownload_validRequestWithDownloadUrlHeldThrowsException() throws Exception {
+        when(amazonS3.getObjectTagging(any(GetObjectTaggingRequest.class))).thenReturn(getObjectTaggingResult);
+        when(getObjectTaggingResult.getTagSet()).thenReturn(validTags);
+        for (Exception failure : Arrays.asList(AMAZON_SERVICE_EXCEPTION, SDK_CLIENT_EXCEPTION)) {
+            metadataCache.invalidateAll();
+            when(amazonS3.getObjectMetadata(any(), eq(ASSET_ID))).thenThrow(failure);
+            try {
+                service.requestAssetDownload(ASSET_ID, TIMEOUT, null);
+                fail("Expected AssetManagerServiceException");
+            } catch (AssetManagerServiceException ex) {
+                assertEquals(failure, ex.getCause());
+            }
+        }
+    }
+
+    @Test
+    public void requestAssetDownload_validRequestForDeletedAsset() throws Exception {
+        when(amazonS3.getObjectTagging(any(GetObjectTaggingRequest.class))).thenReturn(getObjectTaggingResult);
+        when(getObjectTaggingResult.getTagSet()).thenReturn(validTags);
+        when(amazonS3.getObjectMetadata(any(), eq(ASSET_ID))).thenThrow(NOT_FOUND_EXCEPTION);
+
+        try {
+            service.requestAssetDownload(ASSET_ID, TIMEOUT, null);
+            fail("Expected AssetNotFoundException");
+        } catch (AssetNotFoundException ex) {
+            verify(amazonS3, never()).generatePresignedUrl(any(GeneratePresignedUrlRequest.class));
+        }
+    }
+
+    @Test(expected=AssetNotUploadedException.class)
     public void requestAssetDownload_validRequestWithBadTagKey() throws Exception {
         requestAssetDownload_validRequestWithBadTags(badKeyTags);
     }
 
-    @Test(expected=AssetManagerServiceException.class)
+    @Test(expected=AssetNotUploadedException.class)
     public void requestAssetDownload_validRequestWithBadTagValue() throws Exception {
         requestAssetDownload_validRequestWithBadTags(badValueTags);
     }
 
-    @Test(expected=AssetManagerServiceException.class)
+    @Test(expected=AssetNotUploadedException.class)
     public void requestAssetDownload_validRequestWithBadTags() throws Exception {
         requestAssetDownload_validRequestWithBadTags(badKeyAndValueTags);
     }
@@ -197,4 +643,440 @@ public class AssetManagerServiceTest {
         verify(getObjectTaggingResult, times(1)).getTagSet();
         verify(amazonS3, times(1)).generatePresignedUrl(any(GeneratePresignedUrlRequest.class));
     }
+
+    @Test
+    public void requestAssetDownloadManifest_validRequest() throws Exception {
+        givenUploadedAsset(10, "0cc175b9c0f1b6a831c399e269772661");
+
+        AssetDownloadManifest actual = service.requestAssetDownloadManifest(ASSET_ID, TIMEOUT, 3);
+        assertEquals(new AssetDownloadManifest(URL_VALUE, 10, "\"0cc175b9c0f1b6a831c399e269772661\"", Arrays.asList(
+                new AssetDownloadRange(0, 3), new AssetDownloadRange(4, 7), new AssetDownloadRange(8, 9))), actual);
+        verify(amazonS3).getObjectMetadata(any(), eq(ASSET_ID));
+    }
+
+    @Test
+    public void requestAssetDownloadManifest_validRequestForSmallAsset() throws Exception {
+        givenUploadedAsset(2, "\"0cc175b9c0f1b6a831c399e269772661\"");
+
+        AssetDownloadManifest actual = service.requestAssetDownloadManifest(ASSET_ID, TIMEOUT, 4);
+        assertEquals("\"0cc175b9c0f1b6a831c399e269772661\"", actual.getEtag());
+        assertEquals(Arrays.asList(new AssetDownloadRange(0, 0), new AssetDownloadRange(1, 1)), actual.getRanges());
+    }
+
+    @Test
+    public void requestAssetDownloadManifest_validRequestForEmptyAsset() throws Exception {
+        givenUploadedAsset(0, "d41d8cd98f00b204e9800998ecf8427e");
+
+        AssetDownloadManifest actual = service.requestAssetDownloadManifest(ASSET_ID, TIMEOUT, 4);
+        assertEquals(0, actual.getSize());
+        assertEquals(Collections.emptyList(), actual.getRanges());
+    }
+
+    @Test
+    public void requestAssetDownloadManifest_validRequestUsesCachedMetadata() throws Exception {
+        givenUploadedAsset(10, "0cc175b9c0f1b6a831c399e269772661");
+
+        service.requestAssetDownloadManifest(ASSET_ID, TIMEOUT, 2);
+        service.requestAssetDownloadManifest(ASSET_ID, TIMEOUT, 5);
+        verify(amazonS3, times(1)).getObjectMetadata(any(), eq(ASSET_ID));
+
+        // The asset may have been uploaded again before its status was set.
+        service.submitAssetUpdateStatus(ASSET_ID, ASSET_MANAGER_STATUS);
+        service.requestAssetDownloadManifest(ASSET_ID, TIMEOUT, 2);
+        verify(amazonS3, times(2)).getObjectMetadata(any(), eq(ASSET_ID));
+    }
+
+    @Test
+    public void requestAssetDownloadManifest_invalidRequestWithPartsOutOfRange() throws Exception {
+        for (int parts : new int[]{0, 101}) {
+            try {
+                service.requestAssetDownloadManifest(ASSET_ID, TIMEOUT, parts);
+                fail();
+            } catch (IllegalArgumentException ex) {
+                assertEquals("Number of parts must be between 1 and 100.", ex.getMessage());
+            }
+        }
+        verify(amazonS3, never()).getObjectTagging(any(GetObjectTaggingRequest.class));
+    }
+
+    @Test
+    public void requestAssetDownloadManifest_validRequestForDeletedAsset() throws Exception {
+        givenUploadedAsset(10, "0cc175b9c0f1b6a831c399e269772661");
+        when(amazonS3.getObjectMetadata(any(), eq(ASSET_ID))).thenThrow(NOT_FOUND_EXCEPTION);
+
+        try {
+            service.requestAssetDownloadManifest(ASSET_ID, TIMEOUT, 2);
+            fail();
+        } catch (AssetNotFoundException ex) {
+            assertEquals("Asset does not exist.", ex.getMessage());
+            assertEquals(0, ex.getStackTrace().length);
+        }
+    }
+
+    @Test(expected=AssetManagerServiceException.class)
+    public void requestAssetDownloadManifest_validRequestThrowsAmazonServiceException() throws Exception {
+        givenUploadedAsset(10, "0cc175b9c0f1b6a831c399e269772661");
+        when(amazonS3.getObjectMetadata(any(), eq(ASSET_ID))).thenThrow(ACCESS_DENIED_EXCEPTION);
+        service.requestAssetDownloadManifest(ASSET_ID, TIMEOUT, 2);
+    }
+
+    @Test(expected=AssetManagerServiceException.class)
+    public void requestAssetDownloadManifest_validRequestThrowsSdkClientException() throws Exception {
+        givenUploadedAsset(10, "0cc175b9c0f1b6a831c399e269772661");
+        when(amazonS3.getObjectMetadata(any(), eq(ASSET_ID))).thenThrow(SDK_CLIENT_EXCEPTION);
+        service.requestAssetDownloadManifest(ASSET_ID, TIMEOUT, 2);
+    }
+
+    private void givenUploadedAsset(final long size, final String etag) {
+        when(amazonS3.getObjectTagging(any(GetObjectTaggingRequest.class))).thenReturn(getObjectTaggingResult);
+        when(getObjectTaggingResult.getTagSet()).thenReturn(validTags);
+        when(amazonS3.generatePresignedUrl(any(GeneratePresignedUrlRequest.class))).thenReturn(downloadURL);
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(size);
+        metadata.setHeader(Headers.ETAG, etag);
+        when(amazonS3.getObjectMetadata(any(), eq(ASSET_ID))).thenReturn(metadata);
+    }
+
+    @Test
+    public void requestAssetDownload_validRequestUsesCachedStatus() throws Exception {
+        when(amazonS3.getObjectTagging(any(GetObjectTaggingRequest.class))).thenReturn(getObjectTaggingResult);
+        when(getObjectTaggingResult.getTagSet()).thenReturn(validTags);
+        when(amazonS3.generatePresignedUrl(any(GeneratePresignedUrlRequest.class))).thenReturn(downloadURL);
+        service.requestAssetDownload(ASSET_ID, TIMEOUT);
+        AssetDownloadMetadata actual = service.requestAssetDownload(ASSET_ID, TIMEOUT);
+        verify(amazonS3, times(1)).getObjectTagging(any(GetObjectTaggingRequest.class));
+
+        assertEquals(actual.getDownloadUrl(), downloadURL.toString());
+    }
+
+    @Test
+    public void requestAssetDownload_validRequestAfterStatusUpdateUsesWrittenStatus() throws Exception {
+        when(amazonS3.setObjectTagging(any(SetObjectTaggingRequest.class))).thenReturn(setObjectTaggingResult);
+        when(amazonS3.generatePresignedUrl(any(GeneratePresignedUrlRequest.class))).thenReturn(downloadURL);
+        service.submitAssetUpdateStatus(ASSET_ID, ASSET_MANAGER_STATUS);
+        AssetDownloadMetadata actual = service.requestAssetDownload(ASSET_ID, TIMEOUT);
+        verify(amazonS3, never()).getObjectTagging(any(GetObjectTaggingRequest.class));
+
+        assertEquals(actual.getDownloadUrl(), downloadURL.toString());
+    }
+
+    @Test
+    public void submitAssetUpdateStatus_validRequestRecordsStatusInIndex() throws Exception {
+        AssetStatusIndex statusIndex = mock(AssetStatusIndex.class);
+        when(statusIndex.get(ASSET_ID)).thenReturn(Optional.of(TAG_STATUS_VALUE_UPLOADED));
+        ReflectionTestUtils.setField(service, "statusIndex", statusIndex);
+        try {
+            service.submitAssetUpdateStatus(ASSET_ID, ASSET_MANAGER_STATUS);
+            verify(statusIndex, times(1)).put(ASSET_ID, DEFAULT_STATUS);
+            verify(amazonS3, never()).getObjectTagging(any(GetObjectTaggingRequest.class));
+            verify(amazonS3, never()).setObjectTagging(any(SetObjectTaggingRequest.class));
+        } finally {
+            ReflectionTestUtils.setField(service, "statusIndex", null);
+        }
+    }
+
+    @Test
+    public void submitAssetUpdateStatus_validRequestForAssetNotIndexedRecordsStatusInIndex() throws Exception {
+        AssetStatusIndex statusIndex = mock(AssetStatusIndex.class);
+        when(statusIndex.get(ASSET_ID)).thenReturn(Optional.empty());
+        when(amazonS3.getObjectTagging(any(GetObjectTaggingRequest.class))).thenReturn(getObjectTaggingResult);
+        when(getObjectTaggingResult.getTagSet()).thenReturn(Collections.emptyList());
+        // looked up before the asset was uploaded
+        statusCache.get(ASSET_ID, id -> Optional.empty());
+        ReflectionTestUtils.setField(service, "statusIndex", statusIndex);
+        try {
+            service.submitAssetUpdateStatus(ASSET_ID, ASSET_MANAGER_STATUS);
+            verify(statusIndex, times(1)).put(ASSET_ID, DEFAULT_STATUS);
+            verify(amazonS3, never()).setObjectTagging(any(SetObjectTaggingRequest.class));
+        } finally {
+            ReflectionTestUtils.setField(service, "statusIndex", null);
+        }
+    }
+
+    @Test
+    public void submitAssetUpdateStatus_assetNotFoundNotIndexed() throws Exception {
+        AssetStatusIndex statusIndex = mock(AssetStatusIndex.class);
+        when(statusIndex.get(ASSET_ID)).thenReturn(Optional.empty());
+        when(amazonS3.getObjectTagging(any(GetObjectTaggingRequest.class))).thenThrow(NOT_FOUND_EXCEPTION);
+        ReflectionTestUtils.setField(service, "statusIndex", statusIndex);
+        try {
+            service.submitAssetUpdateStatus(ASSET_ID, ASSET_MANAGER_STATUS);
+            fail("An AssetNotFoundException should have been thrown.");
+        } catch (AssetNotFoundException ex) {
+            verify(statusIndex, never()).put(anyString(), anyString());
+        } finally {
+            ReflectionTestUtils.setField(service, "statusIndex", null);
+        }
+    }
+
+    @Test
+    public void requestAssetDownload_validRequestUsesIndexedStatus() throws Exception {
+        AssetStatusIndex statusIndex = mock(AssetStatusIndex.class);
+        when(statusIndex.get(ASSET_ID)).thenReturn(Optional.of(TAG_STATUS_VALUE_UPLOADED));
+        when(amazonS3.generatePresignedUrl(any(GeneratePresignedUrlRequest.class))).thenReturn(downloadURL);
+        ReflectionTestUtils.setField(service, "statusIndex", statusIndex);
+        try {
+            AssetDownloadMetadata actual = service.requestAssetDownload(ASSET_ID, TIMEOUT);
+            verify(amazonS3, never()).getObjectTagging(any(GetObjectTaggingRequest.class));
+
+            assertEquals(actual.getDownloadUrl(), downloadURL.toString());
+        } finally {
+            ReflectionTestUtils.setField(service, "statusIndex", null);
+        }
+    }
+
+    @Test
+    public void requestAssetDownload_validRequestForAssetNotIndexedUsesTags() throws Exception {
+        AssetStatusIndex statusIndex = mock(AssetStatusIndex.class);
+        when(statusIndex.get(ASSET_ID)).thenReturn(Optional.empty());
+        when(amazonS3.getObjectTagging(any(GetObjectTaggingRequest.class))).thenReturn(getObjectTaggingResult);
+        when(getObjectTaggingResult.getTagSet()).thenReturn(validTags);
+        when(amazonS3.generatePresignedUrl(any(GeneratePresignedUrlRequest.class))).thenReturn(downloadURL);
+        ReflectionTestUtils.setField(service, "statusIndex", statusIndex);
+        try {
+            AssetDownloadMetadata actual = service.requestAssetDownload(ASSET_ID, TIMEOUT);
+            verify(amazonS3, times(1)).getObjectTagging(any(GetObjectTaggingRequest.class));
+
+            assertEquals(actual.getDownloadUrl(), downloadURL.toString());
+        } finally {
+            ReflectionTestUtils.setField(service, "statusIndex", null);
+        }
+    }
+
+    @Test(expected=AssetNotUploadedException.class)
+    public void requestAssetDownload_validRequestAfterStatusChangesUsesWrittenStatus() throws Exception {
+        when(amazonS3.getObjectTagging(any(GetObjectTaggingRequest.class))).thenThrow(NOT_FOUND_EXCEPTION);
+        when(amazonS3.setObjectTagging(any(SetObjectTaggingRequest.class))).thenReturn(setObjectTaggingResult);
+        try {
+            service.requestAssetDownload(ASSET_ID, TIMEOUT);
+        } catch (AssetNotFoundException ex) {
+            // expected, the asset does not exist yet
+        }
+        service.submitAssetUpdateStatus(ASSET_ID, ASSET_MANAGER_STATUS);
+        service.submitAssetUpdateStatus(ASSET_ID, new AssetStatus(TAG_STATUS_VALUE_BAD));
+        service.requestAssetDownload(ASSET_ID, TIMEOUT);
+    }
+
+    @Test(expected=AssetManagerServiceException.class)
+    public void requestAssetDownload_validRequestWhenTagsAreDenied() throws Exception {
+        when(amazonS3.getObjectTagging(any(GetObjectTaggingRequest.class))).thenThrow(ACCESS_DENIED_EXCEPTION);
+        service.requestAssetDownload(ASSET_ID, TIMEOUT);
+    }
+
+    @Test
+    public void requestAssetDownload_validRequestForMissingAssetUsesCachedStatus() throws Exception {
+        when(amazonS3.getObjectTagging(any(GetObjectTaggingRequest.class))).thenThrow(NOT_FOUND_EXCEPTION);
+        for (int i = 0; i < 2; i++) {
+            try {
+                service.requestAssetDownload(ASSET_ID, TIMEOUT);
+            } catch (AssetManagerServiceException ex) {
+                // expected, the asset does not exist
+            }
+        }
+        verify(amazonS3, times(1)).getObjectTagging(any(GetObjectTaggingRequest.class));
+        verify(amazonS3, never()).generatePresignedUrl(any(GeneratePresignedUrlRequest.class));
+    }
+
+    @Test
+    public void requestAssetDownload_validRequestInSameTimeoutBucketReusesUrl() throws Exception {
+        when(amazonS3.getObjectTagging(any(GetObjectTaggingRequest.class))).thenReturn(getObjectTaggingResult);
+        when(getObjectTaggingResult.getTagSet()).thenReturn(validTags);
+        when(amazonS3.generatePresignedUrl(any(GeneratePresignedUrlRequest.class))).thenReturn(downloadURL);
+        AssetDownloadMetadata expected = service.requestAssetDownload(ASSET_ID, TIMEOUT);
+        AssetDownloadMetadata actual = service.requestAssetDownload(ASSET_ID, TIMEOUT_SAME_BUCKET);
+        verify(amazonS3, times(1)).generatePresignedUrl(any(GeneratePresignedUrlRequest.class));
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void requestAssetDownload_validRequestInOtherTimeoutBucketSignsUrl() throws Exception {
+        when(amazonS3.getObjectTagging(any(GetObjectTaggingRequest.class))).thenReturn(getObjectTaggingResult);
+        when(getObjectTaggingResult.getTagSet()).thenReturn(validTags);
+        when(amazonS3.generatePresignedUrl(any(GeneratePresignedUrlRequest.class))).thenReturn(downloadURL);
+        service.requestAssetDownload(ASSET_ID, TIMEOUT);
+        service.requestAssetDownload(ASSET_ID, TIMEOUT_OTHER_BUCKET);
+        verify(amazonS3, times(2)).generatePresignedUrl(any(GeneratePresignedUrlRequest.class));
+    }
+
+    @Test
+    public void requestAssetDownloads_validRequest() throws Exception {
+        when(amazonS3.getObjectTagging(any(GetObjectTaggingRequest.class))).thenReturn(getObjectTaggingResult);
+        when(amazonS3.getObjectTagging(argThat(request -> request != null && OTHER_ASSET_ID.equals(request.getKey()))))
+                .thenThrow(NOT_FOUND_EXCEPTION);
+        when(getObjectTaggingResult.getTagSet()).thenReturn(validTags);
+        when(amazonS3.generatePresignedUrl(any(GeneratePresignedUrlRequest.class))).thenReturn(downloadURL);
+
+        Map<String, AssetDownloadResult> actual = new HashMap<>();
+        Iterator<Map.Entry<String, AssetDownloadResult>> results
+                = service.requestAssetDownloads(Arrays.asList(ASSET_ID, OTHER_ASSET_ID, ASSET_ID), TIMEOUT);
+        while (results.hasNext()) {
+            Map.Entry<String, AssetDownloadResult> result = results.next();
+            actual.put(result.getKey(), result.getValue());
+        }
+        verify(amazonS3, times(1)).generatePresignedUrl(any(GeneratePresignedUrlRequest.class));
+
+        assertEquals(2, actual.size());
+        assertEquals(downloadURL.toString(), actual.get(ASSET_ID).getDownloadUrl());
+        assertEquals(null, actual.get(OTHER_ASSET_ID).getDownloadUrl());
+        assertTrue(actual.get(OTHER_ASSET_ID).getError() != null);
+    }
+
+    @Test(expected=NoSuchElementException.class)
+    public void requestAssetDownloads_validRequestIteratedPastLastAsset() throws Exception {
+        when(amazonS3.getObjectTagging(any(GetObjectTaggingRequest.class))).thenThrow(NOT_FOUND_EXCEPTION);
+        Iterator<Map.Entry<String, AssetDownloadResult>> results
+                = service.requestAssetDownloads(Arrays.asList(ASSET_ID), TIMEOUT);
+        results.next();
+        results.next();
+    }
+
+    @Test
+    public void requestAssetDownloads_validRequestThrowsRuntimeException() throws Exception {
+        when(amazonS3.getObjectTagging(any(GetObjectTaggingRequest.class))).thenThrow(new IllegalStateException("A problem has occurred!"));
+        Map.Entry<String, AssetDownloadResult> actual = service.requestAssetDownloads(Arrays.asList(ASSET_ID), TIMEOUT).next();
+
+        assertEquals(ASSET_ID, actual.getKey());
+        assertEquals(AssetDownloadResult.failure("java.lang.IllegalStateException: A problem has occurred!"), actual.getValue());
+    }
+
+    @Test
+    public void requestAssetDownloads_validRequestThrowsError() throws Exception {
+        when(amazonS3.getObjectTagging(any(GetObjectTaggingRequest.class))).thenThrow(new AssertionError("A problem has occurred!"));
+        Map.Entry<String, AssetDownloadResult> actual = service.requestAssetDownloads(Arrays.asList(ASSET_ID), TIMEOUT).next();
+
+        assertEquals(ASSET_ID, actual.getKey());
+        assertEquals(AssetDownloadResult.failure("java.lang.AssertionError: A problem has occurred!"), actual.getValue());
+    }
+
+    @Test
+    public void requestAssetDownloads_interruptedWhileWaiting() throws Exception {
+        when(amazonS3.getObjectTagging(any(GetObjectTaggingRequest.class))).thenThrow(NOT_FOUND_EXCEPTION);
+        Iterator<Map.Entry<String, AssetDownloadResult>> results
+                = service.requestAssetDownloads(Arrays.asList(ASSET_ID), TIMEOUT);
+        Thread.currentThread().interrupt();
+        try {
+            results.next();
+            fail("The wait for the batch should have been interrupted.");
+        } catch (AssetManagerServiceException ex) {
+            assertTrue(Thread.interrupted());
+        }
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void requestAssetDownloads_invalidRequestWithNoAssets() throws Exception {
+        service.requestAssetDownloads(new ArrayList<>(), TIMEOUT);
+    }
+
+    @Test
+    public void listAssets_validRequestWithStatus() throws Exception {
+        when(amazonS3.listObjectsV2(any(ListObjectsV2Request.class))).thenReturn(listing(true, ASSET_ID, OTHER_ASSET_ID));
+        when(amazonS3.getObjectTagging(argThat(request -> request != null && ASSET_ID.equals(request.getKey()))))
+                .thenReturn(new GetObjectTaggingResult(validTags));
+        when(amazonS3.getObjectTagging(argThat(request -> request != null && OTHER_ASSET_ID.equals(request.getKey()))))
+                .thenReturn(new GetObjectTaggingResult(badValueTags));
+        AssetListing actual = service.listAssets(TAG_STATUS_VALUE_UPLOADED, null, 2);
+
+        assertEquals(Arrays.asList(new AssetSummary(ASSET_ID, TAG_STATUS_VALUE_UPLOADED)), toList(actual.getAssets()));
+        assertEquals(OTHER_ASSET_ID, new String(Base64.getUrlDecoder().decode(actual.getNextCursor()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void listAssets_validRequestWithStatusUsesIndexedStatus() throws Exception {
+        AssetStatusIndex statusIndex = mock(AssetStatusIndex.class);
+        when(statusIndex.get(ASSET_ID)).thenReturn(Optional.of(TAG_STATUS_VALUE_UPLOADED));
+        when(statusIndex.get(OTHER_ASSET_ID)).thenReturn(Optional.of(TAG_STATUS_VALUE_BAD));
+        when(amazonS3.listObjectsV2(any(ListObjectsV2Request.class))).thenReturn(listing(false, ASSET_ID, OTHER_ASSET_ID));
+        ReflectionTestUtils.setField(service, "statusIndex", statusIndex);
+        try {
+            AssetListing actual = service.listAssets(TAG_STATUS_VALUE_UPLOADED, null, 2);
+            verify(amazonS3, never()).getObjectTagging(any(GetObjectTaggingRequest.class));
+
+            assertEquals(Arrays.asList(new AssetSummary(ASSET_ID, TAG_STATUS_VALUE_UPLOADED)), toList(actual.getAssets()));
+        } finally {
+            ReflectionTestUtils.setField(service, "statusIndex", null);
+        }
+    }
+
+    @Test
+    public void listAssets_validRequestForLastPage() throws Exception {
+        String cursor = Base64.getUrlEncoder().encodeToString(ASSET_ID.getBytes(StandardCharsets.UTF_8));
+        when(amazonS3.listObjectsV2(argThat((ListObjectsV2Request request) -> request != null && ASSET_ID.equals(request.getStartAfter()))))
+                .thenReturn(listing(false, OTHER_ASSET_ID, "deleted", "untagged"));
+        when(amazonS3.getObjectTagging(argThat(request -> request != null && OTHER_ASSET_ID.equals(request.getKey()))))
+                .thenReturn(new GetObjectTaggingResult(badValueTags));
+        when(amazonS3.getObjectTagging(argThat(request -> request != null && "deleted".equals(request.getKey()))))
+                .thenThrow(NOT_FOUND_EXCEPTION);
+        when(amazonS3.getObjectTagging(argThat(request -> request != null && "untagged".equals(request.getKey()))))
+                .thenReturn(new GetObjectTaggingResult(new ArrayList<>()));
+        AssetListing actual = service.listAssets(null, cursor, 10);
+
+        assertEquals(Arrays.asList(new AssetSummary(OTHER_ASSET_ID, TAG_STATUS_VALUE_BAD), new AssetSummary("untagged", "")),
+                toList(actual.getAssets()));
+        assertEquals(null, actual.getNextCursor());
+    }
+
+    @Test(expected=NoSuchElementException.class)
+    public void listAssets_validRequestIteratedPastLastAsset() throws Exception {
+        when(amazonS3.listObjectsV2(any(ListObjectsV2Request.class))).thenReturn(listing(false));
+        service.listAssets(null, null, 10).getAssets().next();
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void listAssets_invalidRequestWithNoAssets() throws Exception {
+        service.listAssets(null, null, 0);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void listAssets_invalidRequestWithTooManyAssets() throws Exception {
+        service.listAssets(null, null, BATCH_COUNT_TOO_LARGE);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void listAssets_invalidRequestWithBadCursor() throws Exception {
+        service.listAssets(null, "not a cursor", 10);
+    }
+
+    @Test(expected=AssetManagerServiceException.class)
+    public void listAssets_validRequestThrowsAmazonServiceException() throws Exception {
+        when(amazonS3.listObjectsV2(any(ListObjectsV2Request.class))).thenThrow(AMAZON_SERVICE_EXCEPTION);
+        service.listAssets(null, null, 10);
+    }
+
+    @Test(expected=AssetManagerServiceException.class)
+    public void listAssets_validRequestThrowsSdkClientException() throws Exception {
+        when(amazonS3.listObjectsV2(any(ListObjectsV2Request.class))).thenThrow(SDK_CLIENT_EXCEPTION);
+        service.listAssets(null, null, 10);
+    }
+
+    @Test(expected=AssetManagerServiceException.class)
+    public void listAssets_statusLookupThrowsAmazonServiceException() throws Exception {
+        when(amazonS3.listObjectsV2(any(ListObjectsV2Request.class))).thenReturn(listing(false, ASSET_ID));
+        when(amazonS3.getObjectTagging(any(GetObjectTaggingRequest.class))).thenThrow(ACCESS_DENIED_EXCEPTION);
+        service.listAssets(null, null, 10);
+    }
+
+    @Test(expected=AssetManagerServiceException.class)
+    public void listAssets_statusLookupThrowsSdkClientException() throws Exception {
+        when(amazonS3.listObjectsV2(any(ListObjectsV2Request.class))).thenReturn(listing(false, ASSET_ID));
+        when(amazonS3.getObjectTagging(any(GetObjectTaggingRequest.class))).thenThrow(SDK_CLIENT_EXCEPTION);
+        service.listAssets(null, null, 10);
+    }
+
+    private static ListObjectsV2Result listing(final boolean truncated, final String... keys) {
+        ListObjectsV2Result result = new ListObjectsV2Result();
+        for (String key : keys) {
+            S3ObjectSummary summary = new S3ObjectSummary();
+            summary.setKey(key);
+            result.getObjectSummaries().add(summary);
+        }
+        result.setTruncated(truncated);
+        return result;
+    }
+
+    private static <T> List<T> toList(final Iterator<T> iterator) {
+        List<T> list = new ArrayList<>();
+        iterator.forEachRemaining(list::add);
+        return list;
+    }
 }
@@ -0,0 +1,70 @@
+package com.bpmericle.assetmanager.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import com.bpmericle.assetmanager.AssetManagerProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Optional;
+import org.junit.Test;
+
+/**
+ * Tests the {@link AssetStatusCache} class.
+ *
+ * @author Brian Mericle
+ */
+public class AssetStatusCacheTest {
+
+    private static final String ASSET_ID = "0a1b2c3d4e5f60718293a4b5c6d7e8f9";
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AssetStatusCache cache = new AssetStatusCache(new AssetManagerProperties(), meterRegistry);
+
+    @Test
+    public void get_loadsStatusOnce() {
+        assertEquals(Optional.of("uploaded"), cache.get(ASSET_ID, id -> Optional.of("uploaded")));
+        assertEquals(Optional.of("uploaded"), cache.get(ASSET_ID, id -> {
+            throw new AssertionError("The status of the asset is not cached.");
+        }));
+    }
+
+    @Test
+    public void get_keepsStatusRecordedDuringLookup() {
+        Optional<String> status = cache.get(ASSET_ID, id -> {
+            cache.put(id, "uploaded");
+            return Optional.of("");
+        });
+
+        assertEquals(Optional.of("uploaded"), status);
+        assertEquals(Optional.of("uploaded"), cache.get(ASSET_ID, id -> Optional.of("")));
+    }
+
+    @Test
+    public void get_fallsBackToLastKnownUploadedWhileCircuitBreakerOpen() {
+        AssetManagerProperties properties = new AssetManagerProperties();
+        properties.getStatusCache().setTtl(Duration.ZERO);
+        properties.getStatusCache().setNegativeTtl(Duration.ZERO);
+        AssetStatusCache cache = new AssetStatusCache(properties, meterRegistry);
+        cache.get(ASSET_ID, id -> Optional.of("uploaded"));
+        cache.put("other", "uploaded");
+        cache.put("other", "");
+
+        assertEquals(Optional.of("uploaded"), cache.get(ASSET_ID, id -> {
+            throw new CircuitBreakerOpenException("get-tagging");
+        }));
+        assertEquals(1, meterRegistry.get("asset.status.fallbacks").counter().count(), 0);
+
+        CircuitBreakerOpenException open = new CircuitBreakerOpenException("get-tagging");
+        try {
+            cache.get("other", id -> {
+                throw open;
+            });
+            fail();
+        } catch (CircuitBreakerOpenException ex) {
+            assertSame(open, ex);
+        }
+    }
+}
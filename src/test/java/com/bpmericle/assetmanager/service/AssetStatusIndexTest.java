@@ -0,0 +1,191 @@
+package com.bpmericle.assetmanager.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.bpmericle.assetmanager.AssetManagerProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * Tests the {@link AssetStatusIndex} class.
+ *
+ * @author Brian Mericle
+ */
+public class AssetStatusIndexTest {
+
+    private static final String ASSET_ID = "0a1b2c3d4e5f60718293a4b5c6d7e8f9";
+    private static final String OTHER_ASSET_ID = "f9e8d7c6b5a4938271605f4e3d2c1b0a";
+    private static final String STATUS_UPLOADED = "uploaded";
+    private static final String STATUS_PENDING = "pending";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private AssetManagerProperties properties;
+    private AssetStore assetStore;
+    private ScheduledExecutorService executor;
+    private MeterRegistry meterRegistry;
+    private AssetStatusIndex index;
+
+    @Before
+    public void setUp() throws Exception {
+        properties = new AssetManagerProperties();
+        properties.getStatusIndex().setDirectory(folder.getRoot().getPath());
+        properties.getStatusIndex().setReconcileInterval(Duration.ofMinutes(5));
+        assetStore = mock(AssetStore.class);
+        executor = mock(ScheduledExecutorService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        index = new AssetStatusIndex(properties, assetStore, executor, meterRegistry);
+    }
+
+    @Test
+    public void constructor_schedulesReconciliation() {
+        verify(executor).scheduleWithFixedDelay(any(Runnable.class), eq(300_000L), eq(300_000L), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void put_mirrorsStatusAsynchronously() {
+        index.put(ASSET_ID, STATUS_UPLOADED);
+        assertEquals(Optional.of(STATUS_UPLOADED), index.get(ASSET_ID));
+        assertEquals(1.0, meterRegistry.get("asset.status.index.size").gauge().value(), 0);
+
+        ArgumentCaptor<Runnable> mirror = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor).execute(mirror.capture());
+        verify(assetStore, never()).setStatus(anyString(), anyString());
+
+        mirror.getValue().run();
+        verify(assetStore).setStatus(ASSET_ID, STATUS_UPLOADED);
+    }
+
+    @Test
+    public void put_survivesRestart() {
+        index.put(ASSET_ID, STATUS_UPLOADED);
+        index.close();
+
+        AssetStatusIndex reopened = new AssetStatusIndex(properties, assetStore, executor, new SimpleMeterRegistry());
+        assertEquals(Optional.of(STATUS_UPLOADED), reopened.get(ASSET_ID));
+        assertEquals(Optional.empty(), reopened.get(OTHER_ASSET_ID));
+    }
+
+    @Test
+    public void mirror_assetNotIndexed() {
+        index.mirror(ASSET_ID);
+        verify(assetStore, never()).setStatus(anyString(), anyString());
+    }
+
+    @Test
+    public void mirror_assetNotInStore() {
+        AmazonS3Exception notFound = new AmazonS3Exception("The specified key does not exist.");
+        notFound.setStatusCode(404);
+        doThrow(notFound).when(assetStore).setStatus(ASSET_ID, STATUS_UPLOADED);
+
+        index.put(ASSET_ID, STATUS_UPLOADED);
+        index.mirror(ASSET_ID);
+        assertEquals(Optional.empty(), index.get(ASSET_ID));
+        assertEquals(0.0, meterRegistry.get("asset.status.index.mirror.failures").counter().count(), 0);
+    }
+
+    @Test
+    public void mirror_storeFailure() {
+        AmazonS3Exception slowDown = new AmazonS3Exception("Please reduce your request rate.");
+        slowDown.setStatusCode(503);
+        doThrow(slowDown).when(assetStore).setStatus(ASSET_ID, STATUS_UPLOADED);
+        doThrow(new SdkClientException("A problem has occurred!")).when(assetStore).setStatus(OTHER_ASSET_ID, STATUS_UPLOADED);
+
+        index.put(ASSET_ID, STATUS_UPLOADED);
+        index.put(OTHER_ASSET_ID, STATUS_UPLOADED);
+        index.mirror(ASSET_ID);
+        index.mirror(OTHER_ASSET_ID);
+        assertEquals(Optional.of(STATUS_UPLOADED), index.get(ASSET_ID));
+        assertEquals(2.0, meterRegistry.get("asset.status.index.mirror.failures").counter().count(), 0);
+    }
+
+    @Test
+    public void reconcile_repairsDrift() {
+        String missingId = "missing";
+        String failingId = "failing";
+        index.put(ASSET_ID, STATUS_UPLOADED);
+        index.put(OTHER_ASSET_ID, STATUS_UPLOADED);
+        index.put(missingId, STATUS_UPLOADED);
+        index.put(failingId, STATUS_UPLOADED);
+        when(assetStore.getStatus(ASSET_ID)).thenReturn(Optional.of(STATUS_UPLOADED));
+        when(assetStore.getStatus(OTHER_ASSET_ID)).thenReturn(Optional.of(STATUS_PENDING));
+        when(assetStore.getStatus(missingId)).thenReturn(Optional.empty());
+        when(assetStore.getStatus(failingId)).thenThrow(new SdkClientException("A problem has occurred!"));
+
+        assertEquals(2, index.reconcile());
+        verify(assetStore).setStatus(OTHER_ASSET_ID, STATUS_UPLOADED);
+        verify(assetStore, never()).setStatus(ASSET_ID, STATUS_UPLOADED);
+        assertEquals(Optional.empty(), index.get(missingId));
+        assertEquals(Optional.of(STATUS_UPLOADED), index.get(failingId));
+        assertEquals(2.0, meterRegistry.get("asset.status.index.repairs").counter().count(), 0);
+    }
+
+    @Test
+    public void reconcile_keepsStatusSetConcurrently() {
+        String revertedId = "reverted";
+        String removedId = "removed";
+        String updatedId = "updated";
+        String archived = "archived";
+        AmazonS3Exception notFound = new AmazonS3Exception("The specified key does not exist.");
+        notFound.setStatusCode(404);
+        index.put(revertedId, STATUS_UPLOADED);
+        index.put(removedId, STATUS_UPLOADED);
+        index.put(updatedId, STATUS_UPLOADED);
+        index.put(ASSET_ID, STATUS_UPLOADED);
+        when(assetStore.getStatus(anyString())).thenReturn(Optional.of(STATUS_PENDING));
+        when(assetStore.getStatus(revertedId)).thenAnswer(invocation -> {
+            index.put(revertedId, STATUS_PENDING);
+            return Optional.of(STATUS_PENDING);
+        });
+        doThrow(notFound).when(assetStore).setStatus(removedId, STATUS_UPLOADED);
+        when(assetStore.getStatus(removedId)).thenAnswer(invocation -> {
+            index.mirror(removedId);
+            return Optional.of(STATUS_PENDING);
+        });
+        when(assetStore.getStatus(updatedId)).thenAnswer(invocation -> {
+            index.put(updatedId, archived);
+            return Optional.of(STATUS_PENDING);
+        });
+        doAnswer(invocation -> {
+            index.put(ASSET_ID, archived);
+            return null;
+        }).when(assetStore).setStatus(ASSET_ID, STATUS_UPLOADED);
+
+        assertEquals(2, index.reconcile());
+        verify(assetStore, never()).setStatus(revertedId, STATUS_PENDING);
+        verify(assetStore, never()).setStatus(updatedId, STATUS_UPLOADED);
+        verify(assetStore).setStatus(updatedId, archived);
+        verify(assetStore).setStatus(ASSET_ID, archived);
+    }
+
+    @Test
+    public void reconcile_scheduledWithoutWork() {
+        ArgumentCaptor<Runnable> reconcile = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor).scheduleWithFixedDelay(reconcile.capture(), anyLong(), anyLong(), any(TimeUnit.class));
+
+        reconcile.getValue().run();
+        verify(assetStore, never()).getStatus(anyString());
+    }
+}
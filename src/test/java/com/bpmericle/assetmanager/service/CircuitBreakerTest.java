@@ -0,0 +1,91 @@
+package com.bpmericle.assetmanager.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+
+/**
+ * Tests the {@link CircuitBreaker} class.
+ *
+ * @author Brian Mericle
+ */
+public class CircuitBreakerTest {
+
+    private static final long OPEN_DURATION = 1000;
+
+    private final AtomicLong clock = new AtomicLong();
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(4, 2, 50, OPEN_DURATION, 2, clock::get);
+
+    @Test
+    public void onFailure_opensAtFailureRateThreshold() {
+        circuitBreaker.onFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(-1f, circuitBreaker.getFailureRate(), 0f);
+
+        circuitBreaker.onSuccess();
+        circuitBreaker.onSuccess();
+        assertEquals(100f / 3, circuitBreaker.getFailureRate(), 0.01f);
+
+        circuitBreaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    public void onSuccess_slidesWindowPastFailures() {
+        CircuitBreaker other = new CircuitBreaker(2, 2, 100, OPEN_DURATION, 1, clock::get);
+        other.onFailure();
+        other.onSuccess();
+        other.onSuccess();
+        assertEquals(0f, other.getFailureRate(), 0f);
+
+        other.onFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, other.getState());
+        assertEquals(50f, other.getFailureRate(), 0f);
+    }
+
+    @Test
+    public void tryAcquirePermission_halfOpenAfterOpenDuration() {
+        open();
+        clock.addAndGet(OPEN_DURATION - 1);
+        assertFalse(circuitBreaker.tryAcquirePermission());
+
+        clock.incrementAndGet();
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+
+        circuitBreaker.onSuccess();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        circuitBreaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(-1f, circuitBreaker.getFailureRate(), 0f);
+        assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    public void onFailure_reopensWhenHalfOpen() {
+        open();
+        clock.addAndGet(OPEN_DURATION);
+        assertTrue(circuitBreaker.tryAcquirePermission());
+
+        circuitBreaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+
+        // Calls completing once open are not recorded.
+        circuitBreaker.onSuccess();
+        circuitBreaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    private void open() {
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+}
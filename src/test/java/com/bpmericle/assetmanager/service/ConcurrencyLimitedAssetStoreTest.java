@@ -0,0 +1,169 @@
+package com.bpmericle.assetmanager.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.amazonaws.AbortedException;
+import com.amazonaws.services.s3.model.MultipartUpload;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.bpmericle.assetmanager.AssetManagerProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link ConcurrencyLimitedAssetStore} class.
+ *
+ * @author Brian Mericle
+ */
+public class ConcurrencyLimitedAssetStoreTest {
+
+    private static final String ASSET_ID = "0a1b2c3d4e5f60718293a4b5c6d7e8f9";
+    private static final String UPLOAD_ID = "upload-1";
+    private static final String URL = "https://example.com/asset";
+    private static final Date EXPIRATION = new Date();
+
+    private AssetStore delegate;
+    private MeterRegistry meterRegistry;
+    private ConcurrencyLimitedAssetStore assetStore;
+
+    @Before
+    public void setUp() {
+        delegate = mock(AssetStore.class);
+        AssetManagerProperties properties = new AssetManagerProperties();
+        properties.getRateLimit().setMaxInFlight(1);
+        properties.getRateLimit().setMaxInFlightWait(Duration.ZERO);
+        meterRegistry = new SimpleMeterRegistry();
+        assetStore = new ConcurrencyLimitedAssetStore(delegate, properties, meterRegistry);
+    }
+
+    @Test
+    public void calls_passedThrough() {
+        List<PartETag> parts = Collections.singletonList(new PartETag(1, "etag"));
+        List<MultipartUpload> uploads = Collections.singletonList(new MultipartUpload());
+        ObjectMetadata metadata = new ObjectMetadata();
+        List<String> ids = Collections.singletonList(ASSET_ID);
+        when(delegate.presignPut(ASSET_ID, EXPIRATION)).thenReturn(URL);
+        when(delegate.presignGet(ASSET_ID, EXPIRATION)).thenReturn(URL);
+        when(delegate.presignUploadPart(ASSET_ID, UPLOAD_ID, 1, EXPIRATION)).thenReturn(URL);
+        when(delegate.initiateMultipartUpload(ASSET_ID)).thenReturn(UPLOAD_ID);
+        when(delegate.listMultipartUploads()).thenReturn(uploads);
+        when(delegate.getStatus(ASSET_ID)).thenReturn(Optional.of("uploaded"));
+        when(delegate.getMetadata(ASSET_ID)).thenReturn(Optional.of(metadata));
+        when(delegate.list(null, 10)).thenReturn(ids);
+
+        assertEquals(URL, assetStore.presignPut(ASSET_ID, EXPIRATION));
+        assertEquals(URL, assetStore.presignGet(ASSET_ID, EXPIRATION));
+        assertEquals(URL, assetStore.presignUploadPart(ASSET_ID, UPLOAD_ID, 1, EXPIRATION));
+        assertEquals(UPLOAD_ID, assetStore.initiateMultipartUpload(ASSET_ID));
+        assetStore.completeMultipartUpload(ASSET_ID, UPLOAD_ID, parts);
+        assetStore.abortMultipartUpload(ASSET_ID, UPLOAD_ID);
+        assertSame(uploads, assetStore.listMultipartUploads());
+        assertEquals(Optional.of("uploaded"), assetStore.getStatus(ASSET_ID));
+        assertEquals(Optional.of(metadata), assetStore.getMetadata(ASSET_ID));
+        assetStore.setStatus(ASSET_ID, "uploaded");
+        assertSame(ids, assetStore.list(null, 10));
+        assetStore.delete(ASSET_ID);
+
+        verify(delegate).completeMultipartUpload(ASSET_ID, UPLOAD_ID, parts);
+        verify(delegate).abortMultipartUpload(ASSET_ID, UPLOAD_ID);
+        verify(delegate).setStatus(ASSET_ID, "uploaded");
+        verify(delegate).delete(ASSET_ID);
+        assertEquals(0, meterRegistry.get(ConcurrencyLimitedAssetStore.METRIC_IN_FLIGHT).gauge().value(), 0);
+    }
+
+    @Test
+    public void call_turnedAwayWhileTooManyInFlight() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch released = new CountDownLatch(1);
+        when(delegate.getStatus(ASSET_ID)).thenAnswer(invocation -> {
+            started.countDown();
+            released.await();
+            return Optional.of("uploaded");
+        });
+        CompletableFuture<Optional<String>> inFlight = CompletableFuture.supplyAsync(() -> assetStore.getStatus(ASSET_ID));
+        started.await();
+        assertEquals(1, meterRegistry.get(ConcurrencyLimitedAssetStore.METRIC_IN_FLIGHT).gauge().value(), 0);
+
+        try {
+            assetStore.getMetadata(ASSET_ID);
+            fail();
+        } catch (AssetStoreUnavailableException ex) {
+            assertEquals("Too many calls to the asset store are in flight.", ex.getMessage());
+            assertFalse(ex.isRetryable());
+            assertEquals(0, ex.getStackTrace().length);
+        }
+        assertEquals(1, meterRegistry.get(ConcurrencyLimitedAssetStore.METRIC_REJECTED).counter().count(), 0);
+
+        released.countDown();
+        assertEquals(Optional.of("uploaded"), inFlight.get());
+        assertEquals(Optional.empty(), assetStore.getMetadata(ASSET_ID));
+    }
+
+    @Test
+    public void call_waitsForCallInFlight() throws Exception {
+        AssetManagerProperties properties = new AssetManagerProperties();
+        properties.getRateLimit().setMaxInFlight(1);
+        assetStore = new ConcurrencyLimitedAssetStore(delegate, properties, new SimpleMeterRegistry());
+        CountDownLatch started = new CountDownLatch(1);
+        when(delegate.getStatus(ASSET_ID)).thenAnswer(invocation -> {
+            started.countDown();
+            Thread.sleep(10);
+            return Optional.of("uploaded");
+        });
+        CompletableFuture<Optional<String>> inFlight = CompletableFuture.supplyAsync(() -> assetStore.getStatus(ASSET_ID));
+        started.await();
+
+        assertEquals(Optional.empty(), assetStore.getMetadata(ASSET_ID));
+        assertEquals(Optional.of("uploaded"), inFlight.get());
+    }
+
+    @Test
+    public void call_interruptedWhileWaiting() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch released = new CountDownLatch(1);
+        when(delegate.getStatus(ASSET_ID)).thenAnswer(invocation -> {
+            started.countDown();
+            released.await();
+            return Optional.of("uploaded");
+        });
+        CompletableFuture<Optional<String>> inFlight = CompletableFuture.supplyAsync(() -> assetStore.getStatus(ASSET_ID));
+        started.await();
+
+        Thread.currentThread().interrupt();
+        try {
+            assetStore.getMetadata(ASSET_ID);
+            fail();
+        } catch (AbortedException ex) {
+            assertTrue(Thread.interrupted());
+        } finally {
+            released.countDown();
+        }
+        assertEquals(Optional.of("uploaded"), inFlight.get());
+    }
+
+    @Test
+    public void call_madeWhileInterruptedWithPermitsLeft() {
+        Thread.currentThread().interrupt();
+        try {
+            assertEquals(Optional.empty(), assetStore.getStatus(ASSET_ID));
+        } finally {
+            assertTrue(Thread.interrupted());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.bpmericle.assetmanager.service;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link LatencyWindow} class.
+ *
+ * @author Brian Mericle
+ */
+public class LatencyWindowTest {
+
+    @Test
+    public void getValue_afterMinimumSamples() {
+        LatencyWindow window = new LatencyWindow(0.9, 20, 10);
+        for (int i = 1; i < 10; i++) {
+            window.record(i);
+        }
+        assertEquals(-1, window.getValue());
+
+        window.record(10);
+        assertEquals(9, window.getValue());
+        window.record(100);
+        assertEquals(9, window.getValue());
+    }
+
+    @Test
+    public void getValue_overLatestSamples() {
+        LatencyWindow window = new LatencyWindow(0.5, 4, 1);
+        for (int i = 1; i <= 8; i++) {
+            window.record(i * 10);
+        }
+        assertEquals(60, window.getValue());
+    }
+}
@@ -0,0 +1,353 @@
+package com.bpmericle.assetmanager.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.amazonaws.HttpMethod;
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.MultipartUpload;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.bpmericle.assetmanager.AssetManagerProperties;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the {@link LocalAssetStore} class.
+ *
+ * @author Brian Mericle
+ */
+public class LocalAssetStoreTest {
+
+    private static final String ASSET_ID = "0a1b2c3d4e5f60718293a4b5c6d7e8f9";
+    private static final String INVALID_ASSET_ID = "../asset";
+    private static final String BASE_URL = "http://localhost:8080/local-store";
+    private static final String CONTENT = "content of the asset";
+    private static final String STATUS_UPLOADED = "uploaded";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private AssetManagerProperties properties;
+    private LocalAssetStore store;
+
+    @Before
+    public void setUp() throws Exception {
+        properties = new AssetManagerProperties();
+        properties.getAssetStore().setDirectory(folder.getRoot().getPath());
+        properties.getAssetStore().setBaseUrl(BASE_URL);
+        store = new LocalAssetStore(properties);
+    }
+
+    @Test
+    public void presign_signsUrlsValidUntilExpiration() {
+        Date expiration = new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1));
+
+        String url = store.presignPut(ASSET_ID, expiration);
+        assertTrue(url.startsWith(BASE_URL + "/" + ASSET_ID + "?expires="));
+
+        long expires = Long.parseLong(S3Presigner.queryParameter(url, "expires"));
+        String signature = S3Presigner.queryParameter(url, "signature");
+        assertTrue(store.isValid(HttpMethod.PUT, ASSET_ID, expires, signature));
+        assertFalse(store.isValid(HttpMethod.GET, ASSET_ID, expires, signature));
+        assertFalse(store.isValid(HttpMethod.PUT, ASSET_ID, expires + 1, signature));
+        assertFalse(store.isValid(HttpMethod.PUT, INVALID_ASSET_ID, expires, signature));
+
+        String getUrl = store.presignGet(ASSET_ID, expiration);
+        assertTrue(store.isValid(HttpMethod.GET, ASSET_ID, expires, S3Presigner.queryParameter(getUrl, "signature")));
+    }
+
+    @Test
+    public void isValid_expiredUrl() {
+        String url = store.presignGet(ASSET_ID, new Date(System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(1)));
+
+        assertFalse(store.isValid(HttpMethod.GET, ASSET_ID, Long.parseLong(S3Presigner.queryParameter(url, "expires")),
+                S3Presigner.queryParameter(url, "signature")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void presign_invalidAssetId() {
+        store.presignPut(INVALID_ASSET_ID, new Date());
+    }
+
+    @Test
+    public void status_followsTheAsset() throws Exception {
+        assertEquals(Optional.empty(), store.getStatus(ASSET_ID));
+        assertFalse(store.read(ASSET_ID).isPresent());
+
+        store.write(ASSET_ID, new ByteArrayInputStream(CONTENT.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(Optional.of(""), store.getStatus(ASSET_ID));
+        assertEquals(CONTENT, new String(Files.readAllBytes(store.read(ASSET_ID).get()), StandardCharsets.UTF_8));
+
+        store.setStatus(ASSET_ID, STATUS_UPLOADED);
+        assertEquals(Optional.of(STATUS_UPLOADED), store.getStatus(ASSET_ID));
+
+        store.write(ASSET_ID, new ByteArrayInputStream(CONTENT.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(Optional.of(""), store.getStatus(ASSET_ID));
+
+        store.setStatus(ASSET_ID, STATUS_UPLOADED);
+        store.delete(ASSET_ID);
+        assertEquals(Optional.empty(), store.getStatus(ASSET_ID));
+        assertFalse(store.read(ASSET_ID).isPresent());
+        assertEquals(0, folder.getRoot().toPath().resolve("uploads").toFile().list().length);
+    }
+
+    @Test
+    public void getMetadata_followsTheAsset() throws Exception {
+        assertEquals(Optional.empty(), store.getMetadata(ASSET_ID));
+
+        store.write(ASSET_ID, new ByteArrayInputStream("abc".getBytes(StandardCharsets.UTF_8)));
+        ObjectMetadata metadata = store.getMetadata(ASSET_ID).get();
+        assertEquals(3, metadata.getContentLength());
+        assertEquals("900150983cd24fb0d6963f7d28e17f72", metadata.getETag());
+    }
+
+    @Test(expected = SdkClientException.class)
+    public void getMetadata_storeFailure() throws Exception {
+        Files.createDirectories(folder.getRoot().toPath().resolve("objects").resolve(ASSET_ID));
+        store.getMetadata(ASSET_ID);
+    }
+
+    @Test
+    public void setStatus_assetNotUploaded() {
+        try {
+            store.setStatus(ASSET_ID, STATUS_UPLOADED);
+            fail();
+        } catch (AmazonS3Exception ex) {
+            assertEquals(404, ex.getStatusCode());
+        }
+    }
+
+    @Test(expected = SdkClientException.class)
+    public void getStatus_storeFailure() throws Exception {
+        store.write(ASSET_ID, new ByteArrayInputStream(new byte[0]));
+        Files.createDirectories(statusFile());
+        store.getStatus(ASSET_ID);
+    }
+
+    @Test(expected = SdkClientException.class)
+    public void setStatus_storeFailure() throws Exception {
+        store.write(ASSET_ID, new ByteArrayInputStream(new byte[0]));
+        Files.createDirectories(statusFile().resolve("child"));
+        store.setStatus(ASSET_ID, STATUS_UPLOADED);
+    }
+
+    @Test
+    public void list_returnsIdentifiersInOrder() throws Exception {
+        for (String id : Arrays.asList("d", "b", "e", "a", "c")) {
+            store.write(id, new ByteArrayInputStream(new byte[0]));
+        }
+
+        assertEquals(Arrays.asList("a", "b"), store.list(null, 2));
+        assertEquals(Arrays.asList("c", "d"), store.list("b", 2));
+        assertEquals(Arrays.asList("e"), store.list("d", 2));
+        assertEquals(Arrays.asList(), store.list("e", 2));
+    }
+
+    @Test(expected = SdkClientException.class)
+    public void list_storeFailure() throws Exception {
+        Files.delete(folder.getRoot().toPath().resolve("objects"));
+        store.list(null, 2);
+    }
+
+    @Test(expected = SdkClientException.class)
+    public void delete_storeFailure() throws Exception {
+        Files.createDirectories(statusFile().resolve("child"));
+        store.delete(ASSET_ID);
+    }
+
+    @Test
+    public void multipartUpload_assemblesParts() throws Exception {
+        store.write(ASSET_ID, new ByteArrayInputStream(new byte[0]));
+        store.setStatus(ASSET_ID, STATUS_UPLOADED);
+        String uploadId = store.initiateMultipartUpload(ASSET_ID);
+        assertTrue(uploadId.matches("[0-9a-f]{32}"));
+
+        String url = store.presignUploadPart(ASSET_ID, uploadId, 2, new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)));
+        assertTrue(url.startsWith(BASE_URL + "/" + ASSET_ID + "?uploadId=" + uploadId + "&partNumber=2&expires="));
+        long expires = Long.parseLong(S3Presigner.queryParameter(url, "expires"));
+        String signature = S3Presigner.queryParameter(url, "signature");
+        assertTrue(store.isValidPart(ASSET_ID, uploadId, 2, expires, signature));
+        assertFalse(store.isValidPart(ASSET_ID, uploadId, 1, expires, signature));
+        assertFalse(store.isValid(HttpMethod.PUT, ASSET_ID, expires, signature));
+
+        String second = store.writePart(ASSET_ID, uploadId, 2, content(" of the asset")).get();
+        String first = store.writePart(ASSET_ID, uploadId, 1, content("content")).get();
+        assertEquals("9a0364b9e99bb480dd25e1f0284c8555", first);
+
+        List<MultipartUpload> pending = store.listMultipartUploads();
+        assertEquals(1, pending.size());
+        assertEquals(ASSET_ID, pending.get(0).getKey());
+        assertEquals(uploadId, pending.get(0).getUploadId());
+        assertTrue(pending.get(0).getInitiated().getTime() <= System.currentTimeMillis());
+
+        store.completeMultipartUpload(ASSET_ID, uploadId, Arrays.asList(new PartETag(1, first), new PartETag(2, "\"" + second + "\"")));
+        assertEquals(CONTENT, new String(Files.readAllBytes(store.read(ASSET_ID).get()), StandardCharsets.UTF_8));
+        assertEquals(Optional.of(""), store.getStatus(ASSET_ID));
+        assertEquals(Collections.emptyList(), store.listMultipartUploads());
+        assertEquals(0, folder.getRoot().toPath().resolve("uploads").toFile().list().length);
+    }
+
+    @Test
+    public void writePart_uploadNotFound() throws Exception {
+        String uploadId = store.initiateMultipartUpload(ASSET_ID);
+
+        assertEquals(Optional.empty(), store.writePart(ASSET_ID, "f9e8d7c6b5a4938271605f4e3d2c1b0a", 1, content(CONTENT)));
+        assertEquals(Optional.empty(), store.writePart("f9e8d7c6b5a4938271605f4e3d2c1b0a", uploadId, 1, content(CONTENT)));
+        assertEquals(Optional.empty(), store.writePart(ASSET_ID, "", 1, content(CONTENT)));
+        assertEquals(Optional.empty(), store.writePart(ASSET_ID, "../multipart/" + uploadId, 1, content(CONTENT)));
+        assertEquals(Optional.empty(), store.writePart(ASSET_ID, "..", 1, content(CONTENT)));
+    }
+
+    @Test
+    public void writePart_invalidPartNumber() throws Exception {
+        String uploadId = store.initiateMultipartUpload(ASSET_ID);
+
+        for (int partNumber : new int[]{0, 10_001}) {
+            try {
+                store.writePart(ASSET_ID, uploadId, partNumber, content(CONTENT));
+                fail();
+            } catch (IllegalArgumentException ex) {
+                assertEquals("Part number must be an integer between 1 and 10000.", ex.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void completeMultipartUpload_invalidParts() throws Exception {
+        String uploadId = store.initiateMultipartUpload(ASSET_ID);
+        String first = store.writePart(ASSET_ID, uploadId, 1, content(CONTENT)).get();
+        String second = store.writePart(ASSET_ID, uploadId, 2, content(CONTENT)).get();
+
+        assertMultipartFailure(400, "InvalidPart", () -> store.completeMultipartUpload(ASSET_ID, uploadId,
+                Arrays.asList(new PartETag(1, first), new PartETag(3, second))));
+        assertMultipartFailure(400, "InvalidPart", () -> store.completeMultipartUpload(ASSET_ID, uploadId,
+                Arrays.asList(new PartETag(1, first), new PartETag(2, "0123456789abcdef"))));
+        assertMultipartFailure(400, "InvalidPartOrder", () -> store.completeMultipartUpload(ASSET_ID, uploadId,
+                Arrays.asList(new PartETag(2, second), new PartETag(1, first))));
+        assertMultipartFailure(404, "NoSuchUpload", () -> store.completeMultipartUpload(ASSET_ID, "unknown",
+                Arrays.asList(new PartETag(1, first))));
+        assertEquals(Optional.empty(), store.read(ASSET_ID));
+    }
+
+    @Test
+    public void abortMultipartUpload_discardsParts() throws Exception {
+        String uploadId = store.initiateMultipartUpload(ASSET_ID);
+        store.writePart(ASSET_ID, uploadId, 1, content(CONTENT));
+
+        store.abortMultipartUpload(ASSET_ID, uploadId);
+        assertEquals(Collections.emptyList(), store.listMultipartUploads());
+        assertEquals(Optional.empty(), store.writePart(ASSET_ID, uploadId, 1, content(CONTENT)));
+        assertMultipartFailure(404, "NoSuchUpload", () -> store.abortMultipartUpload(ASSET_ID, uploadId));
+        assertEquals(0, folder.getRoot().toPath().resolve("uploads").toFile().list().length);
+    }
+
+    @Test(expected = SdkClientException.class)
+    public void initiateMultipartUpload_storeFailure() throws Exception {
+        Files.delete(folder.getRoot().toPath().resolve("multipart"));
+        store.initiateMultipartUpload(ASSET_ID);
+    }
+
+    @Test(expected = SdkClientException.class)
+    public void completeMultipartUpload_storeFailure() throws Exception {
+        String uploadId = store.initiateMultipartUpload(ASSET_ID);
+        String first = store.writePart(ASSET_ID, uploadId, 1, content(CONTENT)).get();
+        Files.createDirectories(folder.getRoot().toPath().resolve("objects").resolve(ASSET_ID).resolve("child"));
+        store.completeMultipartUpload(ASSET_ID, uploadId, Arrays.asList(new PartETag(1, first)));
+    }
+
+    @Test(expected = SdkClientException.class)
+    public void abortMultipartUpload_storeFailure() throws Exception {
+        String uploadId = store.initiateMultipartUpload(ASSET_ID);
+        Files.createDirectories(folder.getRoot().toPath().resolve("uploads").resolve("deleted-" + uploadId).resolve("child"));
+        store.abortMultipartUpload(ASSET_ID, uploadId);
+    }
+
+    @Test(expected = SdkClientException.class)
+    public void listMultipartUploads_storeFailure() throws Exception {
+        Files.delete(folder.getRoot().toPath().resolve("multipart"));
+        store.listMultipartUploads();
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void constructor_directoryNotCreated() throws Exception {
+        File file = folder.newFile();
+        properties.getAssetStore().setDirectory(file.getPath());
+        new LocalAssetStore(properties);
+    }
+
+    @Test
+    public void latency_matchesConfiguredPercentiles() {
+        properties.getAssetStore().setLatencyP50(Duration.ofMillis(20));
+        properties.getAssetStore().setLatencyP99(Duration.ofMillis(150));
+        LocalAssetStore slowStore = new LocalAssetStore(properties);
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(20), slowStore.latency(0), 1);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(150), slowStore.latency(2.3263478740408408), 1000);
+        assertTrue(slowStore.latency(-1) < TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
+    @Test
+    public void latency_withoutSpread() {
+        properties.getAssetStore().setLatencyP50(Duration.ofMillis(20));
+        LocalAssetStore slowStore = new LocalAssetStore(properties);
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(20), slowStore.latency(2.3263478740408408));
+        assertEquals(0, store.latency(2.3263478740408408));
+    }
+
+    @Test
+    public void getStatus_delayedByLatency() throws Exception {
+        properties.getAssetStore().setLatencyP50(Duration.ofMillis(20));
+        properties.getAssetStore().setLatencyP99(Duration.ofMillis(20));
+        LocalAssetStore slowStore = new LocalAssetStore(properties);
+
+        long start = System.nanoTime();
+        slowStore.getStatus(ASSET_ID);
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+
+        Thread.currentThread().interrupt();
+        try {
+            slowStore.getStatus(ASSET_ID);
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    private Path statusFile() {
+        return folder.getRoot().toPath().resolve("statuses").resolve(ASSET_ID);
+    }
+
+    private static ByteArrayInputStream content(final String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void assertMultipartFailure(final int statusCode, final String errorCode, final Runnable call) {
+        try {
+            call.run();
+            fail();
+        } catch (AmazonS3Exception ex) {
+            assertEquals(statusCode, ex.getStatusCode());
+            assertEquals(errorCode, ex.getErrorCode());
+        }
+    }
+}
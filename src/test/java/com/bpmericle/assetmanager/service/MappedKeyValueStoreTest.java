@@ -0,0 +1,161 @@
+package com.bpmericle.assetmanager.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the {@link MappedKeyValueStore} class.
+ *
+ * @author Brian Mericle
+ */
+public class MappedKeyValueStoreTest {
+
+    private static final int SEGMENT_SIZE = 256;
+    private static final String KEY = "0a1b2c3d4e5f60718293a4b5c6d7e8f9";
+    private static final String OTHER_KEY = "f9e8d7c6b5a4938271605f4e3d2c1b0a";
+    private static final String VALUE = "uploaded";
+    private static final String OTHER_VALUE = "pending";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path directory;
+    private MappedKeyValueStore store;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = folder.getRoot().toPath().resolve("index");
+        store = new MappedKeyValueStore(directory, SEGMENT_SIZE);
+    }
+
+    @Test
+    public void put_survivesReopening() {
+        store.put(KEY, VALUE);
+        store.put(OTHER_KEY, VALUE);
+        store.put(OTHER_KEY, OTHER_VALUE);
+        store.close();
+
+        MappedKeyValueStore reopened = new MappedKeyValueStore(directory, SEGMENT_SIZE);
+        assertEquals(VALUE, reopened.get(KEY));
+        assertEquals(OTHER_VALUE, reopened.get(OTHER_KEY));
+        assertEquals(2, reopened.size());
+
+        reopened.put(KEY, OTHER_VALUE);
+        assertEquals(OTHER_VALUE, new MappedKeyValueStore(directory, SEGMENT_SIZE).get(KEY));
+    }
+
+    @Test
+    public void remove_survivesReopening() {
+        store.put(KEY, VALUE);
+        store.put(OTHER_KEY, VALUE);
+
+        assertFalse(store.remove(KEY, OTHER_VALUE));
+        assertFalse(store.remove("unknown", VALUE));
+        assertTrue(store.remove(KEY, VALUE));
+        assertNull(store.get(KEY));
+        assertEquals(Collections.singletonMap(OTHER_KEY, VALUE), store.entries());
+
+        MappedKeyValueStore reopened = new MappedKeyValueStore(directory, SEGMENT_SIZE);
+        assertNull(reopened.get(KEY));
+        assertEquals(VALUE, reopened.get(OTHER_KEY));
+    }
+
+    @Test
+    public void put_rollsToNextSegment() {
+        for (int i = 0; i < 20; i++) {
+            store.put(KEY + i, VALUE);
+        }
+        assertTrue(store.segmentCount() > 1);
+
+        MappedKeyValueStore reopened = new MappedKeyValueStore(directory, SEGMENT_SIZE);
+        assertEquals(20, reopened.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(VALUE, reopened.get(KEY + i));
+        }
+    }
+
+    @Test
+    public void put_compactsOverwrittenRecords() throws Exception {
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < 8; i++) {
+                store.put(KEY + i, VALUE + round);
+            }
+        }
+        assertTrue(store.segmentCount() <= 4);
+        assertEquals(store.segmentCount(), segmentFiles());
+
+        MappedKeyValueStore reopened = new MappedKeyValueStore(directory, SEGMENT_SIZE);
+        Map<String, String> entries = reopened.entries();
+        assertEquals(8, entries.size());
+        for (int i = 0; i < 8; i++) {
+            assertEquals(VALUE + 49, entries.get(KEY + i));
+        }
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void put_obsoleteSegmentNotDeleted() throws Exception {
+        store.put(KEY, VALUE);
+        try (Stream<Path> segments = Files.list(directory)) {
+            for (Path segment : (Iterable<Path>) segments::iterator) {
+                Files.delete(segment);
+            }
+        }
+        for (int i = 0; i < 20; i++) {
+            store.put(KEY, VALUE);
+        }
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void put_segmentNotCreated() throws Exception {
+        Files.createDirectory(directory.resolve(String.format("segment-%019d.dat", 1)));
+        for (int i = 0; i < 20; i++) {
+            store.put(KEY + i, VALUE);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void put_recordLargerThanSegment() {
+        store.put(KEY, new String(new char[SEGMENT_SIZE]));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void put_nullValue() {
+        store.put(KEY, null);
+    }
+
+    @Test
+    public void constructor_truncatedSegment() throws Exception {
+        Files.write(directory.resolve(String.format("segment-%019d.dat", 1)), new byte[4]);
+
+        MappedKeyValueStore reopened = new MappedKeyValueStore(directory, SEGMENT_SIZE);
+        reopened.put(KEY, VALUE);
+        assertEquals(3, reopened.segmentCount());
+        assertEquals(VALUE, new MappedKeyValueStore(directory, SEGMENT_SIZE).get(KEY));
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void constructor_directoryNotCreated() throws Exception {
+        File file = folder.newFile();
+        new MappedKeyValueStore(file.toPath(), SEGMENT_SIZE);
+    }
+
+    private long segmentFiles() throws Exception {
+        try (Stream<Path> segments = Files.list(directory)) {
+            return segments.count();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.bpmericle.assetmanager.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.MultipartUpload;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link MeteredAssetStore} class.
+ *
+ * @author Brian Mericle
+ */
+public class MeteredAssetStoreTest {
+
+    private static final String ASSET_ID = "0a1b2c3d4e5f60718293a4b5c6d7e8f9";
+    private static final String UPLOAD_ID = "upload-1";
+    private static final String URL = "https://example.com/asset";
+    private static final Date EXPIRATION = new Date();
+
+    private AssetStore delegate;
+    private MeterRegistry meterRegistry;
+    private MeteredAssetStore assetStore;
+
+    @Before
+    public void setUp() {
+        delegate = mock(AssetStore.class);
+        meterRegistry = new SimpleMeterRegistry();
+        assetStore = new MeteredAssetStore(delegate, meterRegistry);
+    }
+
+    @Test
+    public void constructor_registersSuccessTimers() {
+        assertEquals(12, meterRegistry.find(MeteredAssetStore.METRIC_REQUESTS).tag("outcome", "success").timers().size());
+    }
+
+    @Test
+    public void presign_timed() {
+        when(delegate.presignPut(ASSET_ID, EXPIRATION)).thenReturn(URL);
+        when(delegate.presignGet(ASSET_ID, EXPIRATION)).thenReturn(URL);
+        when(delegate.presignUploadPart(ASSET_ID, UPLOAD_ID, 1, EXPIRATION)).thenReturn(URL);
+
+        assertEquals(URL, assetStore.presignPut(ASSET_ID, EXPIRATION));
+        assertEquals(URL, assetStore.presignGet(ASSET_ID, EXPIRATION));
+        assertEquals(URL, assetStore.presignUploadPart(ASSET_ID, UPLOAD_ID, 1, EXPIRATION));
+        assertEquals(1, count("presign-put", "success"));
+        assertEquals(1, count("presign-get", "success"));
+        assertEquals(1, count("presign-upload-part", "success"));
+    }
+
+    @Test
+    public void multipartUpload_timed() {
+        List<PartETag> parts = Collections.singletonList(new PartETag(1, "etag"));
+        List<MultipartUpload> uploads = Collections.singletonList(new MultipartUpload());
+        when(delegate.initiateMultipartUpload(ASSET_ID)).thenReturn(UPLOAD_ID);
+        when(delegate.listMultipartUploads()).thenReturn(uploads);
+
+        assertEquals(UPLOAD_ID, assetStore.initiateMultipartUpload(ASSET_ID));
+        assetStore.completeMultipartUpload(ASSET_ID, UPLOAD_ID, parts);
+        assetStore.abortMultipartUpload(ASSET_ID, UPLOAD_ID);
+        assertSame(uploads, assetStore.listMultipartUploads());
+
+        verify(delegate).completeMultipartUpload(ASSET_ID, UPLOAD_ID, parts);
+        verify(delegate).abortMultipartUpload(ASSET_ID, UPLOAD_ID);
+        assertEquals(1, count("initiate-multipart", "success"));
+        assertEquals(1, count("complete-multipart", "success"));
+        assertEquals(1, count("abort-multipart", "success"));
+        assertEquals(1, count("list-multipart", "success"));
+    }
+
+    @Test
+    public void assets_timed() {
+        ObjectMetadata metadata = new ObjectMetadata();
+        List<String> ids = Collections.singletonList(ASSET_ID);
+        when(delegate.getStatus(ASSET_ID)).thenReturn(Optional.of("uploaded"));
+        when(delegate.getMetadata(ASSET_ID)).thenReturn(Optional.of(metadata));
+        when(delegate.list(null, 10)).thenReturn(ids);
+
+        assertEquals(Optional.of("uploaded"), assetStore.getStatus(ASSET_ID));
+        assertEquals(Optional.of(metadata), assetStore.getMetadata(ASSET_ID));
+        assetStore.setStatus(ASSET_ID, "uploaded");
+        assertSame(ids, assetStore.list(null, 10));
+        assetStore.delete(ASSET_ID);
+
+        verify(delegate).setStatus(ASSET_ID, "uploaded");
+        verify(delegate).delete(ASSET_ID);
+        assertEquals(1, count("get-tagging", "success"));
+        assertEquals(1, count("head", "success"));
+        assertEquals(1, count("set-tagging", "success"));
+        assertEquals(1, count("list", "success"));
+        assertEquals(1, count("delete", "success"));
+    }
+
+    @Test
+    public void serviceError_countedByErrorCode() {
+        AmazonS3Exception slowDown = new AmazonS3Exception("Please reduce your request rate.");
+        slowDown.setErrorCode("SlowDown");
+        slowDown.setStatusCode(503);
+        when(delegate.getStatus(ASSET_ID)).thenThrow(slowDown);
+
+        try {
+            assetStore.getStatus(ASSET_ID);
+            fail();
+        } catch (RuntimeException ex) {
+            assertSame(slowDown, ex);
+        }
+        assertEquals(1, count("get-tagging", "service-error"));
+        assertEquals(1.0, errors("get-tagging", "SlowDown"), 0);
+    }
+
+    @Test
+    public void serviceError_countedByStatusCode() {
+        AmazonS3Exception notFound = new AmazonS3Exception("Not Found");
+        notFound.setStatusCode(404);
+        when(delegate.getMetadata(ASSET_ID)).thenThrow(notFound);
+
+        try {
+            assetStore.getMetadata(ASSET_ID);
+            fail();
+        } catch (RuntimeException ex) {
+            assertSame(notFound, ex);
+        }
+        assertEquals(1, count("head", "service-error"));
+        assertEquals(1.0, errors("head", "404"), 0);
+    }
+
+    @Test
+    public void clientError_countedByException() {
+        SdkClientException failure = new SdkClientException("A problem has occurred!");
+        doThrow(failure).when(delegate).setStatus(ASSET_ID, "uploaded");
+
+        try {
+            assetStore.setStatus(ASSET_ID, "uploaded");
+            fail();
+        } catch (RuntimeException ex) {
+            assertSame(failure, ex);
+        }
+        assertEquals(1, count("set-tagging", "client-error"));
+        assertEquals(1.0, errors("set-tagging", "SdkClientException"), 0);
+    }
+
+    @Test
+    public void invalid_countedByException() {
+        IllegalArgumentException invalid = new IllegalArgumentException("Invalid asset identifier.");
+        when(delegate.presignPut("..", EXPIRATION)).thenThrow(invalid);
+
+        try {
+            assetStore.presignPut("..", EXPIRATION);
+            fail();
+        } catch (RuntimeException ex) {
+            assertSame(invalid, ex);
+        }
+        assertEquals(1, count("presign-put", "invalid"));
+        assertEquals(0, count("presign-put", "success"));
+        assertEquals(1.0, errors("presign-put", "IllegalArgumentException"), 0);
+    }
+
+    private long count(final String operation, final String outcome) {
+        return meterRegistry.get(MeteredAssetStore.METRIC_REQUESTS)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .timer()
+                .count();
+    }
+
+    private double errors(final String operation, final String error) {
+        return meterRegistry.get(MeteredAssetStore.METRIC_ERRORS)
+                .tag("operation", operation)
+                .tag("error", error)
+                .counter()
+                .count();
+    }
+}
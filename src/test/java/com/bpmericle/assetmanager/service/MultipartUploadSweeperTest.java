@@ -0,0 +1,94 @@
+package com.bpmericle.assetmanager.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.MultipartUpload;
+import com.bpmericle.assetmanager.AssetManagerProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * Tests the {@link MultipartUploadSweeper} class.
+ *
+ * @author Brian Mericle
+ */
+public class MultipartUploadSweeperTest {
+
+    private static final String ASSET_ID = "0a1b2c3d4e5f60718293a4b5c6d7e8f9";
+
+    private AssetStore assetStore;
+    private ScheduledExecutorService executor;
+    private MeterRegistry meterRegistry;
+    private MultipartUploadSweeper sweeper;
+
+    @Before
+    public void setUp() {
+        AssetManagerProperties properties = new AssetManagerProperties();
+        properties.getMultipart().setAbandonAfter(Duration.ofHours(1));
+        properties.getMultipart().setSweepInterval(Duration.ofMinutes(5));
+        assetStore = mock(AssetStore.class);
+        executor = mock(ScheduledExecutorService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        sweeper = new MultipartUploadSweeper(properties, assetStore, executor, meterRegistry);
+    }
+
+    @Test
+    public void constructor_schedulesSweeps() {
+        verify(executor).scheduleWithFixedDelay(any(Runnable.class), eq(300_000L), eq(300_000L), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void sweep_abortsAbandonedUploads() {
+        AmazonS3Exception noSuchUpload = new AmazonS3Exception("The specified multipart upload does not exist.");
+        noSuchUpload.setStatusCode(404);
+        AmazonS3Exception accessDenied = new AmazonS3Exception("Access Denied");
+        accessDenied.setStatusCode(403);
+        when(assetStore.listMultipartUploads()).thenReturn(Arrays.asList(
+                upload("abandoned", 2), upload("recent", 0), upload("completed", 2), upload("denied", 2), upload("failing", 2)));
+        doThrow(noSuchUpload).when(assetStore).abortMultipartUpload(ASSET_ID, "completed");
+        doThrow(accessDenied).when(assetStore).abortMultipartUpload(ASSET_ID, "denied");
+        doThrow(new SdkClientException("A problem has occurred!")).when(assetStore).abortMultipartUpload(ASSET_ID, "failing");
+
+        assertEquals(1, sweeper.sweep());
+        verify(assetStore).abortMultipartUpload(ASSET_ID, "abandoned");
+        verify(assetStore, never()).abortMultipartUpload(ASSET_ID, "recent");
+        assertEquals(1.0, meterRegistry.get("asset.multipart.uploads.abandoned").counter().count(), 0);
+    }
+
+    @Test
+    public void sweep_listingFailure() {
+        when(assetStore.listMultipartUploads()).thenThrow(new SdkClientException("A problem has occurred!"));
+
+        ArgumentCaptor<Runnable> sweep = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor).scheduleWithFixedDelay(sweep.capture(), anyLong(), anyLong(), any(TimeUnit.class));
+        sweep.getValue().run();
+        verify(assetStore, never()).abortMultipartUpload(anyString(), anyString());
+    }
+
+    private static MultipartUpload upload(final String uploadId, final int hoursAgo) {
+        MultipartUpload upload = new MultipartUpload();
+        upload.setKey(ASSET_ID);
+        upload.setUploadId(uploadId);
+        upload.setInitiated(new Date(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(hoursAgo)));
+        return upload;
+    }
+}
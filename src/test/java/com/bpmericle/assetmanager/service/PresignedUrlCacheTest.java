@@ -0,0 +1,66 @@
+package com.bpmericle.assetmanager.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.amazonaws.HttpMethod;
+import com.bpmericle.assetmanager.AssetManagerProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+/**
+ * Tests the {@link PresignedUrlCache} class.
+ *
+ * @author Brian Mericle
+ */
+public class PresignedUrlCacheTest {
+
+    private static final String BUCKET_NAME = "asset-bucket";
+    private static final String ASSET_ID = "0a1b2c3d4e5f60718293a4b5c6d7e8f9";
+    private static final int TIMEOUT = 100;
+
+    @Test
+    public void get_signsAgainWhenCachedUrlExpiresTooSoon() throws Exception {
+        AssetManagerProperties properties = new AssetManagerProperties();
+        properties.getPresignedUrlCache().setMinRemainingRatio(1.0);
+        PresignedUrlCache cache = new PresignedUrlCache(properties, new SimpleMeterRegistry());
+        AtomicInteger signed = new AtomicInteger();
+
+        PresignedUrlCache.PresignedUrl first = cache.get(BUCKET_NAME, ASSET_ID, HttpMethod.GET, TIMEOUT,
+                expiration -> "url-" + signed.incrementAndGet());
+        Thread.sleep(5);
+        PresignedUrlCache.PresignedUrl second = cache.get(BUCKET_NAME, ASSET_ID, HttpMethod.GET, TIMEOUT,
+                expiration -> "url-" + signed.incrementAndGet());
+
+        assertEquals("url-1", first.getUrl());
+        assertEquals("url-2", second.getUrl());
+        assertEquals(2, signed.get());
+    }
+
+    @Test
+    public void freshMillis_untilFractionOfTimeoutRemains() {
+        PresignedUrlCache cache = new PresignedUrlCache(new AssetManagerProperties(), new SimpleMeterRegistry());
+        long now = System.currentTimeMillis();
+
+        long fresh = cache.freshMillis(new Date(now + 100_000), TIMEOUT);
+        assertTrue(fresh > 49_000 && fresh <= 50_000);
+        assertTrue(cache.freshMillis(new Date(now + 40_000), TIMEOUT) < 0);
+    }
+
+    @Test
+    public void key_equalsAndHashCode() {
+        PresignedUrlCache.Key key = new PresignedUrlCache.Key(BUCKET_NAME, ASSET_ID, HttpMethod.GET, 4);
+
+        assertEquals(key, key);
+        assertEquals(key, new PresignedUrlCache.Key(BUCKET_NAME, ASSET_ID, HttpMethod.GET, 4));
+        assertEquals(key.hashCode(), new PresignedUrlCache.Key(BUCKET_NAME, ASSET_ID, HttpMethod.GET, 4).hashCode());
+        assertNotEquals(key, ASSET_ID);
+        assertNotEquals(key, new PresignedUrlCache.Key(BUCKET_NAME, ASSET_ID, HttpMethod.GET, 5));
+        assertNotEquals(key, new PresignedUrlCache.Key(BUCKET_NAME, ASSET_ID, HttpMethod.PUT, 4));
+        assertNotEquals(key, new PresignedUrlCache.Key(BUCKET_NAME, "other", HttpMethod.GET, 4));
+        assertNotEquals(key, new PresignedUrlCache.Key("other-bucket", ASSET_ID, HttpMethod.GET, 4));
+    }
+}
@@ -0,0 +1,53 @@
+package com.bpmericle.assetmanager.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+
+/**
+ * Tests the {@link RandomAssetIdGenerator} class.
+ *
+ * @author Brian Mericle
+ */
+public class RandomAssetIdGeneratorTest {
+
+    private final RandomAssetIdGenerator generator = new RandomAssetIdGenerator();
+
+    @Test
+    public void newId_generatesDistinctHexIdentifiers() {
+        // Enough identifiers to draw the random bytes of a stripe several times.
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            String id = generator.newId();
+            assertTrue(id, id.matches("[0-9a-f]{32}"));
+            ids.add(id);
+        }
+
+        assertEquals(1000, ids.size());
+    }
+
+    @Test
+    public void newId_generatesDistinctIdentifiersAcrossThreads() throws Exception {
+        Set<String> ids = new HashSet<>();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    String id = generator.newId();
+                    synchronized (ids) {
+                        ids.add(id);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(2000, ids.size());
+    }
+}
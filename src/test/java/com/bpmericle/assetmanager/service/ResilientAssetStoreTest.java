@@ -0,0 +1,448 @@
+package com.bpmericle.assetmanager.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.amazonaws.AbortedException;
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.MultipartUpload;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.bpmericle.assetmanager.AssetManagerProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link ResilientAssetStore} class.
+ *
+ * @author Brian Mericle
+ */
+public class ResilientAssetStoreTest {
+
+    private static final String ASSET_ID = "0a1b2c3d4e5f60718293a4b5c6d7e8f9";
+    private static final String UPLOAD_ID = "upload-1";
+    private static final String URL = "https://example.com/asset";
+    private static final Date EXPIRATION = new Date();
+    private static final Optional<String> UPLOADED = Optional.of("uploaded");
+    private static final SdkClientException FAILURE = new SdkClientException("A problem has occurred!");
+
+    private final AtomicLong clock = new AtomicLong();
+    private final CountDownLatch released = new CountDownLatch(1);
+
+    private AssetStore delegate;
+    private AssetManagerProperties properties;
+    private ExecutorService hedgeExecutor;
+    private MeterRegistry meterRegistry;
+
+    @Before
+    public void setUp() {
+        delegate = mock(AssetStore.class);
+        properties = new AssetManagerProperties();
+        properties.getResilience().setRetryBackoff(Duration.ZERO);
+        properties.getResilience().setHedgeEnabled(false);
+        hedgeExecutor = Executors.newCachedThreadPool();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @After
+    public void tearDown() {
+        released.countDown();
+        hedgeExecutor.shutdownNow();
+    }
+
+    @Test
+    public void presign_passedThrough() {
+        when(delegate.presignPut(ASSET_ID, EXPIRATION)).thenReturn(URL);
+        when(delegate.presignGet(ASSET_ID, EXPIRATION)).thenReturn(URL);
+        when(delegate.presignUploadPart(ASSET_ID, UPLOAD_ID, 1, EXPIRATION)).thenReturn(URL);
+        ResilientAssetStore assetStore = newAssetStore();
+
+        assertEquals(URL, assetStore.presignPut(ASSET_ID, EXPIRATION));
+        assertEquals(URL, assetStore.presignGet(ASSET_ID, EXPIRATION));
+        assertEquals(URL, assetStore.presignUploadPart(ASSET_ID, UPLOAD_ID, 1, EXPIRATION));
+    }
+
+    @Test
+    public void calls_passedThrough() {
+        List<PartETag> parts = Collections.singletonList(new PartETag(1, "etag"));
+        List<MultipartUpload> uploads = Collections.singletonList(new MultipartUpload());
+        ObjectMetadata metadata = new ObjectMetadata();
+        List<String> ids = Collections.singletonList(ASSET_ID);
+        when(delegate.initiateMultipartUpload(ASSET_ID)).thenReturn(UPLOAD_ID);
+        when(delegate.listMultipartUploads()).thenReturn(uploads);
+        when(delegate.getStatus(ASSET_ID)).thenReturn(UPLOADED);
+        when(delegate.getMetadata(ASSET_ID)).thenReturn(Optional.of(metadata));
+        when(delegate.list(null, 10)).thenReturn(ids);
+        ResilientAssetStore assetStore = newAssetStore();
+
+        assertEquals(UPLOAD_ID, assetStore.initiateMultipartUpload(ASSET_ID));
+        assetStore.completeMultipartUpload(ASSET_ID, UPLOAD_ID, parts);
+        assetStore.abortMultipartUpload(ASSET_ID, UPLOAD_ID);
+        assertSame(uploads, assetStore.listMultipartUploads());
+        assertEquals(UPLOADED, assetStore.getStatus(ASSET_ID));
+        assertEquals(Optional.of(metadata), assetStore.getMetadata(ASSET_ID));
+        assetStore.setStatus(ASSET_ID, "uploaded");
+        assertSame(ids, assetStore.list(null, 10));
+        assetStore.delete(ASSET_ID);
+
+        verify(delegate).completeMultipartUpload(ASSET_ID, UPLOAD_ID, parts);
+        verify(delegate).abortMultipartUpload(ASSET_ID, UPLOAD_ID);
+        verify(delegate).setStatus(ASSET_ID, "uploaded");
+        verify(delegate).delete(ASSET_ID);
+        assertEquals(Arrays.asList("initiate-multipart", "complete-multipart", "abort-multipart", "list-multipart",
+                "get-tagging", "head", "set-tagging", "list", "delete"),
+                Arrays.asList(assetStore.getCircuitBreakers().keySet().toArray()));
+        assertEquals(20, meterRegistry.get(ResilientAssetStore.METRIC_RETRY_BUDGET).gauge().value(), 0);
+    }
+
+    @Test
+    public void lookup_retriedOnRetryableError() {
+        when(delegate.getMetadata(ASSET_ID)).thenThrow(FAILURE).thenReturn(Optional.empty());
+        ResilientAssetStore assetStore = newAssetStore();
+
+        assertEquals(Optional.empty(), assetStore.getMetadata(ASSET_ID));
+        verify(delegate, times(2)).getMetadata(ASSET_ID);
+        assertEquals(1, retries("head"), 0);
+        assertEquals(19, meterRegistry.get(ResilientAssetStore.METRIC_RETRY_BUDGET).gauge().value(), 0);
+    }
+
+    @Test
+    public void lookup_givesUpAfterMaxAttempts() {
+        when(delegate.list(null, 10)).thenThrow(FAILURE);
+        ResilientAssetStore assetStore = newAssetStore();
+
+        try {
+            assetStore.list(null, 10);
+            fail();
+        } catch (RuntimeException ex) {
+            assertSame(FAILURE, ex);
+        }
+        verify(delegate, times(3)).list(null, 10);
+        assertEquals(2, retries("list"), 0);
+    }
+
+    @Test
+    public void lookup_notRetriedOnceBudgetSpent() {
+        properties.getResilience().setRetryBudgetCapacity(0);
+        when(delegate.list(null, 10)).thenThrow(FAILURE);
+        ResilientAssetStore assetStore = newAssetStore();
+
+        try {
+            assetStore.list(null, 10);
+            fail();
+        } catch (RuntimeException ex) {
+            assertSame(FAILURE, ex);
+        }
+        verify(delegate).list(null, 10);
+    }
+
+    @Test
+    public void lookup_notRetriedOnOtherError() {
+        AmazonS3Exception accessDenied = new AmazonS3Exception("Access Denied");
+        accessDenied.setStatusCode(403);
+        when(delegate.getMetadata(ASSET_ID)).thenThrow(accessDenied);
+        ResilientAssetStore assetStore = newAssetStore();
+
+        try {
+            assetStore.getMetadata(ASSET_ID);
+            fail();
+        } catch (RuntimeException ex) {
+            assertSame(accessDenied, ex);
+        }
+        verify(delegate).getMetadata(ASSET_ID);
+        assertEquals(-1f, assetStore.getCircuitBreakers().get("head").getFailureRate(), 0f);
+    }
+
+    @Test
+    public void lookup_interruptedWhileBackingOff() {
+        when(delegate.getMetadata(ASSET_ID)).thenThrow(FAILURE);
+        ResilientAssetStore assetStore = newAssetStore();
+
+        Thread.currentThread().interrupt();
+        try {
+            assetStore.getMetadata(ASSET_ID);
+            fail();
+        } catch (RuntimeException ex) {
+            assertSame(FAILURE, ex);
+        }
+        assertTrue(Thread.interrupted());
+        verify(delegate).getMetadata(ASSET_ID);
+    }
+
+    @Test
+    public void write_notRetried() {
+        doThrow(FAILURE).when(delegate).setStatus(ASSET_ID, "uploaded");
+        ResilientAssetStore assetStore = newAssetStore();
+
+        try {
+            assetStore.setStatus(ASSET_ID, "uploaded");
+            fail();
+        } catch (RuntimeException ex) {
+            assertSame(FAILURE, ex);
+        }
+        verify(delegate).setStatus(ASSET_ID, "uploaded");
+    }
+
+    @Test
+    public void circuitBreaker_rejectsCallsWhileOpen() {
+        properties.getResilience().setCircuitMinimumCalls(2);
+        doThrow(FAILURE).when(delegate).delete(ASSET_ID);
+        ResilientAssetStore assetStore = newAssetStore();
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                assetStore.delete(ASSET_ID);
+                fail();
+            } catch (RuntimeException ex) {
+                assertSame(FAILURE, ex);
+            }
+        }
+        assertEquals(2, state("delete"), 0);
+        assertEquals(0, state("set-tagging"), 0);
+
+        try {
+            assetStore.delete(ASSET_ID);
+            fail();
+        } catch (CircuitBreakerOpenException ex) {
+            assertEquals("The circuit breaker of the delete operation of the asset store is open.", ex.getMessage());
+        }
+        verify(delegate, times(2)).delete(ASSET_ID);
+        assertEquals(1, meterRegistry.get(ResilientAssetStore.METRIC_CIRCUIT_REJECTED)
+                .tag("operation", "delete").counter().count(), 0);
+    }
+
+    @Test
+    public void circuitBreaker_reopensWhenTrialCallThrowsError() {
+        properties.getResilience().setCircuitMinimumCalls(1);
+        AssertionError error = new AssertionError("A problem has occurred!");
+        doThrow(FAILURE).doThrow(error).when(delegate).delete(ASSET_ID);
+        ResilientAssetStore assetStore = newAssetStore();
+
+        try {
+            assetStore.delete(ASSET_ID);
+            fail();
+        } catch (RuntimeException ex) {
+            assertSame(FAILURE, ex);
+        }
+        clock.addAndGet(properties.getResilience().getCircuitOpenDuration().toNanos());
+
+        try {
+            assetStore.delete(ASSET_ID);
+            fail();
+        } catch (AssertionError ex) {
+            assertSame(error, ex);
+        }
+        assertEquals(2, state("delete"), 0);
+    }
+
+    @Test
+    public void circuitBreaker_stopsRetriesOnceOpen() {
+        properties.getResilience().setCircuitMinimumCalls(1);
+        when(delegate.getMetadata(ASSET_ID)).thenThrow(FAILURE);
+        ResilientAssetStore assetStore = newAssetStore();
+
+        try {
+            assetStore.getMetadata(ASSET_ID);
+            fail();
+        } catch (RuntimeException ex) {
+            assertSame(FAILURE, ex);
+        }
+        verify(delegate).getMetadata(ASSET_ID);
+        assertEquals(0, meterRegistry.get(ResilientAssetStore.METRIC_CIRCUIT_REJECTED)
+                .tag("operation", "head").counter().count(), 0);
+    }
+
+    @Test
+    public void backoff_jitteredUpToMaxBackoff() {
+        properties.getResilience().setRetryBackoff(Duration.ofMillis(50));
+        ResilientAssetStore assetStore = newAssetStore();
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(assetStore.backoff(1) <= 50);
+            assertTrue(assetStore.backoff(3) <= 200);
+            long backoff = assetStore.backoff(100);
+            assertTrue(backoff >= 0 && backoff <= 1000);
+        }
+    }
+
+    @Test
+    public void getStatus_answeredBeforeHedgeDelay() {
+        enableHedging(Duration.ofSeconds(10));
+        when(delegate.getStatus(ASSET_ID)).thenReturn(UPLOADED);
+        ResilientAssetStore assetStore = newAssetStore();
+
+        assertEquals(UPLOADED, assetStore.getStatus(ASSET_ID));
+        assertEquals(UPLOADED, assetStore.getStatus(ASSET_ID));
+        verify(delegate, times(2)).getStatus(ASSET_ID);
+        assertEquals(0, hedges(), 0);
+    }
+
+    @Test
+    public void getStatus_failureBeforeHedgeDelay() {
+        enableHedging(Duration.ofSeconds(10));
+        AssertionError error = new AssertionError("A problem has occurred!");
+        when(delegate.getStatus(ASSET_ID)).thenReturn(UPLOADED).thenThrow(FAILURE).thenThrow(FAILURE)
+                .thenThrow(FAILURE).thenThrow(error);
+        ResilientAssetStore assetStore = newAssetStore();
+        assetStore.getStatus(ASSET_ID);
+
+        try {
+            assetStore.getStatus(ASSET_ID);
+            fail();
+        } catch (RuntimeException ex) {
+            assertSame(FAILURE, ex);
+        }
+        try {
+            assetStore.getStatus(ASSET_ID);
+            fail();
+        } catch (AssertionError ex) {
+            assertSame(error, ex);
+        }
+    }
+
+    @Test
+    public void getStatus_hedgedWhenSlow() {
+        enableHedging(Duration.ofMillis(1));
+        when(delegate.getStatus(ASSET_ID)).thenReturn(UPLOADED).thenAnswer(invocation -> {
+            released.await();
+            throw FAILURE;
+        }).thenReturn(Optional.empty());
+        ResilientAssetStore assetStore = newAssetStore();
+        assetStore.getStatus(ASSET_ID);
+
+        assertEquals(Optional.empty(), assetStore.getStatus(ASSET_ID));
+        released.countDown();
+        verify(delegate, times(3)).getStatus(ASSET_ID);
+        assertEquals(1, hedges(), 0);
+    }
+
+    @Test
+    public void getStatus_failsWhenHedgeFailsToo() {
+        enableHedging(Duration.ofMillis(1));
+        properties.getResilience().setRetryMaxAttempts(1);
+        when(delegate.getStatus(ASSET_ID)).thenReturn(UPLOADED).thenAnswer(invocation -> {
+            released.await();
+            throw FAILURE;
+        }).thenAnswer(invocation -> {
+            try {
+                throw FAILURE;
+            } finally {
+                released.countDown();
+            }
+        });
+        ResilientAssetStore assetStore = newAssetStore();
+        assetStore.getStatus(ASSET_ID);
+
+        try {
+            assetStore.getStatus(ASSET_ID);
+            fail();
+        } catch (RuntimeException ex) {
+            assertSame(FAILURE, ex);
+        }
+        assertEquals(1, hedges(), 0);
+    }
+
+    @Test
+    public void getStatus_notHedgedOnceBudgetSpent() {
+        enableHedging(Duration.ofMillis(1));
+        properties.getResilience().setRetryBudgetCapacity(0);
+        when(delegate.getStatus(ASSET_ID)).thenReturn(UPLOADED).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return Optional.empty();
+        });
+        ResilientAssetStore assetStore = newAssetStore();
+        assetStore.getStatus(ASSET_ID);
+
+        assertEquals(Optional.empty(), assetStore.getStatus(ASSET_ID));
+        verify(delegate, times(2)).getStatus(ASSET_ID);
+        assertEquals(0, hedges(), 0);
+    }
+
+    @Test
+    public void getStatus_notHedgedWhileHalfOpen() {
+        enableHedging(Duration.ofMillis(1));
+        properties.getResilience().setCircuitMinimumCalls(1);
+        properties.getResilience().setCircuitHalfOpenCalls(1);
+        when(delegate.getStatus(ASSET_ID)).thenReturn(UPLOADED).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return Optional.empty();
+        });
+        ResilientAssetStore assetStore = newAssetStore();
+        assetStore.getStatus(ASSET_ID);
+        assetStore.getCircuitBreakers().get("get-tagging").onFailure();
+        assertEquals(2, state("get-tagging"), 0);
+        clock.addAndGet(properties.getResilience().getCircuitOpenDuration().toNanos());
+
+        assertEquals(Optional.empty(), assetStore.getStatus(ASSET_ID));
+        verify(delegate, times(2)).getStatus(ASSET_ID);
+        assertEquals(0, hedges(), 0);
+        assertEquals(0, state("get-tagging"), 0);
+    }
+
+    @Test
+    public void getStatus_interruptedWhileWaiting() {
+        enableHedging(Duration.ofSeconds(10));
+        when(delegate.getStatus(ASSET_ID)).thenReturn(UPLOADED).thenAnswer(invocation -> {
+            released.await();
+            return UPLOADED;
+        });
+        ResilientAssetStore assetStore = newAssetStore();
+        assetStore.getStatus(ASSET_ID);
+
+        Thread.currentThread().interrupt();
+        try {
+            assetStore.getStatus(ASSET_ID);
+            fail();
+        } catch (AbortedException ex) {
+            assertTrue(Thread.interrupted());
+        }
+    }
+
+    private ResilientAssetStore newAssetStore() {
+        return new ResilientAssetStore(delegate, properties, hedgeExecutor, meterRegistry, clock::get);
+    }
+
+    /**
+     * Hedges the status lookups from the second one, once the first one is
+     * recorded.
+     */
+    private void enableHedging(final Duration minDelay) {
+        properties.getResilience().setHedgeEnabled(true);
+        properties.getResilience().setHedgeWindowSize(1);
+        properties.getResilience().setHedgeMinimumSamples(1);
+        properties.getResilience().setHedgeMinDelay(minDelay);
+    }
+
+    private double retries(final String operation) {
+        return meterRegistry.get(ResilientAssetStore.METRIC_RETRIES).tag("operation", operation).counter().count();
+    }
+
+    private double hedges() {
+        return meterRegistry.get(ResilientAssetStore.METRIC_HEDGES).counter().count();
+    }
+
+    private double state(final String operation) {
+        return meterRegistry.get(ResilientAssetStore.METRIC_CIRCUIT_STATE).tag("operation", operation).gauge().value();
+    }
+}
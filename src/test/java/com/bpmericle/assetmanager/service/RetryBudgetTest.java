@@ -0,0 +1,36 @@
+package com.bpmericle.assetmanager.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link RetryBudget} class.
+ *
+ * @author Brian Mericle
+ */
+public class RetryBudgetTest {
+
+    private final RetryBudget budget = new RetryBudget(0.5, 2);
+
+    @Test
+    public void tryWithdraw_untilBudgetSpent() {
+        assertEquals(2, budget.getBalance(), 0);
+        assertTrue(budget.tryWithdraw());
+        assertTrue(budget.tryWithdraw());
+        assertFalse(budget.tryWithdraw());
+        assertEquals(0, budget.getBalance(), 0);
+    }
+
+    @Test
+    public void deposit_refillsUpToCapacity() {
+        budget.tryWithdraw();
+        budget.deposit();
+        assertEquals(1.5, budget.getBalance(), 0);
+        budget.deposit();
+        budget.deposit();
+        assertEquals(2, budget.getBalance(), 0);
+    }
+}
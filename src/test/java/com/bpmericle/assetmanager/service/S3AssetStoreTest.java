@@ -0,0 +1,152 @@
+package com.bpmericle.assetmanager.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.ListMultipartUploadsRequest;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.MultipartUpload;
+import com.amazonaws.services.s3.model.MultipartUploadListing;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.services.s3.model.Tag;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Tests the {@link S3AssetStore} class.
+ *
+ * @author Brian Mericle
+ */
+public class S3AssetStoreTest {
+
+    private static final String BUCKET_NAME = "asset-bucket";
+    private static final String ASSET_ID = "0a1b2c3d4e5f60718293a4b5c6d7e8f9";
+    private static final String UPLOAD_ID = "f9e8d7c6b5a4938271605f4e3d2c1b0a";
+
+    private AmazonS3 s3Client;
+    private S3AssetStore store;
+
+    @Before
+    public void setUp() {
+        s3Client = mock(AmazonS3.class);
+        store = new S3AssetStore();
+        store.setS3Client(s3Client);
+        ReflectionTestUtils.setField(store, "bucketName", BUCKET_NAME);
+    }
+
+    @Test
+    public void setStatus_replacesTags() {
+        store.setStatus(ASSET_ID, "uploaded");
+
+        verify(s3Client).setObjectTagging(argThat(request -> {
+            assertEquals(BUCKET_NAME, request.getBucketName());
+            assertEquals(ASSET_ID, request.getKey());
+            assertEquals(Collections.singletonList(new Tag("Status", "uploaded")), request.getTagging().getTagSet());
+            return true;
+        }));
+    }
+
+    @Test
+    public void delete_deletesObject() {
+        store.delete(ASSET_ID);
+
+        verify(s3Client).deleteObject(BUCKET_NAME, ASSET_ID);
+    }
+
+    @Test
+    public void multipartUpload_callsS3() {
+        S3Presigner presigner = mock(S3Presigner.class);
+        ReflectionTestUtils.setField(store, "presigner", presigner);
+        InitiateMultipartUploadResult initiated = new InitiateMultipartUploadResult();
+        initiated.setUploadId(UPLOAD_ID);
+        when(s3Client.initiateMultipartUpload(any(InitiateMultipartUploadRequest.class))).thenReturn(initiated);
+        Date expiration = new Date();
+        when(presigner.presignUploadPart(ASSET_ID, UPLOAD_ID, 1, expiration)).thenReturn("https://part");
+        List<PartETag> parts = Collections.singletonList(new PartETag(1, "etag"));
+
+        assertEquals(UPLOAD_ID, store.initiateMultipartUpload(ASSET_ID));
+        assertEquals("https://part", store.presignUploadPart(ASSET_ID, UPLOAD_ID, 1, expiration));
+        store.completeMultipartUpload(ASSET_ID, UPLOAD_ID, parts);
+        store.abortMultipartUpload(ASSET_ID, UPLOAD_ID);
+
+        verify(s3Client).initiateMultipartUpload(argThat((InitiateMultipartUploadRequest request)
+                -> BUCKET_NAME.equals(request.getBucketName()) && ASSET_ID.equals(request.getKey())));
+        verify(s3Client).completeMultipartUpload(argThat(request -> BUCKET_NAME.equals(request.getBucketName())
+                && ASSET_ID.equals(request.getKey()) && UPLOAD_ID.equals(request.getUploadId())
+                && parts.equals(request.getPartETags())));
+        verify(s3Client).abortMultipartUpload(argThat(request -> BUCKET_NAME.equals(request.getBucketName())
+                && ASSET_ID.equals(request.getKey()) && UPLOAD_ID.equals(request.getUploadId())));
+    }
+
+    @Test
+    public void listMultipartUploads_followsMarkers() {
+        List<String> requests = new ArrayList<>();
+        when(s3Client.listMultipartUploads(any(ListMultipartUploadsRequest.class))).thenAnswer(invocation -> {
+            ListMultipartUploadsRequest request = invocation.getArgument(0);
+            requests.add(String.format("%s %s %s", request.getBucketName(), request.getKeyMarker(), request.getUploadIdMarker()));
+            MultipartUploadListing listing = new MultipartUploadListing();
+            MultipartUpload upload = new MultipartUpload();
+            upload.setKey(request.getKeyMarker() == null ? "a" : "b");
+            listing.setMultipartUploads(Collections.singletonList(upload));
+            listing.setTruncated(request.getKeyMarker() == null);
+            listing.setNextKeyMarker("a");
+            listing.setNextUploadIdMarker(UPLOAD_ID);
+            return listing;
+        });
+
+        List<MultipartUpload> uploads = store.listMultipartUploads();
+        assertEquals(2, uploads.size());
+        assertEquals("b", uploads.get(1).getKey());
+        assertEquals(Arrays.asList(BUCKET_NAME + " null null", BUCKET_NAME + " a " + UPLOAD_ID), requests);
+    }
+
+    @Test
+    public void list_followsContinuationToken() {
+        List<String> requests = new ArrayList<>();
+        when(s3Client.listObjectsV2(any(ListObjectsV2Request.class))).thenAnswer(invocation -> {
+            ListObjectsV2Request request = invocation.getArgument(0);
+            requests.add(String.format("%s %s %s %d", request.getBucketName(), request.getStartAfter(),
+                    request.getContinuationToken(), request.getMaxKeys()));
+            return request.getContinuationToken() == null ? result("token", "b", "c") : result(null, "d");
+        });
+
+        assertEquals(Arrays.asList("b", "c", "d"), store.list("a", 5));
+        assertEquals(Arrays.asList(BUCKET_NAME + " a null 5", BUCKET_NAME + " a token 3"), requests);
+    }
+
+    @Test
+    public void list_stopsAtLimit() {
+        when(s3Client.listObjectsV2(any(ListObjectsV2Request.class))).thenReturn(result("token", "a", "b"));
+
+        assertEquals(Arrays.asList("a", "b"), store.list(null, 2));
+        verify(s3Client, times(1)).listObjectsV2(any(ListObjectsV2Request.class));
+    }
+
+    private static ListObjectsV2Result result(final String nextContinuationToken, final String... keys) {
+        ListObjectsV2Result result = new ListObjectsV2Result();
+        for (String key : keys) {
+            S3ObjectSummary summary = new S3ObjectSummary();
+            summary.setKey(key);
+            result.getObjectSummaries().add(summary);
+        }
+        result.setNextContinuationToken(nextContinuationToken);
+        result.setTruncated(nextContinuationToken != null);
+        return result;
+    }
+}
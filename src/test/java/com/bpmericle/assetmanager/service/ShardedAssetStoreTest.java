@@ -0,0 +1,229 @@
+package com.bpmericle.assetmanager.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.model.MultipartUpload;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.bpmericle.assetmanager.AssetManagerProperties;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+
+/**
+ * Tests the {@link ShardedAssetStore} class.
+ *
+ * @author Brian Mericle
+ */
+public class ShardedAssetStoreTest {
+
+    private static final String ASSET_ID = "0a1b2c3d4e5f60718293a4b5c6d7e8f9";
+    private static final String OTHER_ASSET_ID = "f9e8d7c6b5a4938271605f4e3d2c1b0a";
+    private static final String UPLOAD_ID = "upload-1";
+    private static final String URL = "https://example.com/asset";
+    private static final Date EXPIRATION = new Date();
+
+    private AssetStore delegate;
+    private AssetKeyScheme keyScheme;
+    private String key;
+    private ShardedAssetStore assetStore;
+
+    @Before
+    public void setUp() {
+        AssetManagerProperties properties = new AssetManagerProperties();
+        properties.getAssetId().setShardPrefixLength(2);
+        delegate = mock(AssetStore.class);
+        keyScheme = new AssetKeyScheme(properties);
+        key = keyScheme.keyOf(ASSET_ID);
+        assetStore = new ShardedAssetStore(delegate, keyScheme);
+    }
+
+    @Test
+    public void presign_keyed() {
+        when(delegate.presignPut(key, EXPIRATION)).thenReturn(URL);
+        when(delegate.presignGet(key, EXPIRATION)).thenReturn(URL);
+        when(delegate.presignUploadPart(key, UPLOAD_ID, 1, EXPIRATION)).thenReturn(URL);
+
+        assertEquals(URL, assetStore.presignPut(ASSET_ID, EXPIRATION));
+        assertEquals(URL, assetStore.presignGet(ASSET_ID, EXPIRATION));
+        assertEquals(URL, assetStore.presignUploadPart(ASSET_ID, UPLOAD_ID, 1, EXPIRATION));
+    }
+
+    @Test
+    public void multipartUpload_keyed() {
+        List<PartETag> parts = Collections.singletonList(new PartETag(1, "etag"));
+        when(delegate.initiateMultipartUpload(key)).thenReturn(UPLOAD_ID);
+
+        assertEquals(UPLOAD_ID, assetStore.initiateMultipartUpload(ASSET_ID));
+        assetStore.completeMultipartUpload(ASSET_ID, UPLOAD_ID, parts);
+        assetStore.abortMultipartUpload(ASSET_ID, UPLOAD_ID);
+
+        verify(delegate).completeMultipartUpload(key, UPLOAD_ID, parts);
+        verify(delegate).abortMultipartUpload(key, UPLOAD_ID);
+    }
+
+    @Test
+    public void listMultipartUploads_mapsKeysToIdentifiers() {
+        MultipartUpload upload = new MultipartUpload();
+        upload.setKey(key);
+        upload.setUploadId(UPLOAD_ID);
+        when(delegate.listMultipartUploads()).thenReturn(Collections.singletonList(upload));
+
+        List<MultipartUpload> uploads = assetStore.listMultipartUploads();
+
+        assertEquals(1, uploads.size());
+        assertEquals(ASSET_ID, uploads.get(0).getKey());
+        assertEquals(UPLOAD_ID, uploads.get(0).getUploadId());
+    }
+
+    @Test
+    public void status_keyed() {
+        ObjectMetadata metadata = new ObjectMetadata();
+        when(delegate.getStatus(key)).thenReturn(Optional.of("uploaded"));
+        when(delegate.getMetadata(key)).thenReturn(Optional.of(metadata));
+
+        assertEquals(Optional.of("uploaded"), assetStore.getStatus(ASSET_ID));
+        assertEquals(Optional.of(metadata), assetStore.getMetadata(ASSET_ID));
+        assetStore.setStatus(ASSET_ID, "uploaded");
+        assetStore.delete(ASSET_ID);
+
+        verify(delegate).setStatus(key, "uploaded");
+        verify(delegate).delete(key);
+    }
+
+    @Test
+    public void list_mapsKeysToIdentifiers() {
+        String otherKey = keyScheme.keyOf(OTHER_ASSET_ID);
+        when(delegate.list(isNull(), eq(2))).thenReturn(Arrays.asList(key, otherKey));
+        when(delegate.list(otherKey, 2)).thenReturn(Collections.emptyList());
+
+        assertEquals(Arrays.asList(ASSET_ID, OTHER_ASSET_ID), assetStore.list(null, 2));
+        assertEquals(Collections.emptyList(), assetStore.list(OTHER_ASSET_ID, 2));
+    }
+
+    @Test
+    public void status_legacyAssetFoundUnderIdentifier() {
+        ObjectMetadata metadata = new ObjectMetadata();
+        when(delegate.getStatus(ASSET_ID)).thenReturn(Optional.of("uploaded"));
+        when(delegate.getMetadata(OTHER_ASSET_ID)).thenReturn(Optional.of(metadata));
+        when(delegate.presignGet(ASSET_ID, EXPIRATION)).thenReturn(URL);
+
+        assertEquals(Optional.of("uploaded"), assetStore.getStatus(ASSET_ID));
+        assertEquals(Optional.of(metadata), assetStore.getMetadata(OTHER_ASSET_ID));
+        assertEquals(URL, assetStore.presignGet(ASSET_ID, EXPIRATION));
+        assetStore.delete(OTHER_ASSET_ID);
+
+        verify(delegate).getStatus(key);
+        verify(delegate, never()).getMetadata(ASSET_ID);
+        verify(delegate).delete(OTHER_ASSET_ID);
+    }
+
+    @Test
+    public void status_assetMissing() {
+        assertFalse(assetStore.getStatus(ASSET_ID).isPresent());
+        assertFalse(assetStore.getMetadata(ASSET_ID).isPresent());
+
+        verify(delegate).getStatus(ASSET_ID);
+        verify(delegate).getMetadata(ASSET_ID);
+    }
+
+    @Test
+    public void setStatus_legacyAssetUpdatedUnderIdentifier() {
+        doThrow(notFound()).when(delegate).setStatus(key, "uploaded");
+        when(delegate.presignGet(ASSET_ID, EXPIRATION)).thenReturn(URL);
+
+        assetStore.setStatus(ASSET_ID, "uploaded");
+        assertEquals(URL, assetStore.presignGet(ASSET_ID, EXPIRATION));
+
+        verify(delegate).setStatus(ASSET_ID, "uploaded");
+    }
+
+    @Test
+    public void setStatus_failure() {
+        AmazonServiceException failure = new AmazonServiceException("failure");
+        failure.setStatusCode(500);
+        doThrow(failure).when(delegate).setStatus(key, "uploaded");
+
+        try {
+            assetStore.setStatus(ASSET_ID, "uploaded");
+            fail("Expected AmazonServiceException");
+        } catch (AmazonServiceException ex) {
+            assertSame(failure, ex);
+        }
+        verify(delegate, never()).setStatus(ASSET_ID, "uploaded");
+    }
+
+    @Test
+    public void presignGet_locatesLegacyAsset() {
+        when(delegate.getMetadata(ASSET_ID)).thenReturn(Optional.of(new ObjectMetadata()));
+        when(delegate.presignGet(ASSET_ID, EXPIRATION)).thenReturn(URL);
+
+        assertEquals(URL, assetStore.presignGet(ASSET_ID, EXPIRATION));
+        assertEquals(URL, assetStore.presignGet(ASSET_ID, EXPIRATION));
+
+        verify(delegate).getMetadata(key);
+        verify(delegate).getMetadata(ASSET_ID);
+    }
+
+    @Test
+    public void presignGet_locatesAssetUnderKey() {
+        when(delegate.getMetadata(key)).thenReturn(Optional.of(new ObjectMetadata()));
+        when(delegate.presignGet(key, EXPIRATION)).thenReturn(URL);
+
+        assertEquals(URL, assetStore.presignGet(ASSET_ID, EXPIRATION));
+
+        verify(delegate, never()).getMetadata(ASSET_ID);
+    }
+
+    @Test
+    public void upload_forgetsLegacyAsset() {
+        when(delegate.getStatus(ASSET_ID)).thenReturn(Optional.of("uploaded"));
+        when(delegate.getStatus(OTHER_ASSET_ID)).thenReturn(Optional.of("uploaded"));
+        assetStore.getStatus(ASSET_ID);
+        assetStore.getStatus(OTHER_ASSET_ID);
+
+        assetStore.presignPut(ASSET_ID, EXPIRATION);
+        assetStore.initiateMultipartUpload(OTHER_ASSET_ID);
+        assetStore.presignGet(ASSET_ID, EXPIRATION);
+        assetStore.presignGet(OTHER_ASSET_ID, EXPIRATION);
+
+        verify(delegate).presignGet(key, EXPIRATION);
+        verify(delegate).presignGet(keyScheme.keyOf(OTHER_ASSET_ID), EXPIRATION);
+    }
+
+    @Test
+    public void list_startsAfterLegacyAsset() {
+        String otherKey = keyScheme.keyOf(OTHER_ASSET_ID);
+        when(delegate.list(isNull(), eq(2))).thenReturn(Arrays.asList(otherKey, ASSET_ID));
+        when(delegate.list(ArgumentMatchers.anyString(), eq(2))).thenReturn(Collections.emptyList());
+
+        assertEquals(Arrays.asList(OTHER_ASSET_ID, ASSET_ID), assetStore.list(null, 2));
+        assertEquals(Collections.emptyList(), assetStore.list(ASSET_ID, 2));
+        assertEquals(Collections.emptyList(), new ShardedAssetStore(delegate, keyScheme).list(OTHER_ASSET_ID, 2));
+
+        verify(delegate).list(ASSET_ID, 2);
+        verify(delegate).list(otherKey, 2);
+    }
+
+    private static AmazonServiceException notFound() {
+        AmazonServiceException ex = new AmazonServiceException("The specified key does not exist.");
+        ex.setStatusCode(404);
+        return ex;
+    }
+}
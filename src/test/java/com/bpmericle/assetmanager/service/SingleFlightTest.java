@@ -0,0 +1,177 @@
+package com.bpmericle.assetmanager.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link SingleFlight} class.
+ *
+ * @author Brian Mericle
+ */
+public class SingleFlightTest {
+
+    private static final String KEY = "0a1b2c3d4e5f60718293a4b5c6d7e8f9";
+    private static final int WAITERS = 8;
+
+    private Counter coalesced;
+    private SingleFlight<String, String> singleFlight;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        coalesced = Counter.builder(SingleFlight.METRIC_NAME).register(new SimpleMeterRegistry());
+        singleFlight = new SingleFlight<>(coalesced);
+        executor = Executors.newFixedThreadPool(WAITERS + 1);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void load_coalescesConcurrentLoads() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        List<Future<String>> results = loadConcurrently(key -> {
+            loads.incrementAndGet();
+            await(release);
+            return "uploaded";
+        });
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("uploaded", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(WAITERS, coalesced.count(), 0);
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    public void load_sharesFailure() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("A problem has occurred!");
+
+        List<Future<String>> results = loadConcurrently(key -> {
+            await(release);
+            throw failure;
+        });
+        release.countDown();
+
+        for (Future<String> result : results) {
+            try {
+                result.get(5, TimeUnit.SECONDS);
+                fail();
+            } catch (ExecutionException ex) {
+                assertSame(failure, ex.getCause());
+            }
+        }
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    public void load_sharesError() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AssertionError failure = new AssertionError("A problem has occurred!");
+
+        List<Future<String>> results = loadConcurrently(key -> {
+            await(release);
+            throw failure;
+        });
+        release.countDown();
+
+        for (Future<String> result : results) {
+            try {
+                result.get(5, TimeUnit.SECONDS);
+                fail();
+            } catch (ExecutionException ex) {
+                assertSame(failure, ex.getCause());
+            }
+        }
+    }
+
+    @Test
+    public void load_loadsAgainOnceCompleted() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("1", singleFlight.load(KEY, key -> String.valueOf(loads.incrementAndGet())));
+        assertEquals("2", singleFlight.load(KEY, key -> String.valueOf(loads.incrementAndGet())));
+        assertEquals(0, coalesced.count(), 0);
+    }
+
+    @Test
+    public void load_joinsLoadRegisteredSinceLookup() {
+        CompletableFuture<String> registered = CompletableFuture.completedFuture("uploaded");
+        ConcurrentMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<String, CompletableFuture<String>>() {
+            @Override
+            public CompletableFuture<String> get(final Object key) {
+                // The load is registered right after the lookup missed it.
+                putIfAbsent(KEY, registered);
+                return null;
+            }
+        };
+        SingleFlight<String, String> racing = new SingleFlight<>(inFlight, coalesced);
+
+        assertEquals("uploaded", racing.load(KEY, key -> {
+            throw new AssertionError("The load in flight was not joined.");
+        }));
+        assertEquals(1, coalesced.count(), 0);
+    }
+
+    /**
+     * Starts a load, then waits for the waiters of the load to join it.
+     */
+    private List<Future<String>> loadConcurrently(final Function<String, String> loader) throws Exception {
+        List<Future<String>> results = new ArrayList<>();
+        results.add(executor.submit(() -> singleFlight.load(KEY, loader)));
+        waitUntil(() -> singleFlight.inFlight() == 1);
+        for (int i = 0; i < WAITERS; i++) {
+            results.add(executor.submit(() -> singleFlight.load(KEY, key -> {
+                throw new AssertionError("The load in flight was not joined.");
+            })));
+        }
+        waitUntil(() -> coalesced.count() == WAITERS);
+        return results;
+    }
+
+    private static void waitUntil(final BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Timed out waiting for the concurrent loads.");
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
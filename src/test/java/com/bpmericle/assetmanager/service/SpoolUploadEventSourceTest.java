@@ -0,0 +1,158 @@
+package com.bpmericle.assetmanager.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.bpmericle.assetmanager.AssetManagerProperties;
+import java.io.File;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the {@link SpoolUploadEventSource} class.
+ *
+ * @author Brian Mericle
+ */
+public class SpoolUploadEventSourceTest {
+
+    private static final String BODY = "{\"Records\":[]}";
+    private static final Duration WAIT = Duration.ofMillis(10);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private AssetManagerProperties properties;
+    private SpoolUploadEventSource source;
+
+    @Before
+    public void setUp() throws Exception {
+        properties = new AssetManagerProperties();
+        properties.getUploadEvents().setDirectory(folder.getRoot().getPath());
+        source = new SpoolUploadEventSource(properties);
+    }
+
+    @Test
+    public void receive_claimsMessages() throws Exception {
+        spool("incoming", "a");
+        spool("incoming", "b");
+        spool("incoming", ".c");
+
+        List<UploadEventMessage> messages = source.receive(1, WAIT);
+        assertEquals(1, messages.size());
+        assertEquals(BODY, messages.get(0).getBody());
+        assertTrue(Files.exists(spooled("processing", messages.get(0).getId())));
+
+        messages.addAll(source.receive(10, WAIT));
+        assertEquals(2, messages.size());
+        assertEquals(0, source.receive(10, WAIT).size());
+    }
+
+    @Test
+    public void receive_waitsForMessages() throws Exception {
+        long start = System.nanoTime();
+        assertEquals(0, source.receive(10, WAIT).size());
+        assertTrue(System.nanoTime() - start >= WAIT.toNanos());
+    }
+
+    @Test
+    public void acknowledge_deletesMessage() throws Exception {
+        spool("incoming", "a");
+        UploadEventMessage message = source.receive(10, WAIT).get(0);
+
+        source.acknowledge(message);
+        assertFalse(Files.exists(spooled("processing", "a")));
+        assertEquals(0, source.receive(10, WAIT).size());
+    }
+
+    @Test
+    public void release_makesMessageAvailableAgain() throws Exception {
+        properties.getUploadEvents().setReleaseDelay(Duration.ZERO);
+        source = new SpoolUploadEventSource(properties);
+        spool("incoming", "a");
+        UploadEventMessage message = source.receive(10, WAIT).get(0);
+
+        source.release(message);
+        assertEquals("a", source.receive(10, WAIT).get(0).getId());
+    }
+
+    @Test
+    public void release_holdsMessageBack() throws Exception {
+        spool("incoming", "a");
+        spool("incoming", "b");
+        UploadEventMessage message = source.receive(1, WAIT).get(0);
+
+        source.release(message);
+        assertTrue(Files.exists(spooled("incoming", message.getId())));
+        List<UploadEventMessage> messages = source.receive(10, WAIT);
+        assertEquals(1, messages.size());
+        assertFalse(message.getId().equals(messages.get(0).getId()));
+
+        Files.setLastModifiedTime(spooled("incoming", message.getId()), FileTime.fromMillis(System.currentTimeMillis()));
+        assertEquals(message.getId(), source.receive(10, WAIT).get(0).getId());
+    }
+
+    @Test
+    public void reject_setsMessageAside() throws Exception {
+        spool("incoming", "a");
+        UploadEventMessage message = source.receive(10, WAIT).get(0);
+
+        source.reject(message);
+        assertTrue(Files.exists(spooled("failed", "a")));
+        assertEquals(0, source.receive(10, WAIT).size());
+    }
+
+    @Test
+    public void constructor_releasesClaimedMessages() throws Exception {
+        spool("incoming", "a");
+        source.receive(10, WAIT);
+
+        assertEquals("a", new SpoolUploadEventSource(properties).receive(10, WAIT).get(0).getId());
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void constructor_directoryNotCreated() throws Exception {
+        File file = folder.newFile();
+        properties.getUploadEvents().setDirectory(file.getPath());
+        new SpoolUploadEventSource(properties);
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void receive_spoolFailure() throws Exception {
+        Files.delete(folder.getRoot().toPath().resolve("incoming"));
+        source.receive(10, WAIT);
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void acknowledge_spoolFailure() throws Exception {
+        Files.createDirectories(spooled("processing", "a").resolve("child"));
+        source.acknowledge(new UploadEventMessage("a", BODY));
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void release_messageNotClaimed() {
+        source.release(new UploadEventMessage("a", BODY));
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void reject_messageNotClaimed() {
+        source.reject(new UploadEventMessage("a", BODY));
+    }
+
+    private void spool(final String directory, final String name) throws Exception {
+        Files.write(spooled(directory, name), BODY.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Path spooled(final String directory, final String name) {
+        return folder.getRoot().toPath().resolve(directory).resolve(name);
+    }
+}
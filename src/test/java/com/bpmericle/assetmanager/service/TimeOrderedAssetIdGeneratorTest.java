@@ -0,0 +1,48 @@
+package com.bpmericle.assetmanager.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+
+/**
+ * Tests the {@link TimeOrderedAssetIdGenerator} class.
+ *
+ * @author Brian Mericle
+ */
+public class TimeOrderedAssetIdGeneratorTest {
+
+    private final AtomicLong clock = new AtomicLong(0x0123456789abL);
+    private final TimeOrderedAssetIdGenerator generator = new TimeOrderedAssetIdGenerator(clock::get);
+
+    @Test
+    public void newId_startsWithTime() {
+        String first = generator.newId();
+        String second = generator.newId();
+
+        assertTrue(first, first.matches("0123456789ab[0-9a-f]{20}"));
+        assertTrue(second, second.startsWith("0123456789ab"));
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    public void newId_orderedByTime() {
+        String first = generator.newId();
+        clock.incrementAndGet();
+        String second = generator.newId();
+
+        assertTrue(second.startsWith("0123456789ac"));
+        assertTrue(first.compareTo(second) < 0);
+    }
+
+    @Test
+    public void newId_fromCurrentTime() {
+        long before = System.currentTimeMillis();
+        String id = new TimeOrderedAssetIdGenerator().newId();
+
+        assertEquals(32, id.length());
+        assertTrue(Long.parseLong(id.substring(0, 12), 16) >= before);
+    }
+}
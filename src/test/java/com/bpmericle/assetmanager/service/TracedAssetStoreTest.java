@@ -0,0 +1,165 @@
+package com.bpmericle.assetmanager.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.s3.model.MultipartUpload;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link TracedAssetStore} class.
+ *
+ * @author Brian Mericle
+ */
+public class TracedAssetStoreTest {
+
+    private static final String ASSET_ID = "0a1b2c3d4e5f60718293a4b5c6d7e8f9";
+    private static final String UPLOAD_ID = "upload-1";
+    private static final String URL = "https://example.com/asset";
+    private static final Date EXPIRATION = new Date();
+    private static final AttributeKey<String> ASSET_ID_KEY = AttributeKey.stringKey(TracedAssetStore.ATTRIBUTE_ASSET_ID);
+
+    private AssetStore delegate;
+    private InMemorySpanExporter exporter;
+    private Tracer tracer;
+    private TracedAssetStore assetStore;
+
+    @Before
+    public void setUp() {
+        delegate = mock(AssetStore.class);
+        exporter = InMemorySpanExporter.create();
+        tracer = SdkTracerProvider.builder()
+                .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                .build()
+                .get("test");
+        assetStore = new TracedAssetStore(delegate, tracer);
+    }
+
+    @Test
+    public void presign_tracedAsInternalSpans() {
+        when(delegate.presignPut(ASSET_ID, EXPIRATION)).thenReturn(URL);
+        when(delegate.presignGet(ASSET_ID, EXPIRATION)).thenReturn(URL);
+        when(delegate.presignUploadPart(ASSET_ID, UPLOAD_ID, 1, EXPIRATION)).thenReturn(URL);
+
+        assertEquals(URL, assetStore.presignPut(ASSET_ID, EXPIRATION));
+        assertEquals(URL, assetStore.presignGet(ASSET_ID, EXPIRATION));
+        assertEquals(URL, assetStore.presignUploadPart(ASSET_ID, UPLOAD_ID, 1, EXPIRATION));
+
+        List<SpanData> spans = exporter.getFinishedSpanItems();
+        assertEquals(names("presign-put", "presign-get", "presign-upload-part"), names(spans));
+        for (SpanData span : spans) {
+            assertEquals(SpanKind.INTERNAL, span.getKind());
+            assertEquals(ASSET_ID, span.getAttributes().get(ASSET_ID_KEY));
+        }
+    }
+
+    @Test
+    public void calls_tracedAsClientSpans() {
+        List<PartETag> parts = Collections.singletonList(new PartETag(1, "etag"));
+        List<MultipartUpload> uploads = Collections.singletonList(new MultipartUpload());
+        ObjectMetadata metadata = new ObjectMetadata();
+        List<String> ids = Collections.singletonList(ASSET_ID);
+        when(delegate.initiateMultipartUpload(ASSET_ID)).thenReturn(UPLOAD_ID);
+        when(delegate.listMultipartUploads()).thenReturn(uploads);
+        when(delegate.getStatus(ASSET_ID)).thenReturn(Optional.of("uploaded"));
+        when(delegate.getMetadata(ASSET_ID)).thenReturn(Optional.of(metadata));
+        when(delegate.list(null, 10)).thenReturn(ids);
+
+        assertEquals(UPLOAD_ID, assetStore.initiateMultipartUpload(ASSET_ID));
+        assetStore.completeMultipartUpload(ASSET_ID, UPLOAD_ID, parts);
+        assetStore.abortMultipartUpload(ASSET_ID, UPLOAD_ID);
+        assertSame(uploads, assetStore.listMultipartUploads());
+        assertEquals(Optional.of("uploaded"), assetStore.getStatus(ASSET_ID));
+        assertEquals(Optional.of(metadata), assetStore.getMetadata(ASSET_ID));
+        assetStore.setStatus(ASSET_ID, "uploaded");
+        assertSame(ids, assetStore.list(null, 10));
+        assetStore.delete(ASSET_ID);
+
+        verify(delegate).completeMultipartUpload(ASSET_ID, UPLOAD_ID, parts);
+        verify(delegate).abortMultipartUpload(ASSET_ID, UPLOAD_ID);
+        verify(delegate).setStatus(ASSET_ID, "uploaded");
+        verify(delegate).delete(ASSET_ID);
+
+        List<SpanData> spans = exporter.getFinishedSpanItems();
+        assertEquals(names("initiate-multipart", "complete-multipart", "abort-multipart", "list-multipart",
+                "get-tagging", "head", "set-tagging", "list", "delete"), names(spans));
+        for (SpanData span : spans) {
+            assertEquals(SpanKind.CLIENT, span.getKind());
+        }
+        assertNull(spans.get(3).getAttributes().get(ASSET_ID_KEY));
+        assertEquals(ASSET_ID, spans.get(4).getAttributes().get(ASSET_ID_KEY));
+    }
+
+    @Test
+    public void call_nestedInCurrentSpan() {
+        Span parent = tracer.spanBuilder("request").startSpan();
+        try (Scope scope = parent.makeCurrent()) {
+            assetStore.getStatus(ASSET_ID);
+        } finally {
+            parent.end();
+        }
+
+        SpanData span = exporter.getFinishedSpanItems().get(0);
+        assertEquals(parent.getSpanContext().getTraceId(), span.getTraceId());
+        assertEquals(parent.getSpanContext().getSpanId(), span.getParentSpanId());
+    }
+
+    @Test
+    public void call_failureRecorded() {
+        SdkClientException failure = new SdkClientException("A problem has occurred!");
+        doThrow(failure).when(delegate).setStatus(ASSET_ID, "uploaded");
+
+        try {
+            assetStore.setStatus(ASSET_ID, "uploaded");
+            fail();
+        } catch (RuntimeException ex) {
+            assertSame(failure, ex);
+        }
+
+        SpanData span = exporter.getFinishedSpanItems().get(0);
+        assertEquals(StatusCode.ERROR, span.getStatus().getStatusCode());
+        assertEquals("SdkClientException", span.getStatus().getDescription());
+        assertEquals(1, span.getEvents().size());
+    }
+
+    private static List<String> names(final String... operations) {
+        List<String> names = new ArrayList<>();
+        for (String operation : operations) {
+            names.add(TracedAssetStore.SPAN_PREFIX + operation);
+        }
+        return names;
+    }
+
+    private static List<String> names(final List<SpanData> spans) {
+        List<String> names = new ArrayList<>();
+        for (SpanData span : spans) {
+            names.add(span.getName());
+        }
+        return names;
+    }
+}
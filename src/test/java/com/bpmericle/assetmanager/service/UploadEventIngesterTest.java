@@ -0,0 +1,322 @@
+package com.bpmericle.assetmanager.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.bpmericle.assetmanager.AssetManagerProperties;
+import com.bpmericle.assetmanager.model.AssetStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.support.ExecutorServiceAdapter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Tests the {@link UploadEventIngester} class.
+ *
+ * @author Brian Mericle
+ */
+public class UploadEventIngesterTest {
+
+    private static final String BUCKET_NAME = "asset-bucket";
+    private static final String ASSET_ID = "0a1b2c3d4e5f60718293a4b5c6d7e8f9";
+    private static final String OTHER_ASSET_ID = "f9e8d7c6b5a4938271605f4e3d2c1b0a";
+    private static final AssetStatus STATUS_UPLOADED = new AssetStatus("uploaded");
+
+    private AssetManagerProperties properties;
+    private AssetManagerService service;
+    private UploadEventSource source;
+    private MeterRegistry meterRegistry;
+    private UploadEventIngester ingester;
+
+    @Before
+    public void setUp() {
+        properties = new AssetManagerProperties();
+        properties.getUploadEvents().setMaxAttempts(2);
+        properties.getUploadEvents().setRetryBackoff(Duration.ofMillis(1));
+        properties.getUploadEvents().setPollInterval(Duration.ofMillis(1));
+        service = mock(AssetManagerService.class);
+        source = mock(UploadEventSource.class);
+        meterRegistry = new SimpleMeterRegistry();
+        ingester = new UploadEventIngester(properties, service, new AssetKeyScheme(properties), source,
+                new ExecutorServiceAdapter(new SyncTaskExecutor()), meterRegistry);
+        ReflectionTestUtils.setField(ingester, "bucketName", BUCKET_NAME);
+    }
+
+    @Test
+    public void ingestBatch_setsStatusOfCreatedAssets() throws Exception {
+        UploadEventMessage message = message("a",
+                record("ObjectCreated:Put", BUCKET_NAME, ASSET_ID),
+                record("ObjectCreated:CompleteMultipartUpload", BUCKET_NAME, "asset+with%2Bplus"),
+                record("ObjectRemoved:Delete", BUCKET_NAME, "removed"),
+                record("ObjectCreated:Put", "other-bucket", "other"));
+        UploadEventMessage duplicate = message("b", record("ObjectCreated:Post", BUCKET_NAME, ASSET_ID));
+        UploadEventMessage test = new UploadEventMessage("c", "{\"Service\":\"Amazon S3\",\"Event\":\"s3:TestEvent\"}");
+        when(source.receive(anyInt(), any(Duration.class))).thenReturn(Arrays.asList(message, duplicate, test));
+
+        assertEquals(2, ingester.ingestBatch());
+        verify(service, times(1)).submitAssetUpdateStatus(ASSET_ID, STATUS_UPLOADED);
+        verify(service, times(1)).submitAssetUpdateStatus("asset with+plus", STATUS_UPLOADED);
+        verify(source).acknowledge(message);
+        verify(source).acknowledge(duplicate);
+        verify(source).acknowledge(test);
+        assertEquals(3.0, meterRegistry.get("asset.upload.events.messages").tag("outcome", "acknowledged").counter().count(), 0);
+        assertEquals(2.0, meterRegistry.get("asset.upload.events.assets").counter().count(), 0);
+    }
+
+    @Test
+    public void ingestBatch_takesAllBucketsWithoutBucketName() throws Exception {
+        ReflectionTestUtils.setField(ingester, "bucketName", null);
+        when(source.receive(anyInt(), any(Duration.class))).thenReturn(Collections.singletonList(
+                message("a", record("ObjectCreated:Put", "other-bucket", ASSET_ID))));
+
+        assertEquals(1, ingester.ingestBatch());
+        verify(service).submitAssetUpdateStatus(ASSET_ID, STATUS_UPLOADED);
+    }
+
+    @Test
+    public void ingestBatch_mapsShardedKeysToIdentifiers() throws Exception {
+        properties.getAssetId().setShardPrefixLength(2);
+        AssetKeyScheme keyScheme = new AssetKeyScheme(properties);
+        ingester = new UploadEventIngester(properties, service, keyScheme, source,
+                new ExecutorServiceAdapter(new SyncTaskExecutor()), meterRegistry);
+        when(source.receive(anyInt(), any(Duration.class))).thenReturn(Collections.singletonList(
+                message("a", record("ObjectCreated:Put", BUCKET_NAME, keyScheme.keyOf(ASSET_ID)))));
+
+        assertEquals(1, ingester.ingestBatch());
+        verify(service).submitAssetUpdateStatus(ASSET_ID, STATUS_UPLOADED);
+    }
+
+    @Test
+    public void ingestBatch_rejectsUnparsableMessage() throws Exception {
+        UploadEventMessage message = new UploadEventMessage("a", "not a notification");
+        when(source.receive(anyInt(), any(Duration.class))).thenReturn(Collections.singletonList(message));
+
+        assertEquals(0, ingester.ingestBatch());
+        verify(source).reject(message);
+        assertEquals(1.0, meterRegistry.get("asset.upload.events.messages").tag("outcome", "rejected").counter().count(), 0);
+    }
+
+    @Test
+    public void ingestBatch_acknowledgesDeletedAsset() throws Exception {
+        UploadEventMessage message = message("a", record("ObjectCreated:Put", BUCKET_NAME, ASSET_ID));
+        when(source.receive(anyInt(), any(Duration.class))).thenReturn(Collections.singletonList(message));
+        doThrow(serviceException(404, null)).when(service).submitAssetUpdateStatus(ASSET_ID, STATUS_UPLOADED);
+
+        ingester.ingestBatch();
+        verify(source).acknowledge(message);
+    }
+
+    @Test
+    public void ingestBatch_acknowledgesAssetMissingFromIndexedStore() throws Exception {
+        UploadEventMessage message = message("a", record("ObjectCreated:Put", BUCKET_NAME, ASSET_ID));
+        when(source.receive(anyInt(), any(Duration.class))).thenReturn(Collections.singletonList(message));
+        doThrow(new AssetNotFoundException()).when(service).submitAssetUpdateStatus(ASSET_ID, STATUS_UPLOADED);
+
+        ingester.ingestBatch();
+        verify(source).acknowledge(message);
+    }
+
+    @Test
+    public void ingestBatch_releasesMessageAfterMaxAttempts() throws Exception {
+        UploadEventMessage message = message("a",
+                record("ObjectCreated:Put", BUCKET_NAME, ASSET_ID),
+                record("ObjectCreated:Put", BUCKET_NAME, OTHER_ASSET_ID));
+        when(source.receive(anyInt(), any(Duration.class))).thenReturn(Collections.singletonList(message));
+        doThrow(serviceException(503, null)).when(service).submitAssetUpdateStatus(OTHER_ASSET_ID, STATUS_UPLOADED);
+
+        ingester.ingestBatch();
+        verify(service, times(2)).submitAssetUpdateStatus(OTHER_ASSET_ID, STATUS_UPLOADED);
+        verify(source).release(message);
+        assertEquals(1.0, meterRegistry.get("asset.upload.events.messages").tag("outcome", "released").counter().count(), 0);
+    }
+
+    @Test
+    public void ingestBatch_retriesRetryableError() throws Exception {
+        UploadEventMessage message = message("a", record("ObjectCreated:Put", BUCKET_NAME, ASSET_ID));
+        when(source.receive(anyInt(), any(Duration.class))).thenReturn(Collections.singletonList(message));
+        doThrow(new AssetManagerServiceException("A problem has occurred!", new SdkClientException("A problem has occurred!")))
+                .doNothing()
+                .when(service).submitAssetUpdateStatus(ASSET_ID, STATUS_UPLOADED);
+
+        ingester.ingestBatch();
+        verify(service, times(2)).submitAssetUpdateStatus(ASSET_ID, STATUS_UPLOADED);
+        verify(source).acknowledge(message);
+    }
+
+    @Test
+    public void ingestBatch_releasesMessageWhileStoreUnavailable() throws Exception {
+        UploadEventMessage message = message("a", record("ObjectCreated:Put", BUCKET_NAME, ASSET_ID));
+        when(source.receive(anyInt(), any(Duration.class))).thenReturn(Collections.singletonList(message));
+        doThrow(new AssetManagerServiceException("A problem has occurred!", new CircuitBreakerOpenException("set-tagging")))
+                .when(service).submitAssetUpdateStatus(ASSET_ID, STATUS_UPLOADED);
+
+        ingester.ingestBatch();
+        verify(service, times(1)).submitAssetUpdateStatus(ASSET_ID, STATUS_UPLOADED);
+        verify(source).release(message);
+        verify(source, never()).reject(message);
+    }
+
+    @Test
+    public void ingestBatch_rejectsMessageOnNonRetryableError() throws Exception {
+        UploadEventMessage message = message("a",
+                record("ObjectCreated:Put", BUCKET_NAME, ASSET_ID),
+                record("ObjectCreated:Put", BUCKET_NAME, OTHER_ASSET_ID));
+        when(source.receive(anyInt(), any(Duration.class))).thenReturn(Collections.singletonList(message));
+        doThrow(serviceException(403, "AccessDenied")).when(service).submitAssetUpdateStatus(ASSET_ID, STATUS_UPLOADED);
+
+        ingester.ingestBatch();
+        verify(service, times(1)).submitAssetUpdateStatus(ASSET_ID, STATUS_UPLOADED);
+        verify(source).reject(message);
+    }
+
+    @Test
+    public void ingestBatch_rejectsMessageOnInvalidAsset() throws Exception {
+        UploadEventMessage message = message("a", record("ObjectCreated:Put", BUCKET_NAME, ASSET_ID));
+        when(source.receive(anyInt(), any(Duration.class))).thenReturn(Collections.singletonList(message));
+        doThrow(new IllegalArgumentException("The key parameter must be specified"))
+                .when(service).submitAssetUpdateStatus(ASSET_ID, STATUS_UPLOADED);
+
+        ingester.ingestBatch();
+        verify(source).reject(message);
+    }
+
+    @Test
+    public void ingestBatch_interruptedWhileBackingOff() throws Exception {
+        UploadEventMessage message = message("a", record("ObjectCreated:Put", BUCKET_NAME, ASSET_ID));
+        when(source.receive(anyInt(), any(Duration.class))).thenReturn(Collections.singletonList(message));
+        doThrow(serviceException(503, null)).when(service).submitAssetUpdateStatus(ASSET_ID, STATUS_UPLOADED);
+
+        Thread.currentThread().interrupt();
+        try {
+            ingester.ingestBatch();
+            assertTrue(Thread.interrupted());
+        } finally {
+            Thread.interrupted();
+        }
+        verify(service, times(1)).submitAssetUpdateStatus(ASSET_ID, STATUS_UPLOADED);
+        verify(source).release(message);
+    }
+
+    @Test
+    public void ingestBatch_backsOffWhileAllMessagesReleased() throws Exception {
+        properties.getUploadEvents().setPollInterval(Duration.ofMillis(10));
+        properties.getUploadEvents().setReleaseDelay(Duration.ofMillis(30));
+        UploadEventMessage message = message("a", record("ObjectCreated:Put", BUCKET_NAME, ASSET_ID));
+        UploadEventMessage other = message("b", record("ObjectCreated:Put", BUCKET_NAME, OTHER_ASSET_ID));
+        when(source.receive(anyInt(), any(Duration.class)))
+                .thenReturn(Collections.singletonList(message))
+                .thenReturn(Collections.singletonList(message))
+                .thenReturn(Collections.singletonList(message))
+                .thenReturn(Arrays.asList(message, other))
+                .thenReturn(Collections.emptyList());
+        doThrow(serviceException(503, null)).when(service).submitAssetUpdateStatus(ASSET_ID, STATUS_UPLOADED);
+
+        assertEquals(0, ingester.stallBackoff());
+        ingester.ingestBatch();
+        assertEquals(10, ingester.stallBackoff());
+        ingester.ingestBatch();
+        assertEquals(20, ingester.stallBackoff());
+        ingester.ingestBatch();
+        assertEquals(30, ingester.stallBackoff());
+        ingester.ingestBatch();
+        assertEquals(0, ingester.stallBackoff());
+        ingester.ingestBatch();
+        assertEquals(0, ingester.stallBackoff());
+    }
+
+    @Test
+    public void run_backsOffWhileAllMessagesReleased() throws Exception {
+        UploadEventMessage message = message("a", record("ObjectCreated:Put", BUCKET_NAME, ASSET_ID));
+        when(source.receive(anyInt(), any(Duration.class)))
+                .thenReturn(Collections.singletonList(message))
+                .thenAnswer(invocation -> {
+                    Thread.currentThread().interrupt();
+                    return Collections.emptyList();
+                });
+        doThrow(serviceException(503, null)).when(service).submitAssetUpdateStatus(ASSET_ID, STATUS_UPLOADED);
+
+        try {
+            ingester.run();
+            assertTrue(Thread.interrupted());
+        } finally {
+            Thread.interrupted();
+        }
+        verify(source).release(message);
+        verify(source, times(2)).receive(anyInt(), any(Duration.class));
+    }
+
+    @Test
+    public void run_stopsWhenInterrupted() throws Exception {
+        when(source.receive(anyInt(), any(Duration.class)))
+                .thenThrow(new IllegalStateException("A problem has occurred!"))
+                .thenAnswer(invocation -> {
+                    Thread.currentThread().interrupt();
+                    return Collections.emptyList();
+                });
+
+        try {
+            ingester.run();
+            assertTrue(Thread.interrupted());
+        } finally {
+            Thread.interrupted();
+        }
+        verify(source, times(2)).receive(anyInt(), any(Duration.class));
+    }
+
+    @Test
+    public void run_stopsWhenInterruptedWhileReceiving() throws Exception {
+        when(source.receive(anyInt(), any(Duration.class))).thenThrow(new InterruptedException());
+
+        ingester.run();
+        verify(source, times(1)).receive(anyInt(), any(Duration.class));
+    }
+
+    @Test
+    public void start_receivesUntilStopped() throws Exception {
+        when(source.receive(anyInt(), any(Duration.class))).thenAnswer(invocation -> {
+            Thread.sleep(((Duration) invocation.getArgument(1)).toMillis());
+            return Collections.emptyList();
+        });
+
+        ingester.start();
+        verify(source, timeout(1000).atLeastOnce()).receive(eq(10), any(Duration.class));
+        ingester.stop();
+        verify(service, never()).submitAssetUpdateStatus(anyString(), any(AssetStatus.class));
+    }
+
+    private static AssetManagerServiceException serviceException(final int statusCode, final String errorCode) {
+        AmazonS3Exception cause = new AmazonS3Exception("A problem has occurred!");
+        cause.setStatusCode(statusCode);
+        cause.setErrorCode(errorCode);
+        return new AssetManagerServiceException("A problem has occurred!", cause);
+    }
+
+    private static UploadEventMessage message(final String id, final String... records) {
+        return new UploadEventMessage(id, String.format("{\"Records\":[%s]}", String.join(",", records)));
+    }
+
+    private static String record(final String eventName, final String bucket, final String key) {
+        return String.format("{\"eventVersion\":\"2.0\",\"eventSource\":\"aws:s3\",\"eventTime\":\"2018-05-24T12:00:00.000Z\","
+                + "\"eventName\":\"%s\",\"s3\":{\"bucket\":{\"name\":\"%s\"},\"object\":{\"key\":\"%s\",\"size\":1}}}",
+                eventName, bucket, key);
+    }
+}